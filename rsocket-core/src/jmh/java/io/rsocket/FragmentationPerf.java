@@ -1,8 +1,13 @@
 package io.rsocket;
 
+import io.netty.buffer.AbstractByteBufAllocator;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.rsocket.fragmentation.FrameFragmenter;
 import io.rsocket.fragmentation.FrameReassembler;
 import io.rsocket.util.PayloadImpl;
+import org.openjdk.jmh.annotations.AuxCounters;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -27,6 +32,7 @@ public class FragmentationPerf {
     @State(Scope.Benchmark)
     public static class Input {
         Blackhole bh;
+        CountingAllocator allocator;
         Frame smallFrame;
         FrameFragmenter smallFrameFragmenter;
 
@@ -38,19 +44,20 @@ public class FragmentationPerf {
         @Setup
         public void setup(Blackhole bh) {
             this.bh = bh;
+            this.allocator = new CountingAllocator(PooledByteBufAllocator.DEFAULT);
 
             ByteBuffer data = createRandomBytes(1 << 18);
             ByteBuffer metadata = createRandomBytes(1 << 18);
             largeFrame = Frame.Request.from(1, FrameType.REQUEST_RESPONSE, new PayloadImpl(data, metadata), 1);
-            largeFrameFragmenter = new FrameFragmenter(1024);
+            largeFrameFragmenter = new FrameFragmenter(allocator, 1024);
 
 
             data = createRandomBytes(16);
             metadata = createRandomBytes(16);
             smallFrame = Frame.Request.from(1, FrameType.REQUEST_RESPONSE, new PayloadImpl(data, metadata), 1);
-            smallFrameFragmenter = new FrameFragmenter(2);
+            smallFrameFragmenter = new FrameFragmenter(allocator, 2);
             smallFramesIterable = smallFrameFragmenter
-                .fragment(smallFrame)
+                .fragment(smallFrame.retain())
                 .map(frame -> frame.copy())
                 .toStream()
                 .collect(Collectors.toList());
@@ -58,17 +65,36 @@ public class FragmentationPerf {
 
     }
 
+    /**
+     * Bytes of buffers allocated by the fragmenter for every MB of metadata and data it fragments.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Allocations {
+        public long allocatedBytes;
+        public long fragmentedBytes;
+
+        void fragment(FrameFragmenter fragmenter, CountingAllocator allocator, Frame frame, Blackhole bh) {
+            final long allocated = allocator.allocatedBytes;
+            bh.consume(fragmenter.fragment(frame.retain()).doOnNext(Frame::release).blockLast());
+            allocatedBytes += allocator.allocatedBytes - allocated;
+            fragmentedBytes += frame.metadataLength() + frame.dataLength();
+        }
+
+        public long allocatedBytesPerFragmentedMB() {
+            return fragmentedBytes == 0 ? 0 : allocatedBytes * (1 << 20) / fragmentedBytes;
+        }
+    }
+
     @Benchmark
-    public void smallFragmentationPerf(Input input) {
-        Frame frame = input.smallFrameFragmenter.fragment(input.smallFrame).doOnNext(Frame::release).blockLast();
-        input.bh.consume(frame);
+    public void smallFragmentationPerf(Input input, Allocations allocations) {
+        allocations.fragment(input.smallFrameFragmenter, input.allocator, input.smallFrame, input.bh);
     }
 
 
     @Benchmark
-    public void largeFragmentationPerf(Input input) {
-        Frame frame = input.largeFrameFragmenter.fragment(input.largeFrame).doOnNext(Frame::release).blockLast();
-        input.bh.consume(frame);
+    public void largeFragmentationPerf(Input input, Allocations allocations) {
+        allocations.fragment(input.largeFrameFragmenter, input.allocator, input.largeFrame, input.bh);
     }
 
     @Benchmark
@@ -85,6 +111,33 @@ public class FragmentationPerf {
         //input.smallFragmentAssembler.clear();
     }
 
+    private static final class CountingAllocator extends AbstractByteBufAllocator {
+        private final ByteBufAllocator delegate;
+        long allocatedBytes;
+
+        private CountingAllocator(ByteBufAllocator delegate) {
+            super(delegate.isDirectBufferPooled());
+            this.delegate = delegate;
+        }
+
+        @Override
+        protected ByteBuf newHeapBuffer(int initialCapacity, int maxCapacity) {
+            allocatedBytes += initialCapacity;
+            return delegate.heapBuffer(initialCapacity, maxCapacity);
+        }
+
+        @Override
+        protected ByteBuf newDirectBuffer(int initialCapacity, int maxCapacity) {
+            allocatedBytes += initialCapacity;
+            return delegate.directBuffer(initialCapacity, maxCapacity);
+        }
+
+        @Override
+        public boolean isDirectBufferPooled() {
+            return delegate.isDirectBufferPooled();
+        }
+    }
+
     private static ByteBuffer createRandomBytes(int size) {
         byte[] bytes = new byte[size];
         ThreadLocalRandom.current().nextBytes(bytes);
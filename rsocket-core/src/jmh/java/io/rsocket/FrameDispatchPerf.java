@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket;
+
+import io.netty.buffer.ByteBuf;
+import io.rsocket.frame.FrameHeaderFlyweight;
+import io.rsocket.util.PayloadImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the per frame cost of the header reads done on the inbound path (multiplexer, fragmentation and the
+ * requester/responder), once by re-parsing the buffer at every step as before and once through a {@link Frame} that
+ * decodes its header a single time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@State(Scope.Thread)
+public class FrameDispatchPerf {
+    private static final int FRAME_COUNT = 1024;
+
+    @State(Scope.Thread)
+    public static class Input {
+        ByteBuf[] frames;
+
+        @Setup
+        public void setup() {
+            frames = new ByteBuf[FRAME_COUNT];
+            for (int i = 0; i < FRAME_COUNT; i++) {
+                final Frame frame;
+                switch (i % 4) {
+                    case 0:
+                        frame = Frame.PayloadFrame.from(i + 1, FrameType.NEXT, new PayloadImpl("data", "metadata"));
+                        break;
+                    case 1:
+                        frame = Frame.Request.from(i + 1, FrameType.REQUEST_STREAM, new PayloadImpl("data"), 16);
+                        break;
+                    case 2:
+                        frame = Frame.RequestN.from(i + 1, 32);
+                        break;
+                    default:
+                        frame = Frame.PayloadFrame.from(i + 1, FrameType.NEXT_COMPLETE, new PayloadImpl("data"));
+                        break;
+                }
+                frames[i] = frame.content().retain();
+                frame.release();
+            }
+        }
+
+        @TearDown
+        public void teardown() {
+            for (ByteBuf frame : frames) {
+                frame.release();
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAME_COUNT)
+    public void flyweightDispatch(Input input, Blackhole bh) {
+        for (ByteBuf content : input.frames) {
+            // ClientServerInputMultiplexer
+            bh.consume(FrameHeaderFlyweight.streamId(content));
+            bh.consume(FrameHeaderFlyweight.frameType(content));
+            // FragmentationDuplexConnection
+            bh.consume(FrameHeaderFlyweight.flags(content));
+            bh.consume(FrameHeaderFlyweight.streamId(content));
+            // RSocketClient / RSocketServer
+            bh.consume(FrameHeaderFlyweight.frameType(content));
+            bh.consume(FrameHeaderFlyweight.streamId(content));
+            bh.consume(FrameHeaderFlyweight.sliceFrameMetadata(content));
+            bh.consume(FrameHeaderFlyweight.sliceFrameData(content));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAME_COUNT)
+    public void frameDispatch(Input input, Blackhole bh) {
+        for (ByteBuf content : input.frames) {
+            final Frame frame = Frame.from(content.retain());
+            // ClientServerInputMultiplexer
+            bh.consume(frame.getStreamId());
+            bh.consume(frame.getType());
+            // FragmentationDuplexConnection
+            bh.consume(frame.flags());
+            bh.consume(frame.getStreamId());
+            // RSocketClient / RSocketServer
+            bh.consume(frame.getType());
+            bh.consume(frame.getStreamId());
+            bh.consume(frame.sliceMetadata());
+            bh.consume(frame.sliceData());
+            frame.release();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket;
+
+import io.rsocket.internal.ClientServerInputMultiplexer;
+import io.rsocket.perfutil.TestDuplexConnection;
+import io.rsocket.util.PayloadImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.DirectProcessor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.MonoProcessor;
+
+/**
+ * Measures the per frame cost of splitting the inbound frames of a connection between the requester and the
+ * responder, once through the {@code groupBy} based demultiplexing used before and once through
+ * {@link ClientServerInputMultiplexer}, which hands each frame directly to the subscriber of its connection.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@State(Scope.Thread)
+public class InputMultiplexerPerf {
+    private static final int FRAME_COUNT = 1024;
+
+    private Frame[] frames;
+    private DirectProcessor<Frame> direct;
+    private DirectProcessor<Frame> grouped;
+
+    @Setup
+    public void setup(Blackhole bh) {
+        frames = new Frame[FRAME_COUNT];
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            // alternate between requester (even) and responder (odd) streams
+            frames[i] = Frame.PayloadFrame.from(i + 1, FrameType.NEXT, new PayloadImpl("data"));
+        }
+
+        direct = DirectProcessor.create();
+        ClientServerInputMultiplexer multiplexer =
+            new ClientServerInputMultiplexer(new TestDuplexConnection(DirectProcessor.create(), direct));
+        multiplexer.asClientConnection().receive().subscribe(bh::consume);
+        multiplexer.asServerConnection().receive().subscribe(bh::consume);
+        multiplexer.asStreamZeroConnection().receive().subscribe(bh::consume);
+
+        grouped = DirectProcessor.create();
+        MonoProcessor<Flux<Frame>> client = MonoProcessor.create();
+        MonoProcessor<Flux<Frame>> server = MonoProcessor.create();
+        grouped
+            .groupBy(frame -> (frame.getStreamId() & 0b1) == 0)
+            .subscribe(group -> (group.key() ? server : client).onNext(group));
+        client.flatMapMany(f -> f).subscribe(bh::consume);
+        server.flatMapMany(f -> f).subscribe(bh::consume);
+    }
+
+    @TearDown
+    public void teardown() {
+        for (Frame frame : frames) {
+            frame.release();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAME_COUNT)
+    public void directDispatch() {
+        for (Frame frame : frames) {
+            direct.onNext(frame);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAME_COUNT)
+    public void groupByDispatch() {
+        for (Frame frame : frames) {
+            grouped.onNext(frame);
+        }
+    }
+}
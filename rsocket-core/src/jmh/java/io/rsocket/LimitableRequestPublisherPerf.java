@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket;
+
+import io.rsocket.internal.LimitableRequestPublisher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Measures the demand handling of {@link LimitableRequestPublisher} with the transport thread raising the limit for
+ * every REQUEST_N it receives while the application thread requests more from the stream at the same time. The source
+ * only counts the demand it receives, so the benchmark is dominated by the coordination of both threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@State(Scope.Group)
+public class LimitableRequestPublisherPerf {
+    private LimitableRequestPublisher<Object> publisher;
+    private Subscription subscription;
+    private volatile long sourceRequested;
+
+    @Setup
+    public void setup() {
+        publisher = LimitableRequestPublisher.wrap(s -> s.onSubscribe(new Subscription() {
+            @Override
+            public void request(long n) {
+                sourceRequested += n;
+            }
+
+            @Override
+            public void cancel() {
+            }
+        }));
+        publisher.subscribe(new Subscriber<Object>() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                subscription = s;
+            }
+
+            @Override
+            public void onNext(Object o) {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+    }
+
+    @TearDown
+    public void teardown() {
+        publisher.cancel();
+    }
+
+    @Benchmark
+    @Group("demand")
+    @GroupThreads(1)
+    public void transportRequestN() {
+        publisher.increaseRequestLimit(1);
+    }
+
+    @Benchmark
+    @Group("demand")
+    @GroupThreads(1)
+    public void applicationRequest() {
+        subscription.request(1);
+    }
+}
@@ -155,7 +155,9 @@ public class RSocketPerf {
 
                     return Mono.just(closeable);
                 }
-            });
+            })
+            .start()
+            .block();
 
 
         Subscriber blackHoleSubscriber;
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket;
+
+import io.netty.util.collection.IntObjectHashMap;
+import io.rsocket.internal.ConcurrentIntObjectHashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the stream table access of a connection shared by several requesting threads: a stream is registered, a
+ * few inbound frames look it up and it is removed once done. Runs against the {@code synchronized}
+ * {@link IntObjectHashMap} used before and against {@link ConcurrentIntObjectHashMap}, with 1, 4 and 16 threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@State(Scope.Benchmark)
+public class StreamRegistryPerf {
+    private static final int LOOKUPS_PER_STREAM = 4;
+
+    private final IntObjectHashMap<Object> locked = new IntObjectHashMap<>(256, 0.9f);
+    private final ConcurrentIntObjectHashMap<Object> concurrent = new ConcurrentIntObjectHashMap<>(256);
+    private final Object stream = new Object();
+
+    @State(Scope.Thread)
+    public static class StreamIds {
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        // each thread owns a disjoint range of odd ids like a requester would hand out
+        private final int base = THREADS.getAndIncrement() << 20;
+        private int next;
+
+        int nextStreamId() {
+            next = (next + 2) & 0xFFFFF;
+            return base | next | 1;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(LOOKUPS_PER_STREAM)
+    public void synchronizedMap1Thread(StreamIds ids, Blackhole bh) {
+        synchronizedMap(ids, bh);
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(LOOKUPS_PER_STREAM)
+    public void synchronizedMap4Threads(StreamIds ids, Blackhole bh) {
+        synchronizedMap(ids, bh);
+    }
+
+    @Benchmark
+    @Threads(16)
+    @OperationsPerInvocation(LOOKUPS_PER_STREAM)
+    public void synchronizedMap16Threads(StreamIds ids, Blackhole bh) {
+        synchronizedMap(ids, bh);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(LOOKUPS_PER_STREAM)
+    public void concurrentMap1Thread(StreamIds ids, Blackhole bh) {
+        concurrentMap(ids, bh);
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(LOOKUPS_PER_STREAM)
+    public void concurrentMap4Threads(StreamIds ids, Blackhole bh) {
+        concurrentMap(ids, bh);
+    }
+
+    @Benchmark
+    @Threads(16)
+    @OperationsPerInvocation(LOOKUPS_PER_STREAM)
+    public void concurrentMap16Threads(StreamIds ids, Blackhole bh) {
+        concurrentMap(ids, bh);
+    }
+
+    private void synchronizedMap(StreamIds ids, Blackhole bh) {
+        final int streamId = ids.nextStreamId();
+        synchronized (this) {
+            locked.put(streamId, stream);
+        }
+        for (int i = 0; i < LOOKUPS_PER_STREAM; i++) {
+            synchronized (this) {
+                bh.consume(locked.get(streamId));
+            }
+        }
+        synchronized (this) {
+            locked.remove(streamId);
+        }
+    }
+
+    private void concurrentMap(StreamIds ids, Blackhole bh) {
+        final int streamId = ids.nextStreamId();
+        concurrent.put(streamId, stream);
+        for (int i = 0; i < LOOKUPS_PER_STREAM; i++) {
+            bh.consume(concurrent.get(streamId));
+        }
+        concurrent.remove(streamId);
+    }
+}
@@ -22,6 +22,7 @@ import org.reactivestreams.Publisher;
 import reactor.core.publisher.DirectProcessor;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
 
 /**
  * An implementation of {@link DuplexConnection} that provides functionality to modify the behavior dynamically.
@@ -30,6 +31,7 @@ public class TestDuplexConnection implements DuplexConnection {
 
     private final DirectProcessor<Frame> send;
     private final DirectProcessor<Frame> receive;
+    private final MonoProcessor<Void> onClose = MonoProcessor.create();
 
     public TestDuplexConnection(DirectProcessor<Frame> send, DirectProcessor<Frame> receive) {
         this.send = send;
@@ -40,13 +42,7 @@ public class TestDuplexConnection implements DuplexConnection {
     public Mono<Void> send(Publisher<Frame> frame) {
         return Flux
             .from(frame)
-            .doOnNext(f -> {
-                try {
-                    send.onNext(f);
-                } finally {
-                    f.release();
-                }
-            })
+            .doOnNext(send::onNext)
             .then();
     }
 
@@ -68,11 +64,11 @@ public class TestDuplexConnection implements DuplexConnection {
 
     @Override
     public Mono<Void> close() {
-        return Mono.empty();
+        return Mono.empty().doFinally(s -> onClose.onComplete()).then();
     }
 
     @Override
     public Mono<Void> onClose() {
-        return Mono.empty();
+        return onClose;
     }
 }
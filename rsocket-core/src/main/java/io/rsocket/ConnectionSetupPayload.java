@@ -27,6 +27,7 @@ public abstract class ConnectionSetupPayload implements Payload {
     public static final int NO_FLAGS = 0;
     public static final int HONOR_LEASE = SetupFrameFlyweight.FLAGS_WILL_HONOR_LEASE;
     public static final int STRICT_INTERPRETATION = SetupFrameFlyweight.FLAGS_STRICT_INTERPRETATION;
+    public static final int HONOR_DEADLINES = SetupFrameFlyweight.FLAGS_WILL_HONOR_DEADLINES;
 
     public static ConnectionSetupPayload create(String metadataMimeType, String dataMimeType) {
         return new ConnectionSetupPayloadImpl(metadataMimeType, dataMimeType, Frame.NULL_BYTEBUFFER,
@@ -67,6 +68,10 @@ public abstract class ConnectionSetupPayload implements Payload {
         return STRICT_INTERPRETATION == (getFlags() & STRICT_INTERPRETATION);
     }
 
+    public boolean willClientHonorDeadlines() {
+        return HONOR_DEADLINES == (getFlags() & HONOR_DEADLINES);
+    }
+
     private static final class ConnectionSetupPayloadImpl extends ConnectionSetupPayload {
 
         private final String metadataMimeType;
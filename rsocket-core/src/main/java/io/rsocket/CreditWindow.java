@@ -0,0 +1,160 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket;
+
+import reactor.core.publisher.Operators;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replenishes the credit of the streams receiving payloads in batches instead of sending a REQUEST_N frame for every
+ * request of the subscriber, following the semantics of {@link reactor.core.publisher.Flux#limitRate(int)}.
+ * <p>
+ * The first request of a stream grants {@code prefetch} payloads to the sender, whatever the subscriber requested.
+ * Payloads received beyond the demand of the subscriber wait for it in the stream. Once the credit still outstanding
+ * drops to {@code replenishBelow} of the {@code prefetch}, credit is granted again up to {@code prefetch} payloads
+ * ahead of those consumed. A subscriber requesting {@link Long#MAX_VALUE} grants unbounded credit once, as without a
+ * window.
+ * <p>
+ * A window is usually shared by all the streams of a factory and counts the REQUEST_N frames sent for them and the
+ * ones one frame per request would have sent instead.
+ */
+public final class CreditWindow {
+    private static final double DEFAULT_REPLENISH_BELOW = 0.25;
+
+    private final int prefetch;
+    private final long replenishThreshold;
+    private final LongAdder requestNFrames = new LongAdder();
+    private final LongAdder requestNFramesWithoutWindow = new LongAdder();
+
+    public CreditWindow(int prefetch) {
+        this(prefetch, DEFAULT_REPLENISH_BELOW);
+    }
+
+    /**
+     * @param prefetch payloads granted ahead of those consumed
+     * @param replenishBelow fraction of the {@code prefetch} still outstanding at which credit is granted again
+     */
+    public CreditWindow(int prefetch, double replenishBelow) {
+        if (prefetch < 1) {
+            throw new IllegalArgumentException("prefetch must be greater than 0");
+        }
+        if (replenishBelow < 0.0 || replenishBelow >= 1.0) {
+            throw new IllegalArgumentException("replenishBelow must be between 0.0 (inclusive) and 1.0 (exclusive)");
+        }
+        this.prefetch = prefetch;
+        this.replenishThreshold = (long) (prefetch * replenishBelow);
+    }
+
+    public int prefetch() {
+        return prefetch;
+    }
+
+    /**
+     * @return number of REQUEST_N frames sent for the streams of this window
+     */
+    public long requestNFrames() {
+        return requestNFrames.sum();
+    }
+
+    /**
+     * @return number of REQUEST_N frames that sending one for every request of the subscribers would have sent
+     */
+    public long requestNFramesWithoutWindow() {
+        return requestNFramesWithoutWindow.sum();
+    }
+
+    /**
+     * Net difference of {@link #requestNFramesWithoutWindow()} and {@link #requestNFrames()}. It is negative when the
+     * window sends more frames than the subscribers make requests, e.g. for a few large requests over a small
+     * {@code prefetch}, which the window replenishes in many frames.
+     *
+     * @return number of REQUEST_N frames saved, negative if more were sent
+     */
+    public long netRequestNFramesSaved() {
+        return requestNFramesWithoutWindow.sum() - requestNFrames.sum();
+    }
+
+    /**
+     * @param firstRequestInFrame {@code true} if the credit of the first request is sent in the request frame of the
+     * stream rather than a REQUEST_N frame
+     * @param initialCredit payloads the sender may send before the first request, e.g. the first payload of a channel
+     * that comes with the request frame
+     */
+    Credit newCredit(boolean firstRequestInFrame, int initialCredit) {
+        return new Credit(this, firstRequestInFrame, initialCredit);
+    }
+
+    /**
+     * Credit of a single stream. Each method returns the credit to grant to the sender, {@code 0} if none.
+     */
+    static final class Credit {
+        private final CreditWindow window;
+        private final boolean firstRequestInFrame;
+        private long requested;
+        private long consumed;
+        private long granted;
+
+        private Credit(CreditWindow window, boolean firstRequestInFrame, int initialCredit) {
+            this.window = window;
+            this.firstRequestInFrame = firstRequestInFrame;
+            this.granted = initialCredit;
+        }
+
+        synchronized long request(long n) {
+            final boolean inFrame = firstRequestInFrame && requested == 0;
+            requested = Operators.addCap(requested, n);
+            final long credit = replenish();
+            if (!inFrame) {
+                // one frame per request would be sent here
+                window.requestNFramesWithoutWindow.increment();
+                if (credit > 0) {
+                    window.requestNFrames.increment();
+                }
+            }
+            return credit;
+        }
+
+        /**
+         * Records a payload handed to the subscriber.
+         */
+        synchronized long consumed() {
+            consumed++;
+            final long credit = replenish();
+            if (credit > 0) {
+                window.requestNFrames.increment();
+            }
+            return credit;
+        }
+
+        private long replenish() {
+            if (requested == 0 || granted == Long.MAX_VALUE) {
+                return 0;
+            }
+            if (requested == Long.MAX_VALUE) {
+                granted = Long.MAX_VALUE;
+                return Long.MAX_VALUE;
+            }
+            if (granted - consumed > window.replenishThreshold) {
+                return 0;
+            }
+            final long credit = consumed + window.prefetch - granted;
+            granted += credit;
+            return credit;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket;
+
+import io.rsocket.util.Deadlines;
+import io.rsocket.util.RSocketProxy;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Encodes the metadata of the requests sent by a requester for what was negotiated in SETUP, see
+ * {@link Deadlines#encode(Payload, boolean)}. Only the payload starting a request carries a deadline, the responder
+ * passes the metadata of the further payloads of a channel on unchanged.
+ */
+final class DeadlineRequester extends RSocketProxy {
+    private final boolean honorsDeadlines;
+
+    DeadlineRequester(RSocket source, boolean honorsDeadlines) {
+        super(source);
+        this.honorsDeadlines = honorsDeadlines;
+    }
+
+    @Override
+    public Mono<Void> fireAndForget(Payload payload) {
+        return source.fireAndForget(Deadlines.encode(payload, honorsDeadlines));
+    }
+
+    @Override
+    public Mono<Payload> requestResponse(Payload payload) {
+        return source.requestResponse(Deadlines.encode(payload, honorsDeadlines));
+    }
+
+    @Override
+    public Flux<Payload> requestStream(Payload payload) {
+        return source.requestStream(Deadlines.encode(payload, honorsDeadlines));
+    }
+
+    @Override
+    public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+        return Flux.defer(() -> {
+            final AtomicBoolean first = new AtomicBoolean(true);
+            return source.requestChannel(Flux.from(payloads).map(payload ->
+                Deadlines.encode(payload, honorsDeadlines && first.compareAndSet(true, false))));
+        });
+    }
+}
@@ -15,6 +15,7 @@
  */
 package io.rsocket;
 
+import io.netty.buffer.ByteBufAllocator;
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
 import reactor.core.publisher.Flux;
@@ -77,4 +78,14 @@ public interface DuplexConnection extends Availability, Closeable {
      * @return Stream of all {@code Frame}s received.
      */
     Flux<Frame> receive();
+
+    /**
+     * Returns the allocator that frames sent on this connection should be encoded with. Transports backed by a Netty
+     * channel return the allocator of the channel.
+     *
+     * @return allocator for outbound frames.
+     */
+    default ByteBufAllocator alloc() {
+        return ByteBufAllocator.DEFAULT;
+    }
 }
@@ -29,8 +29,10 @@ import io.rsocket.frame.KeepaliveFrameFlyweight;
 import io.rsocket.frame.LeaseFrameFlyweight;
 import io.rsocket.frame.RequestFrameFlyweight;
 import io.rsocket.frame.RequestNFrameFlyweight;
+import io.rsocket.frame.ResumeFrameFlyweight;
 import io.rsocket.frame.SetupFrameFlyweight;
 import io.rsocket.frame.VersionFlyweight;
+import io.rsocket.util.EncodedPayload;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,6 +62,17 @@ public class Frame implements ByteBufHolder {
     private final Handle<Frame> handle;
     private @Nullable ByteBuf content;
 
+    // header fields, decoded once from the content on first access
+    private @Nullable FrameType type;
+    private int streamId;
+    private int flags;
+
+    // payload offsets, decoded once from the content on first access, -1 until then
+    private int metadataOffset = -1;
+    private int metadataLength;
+    private int dataOffset;
+    private int dataLength;
+
     private Frame(final Handle<Frame> handle) {
         this.handle = handle;
     }
@@ -69,9 +82,38 @@ public class Frame implements ByteBufHolder {
      */
     private void recycle() {
         content = null;
+        type = null;
+        metadataOffset = -1;
         handle.recycle(this);
     }
 
+    private void decodeHeader() {
+        streamId = FrameHeaderFlyweight.streamId(content);
+        flags = FrameHeaderFlyweight.flags(content);
+        type = FrameHeaderFlyweight.frameType(content);
+    }
+
+    private void decodePayloadOffsets() {
+        final FrameType type = getType();
+        final int frameLength = FrameHeaderFlyweight.frameLength(content);
+        final int payloadOffset = FrameHeaderFlyweight.metadataOffset(content);
+        final int metadataLength = Math.max(0, FrameHeaderFlyweight.metadataLength(content, type, frameLength));
+
+        int metadataFieldLength = metadataLength;
+        int metadataOffset = payloadOffset;
+        if (FrameHeaderFlyweight.hasMetadataLengthField(type)) {
+            metadataOffset += FrameHeaderFlyweight.FRAME_LENGTH_SIZE;
+            if (0 < metadataLength) {
+                metadataFieldLength += FrameHeaderFlyweight.FRAME_LENGTH_SIZE;
+            }
+        }
+
+        this.metadataLength = metadataLength;
+        this.dataOffset = payloadOffset + metadataFieldLength;
+        this.dataLength = frameLength - dataOffset;
+        this.metadataOffset = metadataOffset;
+    }
+
     /**
      * Return the content which is held by this {@link Frame}.
      */
@@ -203,7 +245,7 @@ public class Frame implements ByteBufHolder {
      * @return ByteBuffer containing the content
      */
     public ByteBuffer getMetadata() {
-        final ByteBuf metadata = FrameHeaderFlyweight.sliceFrameMetadata(content);
+        final ByteBuf metadata = sliceMetadata();
         if (metadata.readableBytes() > 0) {
             final ByteBuffer buffer = ByteBuffer.allocateDirect(metadata.readableBytes());
             metadata.readBytes(buffer);
@@ -222,7 +264,7 @@ public class Frame implements ByteBufHolder {
      * @return ByteBuffer containing the data
      */
     public ByteBuffer getData() {
-        final ByteBuf data = FrameHeaderFlyweight.sliceFrameData(content);
+        final ByteBuf data = sliceData();
         if (data.readableBytes() > 0) {
             final ByteBuffer buffer = ByteBuffer.allocateDirect(data.readableBytes());
             data.readBytes(buffer);
@@ -233,13 +275,70 @@ public class Frame implements ByteBufHolder {
         }
     }
 
+    /**
+     * Return a {@link ByteBuf} that is a {@link ByteBuf#slice()} for the frame metadata. The slice shares the content
+     * and the reference count of this frame, so it is only valid for as long as this frame is retained.
+     *
+     * If no metadata is present, the ByteBuf will have 0 readable bytes.
+     *
+     * @return ByteBuf containing the metadata
+     */
+    public ByteBuf sliceMetadata() {
+        if (metadataOffset < 0) {
+            decodePayloadOffsets();
+        }
+        return 0 < metadataLength ? content.slice(metadataOffset, metadataLength) : Unpooled.EMPTY_BUFFER;
+    }
+
+    /**
+     * Return a {@link ByteBuf} that is a {@link ByteBuf#slice()} for the frame data. The slice shares the content and
+     * the reference count of this frame, so it is only valid for as long as this frame is retained.
+     *
+     * If no data is present, the ByteBuf will have 0 readable bytes.
+     *
+     * @return ByteBuf containing the data
+     */
+    public ByteBuf sliceData() {
+        if (metadataOffset < 0) {
+            decodePayloadOffsets();
+        }
+        return 0 < dataLength ? content.slice(dataOffset, dataLength) : Unpooled.EMPTY_BUFFER;
+    }
+
+    /**
+     * Return the length of the frame metadata, excluding the metadata length field.
+     *
+     * @return frame metadata length
+     */
+    public int metadataLength() {
+        if (metadataOffset < 0) {
+            decodePayloadOffsets();
+        }
+        return metadataLength;
+    }
+
+    /**
+     * Return the length of the frame data.
+     *
+     * @return frame data length
+     */
+    public int dataLength() {
+        if (metadataOffset < 0) {
+            decodePayloadOffsets();
+        }
+        return dataLength;
+    }
+
     /**
      * Return frame stream identifier
      *
      * @return frame stream identifier
      */
     public int getStreamId() {
-        return FrameHeaderFlyweight.streamId(content);
+        if (type == null) {
+            decodeHeader();
+        }
+        return streamId;
     }
 
     /**
@@ -248,7 +347,10 @@ public class Frame implements ByteBufHolder {
      * @return frame type
      */
     public FrameType getType() {
-        return FrameHeaderFlyweight.frameType(content);
+        if (type == null) {
+            decodeHeader();
+        }
+        return type;
     }
 
     /**
@@ -257,11 +359,15 @@ public class Frame implements ByteBufHolder {
      * @return frame flags field value
      */
     public int flags() {
-        return FrameHeaderFlyweight.flags(content);
+        if (type == null) {
+            decodeHeader();
+        }
+        return flags;
     }
 
     /**
-     * Acquire a free Frame backed by given ByteBuf
+     * Acquire a free Frame backed by given ByteBuf. The frame header is decoded once here, so the type, flags and
+     * stream id accessors do not parse the buffer again.
      *
      * @param content to use as backing buffer
      * @return frame
@@ -269,6 +375,7 @@ public class Frame implements ByteBufHolder {
     public static Frame from(final ByteBuf content) {
         final Frame frame = RECYCLER.get();
         frame.content = content;
+        frame.decodeHeader();
 
         return frame;
     }
@@ -292,23 +399,59 @@ public class Frame implements ByteBufHolder {
             String metadataMimeType,
             String dataMimeType,
             Payload payload)
+        {
+            return from(ByteBufAllocator.DEFAULT, flags, keepaliveInterval, maxLifetime, metadataMimeType, dataMimeType, payload);
+        }
+
+        public static Frame from(
+            ByteBufAllocator allocator,
+            int flags,
+            int keepaliveInterval,
+            int maxLifetime,
+            String metadataMimeType,
+            String dataMimeType,
+            Payload payload)
         {
             final ByteBuf metadata = payload.getMetadata() != null ? Unpooled.wrappedBuffer(payload.getMetadata()) : Unpooled.EMPTY_BUFFER;
             final ByteBuf data = payload.getData() != null ? Unpooled.wrappedBuffer(payload.getData()) : Unpooled.EMPTY_BUFFER;
 
             final Frame frame = RECYCLER.get();
-            frame.content = ByteBufAllocator.DEFAULT.buffer(
+            frame.content = allocator.buffer(
                 SetupFrameFlyweight.computeFrameLength(flags, metadataMimeType, dataMimeType, metadata.readableBytes(), data.readableBytes()));
             frame.content.writerIndex(SetupFrameFlyweight.encode(
                     frame.content, flags, keepaliveInterval, maxLifetime, metadataMimeType, dataMimeType, metadata, data));
             return frame;
         }
 
+        /**
+         * Creates a setup frame with {@link SetupFrameFlyweight#FLAGS_RESUME_ENABLE} and the token a client resumes
+         * the session with.
+         */
+        public static Frame from(
+            ByteBufAllocator allocator,
+            int flags,
+            int keepaliveInterval,
+            int maxLifetime,
+            ByteBuf resumeToken,
+            String metadataMimeType,
+            String dataMimeType,
+            Payload payload)
+        {
+            final ByteBuf metadata = payload.getMetadata() != null ? Unpooled.wrappedBuffer(payload.getMetadata()) : Unpooled.EMPTY_BUFFER;
+            final ByteBuf data = payload.getData() != null ? Unpooled.wrappedBuffer(payload.getData()) : Unpooled.EMPTY_BUFFER;
+            flags |= SetupFrameFlyweight.FLAGS_RESUME_ENABLE;
+
+            final Frame frame = RECYCLER.get();
+            frame.content = allocator.buffer(
+                SetupFrameFlyweight.computeFrameLength(flags, resumeToken.readableBytes(), metadataMimeType, dataMimeType, metadata.readableBytes(), data.readableBytes()));
+            frame.content.writerIndex(SetupFrameFlyweight.encode(
+                    frame.content, flags, keepaliveInterval, maxLifetime, resumeToken, metadataMimeType, dataMimeType, metadata, data));
+            return frame;
+        }
+
         public static int getFlags(final Frame frame) {
             ensureFrameType(FrameType.SETUP, frame);
-            final int flags = FrameHeaderFlyweight.flags(frame.content);
-
-            return flags & SetupFrameFlyweight.VALID_FLAGS;
+            return frame.flags() & SetupFrameFlyweight.VALID_FLAGS;
         }
 
         public static int version(final Frame frame) {
@@ -326,6 +469,15 @@ public class Frame implements ByteBufHolder {
             return SetupFrameFlyweight.maxLifetime(frame.content);
         }
 
+        /**
+         * @return token to resume the session with, empty unless the client enabled resumption. The buffer is only
+         * valid for as long as the frame is retained.
+         */
+        public static ByteBuf resumeToken(final Frame frame) {
+            ensureFrameType(FrameType.SETUP, frame);
+            return SetupFrameFlyweight.resumeToken(frame.content);
+        }
+
         public static String metadataMimeType(final Frame frame) {
             ensureFrameType(FrameType.SETUP, frame);
             return SetupFrameFlyweight.metadataMimeType(frame.content);
@@ -347,6 +499,16 @@ public class Frame implements ByteBufHolder {
             final Throwable throwable,
             ByteBuf metadata,
             ByteBuf data
+        ) {
+            return from(ByteBufAllocator.DEFAULT, streamId, throwable, metadata, data);
+        }
+
+        public static Frame from(
+            ByteBufAllocator allocator,
+            int streamId,
+            final Throwable throwable,
+            ByteBuf metadata,
+            ByteBuf data
         ) {
             if (errorLogger.isDebugEnabled()) {
                 errorLogger.debug("an error occurred, creating error frame", throwable);
@@ -354,7 +516,7 @@ public class Frame implements ByteBufHolder {
 
             final int code = ErrorFrameFlyweight.errorCodeFromException(throwable);
             final Frame frame = RECYCLER.get();
-            frame.content = ByteBufAllocator.DEFAULT.buffer(
+            frame.content = allocator.buffer(
                 ErrorFrameFlyweight.computeFrameLength(metadata.readableBytes(), data.readableBytes()));
             frame.content.writerIndex(ErrorFrameFlyweight.encode(frame.content, streamId, code, metadata, data));
             return frame;
@@ -364,19 +526,36 @@ public class Frame implements ByteBufHolder {
             int streamId,
             final Throwable throwable,
             ByteBuf metadata
+        ) {
+            return from(ByteBufAllocator.DEFAULT, streamId, throwable, metadata);
+        }
+
+        public static Frame from(
+            ByteBufAllocator allocator,
+            int streamId,
+            final Throwable throwable,
+            ByteBuf metadata
         ) {
             String data = throwable.getMessage() == null ? "" : throwable.getMessage();
             byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
             final ByteBuf dataBuffer = Unpooled.wrappedBuffer(bytes);
 
-            return from(streamId, throwable, metadata, dataBuffer);
+            return from(allocator, streamId, throwable, metadata, dataBuffer);
         }
 
         public static Frame from(
             int streamId,
             final Throwable throwable
         ) {
-            return from(streamId, throwable, Unpooled.EMPTY_BUFFER);
+            return from(ByteBufAllocator.DEFAULT, streamId, throwable);
+        }
+
+        public static Frame from(
+            ByteBufAllocator allocator,
+            int streamId,
+            final Throwable throwable
+        ) {
+            return from(allocator, streamId, throwable, Unpooled.EMPTY_BUFFER);
         }
 
         public static int errorCode(final Frame frame) {
@@ -389,8 +568,12 @@ public class Frame implements ByteBufHolder {
         private Lease() {}
 
         public static Frame from(int ttl, int numberOfRequests, ByteBuf metadata) {
+            return from(ByteBufAllocator.DEFAULT, ttl, numberOfRequests, metadata);
+        }
+
+        public static Frame from(ByteBufAllocator allocator, int ttl, int numberOfRequests, ByteBuf metadata) {
             final Frame frame = RECYCLER.get();
-            frame.content = ByteBufAllocator.DEFAULT.buffer(
+            frame.content = allocator.buffer(
                 LeaseFrameFlyweight.computeFrameLength(metadata.readableBytes()));
             frame.content.writerIndex(LeaseFrameFlyweight.encode(frame.content, ttl, numberOfRequests, metadata));
             return frame;
@@ -411,17 +594,25 @@ public class Frame implements ByteBufHolder {
         private RequestN() {}
 
         public static Frame from(int streamId, long requestN) {
+            return from(ByteBufAllocator.DEFAULT, streamId, requestN);
+        }
+
+        public static Frame from(ByteBufAllocator allocator, int streamId, long requestN) {
             int v = requestN > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) requestN;
-            return from(streamId, v);
+            return from(allocator, streamId, v);
         }
 
         public static Frame from(int streamId, int requestN) {
+            return from(ByteBufAllocator.DEFAULT, streamId, requestN);
+        }
+
+        public static Frame from(ByteBufAllocator allocator, int streamId, int requestN) {
             if (requestN < 1) {
                 throw new IllegalStateException("request n must be greater than 0");
             }
 
             final Frame frame = RECYCLER.get();
-            frame.content = ByteBufAllocator.DEFAULT.buffer(RequestNFrameFlyweight.computeFrameLength());
+            frame.content = allocator.buffer(RequestNFrameFlyweight.computeFrameLength());
             frame.content.writerIndex(RequestNFrameFlyweight.encode(frame.content, streamId, requestN));
             return frame;
         }
@@ -436,19 +627,32 @@ public class Frame implements ByteBufHolder {
         private Request() {}
 
         public static Frame from(int streamId, FrameType type, Payload payload, long initialRequestN) {
+            return from(ByteBufAllocator.DEFAULT, streamId, type, payload, initialRequestN);
+        }
+
+        public static Frame from(
+            ByteBufAllocator allocator, int streamId, FrameType type, Payload payload, long initialRequestN) {
             int v = initialRequestN > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) initialRequestN;
-            return from(streamId, type, payload, v);
+            return from(allocator, streamId, type, payload, v);
         }
 
         public static Frame from(int streamId, FrameType type, Payload payload, int initialRequestN) {
+            return from(ByteBufAllocator.DEFAULT, streamId, type, payload, initialRequestN);
+        }
+
+        public static Frame from(
+            ByteBufAllocator allocator, int streamId, FrameType type, Payload payload, int initialRequestN) {
             if (initialRequestN < 1) {
                 throw new IllegalStateException("initial request n must be greater than 0");
             }
+            if (payload instanceof EncodedPayload) {
+                return from(streamId, type, (EncodedPayload) payload, initialRequestN);
+            }
             final ByteBuf metadata = payload.getMetadata() != null ? Unpooled.wrappedBuffer(payload.getMetadata()) : Unpooled.EMPTY_BUFFER;
             final ByteBuf data = payload.getData() != null ? Unpooled.wrappedBuffer(payload.getData()) : Unpooled.EMPTY_BUFFER;
 
             final Frame frame = RECYCLER.get();
-            frame.content = ByteBufAllocator.DEFAULT.buffer(
+            frame.content = allocator.buffer(
                 RequestFrameFlyweight.computeFrameLength(type, metadata.readableBytes(), data.readableBytes()));
 
             if (type.hasInitialRequestN()) {
@@ -461,16 +665,38 @@ public class Frame implements ByteBufHolder {
             return frame;
         }
 
+        private static Frame from(int streamId, FrameType type, EncodedPayload payload, int initialRequestN) {
+            final int metadataLength = payload.metadataLength();
+            final int dataLength = payload.dataLength();
+            final int headerLength =
+                RequestFrameFlyweight.computeFrameLength(type, metadataLength, dataLength) - metadataLength - dataLength;
+
+            final Frame frame = RECYCLER.get();
+            frame.content = payload.claim(headerLength);
+            RequestFrameFlyweight.encodeHeader(frame.content, streamId, 0, type, initialRequestN, metadataLength, dataLength);
+            return frame;
+        }
+
         public static Frame from(int streamId, FrameType type, int flags) {
+            return from(ByteBufAllocator.DEFAULT, streamId, type, flags);
+        }
+
+        public static Frame from(ByteBufAllocator allocator, int streamId, FrameType type, int flags) {
             final Frame frame = RECYCLER.get();
-            frame.content = ByteBufAllocator.DEFAULT.buffer(RequestFrameFlyweight.computeFrameLength(type, 0, 0));
+            frame.content = allocator.buffer(RequestFrameFlyweight.computeFrameLength(type, 0, 0));
             frame.content.writerIndex(RequestFrameFlyweight.encode(frame.content, streamId, flags, type, Unpooled.EMPTY_BUFFER, Unpooled.EMPTY_BUFFER));
             return frame;
         }
 
         public static Frame from(int streamId, FrameType type, ByteBuf metadata, ByteBuf data, int initialRequestN, int flags) {
+            return from(ByteBufAllocator.DEFAULT, streamId, type, metadata, data, initialRequestN, flags);
+        }
+
+        public static Frame from(
+            ByteBufAllocator allocator, int streamId, FrameType type, ByteBuf metadata, ByteBuf data, int initialRequestN,
+            int flags) {
             final Frame frame = RECYCLER.get();
-            frame.content = ByteBufAllocator.DEFAULT.buffer(RequestFrameFlyweight.computeFrameLength(type, metadata.readableBytes(), data.readableBytes()));
+            frame.content = allocator.buffer(RequestFrameFlyweight.computeFrameLength(type, metadata.readableBytes(), data.readableBytes()));
             frame.content.writerIndex(RequestFrameFlyweight.encode(frame.content, streamId, flags, type, initialRequestN, metadata, data));
             return frame;
         }
@@ -483,7 +709,7 @@ public class Frame implements ByteBufHolder {
                 throw new AssertionError("expected request type, but saw " + type.name());
             }
 
-            switch (frame.getType()) {
+            switch (type) {
                 case REQUEST_RESPONSE:
                     result = 1;
                     break;
@@ -500,7 +726,7 @@ public class Frame implements ByteBufHolder {
 
         public static boolean isRequestChannelComplete(final Frame frame) {
             ensureFrameType(FrameType.REQUEST_CHANNEL, frame);
-            final int flags = FrameHeaderFlyweight.flags(frame.content);
+            final int flags = frame.flags();
 
             return (flags & FrameHeaderFlyweight.FLAGS_C) == FrameHeaderFlyweight.FLAGS_C;
         }
@@ -511,26 +737,58 @@ public class Frame implements ByteBufHolder {
         private PayloadFrame() {}
 
         public static Frame from(int streamId, FrameType type) {
-            return from(streamId, type, Unpooled.EMPTY_BUFFER, Unpooled.EMPTY_BUFFER, 0);
+            return from(ByteBufAllocator.DEFAULT, streamId, type);
+        }
+
+        public static Frame from(ByteBufAllocator allocator, int streamId, FrameType type) {
+            return from(allocator, streamId, type, Unpooled.EMPTY_BUFFER, Unpooled.EMPTY_BUFFER, 0);
         }
 
         public static Frame from(int streamId, FrameType type, Payload payload) {
-            return from(streamId, type, payload, 0);
+            return from(ByteBufAllocator.DEFAULT, streamId, type, payload, 0);
+        }
+
+        public static Frame from(ByteBufAllocator allocator, int streamId, FrameType type, Payload payload) {
+            return from(allocator, streamId, type, payload, 0);
         }
 
         public static Frame from(int streamId, FrameType type, Payload payload, int flags) {
+            return from(ByteBufAllocator.DEFAULT, streamId, type, payload, flags);
+        }
+
+        public static Frame from(ByteBufAllocator allocator, int streamId, FrameType type, Payload payload, int flags) {
+            if (payload instanceof EncodedPayload) {
+                return from(streamId, type, (EncodedPayload) payload, flags);
+            }
             final ByteBuf metadata = payload.getMetadata() != null ? Unpooled.wrappedBuffer(payload.getMetadata()) : Unpooled.EMPTY_BUFFER;
             final ByteBuf data = payload.getData() != null ? Unpooled.wrappedBuffer(payload.getData()) : Unpooled.EMPTY_BUFFER;
-            return from(streamId, type, metadata, data, flags);
+            return from(allocator, streamId, type, metadata, data, flags);
         }
 
         public static Frame from(int streamId, FrameType type, ByteBuf metadata, ByteBuf data, int flags) {
+            return from(ByteBufAllocator.DEFAULT, streamId, type, metadata, data, flags);
+        }
+
+        public static Frame from(
+            ByteBufAllocator allocator, int streamId, FrameType type, ByteBuf metadata, ByteBuf data, int flags) {
             final Frame frame = RECYCLER.get();
-            frame.content = ByteBufAllocator.DEFAULT.buffer(
+            frame.content = allocator.buffer(
                 FrameHeaderFlyweight.computeFrameHeaderLength(type, metadata.readableBytes(), data.readableBytes()));
             frame.content.writerIndex(FrameHeaderFlyweight.encode(frame.content, streamId, flags, type, metadata, data));
             return frame;
         }
+
+        private static Frame from(int streamId, FrameType type, EncodedPayload payload, int flags) {
+            final int metadataLength = payload.metadataLength();
+            final int dataLength = payload.dataLength();
+            final int headerLength =
+                FrameHeaderFlyweight.computeFrameHeaderLength(type, metadataLength, dataLength) - metadataLength - dataLength;
+
+            final Frame frame = RECYCLER.get();
+            frame.content = payload.claim(headerLength);
+            FrameHeaderFlyweight.encodeHeader(frame.content, streamId, flags, type, metadataLength, dataLength);
+            return frame;
+        }
     }
 
     public static class Cancel {
@@ -538,8 +796,12 @@ public class Frame implements ByteBufHolder {
         private Cancel() {}
 
         public static Frame from(int streamId) {
+            return from(ByteBufAllocator.DEFAULT, streamId);
+        }
+
+        public static Frame from(ByteBufAllocator allocator, int streamId) {
             final Frame frame = RECYCLER.get();
-            frame.content = ByteBufAllocator.DEFAULT.buffer(
+            frame.content = allocator.buffer(
                 FrameHeaderFlyweight.computeFrameHeaderLength(FrameType.CANCEL, 0, 0));
             frame.content.writerIndex(FrameHeaderFlyweight.encode(
                 frame.content, streamId, 0, FrameType.CANCEL, Unpooled.EMPTY_BUFFER, Unpooled.EMPTY_BUFFER));
@@ -552,8 +814,12 @@ public class Frame implements ByteBufHolder {
         private Keepalive() {}
 
         public static Frame from(ByteBuf data, boolean respond) {
+            return from(ByteBufAllocator.DEFAULT, data, respond);
+        }
+
+        public static Frame from(ByteBufAllocator allocator, ByteBuf data, boolean respond) {
             final Frame frame = RECYCLER.get();
-            frame.content = ByteBufAllocator.DEFAULT.buffer(
+            frame.content = allocator.buffer(
                 KeepaliveFrameFlyweight.computeFrameLength(data.readableBytes()));
 
             final int flags = respond ? KeepaliveFrameFlyweight.FLAGS_KEEPALIVE_R : 0;
@@ -564,10 +830,81 @@ public class Frame implements ByteBufHolder {
 
         public static boolean hasRespondFlag(final Frame frame) {
             ensureFrameType(FrameType.KEEPALIVE, frame);
-            final int flags = FrameHeaderFlyweight.flags(frame.content);
+            final int flags = frame.flags();
 
             return (flags & KeepaliveFrameFlyweight.FLAGS_KEEPALIVE_R) == KeepaliveFrameFlyweight.FLAGS_KEEPALIVE_R;
         }
+
+        /**
+         * @return position of the last frame the sender received on a resumable connection, {@code 0} otherwise
+         */
+        public static long lastPosition(final Frame frame) {
+            ensureFrameType(FrameType.KEEPALIVE, frame);
+            return KeepaliveFrameFlyweight.lastPosition(frame.content);
+        }
+
+        public static void lastPosition(final Frame frame, final long lastPosition) {
+            ensureFrameType(FrameType.KEEPALIVE, frame);
+            KeepaliveFrameFlyweight.lastPosition(frame.content, lastPosition);
+        }
+    }
+
+    public static class Resume {
+
+        private Resume() {}
+
+        public static Frame from(
+            ByteBufAllocator allocator,
+            ByteBuf resumeToken,
+            long lastReceivedServerPosition,
+            long firstAvailableClientPosition)
+        {
+            final Frame frame = RECYCLER.get();
+            frame.content = allocator.buffer(ResumeFrameFlyweight.computeFrameLength(resumeToken.readableBytes()));
+            frame.content.writerIndex(ResumeFrameFlyweight.encode(
+                frame.content, resumeToken, lastReceivedServerPosition, firstAvailableClientPosition));
+            return frame;
+        }
+
+        public static int version(final Frame frame) {
+            ensureFrameType(FrameType.RESUME, frame);
+            return ResumeFrameFlyweight.version(frame.content);
+        }
+
+        /**
+         * @return token of the session to resume, only valid for as long as the frame is retained
+         */
+        public static ByteBuf resumeToken(final Frame frame) {
+            ensureFrameType(FrameType.RESUME, frame);
+            return ResumeFrameFlyweight.resumeToken(frame.content);
+        }
+
+        public static long lastReceivedServerPosition(final Frame frame) {
+            ensureFrameType(FrameType.RESUME, frame);
+            return ResumeFrameFlyweight.lastReceivedServerPosition(frame.content);
+        }
+
+        public static long firstAvailableClientPosition(final Frame frame) {
+            ensureFrameType(FrameType.RESUME, frame);
+            return ResumeFrameFlyweight.firstAvailableClientPosition(frame.content);
+        }
+    }
+
+    public static class ResumeOk {
+
+        private ResumeOk() {}
+
+        public static Frame from(ByteBufAllocator allocator, long lastReceivedClientPosition) {
+            final Frame frame = RECYCLER.get();
+            frame.content = allocator.buffer(ResumeFrameFlyweight.computeResumeOkFrameLength());
+            frame.content.writerIndex(ResumeFrameFlyweight.encodeResumeOk(frame.content, lastReceivedClientPosition));
+            return frame;
+        }
+
+        public static long lastReceivedClientPosition(final Frame frame) {
+            ensureFrameType(FrameType.RESUME_OK, frame);
+            return ResumeFrameFlyweight.lastReceivedClientPosition(frame.content);
+        }
     }
 
     public static void ensureFrameType(final FrameType frameType, final Frame frame) {
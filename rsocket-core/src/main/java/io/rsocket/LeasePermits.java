@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Requests a requester may still send under the last lease received from its responder. A new lease replaces the
+ * remaining permits of the previous one, and no request may be sent before the first lease arrives.
+ */
+final class LeasePermits {
+    private static final AtomicIntegerFieldUpdater<LeasePermits> PERMITS =
+        AtomicIntegerFieldUpdater.newUpdater(LeasePermits.class, "permits");
+
+    private volatile int permits;
+    private volatile int allowed;
+    private volatile long expiry;
+
+    /**
+     * @param ttl of the lease in milliseconds
+     * @param numberOfRequests allowed by the lease
+     */
+    void update(int ttl, int numberOfRequests) {
+        expiry = System.currentTimeMillis() + ttl;
+        allowed = numberOfRequests;
+        permits = numberOfRequests;
+    }
+
+    /**
+     * Takes a permit to send a request.
+     *
+     * @return {@code false} if the lease expired or all its requests were sent
+     */
+    boolean tryUse() {
+        if (System.currentTimeMillis() > expiry) {
+            return false;
+        }
+        for (;;) {
+            final int current = permits;
+            if (current <= 0) {
+                return false;
+            }
+            if (PERMITS.compareAndSet(this, current, current - 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return fraction of the requests of the lease that may still be sent, {@code 0.0} once the lease expired
+     */
+    double availability() {
+        final int allowed = this.allowed;
+        if (allowed <= 0 || System.currentTimeMillis() > expiry) {
+            return 0.0;
+        }
+        return Math.max(0, permits) / (double) allowed;
+    }
+}
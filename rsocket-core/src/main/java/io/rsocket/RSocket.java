@@ -16,6 +16,8 @@
 
 package io.rsocket;
 
+import io.netty.buffer.ByteBufAllocator;
+import io.rsocket.util.PayloadBuilder;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -70,6 +72,16 @@ public interface RSocket extends Availability, Closeable {
      */
     Mono<Void> metadataPush(Payload payload);
 
+    /**
+     * Creates a {@link PayloadBuilder} that writes metadata and data directly into the buffer of the outbound frame.
+     * Payloads built with it are sent without being copied when passed to this {@code RSocket}.
+     *
+     * @return A new {@code PayloadBuilder}.
+     */
+    default PayloadBuilder payloadBuilder() {
+        return PayloadBuilder.create(ByteBufAllocator.DEFAULT);
+    }
+
     @Override
     default double availability() {
         return 0.0;
@@ -16,28 +16,35 @@
 
 package io.rsocket;
 
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
-import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.ReferenceCountUtil;
 import io.rsocket.exceptions.ConnectionException;
 import io.rsocket.exceptions.Exceptions;
-import io.rsocket.internal.LimitableRequestPublisher;
+import io.rsocket.exceptions.RejectedException;
+import io.rsocket.internal.ConcurrentIntObjectHashMap;
+import io.rsocket.internal.TimerWheel;
+import io.rsocket.util.PayloadBuilder;
 import io.rsocket.util.PayloadImpl;
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.MonoProcessor;
-import reactor.core.publisher.UnicastProcessor;
+import reactor.core.publisher.Operators;
+import reactor.util.concurrent.QueueSupplier;
 
 import javax.annotation.Nullable;
 import java.nio.channels.ClosedChannelException;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.function.Supplier;
 
 /**
  * Client Side of a RSocket socket. Sends {@link Frame}s
@@ -48,51 +55,102 @@ class RSocketClient implements RSocket {
     private static final ClosedChannelException CLOSED_CHANNEL_EXCEPTION = new ClosedChannelException();
 
     private final DuplexConnection connection;
+    private final ByteBufAllocator allocator;
+    private final Function<Frame, ? extends Payload> frameDecoder;
     private final Consumer<Throwable> errorConsumer;
     private final StreamIdSupplier streamIdSupplier;
     private final MonoProcessor<Void> started;
-    private final IntObjectHashMap<LimitableRequestPublisher> senders;
-    private final IntObjectHashMap<Subscriber<Payload>> receivers;
-    private final AtomicInteger missedAckCounter;
+    private final ConcurrentIntObjectHashMap<Subscription> senders;
+    private final ConcurrentIntObjectHashMap<Receiver> receivers;
+    private final TimerWheel keepAliveTimer;
+    private final @Nullable LeasePermits leasePermits;
+    private final @Nullable CreditWindow creditWindow;
 
-    private @Nullable Disposable keepAliveSendSub;
+    private volatile @Nullable Disposable keepAliveSendSub;
 
-    private volatile long timeLastTickSentMs;
+    private volatile long timeLastAckMs;
+    // only used by the thread of the keepalive timer
+    private int missedAckCount;
 
     RSocketClient(DuplexConnection connection,
                          Consumer<Throwable> errorConsumer,
                          StreamIdSupplier streamIdSupplier) {
-        this(connection, errorConsumer, streamIdSupplier, Duration.ZERO, Duration.ZERO, 0);
+        this(connection, connection.alloc(), PayloadImpl::new, errorConsumer, streamIdSupplier, Duration.ZERO,
+            Duration.ZERO, 0);
     }
 
     RSocketClient(DuplexConnection connection,
+                         ByteBufAllocator allocator,
+                         Function<Frame, ? extends Payload> frameDecoder,
                          Consumer<Throwable> errorConsumer,
                          StreamIdSupplier streamIdSupplier,
                          Duration tickPeriod,
                          Duration ackTimeout,
                          int missedAcks) {
+        this(connection, allocator, frameDecoder, errorConsumer, streamIdSupplier, tickPeriod, ackTimeout, missedAcks,
+            false);
+    }
+
+    /**
+     * @param honorLease {@code true} to only send requests within the leases received from the responder
+     */
+    RSocketClient(DuplexConnection connection,
+                         ByteBufAllocator allocator,
+                         Function<Frame, ? extends Payload> frameDecoder,
+                         Consumer<Throwable> errorConsumer,
+                         StreamIdSupplier streamIdSupplier,
+                         Duration tickPeriod,
+                         Duration ackTimeout,
+                         int missedAcks,
+                         boolean honorLease) {
+        this(connection, allocator, frameDecoder, errorConsumer, streamIdSupplier, tickPeriod, ackTimeout, missedAcks,
+            honorLease, TimerWheel.shared());
+    }
+
+    /**
+     * @param keepAliveTimer wheel that sends the keepalives and checks for missed acks, usually shared by many
+     * connections
+     */
+    RSocketClient(DuplexConnection connection,
+                         ByteBufAllocator allocator,
+                         Function<Frame, ? extends Payload> frameDecoder,
+                         Consumer<Throwable> errorConsumer,
+                         StreamIdSupplier streamIdSupplier,
+                         Duration tickPeriod,
+                         Duration ackTimeout,
+                         int missedAcks,
+                         boolean honorLease,
+                         TimerWheel keepAliveTimer) {
+        this(connection, allocator, frameDecoder, errorConsumer, streamIdSupplier, tickPeriod, ackTimeout, missedAcks,
+            honorLease, keepAliveTimer, null);
+    }
+
+    /**
+     * @param creditWindow replenishes the credit of the streams in batches, {@code null} to send a REQUEST_N frame for
+     * every request of the subscriber
+     */
+    RSocketClient(DuplexConnection connection,
+                         ByteBufAllocator allocator,
+                         Function<Frame, ? extends Payload> frameDecoder,
+                         Consumer<Throwable> errorConsumer,
+                         StreamIdSupplier streamIdSupplier,
+                         Duration tickPeriod,
+                         Duration ackTimeout,
+                         int missedAcks,
+                         boolean honorLease,
+                         TimerWheel keepAliveTimer,
+                         @Nullable CreditWindow creditWindow) {
         this.connection = connection;
+        this.allocator = allocator;
+        this.frameDecoder = frameDecoder;
         this.errorConsumer = errorConsumer;
         this.streamIdSupplier = streamIdSupplier;
         this.started = MonoProcessor.create();
-        this.senders = new IntObjectHashMap<>(256, 0.9f);
-        this.receivers = new IntObjectHashMap<>(256, 0.9f);
-        this.missedAckCounter = new AtomicInteger();
-
-        if (!Duration.ZERO.equals(tickPeriod)) {
-            long ackTimeoutMs = ackTimeout.toMillis();
-
-            this.keepAliveSendSub
-                = started
-                .thenMany(Flux.interval(tickPeriod))
-                .doOnSubscribe(s -> timeLastTickSentMs = System.currentTimeMillis())
-                .flatMap(i -> sendKeepAlive(ackTimeoutMs, missedAcks))
-                .doOnError(t -> {
-                    errorConsumer.accept(t);
-                    connection.close().subscribe();
-                })
-                .subscribe();
-        }
+        this.senders = new ConcurrentIntObjectHashMap<>(256);
+        this.receivers = new ConcurrentIntObjectHashMap<>(256);
+        this.keepAliveTimer = keepAliveTimer;
+        this.leasePermits = honorLease ? new LeasePermits() : null;
+        this.creditWindow = creditWindow;
 
         connection
             .onClose()
@@ -107,29 +165,49 @@ class RSocketClient implements RSocket {
             .doOnError(errorConsumer)
             .subscribe();
 
+        if (!Duration.ZERO.equals(tickPeriod)) {
+            long ackTimeoutMs = ackTimeout.toMillis();
+            timeLastAckMs = keepAliveTimer.currentTimeMillis();
+            keepAliveSendSub = keepAliveTimer.schedulePeriodically(() -> sendKeepAlive(ackTimeoutMs, missedAcks),
+                                                                   tickPeriod);
+        }
     }
 
-    private Mono<Void> sendKeepAlive(long ackTimeoutMs, int missedAcks) {
-        long now = System.currentTimeMillis();
-        if (now - timeLastTickSentMs > ackTimeoutMs) {
-            int count = missedAckCounter.incrementAndGet();
-            if (count >= missedAcks) {
+    private void sendKeepAlive(long ackTimeoutMs, int missedAcks) {
+        if (keepAliveTimer.currentTimeMillis() - timeLastAckMs > ackTimeoutMs) {
+            if (++missedAckCount >= missedAcks) {
                 String message = String.format("Missed %d keep-alive acks with a threshold of %d and a ack timeout of %d ms",
-                    count,
+                    missedAckCount,
                     missedAcks,
                     ackTimeoutMs);
-                return Mono.error(new ConnectionException(message));
+                closeOnKeepAliveError(new ConnectionException(message));
+                return;
             }
+        } else {
+            missedAckCount = 0;
         }
 
-        return connection.sendOne(Frame.Keepalive.from(Unpooled.EMPTY_BUFFER, true));
+        connection
+            .sendOne(Frame.Keepalive.from(allocator, Unpooled.EMPTY_BUFFER, true))
+            .subscribe(null, this::closeOnKeepAliveError);
+    }
+
+    private void closeOnKeepAliveError(Throwable t) {
+        if (keepAliveSendSub != null) {
+            keepAliveSendSub.dispose();
+        }
+        errorConsumer.accept(t);
+        connection.close().subscribe();
     }
 
     @Override
     public Mono<Void> fireAndForget(Payload payload) {
         Mono<Void> defer = Mono.defer(() -> {
-            final int streamId = streamIdSupplier.nextStreamId();
-            final Frame requestFrame = Frame.Request.from(streamId, FrameType.FIRE_AND_FORGET, payload, 1);
+            if (!useLease()) {
+                return Mono.error(noLeaseException());
+            }
+            final int streamId = streamIdSupplier.nextStreamId(receivers);
+            final Frame requestFrame = Frame.Request.from(allocator, streamId, FrameType.FIRE_AND_FORGET, payload, 1);
             return connection.sendOne(requestFrame);
         });
 
@@ -138,28 +216,34 @@ class RSocketClient implements RSocket {
 
     @Override
     public Mono<Payload> requestResponse(Payload payload) {
-        return handleRequestResponse(payload);
+        return new ResponseRequest(this, payload);
     }
 
     @Override
     public Flux<Payload> requestStream(Payload payload) {
-        return handleStreamResponse(Flux.just(payload), FrameType.REQUEST_STREAM);
+        return new StreamRequest(FrameType.REQUEST_STREAM, payload, null);
     }
 
     @Override
     public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
-        return handleStreamResponse(Flux.from(payloads), FrameType.REQUEST_CHANNEL);
+        return new StreamRequest(FrameType.REQUEST_CHANNEL, null, payloads);
     }
 
     @Override
     public Mono<Void> metadataPush(Payload payload) {
-        final Frame requestFrame = Frame.Request.from(0, FrameType.METADATA_PUSH, payload, 1);
+        final Frame requestFrame = Frame.Request.from(allocator, 0, FrameType.METADATA_PUSH, payload, 1);
         return connection.sendOne(requestFrame);
     }
 
+    @Override
+    public PayloadBuilder payloadBuilder() {
+        return PayloadBuilder.create(allocator);
+    }
+
     @Override
     public double availability() {
-        return connection.availability();
+        final double availability = connection.availability();
+        return leasePermits == null ? availability : availability * leasePermits.availability();
     }
 
     @Override
@@ -172,176 +256,39 @@ class RSocketClient implements RSocket {
         return connection.onClose();
     }
 
-    private Mono<Payload> handleRequestResponse(final Payload payload) {
-        return started.then(() -> {
-            int streamId = streamIdSupplier.nextStreamId();
-            final Frame requestFrame = Frame.Request.from(streamId, FrameType.REQUEST_RESPONSE, payload, 1);
-
-            MonoProcessor<Payload> receiver = MonoProcessor.create();
-
-            synchronized (this) {
-                receivers.put(streamId, receiver);
-            }
-
-            MonoProcessor<Void> subscribedRequest =
-                connection.sendOne(requestFrame)
-                    .doOnError(t -> {
-                        errorConsumer.accept(t);
-                        receiver.cancel();
-                    })
-                    .subscribe();
-
-            return receiver
-                .doOnError(t -> {
-                    if (contains(streamId) && connection.availability() > 0.0 && !receiver.isTerminated()) {
-                        connection
-                            .sendOne(Frame.Error.from(streamId, t))
-                            .doOnError(errorConsumer::accept)
-                            .subscribe();
-                    }
-                })
-                .doOnCancel(() -> {
-                    if (contains(streamId) && connection.availability() > 0.0 && !receiver.isTerminated()) {
-                        connection
-                            .sendOne(Frame.Cancel.from(streamId))
-                            .doOnError(errorConsumer::accept)
-                            .subscribe();
-                    }
-                    subscribedRequest.cancel();
-                })
-                .doFinally(s ->
-                    removeReceiver(streamId)
-                );
-        });
+    private boolean useLease() {
+        return leasePermits == null || leasePermits.tryUse();
     }
 
-    private Flux<Payload> handleStreamResponse(Flux<Payload> request, FrameType requestType) {
-        return started.thenMany(new Supplier<Publisher<Payload>>() {
-            final UnicastProcessor<Payload> receiver = UnicastProcessor.create();
-            final int streamId = streamIdSupplier.nextStreamId();
-            volatile @Nullable MonoProcessor<Void> subscribedRequests;
-            boolean firstRequest = true;
-
-            boolean isValidToSendFrame() {
-                return contains(streamId) && connection.availability() > 0.0 && !receiver.isTerminated();
-            }
-
-            void sendOneFrame(Frame frame) {
-                if (isValidToSendFrame()) {
-                    connection
-                        .sendOne(frame)
-                        .doOnError(errorConsumer::accept)
-                        .subscribe();
-                }
-            }
-
-            @Override
-            public Publisher<Payload> get() {
-                return receiver
-                    .doOnRequest(l -> {
-                        boolean _firstRequest = false;
-                        synchronized (RSocketClient.this) {
-                            if (firstRequest) {
-                                _firstRequest = true;
-                                firstRequest = false;
-                            }
-                        }
-
-                        if (_firstRequest) {
-                            Flux<Frame> requestFrames =
-                                request
-                                    .transform(f -> {
-                                        LimitableRequestPublisher<Payload> wrapped = LimitableRequestPublisher.wrap(f);
-                                        // Need to set this to one for first the frame
-                                        wrapped.increaseRequestLimit(1);
-                                        synchronized (RSocketClient.this) {
-                                            senders.put(streamId, wrapped);
-                                            receivers.put(streamId, receiver);
-                                        }
-
-                                        return wrapped;
-                                    })
-                                    .map(new Function<Payload, Frame>() {
-                                        boolean firstPayload = true;
-
-                                        @Override
-                                        public Frame apply(Payload payload) {
-                                            boolean _firstPayload = false;
-                                            synchronized (this) {
-                                                if (firstPayload) {
-                                                    firstPayload = false;
-                                                    _firstPayload = true;
-                                                }
-                                            }
-
-                                            if (_firstPayload) {
-                                                return Frame.Request.from(streamId, requestType, payload, l);
-                                            } else {
-                                                return Frame.PayloadFrame.from(streamId, FrameType.NEXT, payload);
-                                            }
-                                        }
-                                    })
-                                    .doOnComplete(() -> {
-                                        if (FrameType.REQUEST_CHANNEL == requestType) {
-                                            sendOneFrame(Frame.PayloadFrame.from(streamId, FrameType.COMPLETE));
-                                        }
-                                    });
-
-                            subscribedRequests = connection
-                                .send(requestFrames)
-                                .doOnError(t -> {
-                                    errorConsumer.accept(t);
-                                    receiver.cancel();
-                                })
-                                .subscribe();
-                        } else {
-                            sendOneFrame(Frame.RequestN.from(streamId, l));
-                        }
-                    })
-                    .doOnError(t -> sendOneFrame(Frame.Error.from(streamId, t)))
-                    .doOnCancel(() -> {
-                        sendOneFrame(Frame.Cancel.from(streamId));
-                        if (subscribedRequests != null) {
-                            subscribedRequests.cancel();
-                        }
-                    })
-                    .doFinally(s -> {
-                        removeReceiver(streamId);
-                        removeSender(streamId);
-                    });
-            }
-        });
+    private static RejectedException noLeaseException() {
+        return new RejectedException("No lease available to send the request");
     }
 
     private boolean contains(int streamId) {
-        synchronized (RSocketClient.this) {
-            return receivers.containsKey(streamId);
-        }
+        return receivers.containsKey(streamId);
     }
 
     protected void cleanup() {
         senders
-            .forEach((integer, limitableRequestPublisher) -> cleanUpLimitableRequestPublisher(limitableRequestPublisher));
+            .forEach((integer, sender) -> cleanUpSender(sender));
 
         receivers
-            .forEach((integer, subscriber) -> cleanUpSubscriber(subscriber));
+            .forEach((integer, receiver) -> cleanUpReceiver(receiver));
 
-        synchronized (this) {
-            senders.clear();
-            receivers.clear();
-        }
+        senders.clear();
+        receivers.clear();
 
         if (null != keepAliveSendSub) {
             keepAliveSendSub.dispose();
         }
     }
 
-    private synchronized void cleanUpLimitableRequestPublisher(LimitableRequestPublisher<?> limitableRequestPublisher) {
-        limitableRequestPublisher.cancel();
+    private void cleanUpSender(Subscription sender) {
+        sender.cancel();
     }
 
-    private synchronized void cleanUpSubscriber(Subscriber<?> subscriber) {
-        subscriber.onError(CLOSED_CHANNEL_EXCEPTION);
+    private void cleanUpReceiver(Receiver receiver) {
+        receiver.deliverError(CLOSED_CHANNEL_EXCEPTION);
     }
 
     private void handleIncomingFrames(Frame frame) {
@@ -363,12 +310,14 @@ class RSocketClient implements RSocket {
             case ERROR:
                 throw Exceptions.from(frame);
             case LEASE: {
-
+                if (leasePermits != null) {
+                    leasePermits.update(Frame.Lease.ttl(frame), Frame.Lease.numberOfRequests(frame));
+                }
                 break;
             }
             case KEEPALIVE:
                 if (!Frame.Keepalive.hasRespondFlag(frame)) {
-                    timeLastTickSentMs = System.currentTimeMillis();
+                    timeLastAckMs = keepAliveTimer.currentTimeMillis();
                 }
                 break;
             default:
@@ -378,54 +327,42 @@ class RSocketClient implements RSocket {
         }
     }
 
-    @SuppressWarnings("unchecked")
     private void handleFrame(int streamId, FrameType type, Frame frame) {
-        Subscriber<Payload> receiver;
-        synchronized (this) {
-            receiver = receivers.get(streamId);
-        }
+        Receiver receiver = receivers.get(streamId);
         if (receiver == null) {
             handleMissingResponseProcessor(streamId, type, frame);
         } else {
             switch (type) {
                 case ERROR:
-                    receiver.onError(Exceptions.from(frame));
+                    receiver.deliverError(Exceptions.from(frame));
                     removeReceiver(streamId);
                     break;
                 case NEXT_COMPLETE:
-                    receiver.onNext(new PayloadImpl(frame));
-                    receiver.onComplete();
+                    receiver.deliverNext(frameDecoder.apply(frame));
+                    receiver.deliverComplete();
                     break;
                 case CANCEL: {
-                    LimitableRequestPublisher sender;
-                    synchronized (this) {
-                        sender = senders.remove(streamId);
-                        removeReceiver(streamId);
-                    }
+                    Subscription sender = senders.remove(streamId);
+                    removeReceiver(streamId);
                     if (sender != null) {
                         sender.cancel();
                     }
                     break;
                 }
                 case NEXT:
-                    receiver.onNext(new PayloadImpl(frame));
+                    receiver.deliverNext(frameDecoder.apply(frame));
                     break;
                 case REQUEST_N: {
-                    LimitableRequestPublisher sender;
-                    synchronized (this) {
-                        sender = senders.get(streamId);
-                    }
+                    Subscription sender = senders.get(streamId);
                     if (sender != null) {
                         int n = Frame.RequestN.requestN(frame);
-                        sender.increaseRequestLimit(n);
+                        sender.request(n);
                     }
                     break;
                 }
                 case COMPLETE:
-                    receiver.onComplete();
-                    synchronized (this) {
-                        receivers.remove(streamId);
-                    }
+                    receiver.deliverComplete();
+                    receivers.remove(streamId);
                     break;
                 default:
                     throw new IllegalStateException(
@@ -452,12 +389,622 @@ class RSocketClient implements RSocket {
         // so ignore (cancellation is async so there is a race condition)
     }
 
-    private synchronized void removeReceiver(int streamId) {
+    private void removeReceiver(int streamId) {
         receivers.remove(streamId);
     }
 
-    private synchronized void removeSender(int streamId) {
+    private void removeSender(int streamId) {
         senders.remove(streamId);
     }
 
+    /**
+     * A stream of the requester in the table of receivers, which the received frames of the stream are delivered to.
+     */
+    private interface Receiver {
+        void deliverNext(Payload payload);
+
+        void deliverError(Throwable t);
+
+        void deliverComplete();
+    }
+
+    /**
+     * Request/response, sending the request frame as soon as a subscriber subscribes. The request is also the
+     * subscription of its first subscriber, the entry of the stream in the table of receivers and the subscriber of the
+     * send of the request frame, so a request/response allocates no other object than its frames. Each further
+     * subscriber sends a request of its own.
+     * <p>
+     * The first of the response, an error, the completion of the stream or a cancel terminates the request and removes
+     * it from the table of receivers. A response received before the subscriber requests it is kept until requested,
+     * and released if the subscriber cancels instead, like a response received after the request terminated.
+     */
+    private static final class ResponseRequest extends Mono<Payload> implements Subscription, Subscriber<Void>, Receiver {
+        private static final AtomicIntegerFieldUpdater<ResponseRequest> SUBSCRIBED =
+            AtomicIntegerFieldUpdater.newUpdater(ResponseRequest.class, "subscribed");
+        private static final AtomicIntegerFieldUpdater<ResponseRequest> TERMINATED =
+            AtomicIntegerFieldUpdater.newUpdater(ResponseRequest.class, "terminated");
+        private static final AtomicIntegerFieldUpdater<ResponseRequest> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(ResponseRequest.class, "state");
+
+        private static final int NO_REQUEST = 0;
+        private static final int REQUESTED = 1;
+        private static final int HAS_RESPONSE = 2;
+        private static final int DONE = 3;
+        private static final int CANCELLED = 4;
+
+        private final RSocketClient parent;
+        private final Payload payload;
+
+        private Subscriber<? super Payload> actual;
+        private int streamId;
+        // published by the transition of the state to HAS_RESPONSE
+        private Payload response;
+
+        private volatile int subscribed;
+        private volatile int terminated;
+        private volatile int state;
+
+        private ResponseRequest(RSocketClient parent, Payload payload) {
+            this.parent = parent;
+            this.payload = payload;
+        }
+
+        @Override
+        public void subscribe(Subscriber<? super Payload> s) {
+            if (!parent.started.isTerminated()) {
+                parent.started.then(this).subscribe(s);
+                return;
+            }
+            if (subscribed != 0 || !SUBSCRIBED.compareAndSet(this, 0, 1)) {
+                new ResponseRequest(parent, payload).subscribe(s);
+                return;
+            }
+            if (!parent.useLease()) {
+                Operators.error(s, noLeaseException());
+                return;
+            }
+            actual = s;
+            streamId = parent.streamIdSupplier.nextStreamId(parent.receivers);
+            s.onSubscribe(this);
+            parent.receivers.put(streamId, this);
+            if (state == CANCELLED) {
+                parent.removeReceiver(streamId);
+                return;
+            }
+            parent.connection
+                .sendOne(Frame.Request.from(parent.allocator, streamId, FrameType.REQUEST_RESPONSE, payload, 1))
+                .subscribe(this);
+        }
+
+        @Override
+        public void request(long n) {
+            if (!Operators.validate(n)) {
+                return;
+            }
+            for (;;) {
+                final int s = state;
+                if (s == NO_REQUEST) {
+                    if (STATE.compareAndSet(this, NO_REQUEST, REQUESTED)) {
+                        return;
+                    }
+                } else if (s == HAS_RESPONSE) {
+                    if (STATE.compareAndSet(this, HAS_RESPONSE, DONE)) {
+                        final Payload r = response;
+                        response = null;
+                        actual.onNext(r);
+                        actual.onComplete();
+                    }
+                    return;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            for (;;) {
+                final int s = state;
+                if (s == DONE || s == CANCELLED) {
+                    return;
+                }
+                if (STATE.compareAndSet(this, s, CANCELLED)) {
+                    if (s == HAS_RESPONSE) {
+                        final Payload r = response;
+                        response = null;
+                        ReferenceCountUtil.release(r);
+                    }
+                    break;
+                }
+            }
+            if (TERMINATED.compareAndSet(this, 0, 1)) {
+                if (parent.connection.availability() > 0.0 && parent.receivers.remove(streamId) != null) {
+                    parent.connection
+                        .sendOne(Frame.Cancel.from(parent.allocator, streamId))
+                        .subscribe(null, parent.errorConsumer);
+                } else {
+                    parent.removeReceiver(streamId);
+                }
+            }
+        }
+
+        @Override
+        public void deliverNext(Payload received) {
+            if (!TERMINATED.compareAndSet(this, 0, 1)) {
+                ReferenceCountUtil.release(received);
+                return;
+            }
+            parent.removeReceiver(streamId);
+            response = received;
+            for (;;) {
+                final int s = state;
+                if (s == NO_REQUEST) {
+                    if (STATE.compareAndSet(this, NO_REQUEST, HAS_RESPONSE)) {
+                        return;
+                    }
+                } else if (s == REQUESTED) {
+                    if (STATE.compareAndSet(this, REQUESTED, DONE)) {
+                        response = null;
+                        actual.onNext(received);
+                        actual.onComplete();
+                        return;
+                    }
+                } else {
+                    response = null;
+                    ReferenceCountUtil.release(received);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void deliverError(Throwable t) {
+            if (TERMINATED.compareAndSet(this, 0, 1)) {
+                parent.removeReceiver(streamId);
+                terminate(t);
+            }
+        }
+
+        @Override
+        public void deliverComplete() {
+            if (TERMINATED.compareAndSet(this, 0, 1)) {
+                parent.removeReceiver(streamId);
+                terminate(null);
+            }
+        }
+
+        private void terminate(@Nullable Throwable t) {
+            for (;;) {
+                final int s = state;
+                if (s == CANCELLED) {
+                    return;
+                }
+                if (STATE.compareAndSet(this, s, DONE)) {
+                    if (t == null) {
+                        actual.onComplete();
+                    } else {
+                        actual.onError(t);
+                    }
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            s.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(Void v) {
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            // sending the request frame failed
+            parent.errorConsumer.accept(t);
+            deliverError(t);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    /**
+     * Stream or channel request, starting a new {@link ActiveStream} for each subscriber.
+     */
+    private final class StreamRequest extends Flux<Payload> {
+        private final FrameType requestType;
+        private final @Nullable Payload payload;
+        private final @Nullable Publisher<Payload> payloads;
+
+        private StreamRequest(FrameType requestType, @Nullable Payload payload, @Nullable Publisher<Payload> payloads) {
+            this.requestType = requestType;
+            this.payload = payload;
+            this.payloads = payloads;
+        }
+
+        @Override
+        public void subscribe(Subscriber<? super Payload> s) {
+            if (!started.isTerminated()) {
+                started.thenMany(this).subscribe(s);
+                return;
+            }
+            if (!useLease()) {
+                Operators.error(s, noLeaseException());
+                return;
+            }
+            final int streamId = streamIdSupplier.nextStreamId(receivers);
+            s.onSubscribe(new ActiveStream(RSocketClient.this, streamId, requestType, payload, payloads, s));
+        }
+    }
+
+    /**
+     * A stream or channel of the requester: the subscription of the subscriber of the responses and the entry of the
+     * stream in the table of receivers, which the received frames of the stream are delivered to.
+     * <p>
+     * The request frame is sent on the first request of the subscriber, with its demand as the initial request n,
+     * later demand is sent as REQUEST_N frames once the request frame went out. Payloads are handed to the subscriber
+     * directly while it has demand and queued otherwise, payloads that are not delivered are released. A cancel racing
+     * with the request frame is sent by whichever side comes second, so it always follows the request frame.
+     * <p>
+     * The stream also subscribes to the sends of its own frames, which complete without values and carry no state.
+     */
+    private static final class ActiveStream implements Subscription, Subscriber<Void>, Receiver {
+        private static final int NOT_REQUESTED = 0;
+        private static final int REQUESTING = 1;
+        private static final int REQUESTED = 2;
+        private static final int CANCELLED = 3;
+
+        private static final AtomicIntegerFieldUpdater<ActiveStream> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(ActiveStream.class, "state");
+        private static final AtomicIntegerFieldUpdater<ActiveStream> TERMINATED =
+            AtomicIntegerFieldUpdater.newUpdater(ActiveStream.class, "terminated");
+        private static final AtomicIntegerFieldUpdater<ActiveStream> WIP =
+            AtomicIntegerFieldUpdater.newUpdater(ActiveStream.class, "wip");
+        private static final AtomicLongFieldUpdater<ActiveStream> DEMAND =
+            AtomicLongFieldUpdater.newUpdater(ActiveStream.class, "requested");
+        private static final AtomicLongFieldUpdater<ActiveStream> PENDING_REQUEST_N =
+            AtomicLongFieldUpdater.newUpdater(ActiveStream.class, "pendingRequestN");
+
+        private final RSocketClient parent;
+        private final int streamId;
+        private final FrameType requestType;
+        private final @Nullable Payload payload;
+        private final @Nullable Publisher<Payload> payloads;
+        private final Subscriber<? super Payload> actual;
+        private final @Nullable CreditWindow.Credit credit;
+
+        // created by the receiving thread the first time a payload can not be handed to the subscriber directly
+        private volatile @Nullable Queue<Payload> queue;
+        private volatile @Nullable ChannelOutbound outbound;
+        private volatile int state;
+        private volatile int terminated;
+        private volatile int wip;
+        private volatile long requested;
+        // credit to send once the request frame went out, -1 after
+        private volatile long pendingRequestN;
+        private volatile boolean cancelled;
+        private volatile boolean done;
+        private @Nullable Throwable error;
+
+        private ActiveStream(RSocketClient parent, int streamId, FrameType requestType, @Nullable Payload payload,
+                             @Nullable Publisher<Payload> payloads, Subscriber<? super Payload> actual) {
+            this.parent = parent;
+            this.streamId = streamId;
+            this.requestType = requestType;
+            this.payload = payload;
+            this.payloads = payloads;
+            this.actual = actual;
+            this.credit = parent.creditWindow == null ? null : parent.creditWindow.newCredit(true, 0);
+        }
+
+        @Override
+        public void request(long n) {
+            if (cancelled) {
+                return;
+            }
+            if (Operators.checkRequest(n, actual)) {
+                Operators.getAndAddCap(DEMAND, this, n);
+                final CreditWindow.Credit credit = this.credit;
+                final long requestN = credit == null ? n : credit.request(n);
+                if (state == NOT_REQUESTED && STATE.compareAndSet(this, NOT_REQUESTED, REQUESTING)) {
+                    sendRequest(requestN);
+                } else {
+                    sendRequestN(requestN);
+                }
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            for (;;) {
+                final int state = this.state;
+                if (state == REQUESTED) {
+                    if (isValidToSendFrame()) {
+                        send(Frame.Cancel.from(parent.allocator, streamId));
+                    }
+                    break;
+                }
+                // no request frame went out yet, one that still does is followed by the cancel
+                if (state == CANCELLED || STATE.compareAndSet(this, state, CANCELLED)) {
+                    break;
+                }
+            }
+            final ChannelOutbound outbound = this.outbound;
+            if (outbound != null) {
+                outbound.cancel();
+            }
+            remove();
+            drain();
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            s.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(Void v) {
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            // sending a frame of the stream failed
+            parent.errorConsumer.accept(t);
+            deliverError(t);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        @Override
+        public void deliverNext(Payload payload) {
+            if (done || cancelled) {
+                ReferenceCountUtil.release(payload);
+                return;
+            }
+            if (wip == 0 && WIP.compareAndSet(this, 0, 1)) {
+                final long r = requested;
+                final Queue<Payload> q = queue;
+                if (r != 0 && !cancelled && (q == null || q.isEmpty())) {
+                    actual.onNext(payload);
+                    if (r != Long.MAX_VALUE) {
+                        DEMAND.decrementAndGet(this);
+                    }
+                    consumed();
+                    if (WIP.decrementAndGet(this) == 0) {
+                        return;
+                    }
+                } else {
+                    queue().offer(payload);
+                }
+                drainLoop();
+            } else {
+                queue().offer(payload);
+                drain();
+            }
+        }
+
+        @Override
+        public void deliverError(Throwable t) {
+            if (TERMINATED.compareAndSet(this, 0, 1)) {
+                error = t;
+                done = true;
+                drain();
+            }
+        }
+
+        @Override
+        public void deliverComplete() {
+            if (TERMINATED.compareAndSet(this, 0, 1)) {
+                done = true;
+                drain();
+            }
+        }
+
+        private void sendRequest(long initialRequestN) {
+            parent.receivers.put(streamId, this);
+            final ChannelOutbound outbound = payloads == null ? null : new ChannelOutbound(initialRequestN);
+            if (outbound != null) {
+                this.outbound = outbound;
+                parent.senders.put(streamId, outbound);
+            }
+            if (state == CANCELLED) {
+                // cancel may have removed the stream before it was added
+                remove();
+                return;
+            }
+            if (outbound == null) {
+                send(Frame.Request.from(parent.allocator, streamId, requestType, payload, initialRequestN));
+                requestFrameSent();
+            } else {
+                // the first payload goes out with the request frame, the responder requests the rest
+                outbound.request(1);
+                payloads.subscribe(outbound);
+            }
+        }
+
+        private void requestFrameSent() {
+            if (!STATE.compareAndSet(this, REQUESTING, REQUESTED)) {
+                // cancelled while the request frame was going out
+                if (!done && parent.connection.availability() > 0.0) {
+                    send(Frame.Cancel.from(parent.allocator, streamId));
+                }
+                remove();
+                return;
+            }
+            final long n = PENDING_REQUEST_N.getAndSet(this, -1);
+            if (n > 0 && isValidToSendFrame()) {
+                send(Frame.RequestN.from(parent.allocator, streamId, n));
+            }
+        }
+
+        private void sendRequestN(long n) {
+            if (n <= 0) {
+                return;
+            }
+            for (;;) {
+                final long pending = pendingRequestN;
+                if (pending < 0) {
+                    if (isValidToSendFrame()) {
+                        send(Frame.RequestN.from(parent.allocator, streamId, n));
+                    }
+                    return;
+                }
+                if (PENDING_REQUEST_N.compareAndSet(this, pending, Operators.addCap(pending, n))) {
+                    return;
+                }
+            }
+        }
+
+        private void consumed() {
+            final CreditWindow.Credit credit = this.credit;
+            if (credit != null) {
+                sendRequestN(credit.consumed());
+            }
+        }
+
+        private boolean isValidToSendFrame() {
+            return !done && parent.contains(streamId) && parent.connection.availability() > 0.0;
+        }
+
+        private void send(Frame frame) {
+            parent.connection
+                .sendOne(frame)
+                .subscribe(this);
+        }
+
+        private void remove() {
+            parent.removeReceiver(streamId);
+            parent.removeSender(streamId);
+        }
+
+        private Queue<Payload> queue() {
+            Queue<Payload> q = queue;
+            if (q == null) {
+                q = QueueSupplier.<Payload>unbounded().get();
+                queue = q;
+            }
+            return q;
+        }
+
+        private void drain() {
+            if (WIP.getAndIncrement(this) == 0) {
+                drainLoop();
+            }
+        }
+
+        private void drainLoop() {
+            int missed = 1;
+            for (;;) {
+                final Queue<Payload> q = queue;
+                final long r = requested;
+                long e = 0;
+                for (;;) {
+                    if (cancelled) {
+                        clear();
+                        break;
+                    }
+                    final boolean d = done;
+                    final Payload payload = e == r || q == null ? null : q.poll();
+                    if (payload == null) {
+                        if (d && (q == null || q.isEmpty())) {
+                            terminate();
+                            return;
+                        }
+                        break;
+                    }
+                    actual.onNext(payload);
+                    e++;
+                    consumed();
+                }
+                if (e != 0 && r != Long.MAX_VALUE) {
+                    DEMAND.addAndGet(this, -e);
+                }
+
+                missed = WIP.addAndGet(this, -missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        private void terminate() {
+            remove();
+            final Throwable e = error;
+            if (e != null) {
+                actual.onError(e);
+            } else {
+                actual.onComplete();
+            }
+        }
+
+        private void clear() {
+            final Queue<Payload> q = queue;
+            if (q != null) {
+                Payload payload;
+                while ((payload = q.poll()) != null) {
+                    ReferenceCountUtil.release(payload);
+                }
+            }
+        }
+
+        /**
+         * Sends the payloads of a channel, the first one in the request frame, as requested by the responder.
+         */
+        private final class ChannelOutbound extends Operators.DeferredSubscription implements Subscriber<Payload> {
+            private final long initialRequestN;
+            private boolean first = true;
+
+            private ChannelOutbound(long initialRequestN) {
+                this.initialRequestN = initialRequestN;
+            }
+
+            @Override
+            public void onSubscribe(Subscription s) {
+                set(s);
+            }
+
+            @Override
+            public void onNext(Payload payload) {
+                if (first) {
+                    if (state == CANCELLED) {
+                        ReferenceCountUtil.release(payload);
+                        return;
+                    }
+                    first = false;
+                    send(Frame.Request.from(parent.allocator, streamId, requestType, payload, initialRequestN));
+                    requestFrameSent();
+                } else {
+                    send(Frame.PayloadFrame.from(parent.allocator, streamId, FrameType.NEXT, payload));
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                if (!first && isValidToSendFrame()) {
+                    send(Frame.Error.from(parent.allocator, streamId, t));
+                }
+                ActiveStream.this.deliverError(t);
+            }
+
+            @Override
+            public void onComplete() {
+                if (first) {
+                    // no request frame was sent, there is no stream to complete at the responder
+                    ActiveStream.this.deliverComplete();
+                } else if (isValidToSendFrame()) {
+                    send(Frame.PayloadFrame.from(parent.allocator, streamId, FrameType.COMPLETE));
+                }
+            }
+        }
+    }
 }
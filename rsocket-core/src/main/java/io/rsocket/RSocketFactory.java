@@ -1,14 +1,32 @@
 package io.rsocket;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.rsocket.exceptions.InvalidSetupException;
+import io.rsocket.exceptions.RejectedSetupException;
+import io.rsocket.exceptions.UnsupportedSetupException;
 import io.rsocket.fragmentation.FragmentationDuplexConnection;
 import io.rsocket.frame.SetupFrameFlyweight;
 import io.rsocket.internal.ClientServerInputMultiplexer;
+import io.rsocket.internal.PeekingDuplexConnection;
+import io.rsocket.internal.TimerWheel;
+import io.rsocket.lease.LeaseManager;
+import io.rsocket.resume.ClientResumption;
+import io.rsocket.resume.ResumableDuplexConnection;
+import io.rsocket.resume.ServerResumption;
+import io.rsocket.server.AdaptiveConcurrencyLimiter;
 import io.rsocket.transport.ClientTransport;
 import io.rsocket.transport.ServerTransport;
+import io.rsocket.util.FramePayload;
 import io.rsocket.util.PayloadImpl;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
 import java.time.Duration;
+import java.util.UUID;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -59,6 +77,13 @@ public interface RSocketFactory {
 
     interface Fragmentation<R extends Acceptor<T, A, B>, T extends io.rsocket.transport.Transport, A, B extends Closeable> {
         R fragment(int mtu);
+
+        /**
+         * Limits the memory used to reassemble received fragments to {@code maxFrameSize} bytes of metadata and data
+         * per frame and {@code maxConnectionBytes} for all frames of a connection. Streams of frames over a limit fail
+         * with an ERROR. Defaults to 16 MiB per frame and 64 MiB per connection.
+         */
+        R reassemblyLimits(int maxFrameSize, int maxConnectionBytes);
     }
 
     interface ErrorConsumer<R extends Acceptor<T, A, B>, T extends io.rsocket.transport.Transport, A, B extends Closeable> {
@@ -75,6 +100,128 @@ public interface RSocketFactory {
         T keepAliveAckTimeout(Duration ackTimeout);
 
         T keepAliveMissedAcks(int missedAcks);
+
+        /**
+         * Timer wheel that sends keepalives and detects missed acks. Defaults to {@link TimerWheel#shared()}, which
+         * serves the keepalives of all connections of the JVM from a single periodic task.
+         */
+        T keepAliveTimer(TimerWheel timer);
+    }
+
+    interface FrameDecoder<T> {
+        /**
+         * Function used to create the {@link Payload}s handed to requesters and responders from received frames.
+         * Defaults to copying the payload out of the frame, {@link FramePayload#from(Frame)} avoids the copy but
+         * requires the consumer to release every payload it receives.
+         */
+        T frameDecoder(Function<Frame, ? extends Payload> frameDecoder);
+    }
+
+    interface Allocator<T> {
+        /**
+         * Allocator used to encode outbound frames and reassemble fragments. Defaults to the allocator of the
+         * {@link DuplexConnection}, which for Netty transports is the allocator of the channel.
+         */
+        T byteBufAllocator(ByteBufAllocator allocator);
+    }
+
+    interface ResponderScheduler<T> {
+        /**
+         * Scheduler on which the requests received by the responder are handled, so slow handlers do not hold up the
+         * thread that receives frames. Frames of a stream are handled in order. Defaults to handling requests on the
+         * thread that received them, usually the event loop of the transport. Use
+         * {@link reactor.core.scheduler.Schedulers#fromExecutor} to hand requests to an {@code Executor}.
+         */
+        T responderScheduler(Scheduler scheduler);
+
+        /**
+         * Number of received frames waiting for the {@link #responderScheduler responder scheduler} at which new
+         * requests are rejected with a {@link io.rsocket.exceptions.RejectedException}. Defaults to 1024.
+         */
+        T responderQueueCapacity(int capacity);
+    }
+
+    interface ConcurrencyLimit<T> {
+        /**
+         * Limits the number of requests each connection handles at once, using a limiter from {@code limiterSupplier}
+         * for every connection. Requests over the limit are rejected with a
+         * {@link io.rsocket.exceptions.RejectedException} without invoking the handler.
+         */
+        T connectionConcurrencyLimiter(Supplier<AdaptiveConcurrencyLimiter> limiterSupplier);
+
+        /**
+         * Limits the number of requests handled at once by all connections sharing {@code limiter}.
+         */
+        T globalConcurrencyLimiter(AdaptiveConcurrencyLimiter limiter);
+    }
+
+    interface HonorDeadline<T> {
+        /**
+         * Negotiates deadlines in the SETUP frame, so both peers send the deadlines of their requests in the metadata,
+         * see {@link io.rsocket.util.Deadlines}, and honor the deadlines of the requests they receive. Requests received
+         * past their deadline are rejected with a {@link io.rsocket.exceptions.RejectedException} without invoking the
+         * handler, and handlers still running at the deadline are cancelled. The deadline is removed from the metadata
+         * passed to the handler. Without negotiation deadlines are not sent and only expire requests locally.
+         */
+        T honorDeadlines();
+    }
+
+    interface StreamCredit<T> {
+        /**
+         * Grants credit to the senders of streams and channels in batches of a window of {@code prefetch} payloads,
+         * replenished once a quarter of it is left, instead of sending a REQUEST_N frame for every request of the
+         * subscriber. See {@link CreditWindow}.
+         */
+        T creditWindow(int prefetch);
+
+        /**
+         * Grants credit in batches as {@link #creditWindow(int)}, counting the REQUEST_N frames sent and saved in
+         * {@code window}.
+         */
+        T creditWindow(CreditWindow window);
+    }
+
+    interface HonorLease<T> {
+        /**
+         * Tells the server that requests are only sent within the leases it grants. Requests without a valid lease
+         * fail with a {@link io.rsocket.exceptions.RejectedException} and are not sent, and
+         * {@link RSocket#availability()} is the fraction of the requests of the lease still available.
+         */
+        T honorLease();
+    }
+
+    interface GrantLease<T> {
+        /**
+         * Grants leases of {@code ttl} to clients that honor leases, sized from the capacity measured by the
+         * concurrency limiter of the connection, see {@link LeaseManager#fromLimiter}. Connections without a
+         * {@link ConcurrencyLimit#connectionConcurrencyLimiter connection limiter} get a default one.
+         */
+        T lease(Duration ttl);
+
+        /**
+         * Grants leases from a lease manager created for each connection whose client honors leases.
+         */
+        T lease(Supplier<LeaseManager> leaseManagerSupplier);
+    }
+
+    interface Resume<T> {
+        /**
+         * Resumes the session on a new connection when the transport connection drops: requests in flight continue
+         * and frames that were lost with the connection are sent again. Both the client and the server must enable
+         * resumption. Sessions are only kept in memory.
+         */
+        T resume();
+
+        /**
+         * Time a dropped session may take to be resumed before it is closed. Defaults to one minute.
+         */
+        T resumeSessionDuration(Duration sessionDuration);
+
+        /**
+         * Maximum bytes of sent frames retained until the peer acknowledges them in a keepalive. A session can not be
+         * resumed if the peer missed frames that were dropped from a full buffer. Defaults to 1 MiB.
+         */
+        T resumeRetentionCapacity(int bytes);
     }
 
     interface MimeType<T> {
@@ -88,6 +235,14 @@ public interface RSocketFactory {
     class ClientRSocketFactory implements
             KeepAlive<ClientRSocketFactory>,
             MimeType<ClientRSocketFactory>,
+            FrameDecoder<ClientRSocketFactory>,
+            Allocator<ClientRSocketFactory>,
+            ResponderScheduler<ClientRSocketFactory>,
+            ConcurrencyLimit<ClientRSocketFactory>,
+            HonorDeadline<ClientRSocketFactory>,
+            StreamCredit<ClientRSocketFactory>,
+            HonorLease<ClientRSocketFactory>,
+            Resume<ClientRSocketFactory>,
             Acceptor<ClientTransport, Function<RSocket, RSocket>, RSocket>,
             Transport<ClientTransport, RSocket>,
             Fragmentation<ClientRSocketFactory, ClientTransport, Function<RSocket, RSocket>, RSocket>,
@@ -101,14 +256,29 @@ public interface RSocketFactory {
 
         private Supplier<io.rsocket.transport.ClientTransport> transportClient;
         private Consumer<Throwable> errorConsumer = Throwable::printStackTrace;
+        private Function<Frame, ? extends Payload> frameDecoder = PayloadImpl::new;
+        private @Nullable ByteBufAllocator allocator;
+        private @Nullable Scheduler responderScheduler;
+        private int responderQueueCapacity = ResponderDispatcher.DEFAULT_QUEUE_CAPACITY;
+        private @Nullable Supplier<AdaptiveConcurrencyLimiter> connectionLimiter;
+        private @Nullable AdaptiveConcurrencyLimiter globalLimiter;
+        private @Nullable CreditWindow creditWindow;
         private int mtu = 0;
+        private int maxReassembledSize = FragmentationDuplexConnection.DEFAULT_MAX_REASSEMBLED_SIZE;
+        private int maxReassemblyBytes = FragmentationDuplexConnection.DEFAULT_MAX_REASSEMBLY_BYTES;
         private int flags = SetupFrameFlyweight.FLAGS_STRICT_INTERPRETATION;
+        private boolean honorLease;
+        private boolean honorDeadlines;
+        private boolean resume;
+        private Duration resumeSessionDuration = ResumableDuplexConnection.DEFAULT_SESSION_DURATION;
+        private int resumeRetentionCapacity = ResumableDuplexConnection.DEFAULT_RETENTION_CAPACITY;
 
         private Payload setupPayload = PayloadImpl.EMPTY;
 
         private Duration tickPeriod = Duration.ZERO;
         private Duration ackTimeout = Duration.ofSeconds(30);
         private int missedAcks = 3;
+        private TimerWheel keepAliveTimer = TimerWheel.shared();
 
         private String dataMineType = "application/binary";
         private String metadataMimeType = "application/binary";
@@ -145,6 +315,12 @@ public interface RSocketFactory {
             return this;
         }
 
+        @Override
+        public ClientRSocketFactory keepAliveTimer(TimerWheel timer) {
+            this.keepAliveTimer = timer;
+            return this;
+        }
+
         @Override
         public ClientRSocketFactory mimeType(String dataMineType, String metadataMimeType) {
             this.dataMineType = dataMineType;
@@ -164,6 +340,85 @@ public interface RSocketFactory {
             return this;
         }
 
+        @Override
+        public ClientRSocketFactory frameDecoder(Function<Frame, ? extends Payload> frameDecoder) {
+            this.frameDecoder = frameDecoder;
+            return this;
+        }
+
+        @Override
+        public ClientRSocketFactory byteBufAllocator(ByteBufAllocator allocator) {
+            this.allocator = allocator;
+            return this;
+        }
+
+        @Override
+        public ClientRSocketFactory responderScheduler(Scheduler scheduler) {
+            this.responderScheduler = scheduler;
+            return this;
+        }
+
+        @Override
+        public ClientRSocketFactory responderQueueCapacity(int capacity) {
+            this.responderQueueCapacity = capacity;
+            return this;
+        }
+
+        @Override
+        public ClientRSocketFactory honorLease() {
+            this.honorLease = true;
+            this.flags |= SetupFrameFlyweight.FLAGS_WILL_HONOR_LEASE;
+            return this;
+        }
+
+        @Override
+        public ClientRSocketFactory resume() {
+            this.resume = true;
+            return this;
+        }
+
+        @Override
+        public ClientRSocketFactory resumeSessionDuration(Duration sessionDuration) {
+            this.resumeSessionDuration = sessionDuration;
+            return this;
+        }
+
+        @Override
+        public ClientRSocketFactory resumeRetentionCapacity(int bytes) {
+            this.resumeRetentionCapacity = bytes;
+            return this;
+        }
+
+        @Override
+        public ClientRSocketFactory connectionConcurrencyLimiter(Supplier<AdaptiveConcurrencyLimiter> limiterSupplier) {
+            this.connectionLimiter = limiterSupplier;
+            return this;
+        }
+
+        @Override
+        public ClientRSocketFactory globalConcurrencyLimiter(AdaptiveConcurrencyLimiter limiter) {
+            this.globalLimiter = limiter;
+            return this;
+        }
+
+        @Override
+        public ClientRSocketFactory honorDeadlines() {
+            this.honorDeadlines = true;
+            this.flags |= SetupFrameFlyweight.FLAGS_WILL_HONOR_DEADLINES;
+            return this;
+        }
+
+        @Override
+        public ClientRSocketFactory creditWindow(int prefetch) {
+            return creditWindow(new CreditWindow(prefetch));
+        }
+
+        @Override
+        public ClientRSocketFactory creditWindow(CreditWindow window) {
+            this.creditWindow = window;
+            return this;
+        }
+
         @Override
         public Start<RSocket> transport(Supplier<io.rsocket.transport.ClientTransport> t) {
             return new ClientTransport().transport(t);
@@ -189,6 +444,13 @@ public interface RSocketFactory {
             return this;
         }
 
+        @Override
+        public ClientRSocketFactory reassemblyLimits(int maxFrameSize, int maxConnectionBytes) {
+            this.maxReassembledSize = maxFrameSize;
+            this.maxReassemblyBytes = maxConnectionBytes;
+            return this;
+        }
+
         @Override
         public ClientRSocketFactory errorConsumer(Consumer<Throwable> errorConsumer) {
             this.errorConsumer = errorConsumer;
@@ -207,20 +469,45 @@ public interface RSocketFactory {
                 return transportClient
                         .get()
                         .connect()
-                        .then(connection -> {
-                            Frame setupFrame = Frame.Setup
-                                    .from(
-                                            flags,
-                                            (int) ackTimeout.toMillis(),
-                                            (int) ackTimeout.toMillis() * missedAcks,
-                                            dataMineType,
-                                            metadataMimeType,
-                                            setupPayload);
-
+                        .then(transportConnection -> {
+                            ByteBufAllocator alloc = allocator != null ? allocator : transportConnection.alloc();
+                            DuplexConnection connection;
+                            Frame setupFrame;
+                            if (resume) {
+                                ByteBuf resumeToken = resumeToken();
+                                connection = new ResumableDuplexConnection(
+                                        resumeToken,
+                                        transportConnection,
+                                        resumeSessionDuration,
+                                        resumeRetentionCapacity,
+                                        new ClientResumption(transportClient, alloc, Duration.ofSeconds(1), errorConsumer));
+                                setupFrame = Frame.Setup
+                                        .from(
+                                                alloc,
+                                                flags,
+                                                (int) ackTimeout.toMillis(),
+                                                (int) ackTimeout.toMillis() * missedAcks,
+                                                resumeToken,
+                                                dataMineType,
+                                                metadataMimeType,
+                                                setupPayload);
+                            } else {
+                                connection = transportConnection;
+                                setupFrame = Frame.Setup
+                                        .from(
+                                                alloc,
+                                                flags,
+                                                (int) ackTimeout.toMillis(),
+                                                (int) ackTimeout.toMillis() * missedAcks,
+                                                dataMineType,
+                                                metadataMimeType,
+                                                setupPayload);
+                            }
 
                             ClientServerInputMultiplexer multiplexer;
                             if (mtu > 0) {
-                                multiplexer = new ClientServerInputMultiplexer(new FragmentationDuplexConnection(connection, mtu));
+                                multiplexer = new ClientServerInputMultiplexer(new FragmentationDuplexConnection(
+                                        connection, alloc, mtu, maxReassembledSize, maxReassemblyBytes));
                             } else {
                                 multiplexer = new ClientServerInputMultiplexer(connection);
                             }
@@ -228,15 +515,20 @@ public interface RSocketFactory {
                             RSocketClient rSocketClient
                                     = new RSocketClient(
                                     multiplexer.asClientConnection(),
+                                    alloc,
+                                    frameDecoder,
                                     errorConsumer,
                                     StreamIdSupplier.clientSupplier(),
                                     tickPeriod,
                                     ackTimeout,
-                                    missedAcks);
+                                    missedAcks,
+                                    honorLease,
+                                    keepAliveTimer,
+                                    creditWindow);
 
                             return Plugins
                                     .CLIENT_REACTIVE_SOCKET_INTERCEPTOR
-                                    .apply(rSocketClient)
+                                    .apply(new DeadlineRequester(rSocketClient, honorDeadlines))
                                     .then(wrappedClientRSocket -> {
                                         RSocket unwrappedServerSocket = acceptor.get().apply(wrappedClientRSocket);
                                         return Plugins
@@ -245,8 +537,16 @@ public interface RSocketFactory {
                                                 .doOnNext(rSocket ->
                                                         new RSocketServer(
                                                                 multiplexer.asServerConnection(),
+                                                                alloc,
                                                                 rSocket,
-                                                                errorConsumer)
+                                                                frameDecoder,
+                                                                errorConsumer,
+                                                                responderScheduler,
+                                                                responderQueueCapacity,
+                                                                connectionLimiter == null ? null : connectionLimiter.get(),
+                                                                globalLimiter,
+                                                                honorDeadlines ? TimerWheel.shared() : null,
+                                                                creditWindow)
                                                 )
                                                 .then(connection.sendOne(setupFrame))
                                                 .then(Mono.just(wrappedClientRSocket));
@@ -254,17 +554,46 @@ public interface RSocketFactory {
                         });
             }
         }
+
+        private ByteBuf resumeToken() {
+            UUID uuid = UUID.randomUUID();
+            return Unpooled.wrappedBuffer(ByteBuffer
+                    .allocate(Long.BYTES * 2)
+                    .putLong(0, uuid.getMostSignificantBits())
+                    .putLong(Long.BYTES, uuid.getLeastSignificantBits()));
+        }
     }
 
     class ServerRSocketFactory implements
             Acceptor<ServerTransport, SocketAcceptor, Closeable>,
             Fragmentation<ServerRSocketFactory, ServerTransport, SocketAcceptor, Closeable>,
+            FrameDecoder<ServerRSocketFactory>,
+            Allocator<ServerRSocketFactory>,
+            ResponderScheduler<ServerRSocketFactory>,
+            ConcurrencyLimit<ServerRSocketFactory>,
+            StreamCredit<ServerRSocketFactory>,
+            GrantLease<ServerRSocketFactory>,
+            Resume<ServerRSocketFactory>,
             ErrorConsumer<ServerRSocketFactory, ServerTransport, SocketAcceptor, Closeable> {
 
         private Supplier<SocketAcceptor> acceptor;
         private Supplier<io.rsocket.transport.ServerTransport> transportServer;
         private Consumer<Throwable> errorConsumer = Throwable::printStackTrace;
+        private Function<Frame, ? extends Payload> frameDecoder = PayloadImpl::new;
+        private @Nullable ByteBufAllocator allocator;
+        private @Nullable Scheduler responderScheduler;
+        private int responderQueueCapacity = ResponderDispatcher.DEFAULT_QUEUE_CAPACITY;
+        private @Nullable Supplier<AdaptiveConcurrencyLimiter> connectionLimiter;
+        private @Nullable AdaptiveConcurrencyLimiter globalLimiter;
+        private @Nullable CreditWindow creditWindow;
+        private @Nullable Duration leaseTtl;
+        private @Nullable Supplier<LeaseManager> leaseManagerSupplier;
+        private boolean resume;
+        private Duration resumeSessionDuration = ResumableDuplexConnection.DEFAULT_SESSION_DURATION;
+        private int resumeRetentionCapacity = ResumableDuplexConnection.DEFAULT_RETENTION_CAPACITY;
         private int mtu = 0;
+        private int maxReassembledSize = FragmentationDuplexConnection.DEFAULT_MAX_REASSEMBLED_SIZE;
+        private int maxReassemblyBytes = FragmentationDuplexConnection.DEFAULT_MAX_REASSEMBLY_BYTES;
 
         private ServerRSocketFactory() {
         }
@@ -281,12 +610,98 @@ public interface RSocketFactory {
             return this;
         }
 
+        @Override
+        public ServerRSocketFactory reassemblyLimits(int maxFrameSize, int maxConnectionBytes) {
+            this.maxReassembledSize = maxFrameSize;
+            this.maxReassemblyBytes = maxConnectionBytes;
+            return this;
+        }
+
         @Override
         public ServerRSocketFactory errorConsumer(Consumer<Throwable> errorConsumer) {
             this.errorConsumer = errorConsumer;
             return this;
         }
 
+        @Override
+        public ServerRSocketFactory frameDecoder(Function<Frame, ? extends Payload> frameDecoder) {
+            this.frameDecoder = frameDecoder;
+            return this;
+        }
+
+        @Override
+        public ServerRSocketFactory byteBufAllocator(ByteBufAllocator allocator) {
+            this.allocator = allocator;
+            return this;
+        }
+
+        @Override
+        public ServerRSocketFactory responderScheduler(Scheduler scheduler) {
+            this.responderScheduler = scheduler;
+            return this;
+        }
+
+        @Override
+        public ServerRSocketFactory responderQueueCapacity(int capacity) {
+            this.responderQueueCapacity = capacity;
+            return this;
+        }
+
+        @Override
+        public ServerRSocketFactory lease(Duration ttl) {
+            this.leaseTtl = ttl;
+            this.leaseManagerSupplier = null;
+            return this;
+        }
+
+        @Override
+        public ServerRSocketFactory lease(Supplier<LeaseManager> leaseManagerSupplier) {
+            this.leaseManagerSupplier = leaseManagerSupplier;
+            this.leaseTtl = null;
+            return this;
+        }
+
+        @Override
+        public ServerRSocketFactory resume() {
+            this.resume = true;
+            return this;
+        }
+
+        @Override
+        public ServerRSocketFactory resumeSessionDuration(Duration sessionDuration) {
+            this.resumeSessionDuration = sessionDuration;
+            return this;
+        }
+
+        @Override
+        public ServerRSocketFactory resumeRetentionCapacity(int bytes) {
+            this.resumeRetentionCapacity = bytes;
+            return this;
+        }
+
+        @Override
+        public ServerRSocketFactory connectionConcurrencyLimiter(Supplier<AdaptiveConcurrencyLimiter> limiterSupplier) {
+            this.connectionLimiter = limiterSupplier;
+            return this;
+        }
+
+        @Override
+        public ServerRSocketFactory globalConcurrencyLimiter(AdaptiveConcurrencyLimiter limiter) {
+            this.globalLimiter = limiter;
+            return this;
+        }
+
+        @Override
+        public ServerRSocketFactory creditWindow(int prefetch) {
+            return creditWindow(new CreditWindow(prefetch));
+        }
+
+        @Override
+        public ServerRSocketFactory creditWindow(CreditWindow window) {
+            this.creditWindow = window;
+            return this;
+        }
+
         private class ServerTransport implements Transport<io.rsocket.transport.ServerTransport, Closeable> {
             @Override
             public Start transport(Supplier<io.rsocket.transport.ServerTransport> transportServer) {
@@ -296,52 +711,146 @@ public interface RSocketFactory {
         }
 
         private class ServerStart implements Start {
+            private final @Nullable ServerResumption resumption =
+                    resume ? new ServerResumption(resumeSessionDuration, resumeRetentionCapacity) : null;
+
             @Override
             public Mono<Closeable> start() {
                 return transportServer
                         .get()
                         .start(connection -> {
-                            ClientServerInputMultiplexer multiplexer;
-                            if (mtu > 0) {
-                                multiplexer = new ClientServerInputMultiplexer(new FragmentationDuplexConnection(connection, mtu));
-                            } else {
-                                multiplexer = new ClientServerInputMultiplexer(connection);
+                            if (resumption != null) {
+                                return acceptResumable(connection, resumption);
                             }
 
+                            ClientServerInputMultiplexer multiplexer = multiplexer(connection);
                             return multiplexer
                                     .asStreamZeroConnection()
                                     .receive()
                                     .next()
-                                    .then(setupFrame -> {
-                                        ConnectionSetupPayload setupPayload = ConnectionSetupPayload.create(setupFrame);
-
-                                        RSocketClient rSocketClient
-                                                = new RSocketClient(
-                                                multiplexer.asServerConnection(),
-                                                errorConsumer,
-                                                StreamIdSupplier.serverSupplier());
-
-                                        Mono<RSocket> wrappedRSocketClient
-                                                = Plugins
-                                                .CLIENT_REACTIVE_SOCKET_INTERCEPTOR
-                                                .apply(rSocketClient);
-
-                                        return wrappedRSocketClient
-                                                .then(sender ->
-                                                        acceptor
-                                                                .get()
-                                                                .accept(setupPayload, sender)
-                                                                .then(Plugins.SERVER_REACTIVE_SOCKET_INTERCEPTOR::apply)
-                                                )
-                                                .map(handler ->
-                                                        new RSocketServer(
-                                                                multiplexer.asClientConnection(),
-                                                                handler,
-                                                                errorConsumer))
-                                                .then();
-                                    });
+                                    .then(setupFrame -> acceptSetup(connection, multiplexer, setupFrame));
+                        });
+
+            }
+
+            /**
+             * The first frame of a connection either sets up a new session or resumes one, so it is read before the
+             * connection is handed to a session.
+             */
+            private Mono<Void> acceptResumable(DuplexConnection connection, ServerResumption resumption) {
+                PeekingDuplexConnection peeking = new PeekingDuplexConnection(connection);
+                return peeking
+                        .firstFrame()
+                        .then(frame -> {
+                            if (frame.getType() == FrameType.RESUME) {
+                                try {
+                                    return resumption.resume(peeking, frame);
+                                } finally {
+                                    frame.release();
+                                }
+                            }
+
+                            if (frame.getType() != FrameType.SETUP) {
+                                frame.release();
+                                return reject(peeking, new InvalidSetupException("Expected a SETUP or RESUME frame"));
+                            }
+
+                            DuplexConnection source = peeking;
+                            if ((Frame.Setup.getFlags(frame) & SetupFrameFlyweight.FLAGS_RESUME_ENABLE) != 0) {
+                                source = resumption.create(peeking, Frame.Setup.resumeToken(frame));
+                                if (source == null) {
+                                    return reject(peeking, new RejectedSetupException("Resume token already in use"));
+                                }
+                            }
+                            return acceptSetup(source, multiplexer(source), frame);
                         });
+            }
+
+            private ClientServerInputMultiplexer multiplexer(DuplexConnection connection) {
+                if (mtu > 0) {
+                    ByteBufAllocator alloc = allocator != null ? allocator : connection.alloc();
+                    return new ClientServerInputMultiplexer(new FragmentationDuplexConnection(
+                            connection, alloc, mtu, maxReassembledSize, maxReassemblyBytes));
+                } else {
+                    return new ClientServerInputMultiplexer(connection);
+                }
+            }
+
+            private Mono<Void> reject(DuplexConnection connection, Throwable error) {
+                return connection
+                        .sendOne(Frame.Error.from(connection.alloc(), 0, error))
+                        .then(connection.close());
+            }
 
+            private Mono<Void> acceptSetup(DuplexConnection connection, ClientServerInputMultiplexer multiplexer,
+                                           Frame setupFrame) {
+                if (resumption == null
+                        && (Frame.Setup.getFlags(setupFrame) & SetupFrameFlyweight.FLAGS_RESUME_ENABLE) != 0) {
+                    return reject(connection, new UnsupportedSetupException("Resumption is not enabled"));
+                }
+
+                ByteBufAllocator alloc = allocator != null ? allocator : connection.alloc();
+                ConnectionSetupPayload setupPayload = ConnectionSetupPayload.create(setupFrame);
+
+                RSocketClient rSocketClient
+                        = new RSocketClient(
+                        multiplexer.asServerConnection(),
+                        alloc,
+                        frameDecoder,
+                        errorConsumer,
+                        StreamIdSupplier.serverSupplier(),
+                        Duration.ZERO,
+                        Duration.ZERO,
+                        0,
+                        false,
+                        TimerWheel.shared(),
+                        creditWindow);
+
+                Mono<RSocket> wrappedRSocketClient
+                        = Plugins
+                        .CLIENT_REACTIVE_SOCKET_INTERCEPTOR
+                        .apply(new DeadlineRequester(rSocketClient, setupPayload.willClientHonorDeadlines()));
+
+                return wrappedRSocketClient
+                        .then(sender ->
+                                acceptor
+                                        .get()
+                                        .accept(setupPayload, sender)
+                                        .then(Plugins.SERVER_REACTIVE_SOCKET_INTERCEPTOR::apply)
+                        )
+                        .map(handler -> {
+                            AdaptiveConcurrencyLimiter limiter =
+                                    connectionLimiter == null ? null : connectionLimiter.get();
+                            LeaseManager leaseManager = null;
+                            if (setupPayload.willClientHonorLease()) {
+                                if (leaseTtl != null) {
+                                    if (limiter == null) {
+                                        limiter = new AdaptiveConcurrencyLimiter();
+                                    }
+                                    leaseManager = LeaseManager.fromLimiter(leaseTtl, limiter);
+                                } else if (leaseManagerSupplier != null) {
+                                    leaseManager = leaseManagerSupplier.get();
+                                }
+                            }
+
+                            RSocketServer rSocketServer = new RSocketServer(
+                                    multiplexer.asClientConnection(),
+                                    alloc,
+                                    handler,
+                                    frameDecoder,
+                                    errorConsumer,
+                                    responderScheduler,
+                                    responderQueueCapacity,
+                                    limiter,
+                                    globalLimiter,
+                                    setupPayload.willClientHonorDeadlines() ? TimerWheel.shared() : null,
+                                    creditWindow);
+                            if (leaseManager != null) {
+                                leaseManager.grant(multiplexer.asClientConnection(), alloc, errorConsumer);
+                            }
+                            return rSocketServer;
+                        })
+                        .then();
             }
         }
     }
@@ -17,12 +17,20 @@
 package io.rsocket;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
-import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.ReferenceCountUtil;
 import io.rsocket.Frame.Request;
 import io.rsocket.exceptions.ApplicationException;
+import io.rsocket.exceptions.CancelException;
+import io.rsocket.exceptions.RejectedException;
 import io.rsocket.frame.FrameHeaderFlyweight;
+import io.rsocket.internal.ConcurrentIntObjectHashMap;
 import io.rsocket.internal.LimitableRequestPublisher;
+import io.rsocket.internal.TimerWheel;
+import io.rsocket.server.AdaptiveConcurrencyLimiter;
+import io.rsocket.util.Clock;
+import io.rsocket.util.Deadlines;
 import io.rsocket.util.PayloadImpl;
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
@@ -30,10 +38,13 @@ import org.reactivestreams.Subscription;
 import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 import reactor.core.publisher.UnicastProcessor;
+import reactor.core.scheduler.Scheduler;
 
 import javax.annotation.Nullable;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Server side RSocket. Receives {@link Frame}s from a
@@ -42,22 +53,116 @@ import java.util.function.Consumer;
 class RSocketServer implements RSocket {
 
     private final DuplexConnection connection;
+    private final ByteBufAllocator allocator;
     private final RSocket requestHandler;
+    private final Function<Frame, ? extends Payload> frameDecoder;
     private final Consumer<Throwable> errorConsumer;
 
-    private final IntObjectHashMap<Subscription> sendingSubscriptions;
-    private final IntObjectHashMap<UnicastProcessor<Payload>> channelProcessors;
+    private final ConcurrentIntObjectHashMap<Subscription> sendingSubscriptions;
+    private final ConcurrentIntObjectHashMap<UnicastProcessor<Payload>> channelProcessors;
+    private final @Nullable ResponderDispatcher dispatcher;
+    private final @Nullable AdaptiveConcurrencyLimiter connectionLimiter;
+    private final @Nullable AdaptiveConcurrencyLimiter globalLimiter;
+    private final @Nullable TimerWheel deadlineTimer;
+    private final @Nullable CreditWindow creditWindow;
 
     private Disposable receiveDisposable;
 
     RSocketServer(DuplexConnection connection,
                   RSocket requestHandler,
                   Consumer<Throwable> errorConsumer) {
+        this(connection, connection.alloc(), requestHandler, PayloadImpl::new, errorConsumer);
+    }
+
+    RSocketServer(DuplexConnection connection,
+                  ByteBufAllocator allocator,
+                  RSocket requestHandler,
+                  Function<Frame, ? extends Payload> frameDecoder,
+                  Consumer<Throwable> errorConsumer) {
+        this(connection, allocator, requestHandler, frameDecoder, errorConsumer, null,
+             ResponderDispatcher.DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param responderScheduler scheduler on which received requests are handled, {@code null} to handle them on the
+     * thread that received them
+     * @param responderQueueCapacity number of received frames waiting for the {@code responderScheduler} at which new
+     * requests are rejected
+     */
+    RSocketServer(DuplexConnection connection,
+                  ByteBufAllocator allocator,
+                  RSocket requestHandler,
+                  Function<Frame, ? extends Payload> frameDecoder,
+                  Consumer<Throwable> errorConsumer,
+                  @Nullable Scheduler responderScheduler,
+                  int responderQueueCapacity) {
+        this(connection, allocator, requestHandler, frameDecoder, errorConsumer, responderScheduler,
+             responderQueueCapacity, null, null);
+    }
+
+    RSocketServer(DuplexConnection connection,
+                  ByteBufAllocator allocator,
+                  RSocket requestHandler,
+                  Function<Frame, ? extends Payload> frameDecoder,
+                  Consumer<Throwable> errorConsumer,
+                  @Nullable Scheduler responderScheduler,
+                  int responderQueueCapacity,
+                  @Nullable AdaptiveConcurrencyLimiter connectionLimiter,
+                  @Nullable AdaptiveConcurrencyLimiter globalLimiter) {
+        this(connection, allocator, requestHandler, frameDecoder, errorConsumer, responderScheduler,
+             responderQueueCapacity, connectionLimiter, globalLimiter, null);
+    }
+
+    /**
+     * @param connectionLimiter limits the requests handled at once by this connection, {@code null} for no limit
+     * @param globalLimiter limits the requests handled at once by all connections sharing it, {@code null} for no
+     * limit
+     * @param deadlineTimer timer that expires requests at the deadline in their metadata, see {@link Deadlines},
+     * {@code null} if the connection did not negotiate deadlines and the metadata is passed on unchanged
+     */
+    RSocketServer(DuplexConnection connection,
+                  ByteBufAllocator allocator,
+                  RSocket requestHandler,
+                  Function<Frame, ? extends Payload> frameDecoder,
+                  Consumer<Throwable> errorConsumer,
+                  @Nullable Scheduler responderScheduler,
+                  int responderQueueCapacity,
+                  @Nullable AdaptiveConcurrencyLimiter connectionLimiter,
+                  @Nullable AdaptiveConcurrencyLimiter globalLimiter,
+                  @Nullable TimerWheel deadlineTimer) {
+        this(connection, allocator, requestHandler, frameDecoder, errorConsumer, responderScheduler,
+             responderQueueCapacity, connectionLimiter, globalLimiter, deadlineTimer, null);
+    }
+
+    /**
+     * @param creditWindow replenishes the credit of received channels in batches, {@code null} to send a REQUEST_N
+     * frame for every request of the handler
+     */
+    RSocketServer(DuplexConnection connection,
+                  ByteBufAllocator allocator,
+                  RSocket requestHandler,
+                  Function<Frame, ? extends Payload> frameDecoder,
+                  Consumer<Throwable> errorConsumer,
+                  @Nullable Scheduler responderScheduler,
+                  int responderQueueCapacity,
+                  @Nullable AdaptiveConcurrencyLimiter connectionLimiter,
+                  @Nullable AdaptiveConcurrencyLimiter globalLimiter,
+                  @Nullable TimerWheel deadlineTimer,
+                  @Nullable CreditWindow creditWindow) {
         this.connection = connection;
+        this.allocator = allocator;
         this.requestHandler = requestHandler;
+        this.frameDecoder = frameDecoder;
         this.errorConsumer = errorConsumer;
-        this.sendingSubscriptions = new IntObjectHashMap<>();
-        this.channelProcessors = new IntObjectHashMap<>();
+        this.sendingSubscriptions = new ConcurrentIntObjectHashMap<>();
+        this.channelProcessors = new ConcurrentIntObjectHashMap<>();
+        this.connectionLimiter = connectionLimiter;
+        this.globalLimiter = globalLimiter;
+        this.deadlineTimer = deadlineTimer;
+        this.creditWindow = creditWindow;
+        this.dispatcher = responderScheduler == null ? null : new ResponderDispatcher(
+            responderScheduler, responderQueueCapacity,
+            frame -> handleFrameNow(frame).subscribe(null, errorConsumer), errorConsumer);
         this.receiveDisposable =
             connection
                 .receive()
@@ -133,31 +238,108 @@ class RSocketServer implements RSocket {
 
 
     private void cleanup() {
+        if (dispatcher != null) {
+            dispatcher.dispose();
+        }
         cleanUpSendingSubscriptions();
         cleanUpChannelProcessors();
 
         requestHandler.close().subscribe();
     }
 
-    private synchronized void cleanUpSendingSubscriptions() {
+    private void cleanUpSendingSubscriptions() {
         sendingSubscriptions.values().forEach(Subscription::cancel);
         sendingSubscriptions.clear();
     }
 
-    private synchronized void cleanUpChannelProcessors() {
+    private void cleanUpChannelProcessors() {
         channelProcessors.values().forEach(Subscription::cancel);
         channelProcessors.clear();
     }
 
     private Mono<Void> handleFrame(Frame frame) {
+        if (dispatcher == null) {
+            return handleFrameNow(frame);
+        }
+
+        switch (frame.getType()) {
+            case FIRE_AND_FORGET:
+            case REQUEST_RESPONSE:
+            case REQUEST_STREAM:
+            case REQUEST_CHANNEL:
+            case METADATA_PUSH:
+                if (!dispatcher.tryDispatch(frame)) {
+                    return handleRejected(frame);
+                }
+                return Mono.empty();
+            case CANCEL:
+            case REQUEST_N:
+            case NEXT:
+            case COMPLETE:
+            case ERROR:
+            case NEXT_COMPLETE:
+                dispatcher.dispatch(frame);
+                return Mono.empty();
+            default:
+                return handleFrameNow(frame);
+        }
+    }
+
+    private Mono<Void> handleRejected(Frame frame) {
+        try {
+            RejectedException rejected = new RejectedException("Responder queue is full");
+            switch (frame.getType()) {
+                case REQUEST_RESPONSE:
+                case REQUEST_STREAM:
+                case REQUEST_CHANNEL:
+                    return connection
+                        .sendOne(Frame.Error.from(allocator, frame.getStreamId(), rejected))
+                        .doOnError(errorConsumer);
+                default:
+                    // fire and forget and metadata push have no response to carry the rejection
+                    errorConsumer.accept(rejected);
+                    return Mono.empty();
+            }
+        } finally {
+            frame.release();
+        }
+    }
+
+    private Mono<Void> handleFrameNow(Frame frame) {
         try {
             int streamId = frame.getStreamId();
             Subscriber<Payload> receiver;
+            Payload payload;
+            long deadline;
             switch (frame.getType()) {
                 case FIRE_AND_FORGET:
-                    return handleFireAndForget(streamId, fireAndForget(new PayloadImpl(frame)));
+                    payload = frameDecoder.apply(frame);
+                    deadline = deadline(payload);
+                    if (isExpired(deadline)) {
+                        ReferenceCountUtil.release(payload);
+                        errorConsumer.accept(new RejectedException("Deadline exceeded"));
+                        return Mono.empty();
+                    }
+                    if (!tryAcquire()) {
+                        ReferenceCountUtil.release(payload);
+                        errorConsumer.accept(new RejectedException("Concurrency limit reached"));
+                        return Mono.empty();
+                    }
+                    return handleFireAndForget(streamId, Clock.now(),
+                                               expireAt(fireAndForget(withoutDeadline(payload)), deadline));
                 case REQUEST_RESPONSE:
-                    return handleRequestResponse(streamId, requestResponse(new PayloadImpl(frame)));
+                    payload = frameDecoder.apply(frame);
+                    deadline = deadline(payload);
+                    if (isExpired(deadline)) {
+                        ReferenceCountUtil.release(payload);
+                        return handleDeadlineExceeded(streamId);
+                    }
+                    if (!tryAcquire()) {
+                        ReferenceCountUtil.release(payload);
+                        return handleLimitReached(streamId);
+                    }
+                    return handleRequestResponse(streamId, Clock.now(),
+                                                 expireAt(requestResponse(withoutDeadline(payload)), deadline));
                 case CANCEL:
                     return handleCancelFrame(streamId);
                 case KEEPALIVE:
@@ -165,21 +347,42 @@ class RSocketServer implements RSocket {
                 case REQUEST_N:
                     return handleRequestN(streamId, frame);
                 case REQUEST_STREAM:
-                    return handleStream(streamId, requestStream(new PayloadImpl(frame)), frame);
+                    payload = frameDecoder.apply(frame);
+                    deadline = deadline(payload);
+                    if (isExpired(deadline)) {
+                        ReferenceCountUtil.release(payload);
+                        return handleDeadlineExceeded(streamId);
+                    }
+                    if (!tryAcquire()) {
+                        ReferenceCountUtil.release(payload);
+                        return handleLimitReached(streamId);
+                    }
+                    return handleStream(streamId,
+                                        expireAt(requestStream(withoutDeadline(payload)), deadline), frame);
                 case REQUEST_CHANNEL:
-                    return handleChannel(streamId, frame);
+                    payload = frameDecoder.apply(frame);
+                    deadline = deadline(payload);
+                    if (isExpired(deadline)) {
+                        ReferenceCountUtil.release(payload);
+                        return handleDeadlineExceeded(streamId);
+                    }
+                    if (!tryAcquire()) {
+                        ReferenceCountUtil.release(payload);
+                        return handleLimitReached(streamId);
+                    }
+                    return handleChannel(streamId, withoutDeadline(payload), frame, deadline);
                 case PAYLOAD:
                     // TODO: Hook in receiving socket.
                     return Mono.empty();
                 case METADATA_PUSH:
-                    return metadataPush(new PayloadImpl(frame));
+                    return metadataPush(frameDecoder.apply(frame));
                 case LEASE:
                     // Lease must not be received here as this is the server end of the socket which sends leases.
                     return Mono.empty();
                 case NEXT:
                     receiver = getChannelProcessor(streamId);
                     if (receiver != null) {
-                        receiver.onNext(new PayloadImpl(frame));
+                        receiver.onNext(frameDecoder.apply(frame));
                     }
                     return Mono.empty();
                 case COMPLETE:
@@ -197,7 +400,7 @@ class RSocketServer implements RSocket {
                 case NEXT_COMPLETE:
                     receiver = getChannelProcessor(streamId);
                     if (receiver != null) {
-                        receiver.onNext(new PayloadImpl(frame));
+                        receiver.onNext(frameDecoder.apply(frame));
                         receiver.onComplete();
                     }
 
@@ -214,21 +417,108 @@ class RSocketServer implements RSocket {
         }
     }
 
-    private Mono<Void> handleFireAndForget(int streamId, Mono<Void> result) {
+    private boolean tryAcquire() {
+        if (connectionLimiter != null && !connectionLimiter.tryAcquire()) {
+            return false;
+        }
+        if (globalLimiter != null && !globalLimiter.tryAcquire()) {
+            if (connectionLimiter != null) {
+                connectionLimiter.release();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param start of the request as per {@link Clock#now()}
+     */
+    private void release(long start, SignalType signalType) {
+        if (signalType == SignalType.CANCEL) {
+            release();
+            return;
+        }
+        final long latency = Clock.elapsedSince(start);
+        if (connectionLimiter != null) {
+            connectionLimiter.release(latency);
+        }
+        if (globalLimiter != null) {
+            globalLimiter.release(latency);
+        }
+    }
+
+    private void release() {
+        if (connectionLimiter != null) {
+            connectionLimiter.release();
+        }
+        if (globalLimiter != null) {
+            globalLimiter.release();
+        }
+    }
+
+    /**
+     * @return deadline of {@code payload}, {@link Deadlines#NO_DEADLINE} if it has none or deadlines are ignored
+     */
+    private long deadline(Payload payload) {
+        return deadlineTimer == null ? Deadlines.NO_DEADLINE : Deadlines.deadline(payload);
+    }
+
+    private boolean isExpired(long deadline) {
+        return deadline != Deadlines.NO_DEADLINE && deadline <= deadlineTimer.currentTimeMillis();
+    }
+
+    /**
+     * @return {@code payload} without the prefix of its metadata if deadlines are honored, see
+     * {@link Deadlines#encode(Payload, boolean)}
+     */
+    private Payload withoutDeadline(Payload payload) {
+        return deadlineTimer == null ? payload : Deadlines.withoutDeadline(payload);
+    }
+
+    private <T> Mono<T> expireAt(Mono<T> result, long deadline) {
+        if (deadline == Deadlines.NO_DEADLINE) {
+            return result;
+        }
+        return deadlineTimer.expireAt(result, deadline, () -> new CancelException("Deadline exceeded"));
+    }
+
+    private <T> Flux<T> expireAt(Flux<T> result, long deadline) {
+        if (deadline == Deadlines.NO_DEADLINE) {
+            return result;
+        }
+        return deadlineTimer.expireAt(result, deadline, () -> new CancelException("Deadline exceeded"));
+    }
+
+    private Mono<Void> handleDeadlineExceeded(int streamId) {
+        return connection
+            .sendOne(Frame.Error.from(allocator, streamId, new RejectedException("Deadline exceeded")))
+            .doOnError(errorConsumer);
+    }
+
+    private Mono<Void> handleLimitReached(int streamId) {
+        return connection
+            .sendOne(Frame.Error.from(allocator, streamId, new RejectedException("Concurrency limit reached")))
+            .doOnError(errorConsumer);
+    }
+
+    private Mono<Void> handleFireAndForget(int streamId, long start, Mono<Void> result) {
+        // released before the registered subscription so a CANCEL frame releases the permit as well
         return result
+            .doFinally(signalType -> release(start, signalType))
             .doOnSubscribe(subscription -> addSubscription(streamId, subscription))
             .doOnError(errorConsumer)
             .doFinally(signalType -> removeSubscription(streamId))
             .ignoreElement();
     }
 
-    private Mono<Void> handleRequestResponse(int streamId, Mono<Payload> response) {
+    private Mono<Void> handleRequestResponse(int streamId, long start, Mono<Payload> response) {
         Mono<Frame> responseFrame =
             response
+                .doFinally(signalType -> release(start, signalType))
                 .doOnSubscribe(subscription -> addSubscription(streamId, subscription))
                 .map(payload ->
-                    Frame.PayloadFrame.from(streamId, FrameType.NEXT_COMPLETE, payload, FrameHeaderFlyweight.FLAGS_C))
-                .onErrorResume(t -> Mono.just(Frame.Error.from(streamId, t)))
+                    Frame.PayloadFrame.from(allocator, streamId, FrameType.NEXT_COMPLETE, payload, FrameHeaderFlyweight.FLAGS_C))
+                .onErrorResume(t -> Mono.just(Frame.Error.from(allocator, streamId, t)))
                 .doFinally(signalType -> {
                     removeSubscription(streamId);
                 });
@@ -240,17 +530,17 @@ class RSocketServer implements RSocket {
         int initialRequestN = Request.initialRequestN(firstFrame);
         Flux<Frame> responseFrames =
             response
-                .map(payload -> Frame.PayloadFrame.from(streamId, FrameType.NEXT, payload))
+                // the duration of a stream depends on the demand of the requester, no latency sample
+                .doFinally(signalType -> release())
+                .map(payload -> Frame.PayloadFrame.from(allocator, streamId, FrameType.NEXT, payload))
                 .transform(frameFlux -> {
                     LimitableRequestPublisher<Frame> frames = LimitableRequestPublisher.wrap(frameFlux);
-                    synchronized (RSocketServer.this) {
-                        sendingSubscriptions.put(streamId, frames);
-                    }
+                    sendingSubscriptions.put(streamId, frames);
                     frames.increaseRequestLimit(initialRequestN);
                     return frames;
                 })
-                .concatWith(Mono.just(Frame.PayloadFrame.from(streamId, FrameType.COMPLETE)))
-                .onErrorResume(t -> Mono.just(Frame.Error.from(streamId, t)))
+                .concatWith(Mono.just(Frame.PayloadFrame.from(allocator, streamId, FrameType.COMPLETE)))
+                .onErrorResume(t -> Mono.just(Frame.Error.from(allocator, streamId, t)))
                 .doFinally(signalType -> {
                     removeSubscription(streamId);
                 });
@@ -258,47 +548,55 @@ class RSocketServer implements RSocket {
         return connection.send(responseFrames);
     }
 
-    private Mono<Void> handleChannel(int streamId, Frame firstFrame) {
+    private Mono<Void> handleChannel(int streamId, Payload firstPayload, Frame firstFrame, long deadline) {
         UnicastProcessor<Payload> frames = UnicastProcessor.create();
         addChannelProcessor(streamId, frames);
+        // the first payload comes without credit
+        final CreditWindow.Credit credit = creditWindow == null ? null : creditWindow.newCredit(false, 1);
+        // the request frame carries the first payload of the channel
+        frames.onNext(firstPayload);
 
         Flux<Payload> payloads = frames
             .doOnCancel(() -> {
                 if (connection.availability() > 0.0) {
-                    connection.sendOne(Frame.Cancel.from(streamId)).subscribe(null, errorConsumer);
+                    connection.sendOne(Frame.Cancel.from(allocator, streamId)).subscribe(null, errorConsumer);
                 }
             })
             .doOnError(t -> {
                 if (connection.availability() > 0.0) {
-                    connection.sendOne(Frame.Error.from(streamId, t)).subscribe(null, errorConsumer);
+                    connection.sendOne(Frame.Error.from(allocator, streamId, t)).subscribe(null, errorConsumer);
                 }
             })
-            .doOnRequest(l -> {
-                if (connection.availability() > 0.0) {
-                    connection.sendOne(Frame.RequestN.from(streamId, l)).subscribe(null, errorConsumer);
+            .doOnRequest(l -> sendRequestN(streamId, credit == null ? l : credit.request(l)))
+            .doOnNext(payload -> {
+                if (credit != null) {
+                    sendRequestN(streamId, credit.consumed());
                 }
             })
             .doFinally(signalType -> {
                 removeChannelProcessor(streamId);
             });
 
-        return handleStream(streamId, requestChannel(payloads), firstFrame);
+        return handleStream(streamId, expireAt(requestChannel(payloads), deadline), firstFrame);
+    }
+
+    private void sendRequestN(int streamId, long n) {
+        if (n > 0 && connection.availability() > 0.0) {
+            connection.sendOne(Frame.RequestN.from(allocator, streamId, n)).subscribe(null, errorConsumer);
+        }
     }
 
     private Mono<Void> handleKeepAliveFrame(Frame frame) {
         if (Frame.Keepalive.hasRespondFlag(frame)) {
             ByteBuf data = Unpooled.wrappedBuffer(frame.getData());
-            return connection.sendOne(Frame.Keepalive.from(data, false))
+            return connection.sendOne(Frame.Keepalive.from(allocator, data, false))
                 .doOnError(errorConsumer);
         }
         return Mono.empty();
     }
 
     private Mono<Void> handleCancelFrame(int streamId) {
-        Subscription subscription;
-        synchronized (this) {
-            subscription = sendingSubscriptions.remove(streamId);
-        }
+        Subscription subscription = sendingSubscriptions.remove(streamId);
 
         if (subscription != null) {
             subscription.cancel();
@@ -310,7 +608,7 @@ class RSocketServer implements RSocket {
     private Mono<Void> handleError(int streamId, Throwable t) {
         errorConsumer.accept(t);
         return connection
-            .sendOne(Frame.Error.from(streamId, t))
+            .sendOne(Frame.Error.from(allocator, streamId, t))
             .doOnError(errorConsumer);
     }
 
@@ -323,27 +621,27 @@ class RSocketServer implements RSocket {
         return Mono.empty();
     }
 
-    private synchronized void addSubscription(int streamId, Subscription subscription) {
+    private void addSubscription(int streamId, Subscription subscription) {
         sendingSubscriptions.put(streamId, subscription);
     }
 
-    private synchronized @Nullable Subscription getSubscription(int streamId) {
+    private @Nullable Subscription getSubscription(int streamId) {
         return sendingSubscriptions.get(streamId);
     }
 
-    private synchronized void removeSubscription(int streamId) {
+    private void removeSubscription(int streamId) {
         sendingSubscriptions.remove(streamId);
     }
 
-    private synchronized void addChannelProcessor(int streamId, UnicastProcessor<Payload> processor) {
+    private void addChannelProcessor(int streamId, UnicastProcessor<Payload> processor) {
         channelProcessors.put(streamId, processor);
     }
 
-    private synchronized @Nullable UnicastProcessor<Payload> getChannelProcessor(int streamId) {
+    private @Nullable UnicastProcessor<Payload> getChannelProcessor(int streamId) {
         return channelProcessors.get(streamId);
     }
 
-    private synchronized void removeChannelProcessor(int streamId) {
+    private void removeChannelProcessor(int streamId) {
         channelProcessors.remove(streamId);
     }
 }
\ No newline at end of file
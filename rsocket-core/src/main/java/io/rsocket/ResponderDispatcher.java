@@ -0,0 +1,168 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket;
+
+import reactor.core.scheduler.Scheduler;
+
+import javax.annotation.Nullable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Consumer;
+
+/**
+ * Moves the handling of the frames received by a responder off the thread that received them, usually the event loop
+ * of the transport, onto a {@link Scheduler}.
+ * <p>
+ * Streams are spread over a fixed number of lanes by their id. Each lane handles its frames one at a time and in the
+ * order they were received, so the frames of a stream are seen in order, while streams in other lanes run in parallel.
+ * The number of frames waiting in all lanes is bounded for frames that start a new stream: once {@code queueCapacity}
+ * frames are waiting such frames are not accepted and the responder rejects the request. Frames of streams that were
+ * already accepted are always queued as dropping them would break the stream.
+ */
+final class ResponderDispatcher {
+    static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private static final int LANE_COUNT = 32;
+
+    private static final AtomicIntegerFieldUpdater<ResponderDispatcher> QUEUED =
+        AtomicIntegerFieldUpdater.newUpdater(ResponderDispatcher.class, "queued");
+
+    private final Scheduler scheduler;
+    private final Consumer<Frame> handler;
+    private final Consumer<Throwable> errorConsumer;
+    private final int queueCapacity;
+    private final Lane[] lanes;
+
+    private volatile int queued;
+    private volatile boolean disposed;
+
+    /**
+     * @param handler handles a frame on the scheduler and releases it
+     */
+    ResponderDispatcher(Scheduler scheduler, int queueCapacity, Consumer<Frame> handler,
+                        Consumer<Throwable> errorConsumer) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity must be greater than 0");
+        }
+        this.scheduler = scheduler;
+        this.queueCapacity = queueCapacity;
+        this.handler = handler;
+        this.errorConsumer = errorConsumer;
+        this.lanes = new Lane[LANE_COUNT];
+        for (int i = 0; i < LANE_COUNT; i++) {
+            lanes[i] = new Lane(this);
+        }
+    }
+
+    /**
+     * Queues a frame that starts a new stream.
+     *
+     * @return {@code false} if the queue is full, the frame is not queued and still owned by the caller
+     */
+    boolean tryDispatch(Frame frame) {
+        if (queued >= queueCapacity) {
+            return false;
+        }
+        dispatch(frame);
+        return true;
+    }
+
+    /**
+     * Queues a frame of a stream, regardless of the number of frames waiting.
+     */
+    void dispatch(Frame frame) {
+        if (disposed) {
+            frame.release();
+            return;
+        }
+        QUEUED.incrementAndGet(this);
+        // ids of streams started by the same side are all odd or all even, the lowest bit would leave half the lanes idle
+        lanes[(frame.getStreamId() >>> 1) & (LANE_COUNT - 1)].offer(frame);
+    }
+
+    int queued() {
+        return queued;
+    }
+
+    /**
+     * Releases the frames still waiting, later frames are released without being handled.
+     */
+    void dispose() {
+        disposed = true;
+        for (Lane lane : lanes) {
+            lane.offer(null);
+        }
+    }
+
+    private static final class Lane implements Runnable {
+        private static final AtomicIntegerFieldUpdater<Lane> WIP =
+            AtomicIntegerFieldUpdater.newUpdater(Lane.class, "wip");
+
+        private final ResponderDispatcher parent;
+        private final Queue<Frame> frames = new ConcurrentLinkedQueue<>();
+        private volatile int wip;
+
+        private Lane(ResponderDispatcher parent) {
+            this.parent = parent;
+        }
+
+        /**
+         * @param frame to queue, {@code null} to only drain
+         */
+        private void offer(@Nullable Frame frame) {
+            if (frame != null) {
+                frames.offer(frame);
+            }
+            if (WIP.getAndIncrement(this) == 0) {
+                if (parent.disposed) {
+                    run();
+                } else if (parent.scheduler.schedule(this) == Scheduler.REJECTED) {
+                    parent.disposed = true;
+                    parent.errorConsumer.accept(new RejectedExecutionException("Responder scheduler rejected the frames"));
+                    run();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            for (;;) {
+                Frame frame;
+                while ((frame = frames.poll()) != null) {
+                    QUEUED.decrementAndGet(parent);
+                    if (parent.disposed) {
+                        frame.release();
+                        continue;
+                    }
+                    try {
+                        parent.handler.accept(frame);
+                    } catch (Throwable t) {
+                        parent.errorConsumer.accept(t);
+                    }
+                }
+
+                missed = WIP.addAndGet(this, -missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -16,28 +16,74 @@
 
 package io.rsocket;
 
+import io.rsocket.internal.ConcurrentIntObjectHashMap;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Hands out the stream ids of one side of a connection, odd ids for the client and even ids for the server.
+ * <p>
+ * Ids are taken from a counter without locking. Once the 31 bit id space is used up the ids wrap around to the first
+ * id again, skipping ids of streams that are still active, so a connection never runs out of ids.
+ */
 final class StreamIdSupplier {
+    private static final int MASK = 0x7FFFFFFF;
+
+    private static final AtomicLongFieldUpdater<StreamIdSupplier> COUNTER =
+        AtomicLongFieldUpdater.newUpdater(StreamIdSupplier.class, "counter");
+
+    private final int initialStreamId;
 
-    private int streamId;
+    // number of ids handed out so far, never wraps
+    private volatile long counter;
+
+    StreamIdSupplier(int initialStreamId, long counter) {
+        this.initialStreamId = initialStreamId;
+        this.counter = counter;
+    }
+
+    int nextStreamId() {
+        for (;;) {
+            final int streamId = streamId(COUNTER.incrementAndGet(this));
+            if (streamId != 0) {
+                return streamId;
+            }
+        }
+    }
 
-    private StreamIdSupplier(int streamId) {
-        this.streamId = streamId;
+    /**
+     * @param activeStreams streams of the connection, ids of which are not handed out again
+     */
+    int nextStreamId(ConcurrentIntObjectHashMap<?> activeStreams) {
+        for (;;) {
+            final int streamId = nextStreamId();
+            if (!activeStreams.containsKey(streamId)) {
+                return streamId;
+            }
+        }
     }
 
-    synchronized int nextStreamId() {
-        streamId += 2;
-        return streamId;
+    /**
+     * @return {@code true} if a stream with this id may have been started, always the case for valid ids once the ids
+     * wrapped around
+     */
+    boolean isBeforeOrCurrent(int streamId) {
+        if (streamId <= 0) {
+            return false;
+        }
+        final long current = initialStreamId + 2 * counter;
+        return current > MASK || current >= streamId;
     }
 
-    synchronized boolean isBeforeOrCurrent(int streamId) {
-        return this.streamId >= streamId && streamId > 0;
+    private int streamId(long count) {
+        return (int) ((initialStreamId + 2 * count) & MASK);
     }
 
     static StreamIdSupplier clientSupplier() {
-        return new StreamIdSupplier(-1);
+        return new StreamIdSupplier(-1, 0);
     }
 
     static StreamIdSupplier serverSupplier() {
-        return new StreamIdSupplier(0);
+        return new StreamIdSupplier(0, 0);
     }
 }
@@ -0,0 +1,26 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rsocket.exceptions;
+
+/**
+ * The server rejected resuming a session, because it does not know the resume token or can no longer replay the frames
+ * the client missed. The session is lost and a new connection has to be set up.
+ */
+public class RejectedResumeException extends RuntimeException {
+    public RejectedResumeException(String message) {
+        super(message);
+    }
+}
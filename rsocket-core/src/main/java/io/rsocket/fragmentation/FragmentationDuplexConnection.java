@@ -1,25 +1,66 @@
 package io.rsocket.fragmentation;
 
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.util.collection.IntObjectHashMap;
 import io.rsocket.DuplexConnection;
 import io.rsocket.Frame;
+import io.rsocket.FrameType;
+import io.rsocket.exceptions.InvalidRequestException;
+import io.rsocket.exceptions.RejectedException;
 import io.rsocket.frame.FrameHeaderFlyweight;
 import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import javax.annotation.Nullable;
+
 /**
  * Fragments and Re-assembles frames. MTU is number of bytes per fragment. The default is 1024
+ * <p>
+ * Received frames that are not fragments pass through as they are while no fragmented frame is pending. The memory
+ * used to reassemble frames is bounded both per frame and for all streams of the connection: a fragmented frame that
+ * exceeds either limit is dropped, the rest of its fragments are discarded and its stream fails with an ERROR. The
+ * limit of the connection counts the memory the fragments hold, see {@link FrameReassembler#retainedBytes()}.
  */
 public class FragmentationDuplexConnection implements DuplexConnection {
+    public static final int DEFAULT_MAX_REASSEMBLED_SIZE = 16 * 1024 * 1024;
+    public static final int DEFAULT_MAX_REASSEMBLY_BYTES = 64 * 1024 * 1024;
+
+    private static final Logger logger = LoggerFactory.getLogger(FragmentationDuplexConnection.class);
 
     private final DuplexConnection source;
+    private final ByteBufAllocator allocator;
+    private final int maxReassembledSize;
+    private final int maxReassemblyBytes;
+    // guarded by this, only modified while receiving frames
     private final IntObjectHashMap<FrameReassembler> frameReassemblers = new IntObjectHashMap<>();
+    private int reassemblyBytes;
     private final FrameFragmenter frameFragmenter;
 
     public FragmentationDuplexConnection(DuplexConnection source, int mtu) {
+        this(source, ByteBufAllocator.DEFAULT, mtu);
+    }
+
+    public FragmentationDuplexConnection(DuplexConnection source, ByteBufAllocator allocator, int mtu) {
+        this(source, allocator, mtu, DEFAULT_MAX_REASSEMBLED_SIZE, DEFAULT_MAX_REASSEMBLY_BYTES);
+    }
+
+    /**
+     * @param maxReassembledSize maximum bytes of metadata and data of a reassembled frame
+     * @param maxReassemblyBytes maximum bytes of memory held by the fragments of all frames being reassembled at once
+     */
+    public FragmentationDuplexConnection(DuplexConnection source, ByteBufAllocator allocator, int mtu,
+                                         int maxReassembledSize, int maxReassemblyBytes) {
+        if (maxReassembledSize < 1 || maxReassemblyBytes < 1) {
+            throw new IllegalArgumentException("reassembly limits must be greater than 0");
+        }
         this.source = source;
-        this.frameFragmenter = new FrameFragmenter(mtu);
+        this.allocator = allocator;
+        this.maxReassembledSize = maxReassembledSize;
+        this.maxReassemblyBytes = maxReassemblyBytes;
+        this.frameFragmenter = new FrameFragmenter(allocator, mtu);
     }
 
     @Override
@@ -27,6 +68,11 @@ public class FragmentationDuplexConnection implements DuplexConnection {
         return source.availability();
     }
 
+    @Override
+    public ByteBufAllocator alloc() {
+        return allocator;
+    }
+
     @Override
     public Mono<Void> send(Publisher<Frame> frames) {
         return Flux
@@ -48,18 +94,15 @@ public class FragmentationDuplexConnection implements DuplexConnection {
     public Flux<Frame> receive() {
         return source
             .receive()
-            .concatMap(frame -> {
-                if (FrameHeaderFlyweight.FLAGS_F == (frame.flags() & FrameHeaderFlyweight.FLAGS_F)) {
-                    FrameReassembler frameReassembler = getFrameReassembler(frame);
-                    frameReassembler.append(frame);
-                    return Mono.empty();
-                } else if (frameReassemblersContain(frame.getStreamId())) {
-                    FrameReassembler frameReassembler = removeFrameReassembler(frame.getStreamId());
-                    frameReassembler.append(frame);
-                    Frame reassembled = frameReassembler.reassemble();
-                    return Mono.just(reassembled);
-                } else {
-                    return Mono.just(frame);
+            .handle((frame, sink) -> {
+                // read without the lock, only the receiving thread adds reassemblers
+                if (!isFragment(frame) && frameReassemblers.isEmpty()) {
+                    sink.next(frame);
+                    return;
+                }
+                Frame next = reassemble(frame);
+                if (next != null) {
+                    sink.next(next);
                 }
             });
     }
@@ -69,16 +112,102 @@ public class FragmentationDuplexConnection implements DuplexConnection {
         return source.close();
     }
 
-    private synchronized FrameReassembler getFrameReassembler(Frame frame) {
-        return frameReassemblers.computeIfAbsent(frame.getStreamId(), s -> new FrameReassembler(frame));
+    /**
+     * @return frame to pass on, if any
+     */
+    private synchronized @Nullable Frame reassemble(Frame frame) {
+        final int streamId = frame.getStreamId();
+        final boolean fragment = isFragment(frame);
+        FrameReassembler frameReassembler = frameReassemblers.get(streamId);
+        if (frameReassembler == null) {
+            if (!fragment) {
+                return frame;
+            }
+            frameReassembler = new FrameReassembler(allocator, frame);
+            frameReassemblers.put(streamId, frameReassembler);
+        }
+
+        Frame next = null;
+        try {
+            if (!frameReassembler.isDisposed()) {
+                final int length = frame.metadataLength() + frame.dataLength();
+                if (frameReassembler.size() + length > maxReassembledSize) {
+                    next = fail(frameReassembler, streamId, new InvalidRequestException(
+                        "Reassembled frame exceeds " + maxReassembledSize + " bytes"));
+                } else {
+                    final int retainedBytes = frameReassembler.retainedBytes();
+                    frameReassembler.append(frame);
+                    reassemblyBytes += frameReassembler.retainedBytes() - retainedBytes;
+                    if (reassemblyBytes > maxReassemblyBytes) {
+                        next = fail(frameReassembler, streamId, new RejectedException(
+                            "Frames being reassembled exceed " + maxReassemblyBytes + " bytes"));
+                    }
+                }
+            }
+        } finally {
+            frame.release();
+        }
+
+        if (!fragment) {
+            frameReassemblers.remove(streamId);
+            if (!frameReassembler.isDisposed()) {
+                reassemblyBytes -= frameReassembler.retainedBytes();
+                next = frameReassembler.reassemble();
+            }
+        }
+        return next;
     }
 
-    private synchronized FrameReassembler removeFrameReassembler(int streamId) {
-        return frameReassemblers.remove(streamId);
+    /**
+     * Drops the fragments of a frame and fails its stream: requests are answered with an ERROR, a requester receiving
+     * a payload cancels the stream and gets an ERROR in place of the payload.
+     *
+     * @return frame to pass on, if any
+     */
+    private @Nullable Frame fail(FrameReassembler frameReassembler, int streamId, Exception error) {
+        reassemblyBytes -= frameReassembler.retainedBytes();
+        frameReassembler.dispose();
+
+        switch (frameReassembler.frameType()) {
+            case REQUEST_RESPONSE:
+            case REQUEST_STREAM:
+            case REQUEST_CHANNEL:
+                send(Frame.Error.from(allocator, streamId, error));
+                return null;
+            case PAYLOAD:
+            case NEXT:
+            case NEXT_COMPLETE:
+                send(Frame.Cancel.from(allocator, streamId));
+                return Frame.Error.from(allocator, streamId, error);
+            default:
+                // fire and forget and metadata push have no stream to fail
+                logger.debug("Dropped fragmented frame of stream {}", streamId, error);
+                return null;
+        }
     }
 
-    private synchronized boolean frameReassemblersContain(int streamId) {
-        return frameReassemblers.containsKey(streamId);
+    private void send(Frame frame) {
+        source.sendOne(frame).subscribe(null, t -> logger.debug("Failed to fail a stream", t));
+    }
+
+    private static boolean isFragment(Frame frame) {
+        if (FrameHeaderFlyweight.FLAGS_F != (frame.flags() & FrameHeaderFlyweight.FLAGS_F)) {
+            return false;
+        }
+        // the same flag has other meanings for other frame types, e.g. the respond flag of keepalives
+        switch (frame.getType()) {
+            case FIRE_AND_FORGET:
+            case REQUEST_RESPONSE:
+            case REQUEST_STREAM:
+            case REQUEST_CHANNEL:
+            case PAYLOAD:
+            case NEXT:
+            case NEXT_COMPLETE:
+            case METADATA_PUSH:
+                return true;
+            default:
+                return false;
+        }
     }
 
     @Override
@@ -90,6 +219,7 @@ public class FragmentationDuplexConnection implements DuplexConnection {
                     .forEach(FrameReassembler::dispose);
 
                 frameReassemblers.clear();
+                reassemblyBytes = 0;
             }
         });
     }
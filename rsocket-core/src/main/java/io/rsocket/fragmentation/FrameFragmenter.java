@@ -1,16 +1,31 @@
 package io.rsocket.fragmentation;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.buffer.Unpooled;
 import io.rsocket.Frame;
 import io.rsocket.FrameType;
 import io.rsocket.frame.FrameHeaderFlyweight;
+import io.rsocket.frame.RequestFrameFlyweight;
 import reactor.core.publisher.Flux;
 
+/**
+ * Splits frames whose metadata and data are larger than the {@code mtu} into fragments. The metadata and data of the
+ * frame are not copied: each fragment is a small header buffer composed with retained slices of the frame. The
+ * fragmenter takes over the reference of the caller to the frame and releases it once all fragments have been emitted
+ * or the fragments are cancelled, the fragments keep the frame alive until they are released.
+ */
 public class FrameFragmenter {
+    private final ByteBufAllocator allocator;
     private final int mtu;
 
     public FrameFragmenter(int mtu) {
+        this(ByteBufAllocator.DEFAULT, mtu);
+    }
+
+    public FrameFragmenter(ByteBufAllocator allocator, int mtu) {
+        this.allocator = allocator;
         this.mtu = mtu;
     }
 
@@ -37,36 +52,65 @@ public class FrameFragmenter {
         final FrameType frameType = frame.getType();
         final int streamId = frame.getStreamId();
         final int flags = frame.flags() & ~FrameHeaderFlyweight.FLAGS_F & ~FrameHeaderFlyweight.FLAGS_M;
-        final ByteBuf metadata = FrameHeaderFlyweight.sliceFrameMetadata(frame.content());
-        final ByteBuf data = FrameHeaderFlyweight.sliceFrameData(frame.content());
-        frame.retain();
+        final int initialRequestN = frameType.hasInitialRequestN() ? Frame.Request.initialRequestN(frame) : 0;
+        final ByteBuf metadata = frame.sliceMetadata();
+        final ByteBuf data = frame.sliceData();
 
-        return Flux.generate(sink -> {
+        return Flux.generate(() -> frame, (f, sink) -> {
             final int metadataLength = metadata.readableBytes();
             final int dataLength = data.readableBytes();
 
             if (metadataLength > mtu) {
-                sink.next(Frame.PayloadFrame.from(streamId, frameType, metadata.readSlice(mtu), Unpooled.EMPTY_BUFFER,
+                sink.next(fragment(streamId, frameType, initialRequestN, metadata.readSlice(mtu), Unpooled.EMPTY_BUFFER,
                     flags | FrameHeaderFlyweight.FLAGS_M | FrameHeaderFlyweight.FLAGS_F));
             } else if (metadataLength > 0) {
                 if (dataLength > mtu - metadataLength) {
-                    sink.next(Frame.PayloadFrame.from(streamId, frameType, metadata.readSlice(metadataLength), data.readSlice(mtu - metadataLength),
+                    sink.next(fragment(streamId, frameType, initialRequestN, metadata.readSlice(metadataLength),
+                        data.readSlice(mtu - metadataLength),
                         flags | FrameHeaderFlyweight.FLAGS_M | FrameHeaderFlyweight.FLAGS_F));
                 } else {
-                    sink.next(Frame.PayloadFrame.from(streamId, frameType, metadata.readSlice(metadataLength), data.readSlice(dataLength),
-                        flags | FrameHeaderFlyweight.FLAGS_M));
-                    frame.release();
+                    sink.next(fragment(streamId, frameType, initialRequestN, metadata.readSlice(metadataLength),
+                        data.readSlice(dataLength), flags | FrameHeaderFlyweight.FLAGS_M));
                     sink.complete();
                 }
             } else if (dataLength > mtu) {
-                sink.next(Frame.PayloadFrame.from(streamId, frameType, Unpooled.EMPTY_BUFFER, data.readSlice(mtu),
+                sink.next(fragment(streamId, frameType, initialRequestN, Unpooled.EMPTY_BUFFER, data.readSlice(mtu),
                     flags | FrameHeaderFlyweight.FLAGS_F));
             } else {
-                sink.next(Frame.PayloadFrame.from(streamId, frameType, Unpooled.EMPTY_BUFFER, data.readSlice(dataLength),
+                sink.next(fragment(streamId, frameType, initialRequestN, Unpooled.EMPTY_BUFFER, data.readSlice(dataLength),
                     flags));
-                frame.release();
                 sink.complete();
             }
-        });
+            return f;
+        }, Frame::release);
+    }
+
+    private Frame fragment(int streamId, FrameType frameType, int initialRequestN, ByteBuf metadata, ByteBuf data,
+                           int flags) {
+        final int metadataLength = metadata.readableBytes();
+        final int dataLength = data.readableBytes();
+        final int headerLength;
+        final ByteBuf header;
+        if (frameType.hasInitialRequestN()) {
+            header = allocator.buffer(
+                RequestFrameFlyweight.computeFrameLength(frameType, metadataLength, dataLength) - metadataLength - dataLength);
+            headerLength = RequestFrameFlyweight.encodeHeader(
+                header, streamId, flags, frameType, initialRequestN, metadataLength, dataLength);
+        } else {
+            header = allocator.buffer(
+                FrameHeaderFlyweight.computeFrameHeaderLength(frameType, metadataLength, dataLength) - metadataLength - dataLength);
+            headerLength = FrameHeaderFlyweight.encodeHeader(header, streamId, flags, frameType, metadataLength, dataLength);
+        }
+        header.writerIndex(headerLength);
+
+        final CompositeByteBuf content = allocator.compositeBuffer(3);
+        content.addComponent(true, header);
+        if (metadataLength > 0) {
+            content.addComponent(true, metadata.retain());
+        }
+        if (dataLength > 0) {
+            content.addComponent(true, data.retain());
+        }
+        return Frame.from(content);
     }
 }
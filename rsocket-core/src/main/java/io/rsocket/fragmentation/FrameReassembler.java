@@ -1,57 +1,155 @@
 package io.rsocket.fragmentation;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.CompositeByteBuf;
 import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import io.rsocket.Frame;
 import io.rsocket.FrameType;
 import io.rsocket.frame.FrameHeaderFlyweight;
 import reactor.core.Disposable;
 
+import javax.annotation.Nullable;
+
 /**
- * Assembles Fragmented frames.
+ * Assembles Fragmented frames. Buffers are only allocated once a fragment with metadata or data arrives, and the
+ * fragments are copied only once, into the reassembled frame, unless they are small compared to the buffer they are a
+ * slice of: those are copied when appended, so a few bytes of a fragment do not keep a large buffer alive, e.g. the
+ * cumulation buffer a transport decoded the fragment from. Not thread-safe: the fragments of a stream must be appended
+ * one at a time.
  */
 public class FrameReassembler implements Disposable {
+    private final ByteBufAllocator allocator;
     private final FrameType frameType;
     private final int streamId;
     private final int flags;
-    private final CompositeByteBuf dataBuffer;
-    private final CompositeByteBuf metadataBuffer;
+    private final int initialRequestN;
+    private @Nullable CompositeByteBuf dataBuffer;
+    private @Nullable CompositeByteBuf metadataBuffer;
+    private int size;
+    private int retainedBytes;
+    private boolean disposed;
 
     public FrameReassembler(Frame frame) {
+        this(PooledByteBufAllocator.DEFAULT, frame);
+    }
+
+    public FrameReassembler(ByteBufAllocator allocator, Frame frame) {
+        this.allocator = allocator;
         this.frameType = frame.getType();
         this.streamId = frame.getStreamId();
-        this.flags = frame.flags();
-        dataBuffer = PooledByteBufAllocator.DEFAULT.compositeBuffer();
-        metadataBuffer = PooledByteBufAllocator.DEFAULT.compositeBuffer();
+        this.flags = frame.flags() & ~FrameHeaderFlyweight.FLAGS_F;
+        this.initialRequestN = frameType.hasInitialRequestN() ? Frame.Request.initialRequestN(frame) : 0;
     }
 
-    public synchronized void append(Frame frame) {
-        final ByteBuf byteBuf = frame.content();
-        final FrameType frameType = FrameHeaderFlyweight.frameType(byteBuf);
-        final int frameLength = FrameHeaderFlyweight.frameLength(byteBuf);
-        final int metadataLength = FrameHeaderFlyweight.metadataLength(byteBuf, frameType, frameLength);
-        final int dataLength = FrameHeaderFlyweight.dataLength(byteBuf, frameType);
+    /**
+     * Adds the metadata and data of {@code frame}, retaining them without copying if they make up at least half of the
+     * buffer they are a slice of and copying them otherwise. The frame itself is not released.
+     */
+    public void append(Frame frame) {
+        if (disposed) {
+            return;
+        }
+        final int capacity = rootCapacity(frame.content());
+        final int metadataLength = frame.metadataLength();
         if (0 < metadataLength) {
-            int metadataOffset = FrameHeaderFlyweight.metadataOffset(byteBuf);
-            if (FrameHeaderFlyweight.hasMetadataLengthField(frameType)) {
-                metadataOffset += FrameHeaderFlyweight.FRAME_LENGTH_SIZE;
+            if (metadataBuffer == null) {
+                metadataBuffer = compositeBuffer();
             }
-            metadataBuffer.addComponent(true, byteBuf.retainedSlice(metadataOffset, metadataLength));
+            metadataBuffer.addComponent(true, hold(frame.sliceMetadata(), capacity));
+            size += metadataLength;
         }
+        final int dataLength = frame.dataLength();
         if (0 < dataLength) {
-            final int dataOffset = FrameHeaderFlyweight.dataOffset(byteBuf, frameType, frameLength);
-            dataBuffer.addComponent(true, byteBuf.retainedSlice(dataOffset, dataLength));
+            if (dataBuffer == null) {
+                dataBuffer = compositeBuffer();
+            }
+            dataBuffer.addComponent(true, hold(frame.sliceData(), capacity));
+            size += dataLength;
         }
     }
 
-    public synchronized Frame reassemble() {
-        return Frame.PayloadFrame.from(streamId, frameType, metadataBuffer, dataBuffer, flags);
+    /**
+     * @return bytes of metadata and data appended since the last reassembly
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return bytes of memory held by the fragments appended since the last reassembly: the length of the copied
+     * fragments and the whole capacity of the buffers the retained fragments are a slice of
+     */
+    public int retainedBytes() {
+        return retainedBytes;
     }
 
+    /**
+     * Copies the appended fragments into a frame and releases them, so the reassembler can be reused for the next
+     * fragmented frame of the stream.
+     */
+    public Frame reassemble() {
+        final ByteBuf metadata = metadataBuffer == null ? Unpooled.EMPTY_BUFFER : metadataBuffer;
+        final ByteBuf data = dataBuffer == null ? Unpooled.EMPTY_BUFFER : dataBuffer;
+        final Frame frame = frameType.hasInitialRequestN()
+            ? Frame.Request.from(allocator, streamId, frameType, metadata, data, initialRequestN, flags)
+            : Frame.PayloadFrame.from(allocator, streamId, frameType, metadata, data, flags);
+        releaseBuffers();
+        return frame;
+    }
+
+    public FrameType frameType() {
+        return frameType;
+    }
+
+    /**
+     * Releases the appended fragments, fragments appended afterwards are ignored.
+     */
     @Override
     public void dispose() {
-        dataBuffer.release();
-        metadataBuffer.release();
+        disposed = true;
+        releaseBuffers();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    private CompositeByteBuf compositeBuffer() {
+        // no limit on components, consolidating them would copy the fragments on every append past the limit
+        return allocator.compositeBuffer(Integer.MAX_VALUE);
+    }
+
+    private ByteBuf hold(ByteBuf slice, int capacity) {
+        final int length = slice.readableBytes();
+        if (length >= capacity / 2) {
+            retainedBytes += capacity;
+            return slice.retain();
+        }
+        retainedBytes += length;
+        return allocator.buffer(length).writeBytes(slice);
+    }
+
+    private static int rootCapacity(ByteBuf buffer) {
+        ByteBuf root = buffer;
+        while (root.unwrap() != null) {
+            root = root.unwrap();
+        }
+        return root.capacity();
+    }
+
+    private void releaseBuffers() {
+        if (dataBuffer != null) {
+            dataBuffer.release();
+            dataBuffer = null;
+        }
+        if (metadataBuffer != null) {
+            metadataBuffer.release();
+            metadataBuffer = null;
+        }
+        size = 0;
+        retainedBytes = 0;
     }
 }
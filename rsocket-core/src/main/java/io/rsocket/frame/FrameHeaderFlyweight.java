@@ -93,18 +93,10 @@ public class FrameHeaderFlyweight {
             final int metadataOffset,
             final ByteBuf metadata
     ) {
-        int length = 0;
         final int metadataLength = metadata.readableBytes();
+        int length = encodeMetadataLength(byteBuf, frameType, metadataOffset, metadataLength);
 
         if (0 < metadataLength) {
-            int typeAndFlags = byteBuf.getShort(FRAME_TYPE_AND_FLAGS_FIELD_OFFSET);
-            typeAndFlags |= FLAGS_M;
-            byteBuf.setShort(FRAME_TYPE_AND_FLAGS_FIELD_OFFSET, (short) typeAndFlags);
-
-            if (hasMetadataLengthField(frameType)) {
-                encodeLength(byteBuf, metadataOffset, metadataLength);
-                length += FRAME_LENGTH_SIZE;
-            }
             byteBuf.setBytes(metadataOffset + length, metadata);
             length += metadataLength;
         }
@@ -139,33 +131,88 @@ public class FrameHeaderFlyweight {
     ) {
         final int frameLength = computeFrameHeaderLength(frameType, metadata.readableBytes(), data.readableBytes());
 
-        final FrameType outFrameType;
+        int length = encodeFrameHeader(byteBuf, frameLength, encodedFlags(frameType, flags), encodedFrameType(frameType), streamId);
+
+        length += encodeMetadata(byteBuf, frameType, length, metadata);
+        length += encodeData(byteBuf, length, data);
+
+        return length;
+    }
+
+    /**
+     * Encodes only the header of a frame, for types simple enough that they don't have their own FrameFlyweights,
+     * whose metadata and data have already been written into {@code byteBuf} directly after the header.
+     *
+     * @return length of the header, which is the offset at which the metadata is expected
+     */
+    public static int encodeHeader(
+            final ByteBuf byteBuf,
+            final int streamId,
+            int flags,
+            final FrameType frameType,
+            final int metadataLength,
+            final int dataLength
+    ) {
+        final int frameLength = computeFrameHeaderLength(frameType, metadataLength, dataLength);
+
+        int length = encodeFrameHeader(byteBuf, frameLength, encodedFlags(frameType, flags), encodedFrameType(frameType), streamId);
+        length += encodeMetadataLength(byteBuf, frameType, length, metadataLength);
+
+        return length;
+    }
+
+    /**
+     * Sets the metadata flag and, for frame types that have one, writes the metadata length field at
+     * {@code metadataOffset}.
+     *
+     * @return length of the metadata length field
+     */
+    public static int encodeMetadataLength(
+            final ByteBuf byteBuf,
+            final FrameType frameType,
+            final int metadataOffset,
+            final int metadataLength
+    ) {
+        int length = 0;
+
+        if (0 < metadataLength) {
+            int typeAndFlags = byteBuf.getShort(FRAME_TYPE_AND_FLAGS_FIELD_OFFSET);
+            typeAndFlags |= FLAGS_M;
+            byteBuf.setShort(FRAME_TYPE_AND_FLAGS_FIELD_OFFSET, (short) typeAndFlags);
+
+            if (hasMetadataLengthField(frameType)) {
+                encodeLength(byteBuf, metadataOffset, metadataLength);
+                length += FRAME_LENGTH_SIZE;
+            }
+        }
+
+        return length;
+    }
+
+    private static FrameType encodedFrameType(final FrameType frameType) {
         switch (frameType) {
             case PAYLOAD:
                 throw new IllegalArgumentException("Don't encode raw PAYLOAD frames, use NEXT_COMPLETE, COMPLETE or NEXT");
             case NEXT_COMPLETE:
-                outFrameType = FrameType.PAYLOAD;
-                flags |= FLAGS_C | FLAGS_N;
-                break;
             case COMPLETE:
-                outFrameType = FrameType.PAYLOAD;
-                flags |= FLAGS_C;
-                break;
             case NEXT:
-                outFrameType = FrameType.PAYLOAD;
-                flags |= FLAGS_N;
-                break;
+                return FrameType.PAYLOAD;
             default:
-                outFrameType = frameType;
-                break;
+                return frameType;
         }
+    }
 
-        int length = encodeFrameHeader(byteBuf, frameLength, flags, outFrameType, streamId);
-
-        length += encodeMetadata(byteBuf, frameType, length, metadata);
-        length += encodeData(byteBuf, length, data);
-
-        return length;
+    private static int encodedFlags(final FrameType frameType, final int flags) {
+        switch (frameType) {
+            case NEXT_COMPLETE:
+                return flags | FLAGS_C | FLAGS_N;
+            case COMPLETE:
+                return flags | FLAGS_C;
+            case NEXT:
+                return flags | FLAGS_N;
+            default:
+                return flags;
+        }
     }
 
     public static int flags(final ByteBuf byteBuf) {
@@ -344,6 +391,12 @@ public class FrameHeaderFlyweight {
             case REQUEST_N:
                 result = RequestNFrameFlyweight.payloadOffset(byteBuf);
                 break;
+            case RESUME:
+                result = ResumeFrameFlyweight.payloadOffset(byteBuf);
+                break;
+            case RESUME_OK:
+                result = ResumeFrameFlyweight.resumeOkPayloadOffset(byteBuf);
+                break;
         }
 
         return result;
@@ -34,13 +34,21 @@ public class KeepaliveFrameFlyweight {
         final ByteBuf byteBuf,
         int flags,
         final ByteBuf data
+    ) {
+        return encode(byteBuf, flags, 0, data);
+    }
+
+    public static int encode(
+        final ByteBuf byteBuf,
+        int flags,
+        final long lastPosition,
+        final ByteBuf data
     ) {
         final int frameLength = computeFrameLength(data.readableBytes());
 
         int length = FrameHeaderFlyweight.encodeFrameHeader(byteBuf, frameLength, flags, FrameType.KEEPALIVE, 0);
 
-        // We don't support resumability, last position is always zero
-        byteBuf.setLong(length, 0);
+        byteBuf.setLong(length, lastPosition);
         length += Long.BYTES;
 
         length += FrameHeaderFlyweight.encodeData(byteBuf, length, data);
@@ -48,6 +56,14 @@ public class KeepaliveFrameFlyweight {
         return length;
     }
 
+    public static long lastPosition(final ByteBuf byteBuf) {
+        return byteBuf.getLong(LAST_POSITION_OFFSET);
+    }
+
+    public static void lastPosition(final ByteBuf byteBuf, final long lastPosition) {
+        byteBuf.setLong(LAST_POSITION_OFFSET, lastPosition);
+    }
+
     public static int payloadOffset(final ByteBuf byteBuf) {
         return PAYLOAD_OFFSET;
     }
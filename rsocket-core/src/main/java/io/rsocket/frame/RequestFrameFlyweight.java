@@ -78,6 +78,35 @@ public class RequestFrameFlyweight {
         return length;
     }
 
+    /**
+     * Encodes only the header of a request frame whose metadata and data have already been written into
+     * {@code byteBuf} directly after the header.
+     *
+     * @return length of the header, which is the offset at which the metadata is expected
+     */
+    public static int encodeHeader(
+        final ByteBuf byteBuf,
+        final int streamId,
+        final int flags,
+        final FrameType type,
+        final int initialRequestN,
+        final int metadataLength,
+        final int dataLength
+    ) {
+        final int frameLength = computeFrameLength(type, metadataLength, dataLength);
+
+        int length = FrameHeaderFlyweight.encodeFrameHeader(byteBuf, frameLength, flags, type, streamId);
+
+        if (type.hasInitialRequestN()) {
+            byteBuf.setInt(INITIAL_REQUEST_N_FIELD_OFFSET, initialRequestN);
+            length += Integer.BYTES;
+        }
+
+        length += FrameHeaderFlyweight.encodeMetadataLength(byteBuf, type, length, metadataLength);
+
+        return length;
+    }
+
     public static int initialRequestN(final ByteBuf byteBuf) {
         return byteBuf.getInt(INITIAL_REQUEST_N_FIELD_OFFSET);
     }
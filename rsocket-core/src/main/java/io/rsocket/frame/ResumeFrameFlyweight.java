@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rsocket.frame;
+
+import io.netty.buffer.ByteBuf;
+import io.rsocket.FrameType;
+
+/**
+ * Encodes the {@link FrameType#RESUME} frame a client sends to resume a session on a new connection, and the
+ * {@link FrameType#RESUME_OK} frame the server answers with.
+ */
+public class ResumeFrameFlyweight {
+    private ResumeFrameFlyweight() {}
+
+    // relative to start of passed offset
+    private static final int VERSION_FIELD_OFFSET = FrameHeaderFlyweight.FRAME_HEADER_LENGTH;
+    private static final int TOKEN_LENGTH_FIELD_OFFSET = VERSION_FIELD_OFFSET + Integer.BYTES;
+    private static final int TOKEN_OFFSET = TOKEN_LENGTH_FIELD_OFFSET + Short.BYTES;
+    private static final int RESUME_OK_POSITION_FIELD_OFFSET = FrameHeaderFlyweight.FRAME_HEADER_LENGTH;
+
+    public static int computeFrameLength(final int resumeTokenLength) {
+        return FrameHeaderFlyweight.computeFrameHeaderLength(FrameType.RESUME, 0, 0)
+               + Integer.BYTES + Short.BYTES + resumeTokenLength + Long.BYTES * 2;
+    }
+
+    public static int encode(
+        final ByteBuf byteBuf,
+        final ByteBuf resumeToken,
+        final long lastReceivedServerPosition,
+        final long firstAvailableClientPosition
+    ) {
+        final int resumeTokenLength = resumeToken.readableBytes();
+        final int frameLength = computeFrameLength(resumeTokenLength);
+
+        int length = FrameHeaderFlyweight.encodeFrameHeader(byteBuf, frameLength, 0, FrameType.RESUME, 0);
+
+        byteBuf.setInt(VERSION_FIELD_OFFSET, SetupFrameFlyweight.CURRENT_VERSION);
+        byteBuf.setShort(TOKEN_LENGTH_FIELD_OFFSET, resumeTokenLength);
+        byteBuf.setBytes(TOKEN_OFFSET, resumeToken, resumeToken.readerIndex(), resumeTokenLength);
+        length += Integer.BYTES + Short.BYTES + resumeTokenLength;
+
+        byteBuf.setLong(length, lastReceivedServerPosition);
+        length += Long.BYTES;
+        byteBuf.setLong(length, firstAvailableClientPosition);
+        length += Long.BYTES;
+
+        return length;
+    }
+
+    public static int version(final ByteBuf byteBuf) {
+        return byteBuf.getInt(VERSION_FIELD_OFFSET);
+    }
+
+    public static ByteBuf resumeToken(final ByteBuf byteBuf) {
+        return byteBuf.slice(TOKEN_OFFSET, tokenLength(byteBuf));
+    }
+
+    public static long lastReceivedServerPosition(final ByteBuf byteBuf) {
+        return byteBuf.getLong(TOKEN_OFFSET + tokenLength(byteBuf));
+    }
+
+    public static long firstAvailableClientPosition(final ByteBuf byteBuf) {
+        return byteBuf.getLong(TOKEN_OFFSET + tokenLength(byteBuf) + Long.BYTES);
+    }
+
+    public static int payloadOffset(final ByteBuf byteBuf) {
+        return TOKEN_OFFSET + tokenLength(byteBuf) + Long.BYTES * 2;
+    }
+
+    public static int computeResumeOkFrameLength() {
+        return FrameHeaderFlyweight.computeFrameHeaderLength(FrameType.RESUME_OK, 0, 0) + Long.BYTES;
+    }
+
+    public static int encodeResumeOk(final ByteBuf byteBuf, final long lastReceivedClientPosition) {
+        int length = FrameHeaderFlyweight.encodeFrameHeader(
+            byteBuf, computeResumeOkFrameLength(), 0, FrameType.RESUME_OK, 0);
+
+        byteBuf.setLong(RESUME_OK_POSITION_FIELD_OFFSET, lastReceivedClientPosition);
+        length += Long.BYTES;
+
+        return length;
+    }
+
+    public static long lastReceivedClientPosition(final ByteBuf byteBuf) {
+        return byteBuf.getLong(RESUME_OK_POSITION_FIELD_OFFSET);
+    }
+
+    public static int resumeOkPayloadOffset(final ByteBuf byteBuf) {
+        return RESUME_OK_POSITION_FIELD_OFFSET + Long.BYTES;
+    }
+
+    private static int tokenLength(final ByteBuf byteBuf) {
+        return byteBuf.getShort(TOKEN_LENGTH_FIELD_OFFSET) & 0xFFFF;
+    }
+}
@@ -27,8 +27,14 @@ public class SetupFrameFlyweight {
     public static final int FLAGS_RESUME_ENABLE =         0b00_1000_0000;
     public static final int FLAGS_WILL_HONOR_LEASE =      0b00_0100_0000;
     public static final int FLAGS_STRICT_INTERPRETATION = 0b00_0010_0000;
+    /**
+     * Extension of this implementation: both peers prefix the metadata of requests with their deadline, see
+     * {@link io.rsocket.util.Deadlines}. Peers not knowing the flag ignore it.
+     */
+    public static final int FLAGS_WILL_HONOR_DEADLINES =  0b00_0001_0000;
 
-    public static final int VALID_FLAGS = FLAGS_RESUME_ENABLE | FLAGS_WILL_HONOR_LEASE | FLAGS_STRICT_INTERPRETATION;
+    public static final int VALID_FLAGS = FLAGS_RESUME_ENABLE | FLAGS_WILL_HONOR_LEASE | FLAGS_STRICT_INTERPRETATION
+                                          | FLAGS_WILL_HONOR_DEADLINES;
 
     public static final int CURRENT_VERSION = VersionFlyweight.encode(1, 0);
 
@@ -48,7 +54,7 @@ public class SetupFrameFlyweight {
         return computeFrameLength(flags, 0, metadataMimeType, dataMimeType, metadataLength, dataLength);
     }
 
-    private static int computeFrameLength(
+    public static int computeFrameLength(
         final int flags,
         final int resumeTokenLength,
         final String metadataMimeType,
@@ -81,7 +87,7 @@ public class SetupFrameFlyweight {
         final ByteBuf data
     ) {
         if ((flags & FLAGS_RESUME_ENABLE) != 0) {
-            throw new IllegalArgumentException("RESUME_ENABLE not supported");
+            throw new IllegalArgumentException("RESUME_ENABLE requires a resume token");
         }
 
         return encode(
@@ -96,8 +102,7 @@ public class SetupFrameFlyweight {
                 data);
     }
 
-    // Only exposed for testing, other code shouldn't create frames with resumption tokens for now
-    static int encode(
+    public static int encode(
         final ByteBuf byteBuf,
         int flags,
         final int keepaliveInterval,
@@ -148,6 +153,14 @@ public class SetupFrameFlyweight {
         return byteBuf.getInt(MAX_LIFETIME_FIELD_OFFSET);
     }
 
+    public static ByteBuf resumeToken(final ByteBuf byteBuf) {
+        if ((FrameHeaderFlyweight.flags(byteBuf) & FLAGS_RESUME_ENABLE) == 0) {
+            return Unpooled.EMPTY_BUFFER;
+        }
+        final int tokenLength = byteBuf.getShort(VARIABLE_DATA_OFFSET) & 0xFFFF;
+        return byteBuf.slice(VARIABLE_DATA_OFFSET + Short.BYTES, tokenLength);
+    }
+
     public static String metadataMimeType(final ByteBuf byteBuf) {
         final byte[] bytes = getMimeType(byteBuf, metadataMimetypeOffset(byteBuf));
         return new String(bytes, StandardCharsets.UTF_8);
@@ -182,7 +195,7 @@ public class SetupFrameFlyweight {
         if ((FrameHeaderFlyweight.flags(byteBuf) & FLAGS_RESUME_ENABLE) == 0) {
             return 0;
         } else {
-            return Short.BYTES + byteBuf.getShort(VARIABLE_DATA_OFFSET);
+            return Short.BYTES + (byteBuf.getShort(VARIABLE_DATA_OFFSET) & 0xFFFF);
         }
     }
 
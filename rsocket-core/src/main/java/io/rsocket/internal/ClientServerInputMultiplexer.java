@@ -16,17 +16,26 @@
 
 package io.rsocket.internal;
 
+import io.netty.buffer.ByteBufAllocator;
 import io.rsocket.DuplexConnection;
 import io.rsocket.Frame;
 import io.rsocket.FrameType;
 import io.rsocket.Plugins;
 import io.rsocket.Plugins.DuplexConnectionInterceptor.Type;
 import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.publisher.MonoProcessor;
+import reactor.core.publisher.Operators;
+
+import javax.annotation.Nullable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 /**
  * {@link DuplexConnection#receive()} is a single stream on which the following type of frames arrive:
@@ -37,19 +46,22 @@ import reactor.core.publisher.MonoProcessor;
  * <p>
  * The only way to differentiate these two frames is determining whether the stream Id is odd or even. Even IDs are
  * for the streams initiated by server and odds are for streams initiated by the client. <p>
+ * Each frame is classified as it is received and handed on the receiving thread to the subscriber of the matching
+ * connection. Frames are only queued while that connection has no subscriber yet or no outstanding demand, and frames
+ * for a connection whose subscriber cancelled are released.
  */
 public class ClientServerInputMultiplexer {
     private static final Logger LOGGER = LoggerFactory.getLogger("io.rsocket.FrameLogger");
 
+    private final FrameReceiver streamZero = new FrameReceiver();
+    private final FrameReceiver server = new FrameReceiver();
+    private final FrameReceiver client = new FrameReceiver();
+
     private final DuplexConnection streamZeroConnection;
     private final DuplexConnection serverConnection;
     private final DuplexConnection clientConnection;
 
     public ClientServerInputMultiplexer(DuplexConnection source) {
-        final MonoProcessor<Flux<Frame>> streamZero = MonoProcessor.create();
-        final MonoProcessor<Flux<Frame>> server = MonoProcessor.create();
-        final MonoProcessor<Flux<Frame>> client = MonoProcessor.create();
-
         source = Plugins.DUPLEX_CONNECTION_INTERCEPTOR.apply(Type.SOURCE, source);
         streamZeroConnection = Plugins.DUPLEX_CONNECTION_INTERCEPTOR.apply(Type.STREAM_ZERO, new InternalDuplexConnection(source, streamZero));
         serverConnection = Plugins.DUPLEX_CONNECTION_INTERCEPTOR.apply(Type.SERVER, new InternalDuplexConnection(source, server));
@@ -57,37 +69,7 @@ public class ClientServerInputMultiplexer {
 
         source
             .receive()
-            .groupBy(frame -> {
-                int streamId = frame.getStreamId();
-                final Type type;
-                if (streamId == 0) {
-                    if (frame.getType() == FrameType.SETUP) {
-                        type = Type.STREAM_ZERO;
-                    } else {
-                        type = Type.CLIENT;
-                    }
-                } else if ((streamId & 0b1) == 0) {
-                    type = Type.SERVER;
-                } else {
-                    type = Type.CLIENT;
-                }
-                return type;
-            })
-            .subscribe(group -> {
-                switch (group.key()) {
-                    case STREAM_ZERO:
-                        streamZero.onNext(group);
-                        break;
-
-                    case SERVER:
-                        server.onNext(group);
-                        break;
-
-                    case CLIENT:
-                        client.onNext(group);
-                        break;
-                }
-            });
+            .subscribe(this::dispatch, this::onError, this::onComplete);
     }
 
     public DuplexConnection asServerConnection() {
@@ -102,14 +84,185 @@ public class ClientServerInputMultiplexer {
         return streamZeroConnection;
     }
 
+    private void dispatch(Frame frame) {
+        final int streamId = frame.getStreamId();
+        if (streamId == 0) {
+            if (frame.getType() == FrameType.SETUP) {
+                streamZero.onNext(frame);
+            } else {
+                client.onNext(frame);
+            }
+        } else if ((streamId & 0b1) == 0) {
+            server.onNext(frame);
+        } else {
+            client.onNext(frame);
+        }
+    }
+
+    private void onError(Throwable t) {
+        streamZero.onError(t);
+        server.onError(t);
+        client.onError(t);
+    }
+
+    private void onComplete() {
+        streamZero.onComplete();
+        server.onComplete();
+        client.onComplete();
+    }
+
+    /**
+     * Frames of one of the connections, received from a single thread at a time and delivered to a single subscriber.
+     */
+    private static final class FrameReceiver extends Flux<Frame> implements Subscription {
+        private static final AtomicIntegerFieldUpdater<FrameReceiver> ONCE =
+            AtomicIntegerFieldUpdater.newUpdater(FrameReceiver.class, "once");
+        private static final AtomicIntegerFieldUpdater<FrameReceiver> WIP =
+            AtomicIntegerFieldUpdater.newUpdater(FrameReceiver.class, "wip");
+        private static final AtomicLongFieldUpdater<FrameReceiver> REQUESTED =
+            AtomicLongFieldUpdater.newUpdater(FrameReceiver.class, "requested");
+
+        private final Queue<Frame> queue = new ConcurrentLinkedQueue<>();
+
+        private volatile @Nullable Subscriber<? super Frame> actual;
+        private volatile int once;
+        private volatile int wip;
+        private volatile long requested;
+        private volatile boolean cancelled;
+        private volatile boolean done;
+        private @Nullable Throwable error;
+
+        @Override
+        public void subscribe(Subscriber<? super Frame> s) {
+            if (!ONCE.compareAndSet(this, 0, 1)) {
+                Operators.error(s, new IllegalStateException("Only one subscriber allowed to receive the frames"));
+                return;
+            }
+            actual = s;
+            s.onSubscribe(this);
+            drain();
+        }
+
+        private void onNext(Frame frame) {
+            if (cancelled) {
+                frame.release();
+                return;
+            }
+            if (wip == 0 && WIP.compareAndSet(this, 0, 1)) {
+                final Subscriber<? super Frame> a = actual;
+                final long r = requested;
+                if (a != null && r != 0 && queue.isEmpty()) {
+                    a.onNext(frame);
+                    if (r != Long.MAX_VALUE) {
+                        REQUESTED.decrementAndGet(this);
+                    }
+                    if (WIP.decrementAndGet(this) == 0) {
+                        return;
+                    }
+                } else {
+                    queue.offer(frame);
+                }
+                drainLoop();
+            } else {
+                queue.offer(frame);
+                drain();
+            }
+        }
+
+        private void onError(Throwable t) {
+            error = t;
+            done = true;
+            drain();
+        }
+
+        private void onComplete() {
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.checkRequest(n, actual)) {
+                Operators.getAndAddCap(REQUESTED, this, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            if (WIP.getAndIncrement(this) == 0) {
+                clear();
+            }
+        }
+
+        private void drain() {
+            if (WIP.getAndIncrement(this) == 0) {
+                drainLoop();
+            }
+        }
+
+        private void drainLoop() {
+            int missed = 1;
+            for (;;) {
+                final Subscriber<? super Frame> a = actual;
+                if (a != null) {
+                    final long r = requested;
+                    long e = 0;
+                    for (;;) {
+                        if (cancelled) {
+                            clear();
+                            return;
+                        }
+                        final boolean d = done;
+                        final Frame frame = e == r ? null : queue.poll();
+                        if (frame == null) {
+                            if (d && queue.isEmpty()) {
+                                terminate(a);
+                                return;
+                            }
+                            break;
+                        }
+                        a.onNext(frame);
+                        e++;
+                    }
+                    if (e != 0 && r != Long.MAX_VALUE) {
+                        REQUESTED.addAndGet(this, -e);
+                    }
+                }
+
+                missed = WIP.addAndGet(this, -missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        private void terminate(Subscriber<? super Frame> a) {
+            final Throwable e = error;
+            if (e != null) {
+                a.onError(e);
+            } else {
+                a.onComplete();
+            }
+        }
+
+        private void clear() {
+            Frame frame;
+            while ((frame = queue.poll()) != null) {
+                frame.release();
+            }
+        }
+    }
+
     private static class InternalDuplexConnection implements DuplexConnection {
         private final DuplexConnection source;
-        private final MonoProcessor<Flux<Frame>> processor;
+        private final Flux<Frame> frames;
         private final boolean debugEnabled;
 
-        public InternalDuplexConnection(DuplexConnection source, MonoProcessor<Flux<Frame>> processor) {
+        public InternalDuplexConnection(DuplexConnection source, Flux<Frame> frames) {
             this.source = source;
-            this.processor = processor;
+            this.frames = frames;
             this.debugEnabled = LOGGER.isDebugEnabled();
         }
 
@@ -133,13 +286,16 @@ public class ClientServerInputMultiplexer {
 
         @Override
         public Flux<Frame> receive() {
-            return processor.flatMapMany(f -> {
-                if (debugEnabled) {
-                    return f.doOnNext(frame -> LOGGER.debug("receiving -> " + frame.toString()));
-                } else {
-                    return f;
-                }
-            });
+            if (debugEnabled) {
+                return frames.doOnNext(frame -> LOGGER.debug("receiving -> " + frame.toString()));
+            } else {
+                return frames;
+            }
+        }
+
+        @Override
+        public ByteBufAllocator alloc() {
+            return source.alloc();
         }
 
         @Override
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.internal;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Concurrent hash map with primitive {@code int} keys, used as the table of active streams of a connection.
+ * <p>
+ * Entries are spread over a fixed number of segments, each an open addressing table with linear probing. Reads do not
+ * lock: a slot is published by a volatile write of its value after its key, and a slot once taken keeps its key until
+ * the segment is rehashed into a new table, so a reader that sees a value also sees the right key. Removal leaves a
+ * tombstone in the slot. Writes lock only the segment of the key, and rehashing, which also drops the tombstones,
+ * builds a new table that is then published as a whole.
+ * <p>
+ * Iteration through {@link #forEach} and {@link #values} is weakly consistent.
+ */
+public final class ConcurrentIntObjectHashMap<V> {
+    private static final int SEGMENT_SHIFT = 4;
+    private static final int SEGMENT_COUNT = 1 << SEGMENT_SHIFT;
+    private static final int MIN_SEGMENT_CAPACITY = 8;
+
+    private static final Object TOMBSTONE = new Object();
+
+    private final Segment[] segments;
+
+    public ConcurrentIntObjectHashMap() {
+        this(256);
+    }
+
+    /**
+     * @param initialCapacity number of entries expected, spread over all segments
+     */
+    public ConcurrentIntObjectHashMap(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must not be negative");
+        }
+        final int segmentCapacity = tableCapacity(initialCapacity / SEGMENT_COUNT);
+        this.segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        final int hash = hash(key);
+        final Object value = segmentFor(hash).table.find(key, hash);
+        return value == TOMBSTONE ? null : (V) value;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return the previous value of {@code key}, if any
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        final int hash = hash(key);
+        return (V) segmentFor(hash).put(key, hash, value, false);
+    }
+
+    /**
+     * @return the current value of {@code key}, {@code null} if {@code value} was added
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V putIfAbsent(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        final int hash = hash(key);
+        return (V) segmentFor(hash).put(key, hash, value, true);
+    }
+
+    /**
+     * @return the removed value, if any
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        final int hash = hash(key);
+        return (V) segmentFor(hash).remove(key, hash);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        for (Segment segment : segments) {
+            if (segment.size != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(IntObjectConsumer<? super V> consumer) {
+        for (Segment segment : segments) {
+            final Table table = segment.table;
+            for (int i = 0; i < table.keys.length; i++) {
+                final Object value = table.values.get(i);
+                if (value != null && value != TOMBSTONE) {
+                    consumer.accept(table.keys[i], (V) value);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a snapshot of the values
+     */
+    public List<V> values() {
+        final List<V> values = new ArrayList<>();
+        forEach((key, value) -> values.add(value));
+        return values;
+    }
+
+    @FunctionalInterface
+    public interface IntObjectConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments[hash >>> (32 - SEGMENT_SHIFT)];
+    }
+
+    private static int hash(int key) {
+        // stream ids go up by two, spread them over segments (high bits) and slots (low bits)
+        final int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableCapacity(int entries) {
+        // keeps linear probing at a load factor of at most a half
+        final int capacity = Math.max(MIN_SEGMENT_CAPACITY, entries * 2);
+        return Integer.highestOneBit(capacity - 1) << 1;
+    }
+
+    private static final class Table {
+        private final int[] keys;
+        private final AtomicReferenceArray<Object> values;
+        private final int mask;
+
+        private Table(int capacity) {
+            this.keys = new int[capacity];
+            this.values = new AtomicReferenceArray<>(capacity);
+            this.mask = capacity - 1;
+        }
+
+        @Nullable
+        private Object find(int key, int hash) {
+            int index = hash & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                final Object value = values.get(index);
+                if (value == null) {
+                    return null;
+                }
+                if (keys[index] == key) {
+                    return value;
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+    }
+
+    private static final class Segment {
+        private volatile Table table;
+        // live entries, written under the lock of the segment
+        private volatile int size;
+        // live entries and tombstones, guarded by the lock of the segment
+        private int used;
+
+        private Segment(int capacity) {
+            this.table = new Table(capacity);
+        }
+
+        @Nullable
+        private synchronized Object put(int key, int hash, Object value, boolean onlyIfAbsent) {
+            Table t = table;
+            int index = hash & t.mask;
+            int free = -1;
+            for (int probes = 0; probes <= t.mask; probes++) {
+                final Object current = t.values.get(index);
+                if (current == null) {
+                    free = index;
+                    break;
+                }
+                if (t.keys[index] == key) {
+                    if (current == TOMBSTONE) {
+                        t.values.set(index, value);
+                        size++;
+                        return null;
+                    }
+                    if (!onlyIfAbsent) {
+                        t.values.set(index, value);
+                    }
+                    return current;
+                }
+                index = (index + 1) & t.mask;
+            }
+
+            if (free < 0 || (used + 1) * 2 > t.keys.length) {
+                t = rehash(t, size + 1);
+                free = hash & t.mask;
+                while (t.values.get(free) != null) {
+                    free = (free + 1) & t.mask;
+                }
+            }
+            t.keys[free] = key;
+            t.values.set(free, value);
+            used++;
+            size++;
+            return null;
+        }
+
+        @Nullable
+        private synchronized Object remove(int key, int hash) {
+            final Table t = table;
+            int index = hash & t.mask;
+            for (int probes = 0; probes <= t.mask; probes++) {
+                final Object current = t.values.get(index);
+                if (current == null) {
+                    return null;
+                }
+                if (t.keys[index] == key) {
+                    if (current == TOMBSTONE) {
+                        return null;
+                    }
+                    t.values.set(index, TOMBSTONE);
+                    size--;
+                    return current;
+                }
+                index = (index + 1) & t.mask;
+            }
+            return null;
+        }
+
+        private synchronized void clear() {
+            if (used != 0) {
+                table = new Table(MIN_SEGMENT_CAPACITY);
+                used = 0;
+                size = 0;
+            }
+        }
+
+        private Table rehash(Table old, int entries) {
+            final Table t = new Table(tableCapacity(entries));
+            for (int i = 0; i < old.keys.length; i++) {
+                final Object value = old.values.get(i);
+                if (value != null && value != TOMBSTONE) {
+                    int index = hash(old.keys[i]) & t.mask;
+                    while (t.values.get(index) != null) {
+                        index = (index + 1) & t.mask;
+                    }
+                    t.keys[index] = old.keys[i];
+                    t.values.lazySet(index, value);
+                }
+            }
+            used = size;
+            table = t;
+            return t;
+        }
+    }
+}
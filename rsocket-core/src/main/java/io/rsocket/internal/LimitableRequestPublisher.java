@@ -7,27 +7,55 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Operators;
 
 import javax.annotation.Nullable;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
- *
+ * Requests from its source no more than both the subscriber requested and the limit raised with
+ * {@link #increaseRequestLimit(long)} allow.
+ * <p>
+ * Demand and limit are accumulated as running totals without locking, and the difference to what was already requested
+ * from the source is forwarded by a single draining thread at a time, so the transport thread raising the limit and the
+ * subscriber requesting more never block each other.
  */
 public class LimitableRequestPublisher<T> extends Flux<T> implements Subscription {
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<LimitableRequestPublisher> SUBSCRIBED =
+        AtomicIntegerFieldUpdater.newUpdater(LimitableRequestPublisher.class, "subscribed");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<LimitableRequestPublisher> WIP =
+        AtomicIntegerFieldUpdater.newUpdater(LimitableRequestPublisher.class, "wip");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<LimitableRequestPublisher> INTERNAL_REQUESTED =
+        AtomicLongFieldUpdater.newUpdater(LimitableRequestPublisher.class, "internalRequested");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<LimitableRequestPublisher> EXTERNAL_REQUESTED =
+        AtomicLongFieldUpdater.newUpdater(LimitableRequestPublisher.class, "externalRequested");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<LimitableRequestPublisher, Subscription> INTERNAL_SUBSCRIPTION =
+        AtomicReferenceFieldUpdater.newUpdater(LimitableRequestPublisher.class, Subscription.class,
+                                               "internalSubscription");
+
     private final Publisher<T> source;
 
-    private final AtomicBoolean canceled;
+    // total demand of the subscriber and total limit, both only ever grow and are capped at Long.MAX_VALUE
+    private volatile long internalRequested;
+
+    private volatile long externalRequested;
 
-    private long internalRequested;
+    // part of the totals already requested from the source, only accessed by the draining thread
+    private long requested;
 
-    private long externalRequested;
+    private volatile int subscribed;
 
-    private volatile boolean subscribed;
+    private volatile int wip;
 
+    // Operators.cancelledSubscription() once cancelled
     private volatile @Nullable Subscription internalSubscription;
 
     private LimitableRequestPublisher(Publisher<T> source) {
         this.source = source;
-        this.canceled = new AtomicBoolean();
     }
 
     public static <T> LimitableRequestPublisher<T> wrap(Publisher<T> source) {
@@ -36,23 +64,16 @@ public class LimitableRequestPublisher<T> extends Flux<T> implements Subscriptio
 
     @Override
     public void subscribe(Subscriber<? super T> destination) {
-        synchronized (this) {
-            if (subscribed) {
-                throw new IllegalStateException("only one subscriber at a time");
-            }
-
-            subscribed = true;
+        if (!SUBSCRIBED.compareAndSet(this, 0, 1)) {
+            throw new IllegalStateException("only one subscriber at a time");
         }
 
         destination.onSubscribe(new InnerSubscription());
-        source.subscribe(new InnerSubscriber<>(destination));
+        source.subscribe(new InnerSubscriber(destination));
     }
 
     public void increaseRequestLimit(long n) {
-        synchronized (this) {
-            externalRequested = Operators.addCap(n, externalRequested);
-        }
-
+        Operators.getAndAddCap(EXTERNAL_REQUESTED, this, n);
         requestN();
     }
 
@@ -62,47 +83,52 @@ public class LimitableRequestPublisher<T> extends Flux<T> implements Subscriptio
     }
 
     private void requestN() {
-        long r;
-        synchronized (this) {
-            if (internalSubscription == null) {
-                return;
-            }
-
-            r = Math.min(internalRequested, externalRequested);
-            externalRequested -= r;
-            internalRequested -= r;
+        if (WIP.getAndIncrement(this) != 0) {
+            return;
         }
 
-        if (r > 0) {
-            internalSubscription.request(r);
+        int missed = 1;
+        for (;;) {
+            final Subscription s = internalSubscription;
+            if (s != null && s != Operators.cancelledSubscription()) {
+                final long allowed = Math.min(internalRequested, externalRequested);
+                final long r = allowed - requested;
+                if (r > 0) {
+                    requested = allowed;
+                    s.request(r);
+                }
+            }
+
+            missed = WIP.addAndGet(this, -missed);
+            if (missed == 0) {
+                break;
+            }
         }
     }
 
+    @Override
     public void cancel() {
-        if (canceled.compareAndSet(false, true) && internalSubscription != null) {
-            internalSubscription.cancel();
-            internalSubscription = null;
-            subscribed = false;
+        final Subscription s = INTERNAL_SUBSCRIPTION.getAndSet(this, Operators.cancelledSubscription());
+        if (s != null && s != Operators.cancelledSubscription()) {
+            s.cancel();
+            subscribed = 0;
         }
     }
 
-    private class InnerSubscriber<T> implements Subscriber<T> {
-        Subscriber<? super T> destination;
+    private class InnerSubscriber implements Subscriber<T> {
+        private final Subscriber<? super T> destination;
 
-        public InnerSubscriber(Subscriber<? super T> destination) {
+        private InnerSubscriber(Subscriber<? super T> destination) {
             this.destination = destination;
         }
 
         @Override
         public void onSubscribe(Subscription s) {
-            synchronized (LimitableRequestPublisher.this) {
-                LimitableRequestPublisher.this.internalSubscription = s;
-
-                if (canceled.get()) {
-                    s.cancel();
-                    subscribed = false;
-                    LimitableRequestPublisher.this.internalSubscription = null;
-                }
+            if (!INTERNAL_SUBSCRIPTION.compareAndSet(LimitableRequestPublisher.this, null, s)) {
+                // cancelled before the source subscribed
+                s.cancel();
+                subscribed = 0;
+                return;
             }
 
             requestN();
@@ -131,10 +157,7 @@ public class LimitableRequestPublisher<T> extends Flux<T> implements Subscriptio
     private class InnerSubscription implements Subscription {
         @Override
         public void request(long n) {
-            synchronized (LimitableRequestPublisher.this) {
-                internalRequested = Operators.addCap(n, internalRequested);
-            }
-
+            Operators.getAndAddCap(INTERNAL_REQUESTED, LimitableRequestPublisher.this, n);
             requestN();
         }
 
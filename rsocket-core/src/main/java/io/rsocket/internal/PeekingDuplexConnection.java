@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.internal;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.rsocket.DuplexConnection;
+import io.rsocket.Frame;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.publisher.UnicastProcessor;
+
+/**
+ * Splits the first frame received on a connection from the rest, so the frame that opens a connection, {@code SETUP}
+ * or {@code RESUME}, can be inspected before deciding what consumes the connection. {@link #receive()} emits the
+ * frames after the first one; frames arriving before it is subscribed are buffered.
+ */
+public final class PeekingDuplexConnection implements DuplexConnection {
+    private final DuplexConnection source;
+    private final MonoProcessor<Frame> firstFrame = MonoProcessor.create();
+    private final UnicastProcessor<Frame> remaining = UnicastProcessor.create();
+    private boolean firstReceived;
+
+    public PeekingDuplexConnection(DuplexConnection source) {
+        this.source = source;
+        source
+            .receive()
+            .subscribe(
+                frame -> {
+                    if (firstReceived) {
+                        remaining.onNext(frame);
+                    } else {
+                        firstReceived = true;
+                        firstFrame.onNext(frame);
+                    }
+                },
+                t -> {
+                    if (!firstReceived) {
+                        firstFrame.onError(t);
+                    }
+                    remaining.onError(t);
+                },
+                () -> {
+                    if (!firstReceived) {
+                        firstFrame.onComplete();
+                    }
+                    remaining.onComplete();
+                });
+    }
+
+    /**
+     * @return first frame received, owned by the subscriber, or empty if the connection closed before a frame arrived
+     */
+    public Mono<Frame> firstFrame() {
+        return firstFrame;
+    }
+
+    @Override
+    public Mono<Void> send(Publisher<Frame> frame) {
+        return source.send(frame);
+    }
+
+    @Override
+    public Mono<Void> sendOne(Frame frame) {
+        return source.sendOne(frame);
+    }
+
+    @Override
+    public Flux<Frame> receive() {
+        return remaining;
+    }
+
+    @Override
+    public ByteBufAllocator alloc() {
+        return source.alloc();
+    }
+
+    @Override
+    public Mono<Void> close() {
+        return source.close();
+    }
+
+    @Override
+    public Mono<Void> onClose() {
+        return source.onClose();
+    }
+
+    @Override
+    public double availability() {
+        return source.availability();
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A hashed timing wheel running the timers of many connections from a single periodic sweep, instead of one
+ * scheduled task per timer.
+ * <p>
+ * Timers are hashed by their deadline into a fixed number of buckets of one tick each; a timer further away than one
+ * turn of the wheel waits for the remaining turns in its bucket. Scheduling and cancelling are O(1) and only queue or
+ * flag the timer, the sweep moves new timers into their bucket and runs all timers expired in the elapsed ticks as one
+ * batch. Timers fire up to one tick late, so the wheel suits coarse timers like keepalives and deadlines. Tasks run on
+ * the single thread sweeping the wheel and must not block.
+ */
+public final class TimerWheel implements Disposable {
+    private static final Logger logger = LoggerFactory.getLogger(TimerWheel.class);
+
+    private static final class Shared {
+        private static final TimerWheel INSTANCE = new TimerWheel(Duration.ofMillis(10), 1024);
+    }
+
+    private final long tickNanos;
+    private final int mask;
+    private final Entry[] buckets;
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final long startNanos;
+    private final Scheduler scheduler;
+    private final Disposable sweeper;
+
+    // only used by the sweeping thread
+    private final List<Entry> expired = new ArrayList<>();
+    private long nextTick;
+
+    private volatile long currentTimeMillis;
+    private volatile boolean disposed;
+
+    /**
+     * @param tickDuration duration of a tick, the resolution of the timers
+     * @param wheelSize number of ticks in one turn of the wheel, rounded up to the next power of two
+     */
+    public TimerWheel(Duration tickDuration, int wheelSize) {
+        if (tickDuration.toMillis() < 1) {
+            throw new IllegalArgumentException("tickDuration must be at least 1 ms");
+        }
+        if (wheelSize < 1 || wheelSize > 1 << 30) {
+            throw new IllegalArgumentException("wheelSize must be between 1 and " + (1 << 30));
+        }
+        final int size = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickNanos = tickDuration.toNanos();
+        this.mask = size - 1;
+        this.buckets = new Entry[size];
+        this.startNanos = System.nanoTime();
+        this.currentTimeMillis = System.currentTimeMillis();
+        this.scheduler = Schedulers.newSingle("timer-wheel", true);
+        this.sweeper =
+            (Disposable) scheduler.schedulePeriodically(this::sweep, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return wheel shared by all connections of the JVM, with ticks of 10 ms
+     */
+    public static TimerWheel shared() {
+        return Shared.INSTANCE;
+    }
+
+    /**
+     * Runs {@code task} once after {@code delay}.
+     *
+     * @return disposable to cancel the timer
+     */
+    public Disposable schedule(Runnable task, Duration delay) {
+        return add(new Entry(task, 0, System.nanoTime() + delay.toNanos()));
+    }
+
+    /**
+     * Runs {@code task} every {@code period}, the first time after one period.
+     *
+     * @return disposable to cancel the timer
+     */
+    public Disposable schedulePeriodically(Runnable task, Duration period) {
+        if (period.toNanos() < tickNanos) {
+            throw new IllegalArgumentException("period must not be shorter than a tick");
+        }
+        return add(new Entry(task, period.toNanos(), System.nanoTime() + period.toNanos()));
+    }
+
+    /**
+     * @return wall clock time of the last sweep, a clock for tasks that is cheaper than
+     * {@link System#currentTimeMillis()} and as precise as the timers
+     */
+    public long currentTimeMillis() {
+        return currentTimeMillis;
+    }
+
+    /**
+     * Cancels {@code source} and fails with an error from {@code error} if it did not terminate by {@code deadline}.
+     *
+     * @param deadline wall clock time in milliseconds, see {@link #currentTimeMillis()}
+     */
+    public <T> Mono<T> expireAt(Mono<T> source, long deadline, Supplier<? extends Throwable> error) {
+        return source.timeout(expiry(deadline), Mono.defer(() -> Mono.error(error.get())));
+    }
+
+    /**
+     * Cancels {@code source} and fails with an error from {@code error} if it did not terminate by {@code deadline}.
+     *
+     * @param deadline wall clock time in milliseconds, see {@link #currentTimeMillis()}
+     */
+    public <T> Flux<T> expireAt(Flux<T> source, long deadline, Supplier<? extends Throwable> error) {
+        return source.takeUntilOther(expiry(deadline).then(Mono.defer(() -> Mono.error(error.get()))));
+    }
+
+    private Mono<Long> expiry(long deadline) {
+        return Mono.create(sink -> {
+            final long delay = Math.max(0, deadline - currentTimeMillis);
+            sink.onCancel(schedule(() -> sink.success(deadline), Duration.ofMillis(delay)));
+        });
+    }
+
+    private Entry add(Entry entry) {
+        if (disposed) {
+            entry.dispose();
+        } else {
+            pending.offer(entry);
+        }
+        return entry;
+    }
+
+    private void sweep() {
+        currentTimeMillis = System.currentTimeMillis();
+        final long currentTick = (System.nanoTime() - startNanos) / tickNanos;
+
+        Entry entry;
+        while ((entry = pending.poll()) != null) {
+            if (!entry.cancelled) {
+                insert(entry);
+            }
+        }
+
+        for (; nextTick <= currentTick; nextTick++) {
+            final int index = (int) (nextTick & mask);
+            Entry previous = null;
+            entry = buckets[index];
+            while (entry != null) {
+                final Entry next = entry.next;
+                if (entry.cancelled || entry.rounds == 0) {
+                    if (previous == null) {
+                        buckets[index] = next;
+                    } else {
+                        previous.next = next;
+                    }
+                    entry.next = null;
+                    if (!entry.cancelled) {
+                        expired.add(entry);
+                    }
+                } else {
+                    entry.rounds--;
+                    previous = entry;
+                }
+                entry = next;
+            }
+        }
+
+        for (int i = 0; i < expired.size(); i++) {
+            entry = expired.get(i);
+            try {
+                entry.task.run();
+            } catch (Throwable t) {
+                logger.error("Timer task failed", t);
+            }
+            if (entry.period > 0 && !entry.cancelled) {
+                entry.deadline += entry.period;
+                insert(entry);
+            }
+        }
+        expired.clear();
+    }
+
+    private void insert(Entry entry) {
+        long tick = (entry.deadline - startNanos + tickNanos - 1) / tickNanos;
+        if (tick < nextTick) {
+            tick = nextTick;
+        }
+        entry.rounds = (tick - nextTick) / buckets.length;
+        final int index = (int) (tick & mask);
+        entry.next = buckets[index];
+        buckets[index] = entry;
+    }
+
+    /**
+     * Stops the sweep, timers not expired yet never run. The {@link #shared() shared} wheel must not be disposed.
+     */
+    @Override
+    public void dispose() {
+        disposed = true;
+        sweeper.dispose();
+        scheduler.dispose();
+        pending.clear();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    private static final class Entry implements Disposable {
+        private final Runnable task;
+        private final long period;
+        private volatile boolean cancelled;
+
+        // only used by the sweeping thread
+        private long deadline;
+        private long rounds;
+        private Entry next;
+
+        private Entry(Runnable task, long period, long deadline) {
+            this.task = task;
+            this.period = period;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void dispose() {
+            cancelled = true;
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.lease;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.rsocket.DuplexConnection;
+import io.rsocket.Frame;
+import io.rsocket.internal.TimerWheel;
+import io.rsocket.server.AdaptiveConcurrencyLimiter;
+import io.rsocket.util.Clock;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Grants the leases of a responder to the requester at the other end of a connection. A lease is sent as soon as the
+ * connection is set up and renewed every half {@code ttl}, so the requester always holds a valid lease while the
+ * responder has capacity. Each lease replaces the previous one, so a lease grants the requests of one renewal
+ * interval rather than of a whole {@code ttl}. Renewals of all connections run on one {@link TimerWheel}.
+ */
+public final class LeaseManager {
+    private final Duration ttl;
+    private final IntSupplier numberOfRequests;
+    private final TimerWheel timer;
+
+    /**
+     * Creates a manager renewing leases on the {@link TimerWheel#shared() shared} timer wheel.
+     *
+     * @param ttl time a lease is valid for
+     * @param numberOfRequests number of requests to allow until the next lease, half a {@code ttl} later
+     */
+    public LeaseManager(Duration ttl, IntSupplier numberOfRequests) {
+        this(ttl, numberOfRequests, TimerWheel.shared());
+    }
+
+    /**
+     * @param ttl time a lease is valid for, half of it must not be shorter than a tick of {@code timer}
+     * @param numberOfRequests number of requests to allow until the next lease, half a {@code ttl} later
+     * @param timer wheel renewing the leases
+     */
+    public LeaseManager(Duration ttl, IntSupplier numberOfRequests, TimerWheel timer) {
+        if (ttl.toMillis() < 2 || ttl.toMillis() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("ttl must be between 2 and " + Integer.MAX_VALUE + " ms");
+        }
+        this.ttl = ttl;
+        this.numberOfRequests = numberOfRequests;
+        this.timer = timer;
+    }
+
+    /**
+     * Sizes leases from the capacity measured by {@code limiter}: the requests it lets run at once, times the number
+     * of requests that complete one after the other until the next lease at the average latency of the limiter.
+     */
+    public static LeaseManager fromLimiter(Duration ttl, AdaptiveConcurrencyLimiter limiter) {
+        final long intervalInClockUnit = Clock.unit().convert(ttl.toNanos() / 2, TimeUnit.NANOSECONDS);
+        return new LeaseManager(ttl, () -> {
+            final long latency = limiter.averageLatency();
+            final long rounds = latency <= 0 ? 1 : Math.max(1, intervalInClockUnit / latency);
+            return (int) Math.min(Integer.MAX_VALUE, limiter.limit() * rounds);
+        });
+    }
+
+    public Duration ttl() {
+        return ttl;
+    }
+
+    /**
+     * Starts sending leases on {@code connection} until it is closed.
+     *
+     * @return disposable to stop sending leases before the connection closes
+     */
+    public Disposable grant(DuplexConnection connection, ByteBufAllocator allocator,
+                            Consumer<Throwable> errorConsumer) {
+        final int ttlMillis = (int) ttl.toMillis();
+        final Runnable sendLease = () ->
+            connection
+                .sendOne(Frame.Lease.from(allocator, ttlMillis, Math.max(0, numberOfRequests.getAsInt()),
+                                          Unpooled.EMPTY_BUFFER))
+                .subscribe(null, errorConsumer);
+        final Disposable leases = timer.schedulePeriodically(sendLease, ttl.dividedBy(2));
+        sendLease.run();
+
+        connection
+            .onClose()
+            .doFinally(signalType -> leases.dispose())
+            .subscribe();
+
+        return leases;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.resume;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.rsocket.Frame;
+import io.rsocket.FrameType;
+import io.rsocket.exceptions.Exceptions;
+import io.rsocket.exceptions.RejectedResumeException;
+import io.rsocket.internal.PeekingDuplexConnection;
+import io.rsocket.transport.ClientTransport;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Reconnects a client whose transport connection dropped and resumes its session on the new connection. Connecting is
+ * retried every {@code retryInterval} until the session is resumed, the server rejects it or the session expires.
+ */
+public final class ClientResumption implements Consumer<ResumableDuplexConnection> {
+    private final Supplier<? extends ClientTransport> transport;
+    private final ByteBufAllocator allocator;
+    private final Duration retryInterval;
+    private final Consumer<Throwable> errorConsumer;
+
+    public ClientResumption(Supplier<? extends ClientTransport> transport, ByteBufAllocator allocator,
+                            Duration retryInterval, Consumer<Throwable> errorConsumer) {
+        this.transport = transport;
+        this.allocator = allocator;
+        this.retryInterval = retryInterval;
+        this.errorConsumer = errorConsumer;
+    }
+
+    @Override
+    public void accept(ResumableDuplexConnection resumable) {
+        Mono.defer(() -> transport.get().connect())
+            .then(connection -> {
+                PeekingDuplexConnection peeking = new PeekingDuplexConnection(connection);
+                Frame resumeFrame = Frame.Resume.from(
+                    allocator, resumable.resumeToken(), resumable.impliedPosition(),
+                    resumable.firstAvailablePosition());
+                return connection
+                    .sendOne(resumeFrame)
+                    .then(peeking.firstFrame())
+                    .switchIfEmpty(Mono.error(new IllegalStateException("Connection closed while resuming")))
+                    .then(frame -> {
+                        try {
+                            return handshake(resumable, peeking, frame);
+                        } finally {
+                            frame.release();
+                        }
+                    })
+                    .doOnError(t -> connection.close().subscribe());
+            })
+            .retryWhen(errors -> errors.concatMap(t -> {
+                if (t instanceof RejectedResumeException || resumable.isClosed()) {
+                    return Mono.error(t);
+                }
+                return Mono.delay(retryInterval);
+            }))
+            .subscribe(null, t -> {
+                errorConsumer.accept(t);
+                resumable.close().subscribe();
+            });
+    }
+
+    private static Mono<Void> handshake(ResumableDuplexConnection resumable, PeekingDuplexConnection connection,
+                                        Frame frame) {
+        if (frame.getType() == FrameType.RESUME_OK) {
+            if (resumable.resume(connection, Frame.ResumeOk.lastReceivedClientPosition(frame))) {
+                return Mono.empty();
+            }
+            return Mono.error(new RejectedResumeException("Frames not received by the server are no longer retained"));
+        } else if (frame.getType() == FrameType.ERROR) {
+            return Mono.error(Exceptions.from(frame));
+        }
+        return Mono.error(new IllegalStateException("Unexpected frame in response to RESUME: " + frame.getType()));
+    }
+}
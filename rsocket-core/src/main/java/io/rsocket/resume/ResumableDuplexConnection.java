@@ -0,0 +1,420 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.resume;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.rsocket.DuplexConnection;
+import io.rsocket.Frame;
+import io.rsocket.FrameType;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.publisher.UnicastProcessor;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Consumer;
+
+/**
+ * A {@link DuplexConnection} that outlives the transport connections it is sent over, so the streams of a session
+ * continue when the transport connection drops and a new one is attached with {@link #resume} or
+ * {@link #acceptResume}.
+ * <p>
+ * Positions count the bytes of the frames of streams, stream 0 frames are not resumed. The implied position is the
+ * position of the frames received, it is sent to the peer in every {@code KEEPALIVE} frame. Frames sent are retained
+ * until the peer acknowledges their position in a {@code KEEPALIVE} frame, so they can be sent again on a new
+ * connection if the peer did not receive them. At most {@code retentionCapacity} bytes of frames are retained; older
+ * frames are dropped once it is exceeded and a session can then only be resumed if the peer received them.
+ * <p>
+ * While no transport connection is attached, frames of streams are only retained and other frames are dropped. The
+ * session is closed if no connection is attached within {@code sessionDuration} of the drop.
+ */
+public final class ResumableDuplexConnection implements DuplexConnection {
+    public static final Duration DEFAULT_SESSION_DURATION = Duration.ofMinutes(1);
+    public static final int DEFAULT_RETENTION_CAPACITY = 1 << 20;
+
+    private static final AtomicIntegerFieldUpdater<ResumableDuplexConnection> WIP =
+        AtomicIntegerFieldUpdater.newUpdater(ResumableDuplexConnection.class, "wip");
+
+    private final ByteBuf resumeToken;
+    private final Duration sessionDuration;
+    private final int retentionCapacity;
+    private final Consumer<ResumableDuplexConnection> disconnectHandler;
+    private final ByteBufAllocator allocator;
+    private final UnicastProcessor<Frame> received = UnicastProcessor.create();
+    private final MonoProcessor<Void> onClose = MonoProcessor.create();
+    // frames are queued in the order they are sent and emitted outside of the lock, one thread at a time
+    private final Queue<Emission> emissions = new ConcurrentLinkedQueue<>();
+    private volatile int wip;
+
+    // guarded by this
+    private final ArrayDeque<ByteBuf> retained = new ArrayDeque<>();
+    private int retainedBytes;
+    private long firstAvailablePosition;
+    private @Nullable UnicastProcessor<Frame> outbound;
+    private @Nullable Disposable receiving;
+    private int generation;
+    private boolean closed;
+
+    private volatile @Nullable DuplexConnection connection;
+    // only written by the thread receiving the frames of the attached connection
+    private volatile long impliedPosition;
+
+    /**
+     * @param resumeToken token identifying the session, copied
+     * @param connection first transport connection of the session
+     * @param sessionDuration time a connection may take to be attached after a drop before the session is closed
+     * @param retentionCapacity maximum bytes of sent frames retained to be sent again on resumption
+     * @param disconnectHandler invoked when the transport connection drops, e.g. to reconnect
+     */
+    public ResumableDuplexConnection(ByteBuf resumeToken, DuplexConnection connection, Duration sessionDuration,
+                                     int retentionCapacity, Consumer<ResumableDuplexConnection> disconnectHandler) {
+        if (retentionCapacity < 0) {
+            throw new IllegalArgumentException("retentionCapacity must not be negative");
+        }
+        this.resumeToken = Unpooled.copiedBuffer(resumeToken);
+        this.sessionDuration = sessionDuration;
+        this.retentionCapacity = retentionCapacity;
+        this.disconnectHandler = disconnectHandler;
+        this.allocator = connection.alloc();
+
+        final UnicastProcessor<Frame> outbound;
+        synchronized (this) {
+            outbound = attach(connection, null);
+        }
+        start(connection, outbound);
+    }
+
+    public ByteBuf resumeToken() {
+        return resumeToken.duplicate();
+    }
+
+    /**
+     * @return {@code true} once the session is closed and can no longer be resumed
+     */
+    public boolean isClosed() {
+        return onClose.isTerminated();
+    }
+
+    /**
+     * @return position of the frames received
+     */
+    public long impliedPosition() {
+        return impliedPosition;
+    }
+
+    /**
+     * @return position of the oldest frame that can still be sent again
+     */
+    public synchronized long firstAvailablePosition() {
+        return firstAvailablePosition;
+    }
+
+    /**
+     * Attaches a connection on which the server answered the {@code RESUME} frame of this client with
+     * {@code lastReceivedClientPosition}, and sends the frames the server did not receive.
+     *
+     * @return {@code false} if frames the server did not receive are no longer retained, the connection is not attached
+     */
+    public boolean resume(DuplexConnection connection, long lastReceivedClientPosition) {
+        return reattach(connection, lastReceivedClientPosition, 0, false);
+    }
+
+    /**
+     * Attaches a connection on which a client sent a {@code RESUME} frame for this session, answers it with a
+     * {@code RESUME_OK} frame and sends the frames the client did not receive. A connection still attached is closed.
+     *
+     * @return {@code false} if the session can not be resumed from the positions of the client, the connection is not
+     * attached
+     */
+    public boolean acceptResume(DuplexConnection connection, long lastReceivedServerPosition,
+                                long firstAvailableClientPosition) {
+        return reattach(connection, lastReceivedServerPosition, firstAvailableClientPosition, true);
+    }
+
+    private boolean reattach(DuplexConnection connection, long remoteImpliedPosition,
+                             long remoteFirstAvailablePosition, boolean acceptor) {
+        final DuplexConnection previous;
+        final Disposable previousReceiving;
+        final UnicastProcessor<Frame> outbound;
+        synchronized (this) {
+            if (closed
+                || remoteImpliedPosition < firstAvailablePosition
+                || remoteImpliedPosition > firstAvailablePosition + retainedBytes
+                || remoteFirstAvailablePosition > impliedPosition) {
+                return false;
+            }
+            previous = this.connection;
+            previousReceiving = detach();
+            acknowledge(remoteImpliedPosition);
+            outbound = attach(connection, acceptor ? Frame.ResumeOk.from(allocator, impliedPosition) : null);
+        }
+        if (previous != null) {
+            dispose(previousReceiving);
+            previous.close().subscribe();
+        }
+        start(connection, outbound);
+        return true;
+    }
+
+    // guarded by this
+    private UnicastProcessor<Frame> attach(DuplexConnection connection, @Nullable Frame handshake) {
+        final UnicastProcessor<Frame> outbound = UnicastProcessor.create();
+        this.outbound = outbound;
+        this.connection = connection;
+        generation++;
+
+        if (handshake != null) {
+            emissions.offer(new Emission(outbound, handshake));
+        }
+        for (ByteBuf frame : retained) {
+            emissions.offer(new Emission(outbound, Frame.from(frame.retainedDuplicate())));
+        }
+        return outbound;
+    }
+
+    // guarded by this
+    @Nullable
+    private Disposable detach() {
+        final Disposable receiving = this.receiving;
+        if (outbound != null) {
+            emissions.offer(new Emission(outbound, null));
+        }
+        connection = null;
+        outbound = null;
+        this.receiving = null;
+        return receiving;
+    }
+
+    private void start(DuplexConnection connection, UnicastProcessor<Frame> outbound) {
+        connection
+            .send(outbound)
+            .subscribe(null, t -> disconnect(connection));
+        drain();
+
+        final Disposable receiving = connection
+            .receive()
+            .subscribe(frame -> receive(connection, frame), t -> disconnect(connection), () -> disconnect(connection));
+        connection
+            .onClose()
+            .subscribe(null, t -> disconnect(connection), () -> disconnect(connection));
+
+        synchronized (this) {
+            if (this.connection == connection) {
+                this.receiving = receiving;
+                return;
+            }
+        }
+        receiving.dispose();
+    }
+
+    private void receive(DuplexConnection source, Frame frame) {
+        if (connection != source) {
+            frame.release();
+            return;
+        }
+        if (frame.getStreamId() != 0) {
+            impliedPosition += frame.content().readableBytes();
+        } else if (frame.getType() == FrameType.KEEPALIVE) {
+            synchronized (this) {
+                acknowledge(Frame.Keepalive.lastPosition(frame));
+            }
+        }
+        received.onNext(frame);
+    }
+
+    private void disconnect(DuplexConnection connection) {
+        final int generation;
+        final Disposable receiving;
+        synchronized (this) {
+            if (closed || this.connection != connection) {
+                return;
+            }
+            receiving = detach();
+            generation = this.generation;
+        }
+        drain();
+        dispose(receiving);
+        connection.close().subscribe();
+
+        Mono.delay(sessionDuration)
+            .subscribe(t -> expire(generation));
+        disconnectHandler.accept(this);
+    }
+
+    private void expire(int generation) {
+        synchronized (this) {
+            if (connection != null || this.generation != generation) {
+                return;
+            }
+        }
+        close().subscribe();
+    }
+
+    // guarded by this
+    private void acknowledge(long position) {
+        ByteBuf frame;
+        while ((frame = retained.peek()) != null && firstAvailablePosition + frame.readableBytes() <= position) {
+            evict();
+        }
+    }
+
+    // guarded by this
+    private void evict() {
+        final ByteBuf frame = retained.poll();
+        final int length = frame.readableBytes();
+        firstAvailablePosition += length;
+        retainedBytes -= length;
+        frame.release();
+    }
+
+    private void write(Frame frame) {
+        synchronized (this) {
+            if (!closed) {
+                if (frame.getStreamId() != 0) {
+                    final ByteBuf content = frame.content();
+                    retained.offer(content.retainedSlice());
+                    retainedBytes += content.readableBytes();
+                    while (retainedBytes > retentionCapacity) {
+                        evict();
+                    }
+                } else if (frame.getType() == FrameType.KEEPALIVE) {
+                    Frame.Keepalive.lastPosition(frame, impliedPosition);
+                }
+
+                if (outbound != null) {
+                    emissions.offer(new Emission(outbound, frame));
+                    frame = null;
+                }
+            }
+        }
+        if (frame != null) {
+            frame.release();
+        } else {
+            drain();
+        }
+    }
+
+    private void drain() {
+        if (WIP.getAndIncrement(this) != 0) {
+            return;
+        }
+        int missed = 1;
+        for (;;) {
+            Emission emission;
+            while ((emission = emissions.poll()) != null) {
+                if (emission.frame == null) {
+                    emission.outbound.onComplete();
+                } else {
+                    emission.outbound.onNext(emission.frame);
+                }
+            }
+
+            missed = WIP.addAndGet(this, -missed);
+            if (missed == 0) {
+                break;
+            }
+        }
+    }
+
+    private static void dispose(@Nullable Disposable disposable) {
+        if (disposable != null) {
+            disposable.dispose();
+        }
+    }
+
+    @Override
+    public Mono<Void> send(Publisher<Frame> frames) {
+        return Flux.from(frames)
+            .doOnNext(this::write)
+            .then();
+    }
+
+    @Override
+    public Mono<Void> sendOne(Frame frame) {
+        return Mono.fromRunnable(() -> write(frame));
+    }
+
+    @Override
+    public Flux<Frame> receive() {
+        return received;
+    }
+
+    @Override
+    public ByteBufAllocator alloc() {
+        return allocator;
+    }
+
+    @Override
+    public double availability() {
+        final DuplexConnection connection = this.connection;
+        return connection == null ? 0.0 : connection.availability();
+    }
+
+    @Override
+    public Mono<Void> close() {
+        return Mono.defer(() -> {
+            final DuplexConnection connection;
+            final Disposable receiving;
+            synchronized (this) {
+                if (closed) {
+                    return onClose;
+                }
+                closed = true;
+                connection = this.connection;
+                receiving = detach();
+                while (!retained.isEmpty()) {
+                    evict();
+                }
+            }
+            drain();
+            dispose(receiving);
+            if (connection != null) {
+                connection.close().subscribe();
+            }
+            received.onComplete();
+            onClose.onComplete();
+            return onClose;
+        });
+    }
+
+    @Override
+    public Mono<Void> onClose() {
+        return onClose;
+    }
+
+    /**
+     * A frame to send on the outbound of a connection, or the completion of the outbound once it is detached.
+     */
+    private static final class Emission {
+        private final UnicastProcessor<Frame> outbound;
+        private final @Nullable Frame frame;
+
+        private Emission(UnicastProcessor<Frame> outbound, @Nullable Frame frame) {
+            this.outbound = outbound;
+            this.frame = frame;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.resume;
+
+import io.netty.buffer.ByteBuf;
+import io.rsocket.DuplexConnection;
+import io.rsocket.Frame;
+import io.rsocket.exceptions.RejectedResumeException;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the sessions of the clients of a server that enabled resumption by their resume token, until the session is
+ * closed or expires, so a client can resume its session on a new connection.
+ */
+public final class ServerResumption {
+    private final ConcurrentMap<ByteBuf, ResumableDuplexConnection> sessions = new ConcurrentHashMap<>();
+    private final Duration sessionDuration;
+    private final int retentionCapacity;
+
+    /**
+     * @param sessionDuration time a client may take to resume after its connection dropped
+     * @param retentionCapacity maximum bytes of sent frames retained for each session
+     */
+    public ServerResumption(Duration sessionDuration, int retentionCapacity) {
+        this.sessionDuration = sessionDuration;
+        this.retentionCapacity = retentionCapacity;
+    }
+
+    /**
+     * Starts a session for a connection whose setup frame carries {@code resumeToken}.
+     *
+     * @return the session, or {@code null} if the token is already used by another session
+     */
+    @Nullable
+    public ResumableDuplexConnection create(DuplexConnection connection, ByteBuf resumeToken) {
+        if (sessions.containsKey(resumeToken)) {
+            return null;
+        }
+        ResumableDuplexConnection session =
+            new ResumableDuplexConnection(resumeToken, connection, sessionDuration, retentionCapacity, s -> {});
+        if (sessions.putIfAbsent(session.resumeToken(), session) != null) {
+            session.close().subscribe();
+            return null;
+        }
+        session
+            .onClose()
+            .doFinally(signalType -> sessions.remove(session.resumeToken(), session))
+            .subscribe();
+        return session;
+    }
+
+    /**
+     * Resumes the session named by {@code resumeFrame} on {@code connection}, or rejects it with an error frame and
+     * closes the connection.
+     */
+    public Mono<Void> resume(DuplexConnection connection, Frame resumeFrame) {
+        ResumableDuplexConnection session = sessions.get(Frame.Resume.resumeToken(resumeFrame));
+        if (session != null && session.acceptResume(
+            connection,
+            Frame.Resume.lastReceivedServerPosition(resumeFrame),
+            Frame.Resume.firstAvailableClientPosition(resumeFrame))) {
+            return Mono.empty();
+        }
+
+        String message = session == null ? "Unknown resume token" : "Session can not be resumed from the positions";
+        return connection
+            .sendOne(Frame.Error.from(connection.alloc(), 0, new RejectedResumeException(message)))
+            .then(connection.close());
+    }
+
+    public int sessions() {
+        return sessions.size();
+    }
+}
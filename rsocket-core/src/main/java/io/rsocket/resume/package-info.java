@@ -0,0 +1,2 @@
+@javax.annotation.ParametersAreNonnullByDefault
+package io.rsocket.resume;
\ No newline at end of file
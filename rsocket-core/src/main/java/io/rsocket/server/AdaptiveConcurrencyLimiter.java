@@ -0,0 +1,184 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.server;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Limits the number of requests a responder handles at once, adjusting the limit to the latency of the handled
+ * requests.
+ * <p>
+ * Latencies are collected in windows of {@code windowSize} samples. At the end of a window the limit is scaled by the
+ * gradient between the lowest latency seen without load and the average latency of the window, and a queue allowance
+ * of the square root of the limit is added: the limit grows while latency stays flat and shrinks, by at most half per
+ * window, once requests start queueing. The lowest latency is re-measured every {@value #PROBE_WINDOWS} windows so
+ * the limit follows lasting changes of the handlers. Samples are recorded without locking and a sample racing with the
+ * end of a window may be counted in the next one.
+ */
+public final class AdaptiveConcurrencyLimiter {
+    private static final int PROBE_WINDOWS = 100;
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private static final AtomicIntegerFieldUpdater<AdaptiveConcurrencyLimiter> IN_FLIGHT =
+        AtomicIntegerFieldUpdater.newUpdater(AdaptiveConcurrencyLimiter.class, "inFlight");
+    private static final AtomicIntegerFieldUpdater<AdaptiveConcurrencyLimiter> SAMPLES =
+        AtomicIntegerFieldUpdater.newUpdater(AdaptiveConcurrencyLimiter.class, "samples");
+    private static final AtomicLongFieldUpdater<AdaptiveConcurrencyLimiter> LATENCY_SUM =
+        AtomicLongFieldUpdater.newUpdater(AdaptiveConcurrencyLimiter.class, "latencySum");
+    private static final AtomicLongFieldUpdater<AdaptiveConcurrencyLimiter> WINDOW_MIN_LATENCY =
+        AtomicLongFieldUpdater.newUpdater(AdaptiveConcurrencyLimiter.class, "windowMinLatency");
+    private static final AtomicIntegerFieldUpdater<AdaptiveConcurrencyLimiter> ENDING_WINDOW =
+        AtomicIntegerFieldUpdater.newUpdater(AdaptiveConcurrencyLimiter.class, "endingWindow");
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int windowSize;
+
+    private volatile int limit;
+    private volatile int inFlight;
+    private volatile int samples;
+    private volatile long latencySum;
+    private volatile long windowMinLatency = Long.MAX_VALUE;
+    private volatile long averageLatency;
+    private volatile int endingWindow;
+
+    // only used by the thread ending a window, guarded by endingWindow
+    private double estimatedLimit;
+    private long noLoadLatency = Long.MAX_VALUE;
+    private int windows;
+
+    public AdaptiveConcurrencyLimiter() {
+        this(20, 1, 1000, 50);
+    }
+
+    /**
+     * @param initialLimit limit until the first window of samples is complete
+     * @param minLimit lowest limit
+     * @param maxLimit highest limit
+     * @param windowSize number of latency samples after which the limit is adjusted
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int windowSize) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("limits must satisfy 1 <= minLimit <= initialLimit <= maxLimit");
+        }
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("windowSize must be greater than 0");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowSize = windowSize;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    /**
+     * Takes a permit for a request.
+     *
+     * @return {@code false} if the limit is reached and the request must be rejected
+     */
+    public boolean tryAcquire() {
+        for (;;) {
+            final int current = inFlight;
+            if (current >= limit) {
+                return false;
+            }
+            if (IN_FLIGHT.compareAndSet(this, current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back the permit of a request without a latency sample, e.g. for a cancelled request.
+     */
+    public void release() {
+        IN_FLIGHT.decrementAndGet(this);
+    }
+
+    /**
+     * Gives back the permit of a completed request.
+     *
+     * @param latency of the request in {@link io.rsocket.util.Clock#unit()}
+     */
+    public void release(long latency) {
+        IN_FLIGHT.decrementAndGet(this);
+
+        LATENCY_SUM.addAndGet(this, latency);
+        long min;
+        while (latency < (min = windowMinLatency) && !WINDOW_MIN_LATENCY.compareAndSet(this, min, latency)) {
+            // retry
+        }
+        if (SAMPLES.incrementAndGet(this) >= windowSize) {
+            tryEndWindow();
+        }
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return average latency of the last window of samples in {@link io.rsocket.util.Clock#unit()}, {@code 0} until
+     * the first window is complete
+     */
+    public long averageLatency() {
+        return averageLatency;
+    }
+
+    private void tryEndWindow() {
+        // samples keep coming in while a window ends, whoever ends it checks for another complete window afterwards
+        while (samples >= windowSize && ENDING_WINDOW.compareAndSet(this, 0, 1)) {
+            endWindow();
+            endingWindow = 0;
+        }
+    }
+
+    private void endWindow() {
+        final long sum = latencySum;
+        final long windowMin = windowMinLatency;
+        LATENCY_SUM.addAndGet(this, -sum);
+        windowMinLatency = Long.MAX_VALUE;
+
+        if (windowMin < noLoadLatency || ++windows % PROBE_WINDOWS == 0) {
+            noLoadLatency = windowMin;
+        }
+
+        final double average = Math.max(1.0, (double) sum / windowSize);
+        averageLatency = (long) average;
+        final double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, Math.max(1L, noLoadLatency) / average));
+        final double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit =
+            Math.max(minLimit, Math.min(maxLimit, estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+        limit = (int) estimatedLimit;
+
+        SAMPLES.addAndGet(this, -windowSize);
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveConcurrencyLimiter{" +
+               "limit=" + limit +
+               ", inFlight=" + inFlight +
+               '}';
+    }
+}
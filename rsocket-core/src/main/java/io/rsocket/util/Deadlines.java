@@ -0,0 +1,176 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.util;
+
+import io.netty.util.ReferenceCounted;
+import io.rsocket.Payload;
+import io.rsocket.internal.TimerWheel;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.util.function.Supplier;
+
+/**
+ * Carries the deadline of a request in the metadata of its payload, so the responder can stop working on a request
+ * the requester has given up on.
+ * <p>
+ * The deadline is a wall clock time in milliseconds, prepended to the metadata of the request together with a marker.
+ * Deadlines are only sent on connections whose client negotiated them in its SETUP frame, see
+ * {@link io.rsocket.RSocketFactory.ClientRSocketFactory#honorDeadlines()}. On those connections the responder removes
+ * the prefix from every request, so the requester {@link #encode(Payload, boolean) escapes} application metadata that
+ * happens to start with the marker. On other connections the deadline is removed before the request is sent and only
+ * expires it locally. Requester and responder must have roughly synchronized clocks. Timers are run by a timer wheel
+ * shared by all connections and fire up to 10 ms late.
+ */
+public final class Deadlines {
+
+    /**
+     * Deadline of a payload without one.
+     */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    static final int MARKER = 0x444c4e31;
+    static final int PREFIX_LENGTH = Integer.BYTES + Long.BYTES;
+
+    private Deadlines() {
+        // No Instances.
+    }
+
+    /**
+     * Returns a payload with the metadata of {@code payload} prefixed by {@code deadline}. A deadline the payload
+     * already carries from this method is replaced if it is later. A reference counted {@code payload} is released.
+     *
+     * @param deadline wall clock time in milliseconds
+     */
+    public static Payload withDeadline(Payload payload, long deadline) {
+        final ByteBuffer metadata = payload.getMetadata();
+        if (payload instanceof DeadlinePayload) {
+            return prefix(payload, Math.min(deadline(metadata), deadline), applicationMetadata(metadata));
+        }
+        return prefix(payload, deadline, metadata.duplicate());
+    }
+
+    /**
+     * @return deadline of {@code payload} as wall clock time in milliseconds, {@link #NO_DEADLINE} if it has none
+     */
+    public static long deadline(Payload payload) {
+        return deadline(payload.getMetadata());
+    }
+
+    /**
+     * Returns {@code payload} without the prefix of its metadata, {@code payload} itself if it has none. A reference
+     * counted {@code payload} with a prefix is released.
+     */
+    public static Payload withoutDeadline(Payload payload) {
+        final ByteBuffer metadata = payload.getMetadata();
+        if (!hasPrefix(metadata)) {
+            return payload;
+        }
+
+        ByteBuffer data = payload.getData();
+        ByteBuffer applicationMetadata = applicationMetadata(metadata);
+        if (payload instanceof ReferenceCounted) {
+            data = copy(data);
+            applicationMetadata = copy(applicationMetadata);
+            ((ReferenceCounted) payload).release();
+        }
+        return new PayloadImpl(data, applicationMetadata);
+    }
+
+    /**
+     * Returns {@code payload} as it is sent on a connection. If the connection {@code honorsDeadlines}, application
+     * metadata starting with the marker is escaped by a prefix without deadline, so the responder does not take it
+     * for one. Otherwise a deadline from {@link #withDeadline(Payload, long)} is removed, as the responder would pass
+     * it on to its handler. A reference counted {@code payload} is released if it is not returned.
+     */
+    public static Payload encode(Payload payload, boolean honorsDeadlines) {
+        if (payload instanceof DeadlinePayload) {
+            return honorsDeadlines ? payload : withoutDeadline(payload);
+        }
+        final ByteBuffer metadata = payload.getMetadata();
+        if (honorsDeadlines && hasPrefix(metadata)) {
+            return prefix(payload, NO_DEADLINE, metadata.duplicate());
+        }
+        return payload;
+    }
+
+    /**
+     * Cancels {@code source} and fails with an error from {@code error} if it did not terminate by {@code deadline}.
+     *
+     * @param deadline wall clock time in milliseconds, see {@link System#currentTimeMillis()}
+     */
+    public static <T> Mono<T> expireAt(Mono<T> source, long deadline, Supplier<? extends Throwable> error) {
+        if (deadline == NO_DEADLINE) {
+            return source;
+        }
+        return TimerWheel.shared().expireAt(source, deadline, error);
+    }
+
+    /**
+     * Cancels {@code source} and fails with an error from {@code error} if it did not terminate by {@code deadline}.
+     *
+     * @param deadline wall clock time in milliseconds, see {@link System#currentTimeMillis()}
+     */
+    public static <T> Flux<T> expireAt(Flux<T> source, long deadline, Supplier<? extends Throwable> error) {
+        if (deadline == NO_DEADLINE) {
+            return source;
+        }
+        return TimerWheel.shared().expireAt(source, deadline, error);
+    }
+
+    private static Payload prefix(Payload payload, long deadline, ByteBuffer applicationMetadata) {
+        final ByteBuffer prefixed = ByteBuffer.allocate(PREFIX_LENGTH + applicationMetadata.remaining());
+        prefixed.putInt(MARKER).putLong(deadline).put(applicationMetadata).flip();
+
+        ByteBuffer data = payload.getData();
+        if (payload instanceof ReferenceCounted) {
+            data = copy(data);
+            ((ReferenceCounted) payload).release();
+        }
+        return new DeadlinePayload(data, prefixed);
+    }
+
+    private static boolean hasPrefix(ByteBuffer metadata) {
+        return metadata.remaining() >= PREFIX_LENGTH && metadata.getInt(metadata.position()) == MARKER;
+    }
+
+    private static long deadline(ByteBuffer metadata) {
+        return hasPrefix(metadata) ? metadata.getLong(metadata.position() + Integer.BYTES) : NO_DEADLINE;
+    }
+
+    private static ByteBuffer applicationMetadata(ByteBuffer metadata) {
+        final ByteBuffer applicationMetadata = metadata.duplicate();
+        applicationMetadata.position(metadata.position() + PREFIX_LENGTH);
+        return applicationMetadata.slice();
+    }
+
+    private static ByteBuffer copy(ByteBuffer buffer) {
+        final ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+        copy.put(buffer.duplicate()).flip();
+        return copy;
+    }
+
+    /**
+     * Payload whose metadata starts with a prefix of this class rather than application metadata.
+     */
+    private static final class DeadlinePayload extends PayloadImpl {
+        private DeadlinePayload(ByteBuffer data, ByteBuffer metadata) {
+            super(data, metadata);
+        }
+    }
+}
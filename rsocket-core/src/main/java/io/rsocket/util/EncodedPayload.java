@@ -0,0 +1,141 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.IllegalReferenceCountException;
+import io.netty.util.ReferenceCounted;
+import io.rsocket.Frame;
+import io.rsocket.Payload;
+
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link Payload} built by a {@link PayloadBuilder} whose metadata and data are already laid out in the buffer of
+ * the frame that will carry them.
+ * <p>
+ * Encoding the payload into a frame, i.e. sending it, transfers ownership of the buffer to that frame. Hence a payload
+ * can be sent only once and must not be accessed afterwards. A payload that is never sent must be {@link #release()
+ * released}.
+ */
+public final class EncodedPayload implements Payload, ReferenceCounted {
+
+    private final ByteBuf buffer;
+    private final int metadataOffset;
+    private final int metadataLength;
+    private final int dataLength;
+    private volatile boolean claimed;
+
+    EncodedPayload(ByteBuf buffer, int metadataOffset, int metadataLength, int dataLength) {
+        this.buffer = buffer;
+        this.metadataOffset = metadataOffset;
+        this.metadataLength = metadataLength;
+        this.dataLength = dataLength;
+    }
+
+    public int metadataLength() {
+        return metadataLength;
+    }
+
+    public int dataLength() {
+        return dataLength;
+    }
+
+    /**
+     * Hands the buffer over to a frame. The returned buffer starts {@code headerLength} bytes before the metadata and
+     * ends after the data, the caller is expected to write the frame header into the first {@code headerLength} bytes.
+     *
+     * @param headerLength length of the frame header, at most {@link PayloadBuilder#RESERVED_HEADER_LENGTH}
+     * @return buffer for the frame, sharing the reference count of this payload
+     */
+    public ByteBuf claim(int headerLength) {
+        if (headerLength > metadataOffset) {
+            throw new IllegalArgumentException("header of " + headerLength + " bytes does not fit in the reserved space");
+        }
+
+        synchronized (this) {
+            if (claimed) {
+                throw new IllegalStateException("payload already sent");
+            }
+            claimed = true;
+        }
+
+        return buffer.slice(metadataOffset - headerLength, headerLength + metadataLength + dataLength);
+    }
+
+    @Override
+    public ByteBuffer getMetadata() {
+        ensureNotClaimed();
+        return metadataLength > 0 ? buffer.nioBuffer(metadataOffset, metadataLength) : Frame.NULL_BYTEBUFFER;
+    }
+
+    @Override
+    public ByteBuffer getData() {
+        ensureNotClaimed();
+        return dataLength > 0 ? buffer.nioBuffer(metadataOffset + metadataLength, dataLength) : Frame.NULL_BYTEBUFFER;
+    }
+
+    @Override
+    public int refCnt() {
+        return claimed ? 0 : buffer.refCnt();
+    }
+
+    @Override
+    public EncodedPayload retain() {
+        ensureNotClaimed();
+        buffer.retain();
+        return this;
+    }
+
+    @Override
+    public EncodedPayload retain(int increment) {
+        ensureNotClaimed();
+        buffer.retain(increment);
+        return this;
+    }
+
+    @Override
+    public EncodedPayload touch() {
+        buffer.touch();
+        return this;
+    }
+
+    @Override
+    public EncodedPayload touch(@Nullable Object hint) {
+        buffer.touch(hint);
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        ensureNotClaimed();
+        return buffer.release();
+    }
+
+    @Override
+    public boolean release(int decrement) {
+        ensureNotClaimed();
+        return buffer.release(decrement);
+    }
+
+    private void ensureNotClaimed() {
+        if (claimed) {
+            throw new IllegalReferenceCountException("payload already sent");
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.AbstractReferenceCounted;
+import io.netty.util.Recycler;
+import io.netty.util.Recycler.Handle;
+import io.rsocket.Frame;
+import io.rsocket.Payload;
+
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+
+/**
+ * A reference counted {@link Payload} that exposes slices of the content of the {@link Frame} it was decoded from,
+ * instead of copying metadata and data into freshly allocated buffers like {@link PayloadImpl#PayloadImpl(Frame)}.
+ * <p>
+ * Creating a {@code FramePayload} retains the frame, and the frame is released once the reference count of the
+ * payload reaches {@code 0}. The consumer of the payload owns the initial reference and <b>must</b> {@link #release()}
+ * it when done. Neither the payload nor any buffer obtained from it may be used after it is released.
+ */
+public final class FramePayload extends AbstractReferenceCounted implements Payload {
+
+    private static final Recycler<FramePayload> RECYCLER = new Recycler<FramePayload>() {
+        protected FramePayload newObject(Handle<FramePayload> handle) {
+            return new FramePayload(handle);
+        }
+    };
+
+    private final Handle<FramePayload> handle;
+    private @Nullable Frame frame;
+    private @Nullable ByteBuf metadata;
+    private @Nullable ByteBuf data;
+
+    private FramePayload(final Handle<FramePayload> handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * Acquire a free {@code FramePayload} backed by the metadata and data of the given frame. The frame is retained
+     * for the lifetime of the returned payload.
+     *
+     * @param frame to expose
+     * @return payload with a reference count of {@code 1}
+     */
+    public static FramePayload from(Frame frame) {
+        final FramePayload payload = RECYCLER.get();
+        payload.setRefCnt(1);
+        payload.frame = frame.retain();
+        payload.metadata = frame.sliceMetadata();
+        payload.data = frame.sliceData();
+
+        return payload;
+    }
+
+    /**
+     * Return the metadata as a {@link ByteBuf} sharing the content of the underlying frame.
+     */
+    public ByteBuf sliceMetadata() {
+        return metadata;
+    }
+
+    /**
+     * Return the data as a {@link ByteBuf} sharing the content of the underlying frame.
+     */
+    public ByteBuf sliceData() {
+        return data;
+    }
+
+    /**
+     * Returns a view of the metadata. The view is a new {@link ByteBuffer} on every call, so reading it does not
+     * affect later calls.
+     */
+    @Override
+    public ByteBuffer getMetadata() {
+        return metadata.isReadable() ? metadata.nioBuffer() : Frame.NULL_BYTEBUFFER;
+    }
+
+    /**
+     * Returns a view of the data. The view is a new {@link ByteBuffer} on every call, so reading it does not affect
+     * later calls.
+     */
+    @Override
+    public ByteBuffer getData() {
+        return data.isReadable() ? data.nioBuffer() : Frame.NULL_BYTEBUFFER;
+    }
+
+    @Override
+    public FramePayload retain() {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public FramePayload retain(int increment) {
+        super.retain(increment);
+        return this;
+    }
+
+    @Override
+    public FramePayload touch() {
+        super.touch();
+        return this;
+    }
+
+    @Override
+    public FramePayload touch(@Nullable Object hint) {
+        frame.touch(hint);
+        return this;
+    }
+
+    @Override
+    protected void deallocate() {
+        final Frame frame = this.frame;
+        this.frame = null;
+        metadata = null;
+        data = null;
+        handle.recycle(this);
+
+        frame.release();
+    }
+}
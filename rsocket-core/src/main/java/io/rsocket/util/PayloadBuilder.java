@@ -0,0 +1,116 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.rsocket.RSocket;
+import io.rsocket.frame.FrameHeaderFlyweight;
+
+/**
+ * Builds an {@link EncodedPayload} by letting serializers write metadata and data straight into the buffer that later
+ * becomes the outbound frame. Space for the largest frame header is reserved in front of the metadata and the header
+ * is written in place when the payload is sent, so the payload is never copied.
+ * <p>
+ * Metadata must be written before data:
+ * <pre>{@code
+ * PayloadBuilder builder = rSocket.payloadBuilder();
+ * builder.metadata().writeCharSequence(route, StandardCharsets.UTF_8);
+ * serializer.write(value, builder.data());
+ * rSocket.requestResponse(builder.build());
+ * }</pre>
+ * Instances are single use and not thread-safe.
+ *
+ * @see RSocket#payloadBuilder()
+ */
+public final class PayloadBuilder {
+
+    /**
+     * Space reserved in front of the metadata: frame header, initial request n and metadata length.
+     */
+    public static final int RESERVED_HEADER_LENGTH =
+        FrameHeaderFlyweight.FRAME_HEADER_LENGTH + Integer.BYTES + FrameHeaderFlyweight.FRAME_LENGTH_SIZE;
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 256;
+
+    private final ByteBuf buffer;
+    private int dataOffset = -1;
+    private boolean built;
+
+    private PayloadBuilder(ByteBuf buffer) {
+        this.buffer = buffer;
+        buffer.writerIndex(RESERVED_HEADER_LENGTH);
+    }
+
+    public static PayloadBuilder create(ByteBufAllocator allocator) {
+        return create(allocator, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public static PayloadBuilder create(ByteBufAllocator allocator, int initialPayloadCapacity) {
+        return new PayloadBuilder(allocator.buffer(RESERVED_HEADER_LENGTH + initialPayloadCapacity));
+    }
+
+    /**
+     * Returns the buffer to write the metadata to. Must not be called after {@link #data()}.
+     */
+    public ByteBuf metadata() {
+        ensureNotBuilt();
+        if (dataOffset >= 0) {
+            throw new IllegalStateException("metadata must be written before data");
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns the buffer to write the data to. Everything written after the first call is data.
+     */
+    public ByteBuf data() {
+        ensureNotBuilt();
+        if (dataOffset < 0) {
+            dataOffset = buffer.writerIndex();
+        }
+        return buffer;
+    }
+
+    /**
+     * Completes the payload. The returned payload owns the buffer, see {@link EncodedPayload} for how it is released.
+     */
+    public EncodedPayload build() {
+        ensureNotBuilt();
+        built = true;
+
+        final int end = buffer.writerIndex();
+        final int metadataLength = (dataOffset < 0 ? end : dataOffset) - RESERVED_HEADER_LENGTH;
+
+        return new EncodedPayload(buffer, RESERVED_HEADER_LENGTH, metadataLength, end - RESERVED_HEADER_LENGTH - metadataLength);
+    }
+
+    /**
+     * Releases the buffer of a builder that is abandoned before {@link #build()}.
+     */
+    public void discard() {
+        ensureNotBuilt();
+        built = true;
+        buffer.release();
+    }
+
+    private void ensureNotBuilt() {
+        if (built) {
+            throw new IllegalStateException("payload already built");
+        }
+    }
+}
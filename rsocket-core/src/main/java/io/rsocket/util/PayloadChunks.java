@@ -0,0 +1,144 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.ReferenceCounted;
+import io.rsocket.Payload;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Streams content too large to be held in memory, e.g. artifacts or snapshots, as a stream of payloads of bounded
+ * size instead of one payload that is fragmented and reassembled as a whole.
+ * <p>
+ * The sender turns a {@code Publisher<ByteBuf>} into chunk payloads of at most {@code chunkSize} bytes of data, sent
+ * as the payloads of a request stream or channel. The receiver turns the payloads back into a {@code Flux<ByteBuf>}
+ * of the chunks in order. Requests of the receiver are passed on to the sender as REQUEST_N frames, so neither side
+ * buffers more than the chunks requested but not yet consumed:
+ * <pre>{@code
+ * // requester downloading
+ * Flux<ByteBuf> chunks = PayloadChunks.toChunks(rSocket.requestStream(request));
+ *
+ * // responder uploading
+ * public Flux<Payload> requestStream(Payload payload) {
+ *     return PayloadChunks.toPayloads(snapshot.read(), 64 * 1024, allocator);
+ * }
+ * }</pre>
+ * With {@link io.rsocket.RSocketFactory.Fragmentation fragmentation} enabled, a chunk size no larger than the MTU
+ * keeps every chunk in a single frame that is never reassembled.
+ * <p>
+ * Only the stream of chunks is incremental: the fragments of a single payload are still reassembled into one frame
+ * before it is delivered, so a single payload of any size, including a chunk larger than the MTU, is held in memory as
+ * a whole and is rejected above the reassembly limit of the connection,
+ * {@link io.rsocket.fragmentation.FragmentationDuplexConnection#DEFAULT_MAX_REASSEMBLED_SIZE 16 MiB} by default.
+ */
+public final class PayloadChunks {
+
+    private PayloadChunks() {
+        // No Instances.
+    }
+
+    /**
+     * Splits {@code content} into payloads carrying at most {@code chunkSize} bytes of data each, see
+     * {@link #toPayloads(ByteBuf, Publisher, int, ByteBufAllocator)}.
+     */
+    public static Flux<Payload> toPayloads(Publisher<ByteBuf> content, int chunkSize, ByteBufAllocator allocator) {
+        return toPayloads(null, content, chunkSize, allocator);
+    }
+
+    /**
+     * Splits {@code content} into payloads carrying at most {@code chunkSize} bytes of data each. Buffers of the
+     * content are requested as the payloads are requested, at most one ahead of the buffer being split, and released
+     * once split. The returned flux may only be subscribed to once.
+     *
+     * @param metadata metadata of the first payload, e.g. to route a request channel, released once written or when
+     * the payloads terminate or are cancelled before the first payload
+     * @param chunkSize maximum bytes of data of a payload
+     * @param allocator allocator of the payloads, which are built as described by {@link PayloadBuilder}
+     */
+    public static Flux<Payload> toPayloads(@Nullable ByteBuf metadata, Publisher<ByteBuf> content, int chunkSize,
+                                           ByteBufAllocator allocator) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be greater than 0");
+        }
+        final AtomicReference<ByteBuf> pendingMetadata = new AtomicReference<>(metadata);
+        final Flux<Payload> payloads = Flux
+            .from(content)
+            .concatMap(buffer -> Flux.<Payload, ByteBuf>generate(() -> buffer, (remaining, sink) -> {
+                if (remaining.isReadable()) {
+                    final int length = Math.min(chunkSize, remaining.readableBytes());
+                    sink.next(chunk(allocator, pendingMetadata.getAndSet(null), remaining.readSlice(length)));
+                }
+                if (!remaining.isReadable()) {
+                    sink.complete();
+                }
+                return remaining;
+            }, ReferenceCountUtil::release), 1);
+
+        if (metadata == null) {
+            return payloads;
+        }
+        // content without data still carries the metadata, which is released if it is never sent
+        return payloads
+            .switchIfEmpty(Flux.defer(() -> {
+                final ByteBuf unsent = pendingMetadata.getAndSet(null);
+                return unsent == null ? Flux.empty() : Flux.just(chunk(allocator, unsent, Unpooled.EMPTY_BUFFER));
+            }))
+            .doFinally(signal -> ReferenceCountUtil.release(pendingMetadata.getAndSet(null)));
+    }
+
+    /**
+     * Returns the data of {@code payloads} as buffers, in order. Every buffer must be released by the subscriber. The
+     * data of a {@link FramePayload} is not copied.
+     */
+    public static Flux<ByteBuf> toChunks(Publisher<? extends Payload> payloads) {
+        return Flux.from(payloads).map(PayloadChunks::data);
+    }
+
+    private static Payload chunk(ByteBufAllocator allocator, @Nullable ByteBuf metadata, ByteBuf data) {
+        final int metadataLength = metadata == null ? 0 : metadata.readableBytes();
+        final PayloadBuilder builder = PayloadBuilder.create(allocator, metadataLength + data.readableBytes());
+        if (metadata != null) {
+            builder.metadata().writeBytes(metadata);
+            metadata.release();
+        }
+        builder.data().writeBytes(data);
+        return builder.build();
+    }
+
+    private static ByteBuf data(Payload payload) {
+        if (payload instanceof FramePayload) {
+            final FramePayload framePayload = (FramePayload) payload;
+            final ByteBuf data = framePayload.sliceData().retain();
+            framePayload.release();
+            return data;
+        }
+        if (payload instanceof ReferenceCounted) {
+            final ByteBuf data = Unpooled.copiedBuffer(payload.getData());
+            ((ReferenceCounted) payload).release();
+            return data;
+        }
+        return Unpooled.wrappedBuffer(payload.getData());
+    }
+}
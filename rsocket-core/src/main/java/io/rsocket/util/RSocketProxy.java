@@ -57,6 +57,11 @@ public class RSocketProxy implements RSocket {
         return source.metadataPush(payload);
     }
 
+    @Override
+    public PayloadBuilder payloadBuilder() {
+        return source.payloadBuilder();
+    }
+
     @Override
     public double availability() {
         return source.availability();
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class CreditWindowTest {
+    @Test
+    public void testReplenishesBelowThreshold() {
+        CreditWindow window = new CreditWindow(8);
+        CreditWindow.Credit credit = window.newCredit(true, 0);
+
+        assertThat("Unexpected initial credit.", credit.request(1), is(8L));
+        for (int i = 0; i < 5; i++) {
+            assertThat("Unexpected credit.", credit.consumed(), is(0L));
+            assertThat("Unexpected credit.", credit.request(1), is(0L));
+        }
+        assertThat("Not replenished at 2 outstanding.", credit.consumed(), is(6L));
+        assertThat("Unexpected REQUEST_N frames.", window.requestNFrames(), is(1L));
+        assertThat("Unexpected REQUEST_N frames saved.", window.netRequestNFramesSaved(), is(4L));
+    }
+
+    @Test
+    public void testUnboundedRequestGrantsOnce() {
+        CreditWindow window = new CreditWindow(8);
+        CreditWindow.Credit credit = window.newCredit(true, 0);
+
+        assertThat("Unexpected initial credit.", credit.request(Long.MAX_VALUE), is(Long.MAX_VALUE));
+        for (int i = 0; i < 100; i++) {
+            assertThat("Unexpected credit.", credit.consumed(), is(0L));
+        }
+        assertThat("Unexpected REQUEST_N frames.", window.requestNFrames(), is(0L));
+    }
+
+    @Test
+    public void testUnboundedRequestAfterFirstOverSmallWindow() {
+        CreditWindow window = new CreditWindow(2);
+        CreditWindow.Credit credit = window.newCredit(true, 0);
+
+        assertThat("Unexpected initial credit.", credit.request(1), is(2L));
+        assertThat("Unexpected credit.", credit.request(Long.MAX_VALUE), is(Long.MAX_VALUE));
+        for (int i = 0; i < 100; i++) {
+            assertThat("Unexpected credit.", credit.consumed(), is(0L));
+        }
+        assertThat("Unexpected REQUEST_N frames.", window.requestNFrames(), is(1L));
+        assertThat("Unexpected REQUEST_N frames saved.", window.netRequestNFramesSaved(), is(0L));
+    }
+
+    @Test
+    public void testLargeRequestOverSmallWindowSavesNegativeFrames() {
+        CreditWindow window = new CreditWindow(2);
+        CreditWindow.Credit credit = window.newCredit(true, 0);
+
+        assertThat("Unexpected initial credit.", credit.request(100), is(2L));
+        for (int i = 0; i < 100; i++) {
+            credit.consumed();
+        }
+        assertThat("Unexpected REQUEST_N frames without window.", window.requestNFramesWithoutWindow(), is(0L));
+        assertThat("Unexpected REQUEST_N frames saved.", window.netRequestNFramesSaved(),
+                   is(-window.requestNFrames()));
+        assertThat("Unexpected REQUEST_N frames.", window.requestNFrames(), is(50L));
+    }
+
+    @Test
+    public void testCountsInitialCredit() {
+        CreditWindow window = new CreditWindow(4, 0.5);
+        CreditWindow.Credit credit = window.newCredit(false, 1);
+
+        assertThat("Unexpected credit of the first request.", credit.request(1), is(3L));
+        assertThat("Unexpected credit.", credit.consumed(), is(0L));
+        assertThat("Not replenished at 2 outstanding.", credit.consumed(), is(2L));
+        assertThat("Unexpected REQUEST_N frames.", window.requestNFrames(), is(2L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsEmptyWindow() {
+        new CreditWindow(0);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ * <p>
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ *  the License. You may obtain a copy of the License at
+ *  <p>
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  <p>
+ *  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations under the License.
+ */
+
+package io.rsocket;
+
+import io.netty.buffer.ByteBuf;
+import io.rsocket.frame.FrameHeaderFlyweight;
+import io.rsocket.util.PayloadImpl;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class FrameTest {
+
+    @Test
+    public void testHeaderDecodedFromTransportBuffer() {
+        ByteBuf content = encode(Frame.PayloadFrame.from(7, FrameType.NEXT_COMPLETE, new PayloadImpl("data", "md")));
+        Frame frame = Frame.from(content);
+
+        assertThat("Unexpected stream id.", frame.getStreamId(), is(7));
+        assertThat("Unexpected frame type.", frame.getType(), is(FrameType.NEXT_COMPLETE));
+        assertThat("Unexpected flags.", frame.flags(), is(FrameHeaderFlyweight.flags(content)));
+        assertThat("Unexpected metadata length.", frame.metadataLength(), is(2));
+        assertThat("Unexpected data length.", frame.dataLength(), is(4));
+        assertThat("Unexpected metadata.", frame.sliceMetadata().toString(StandardCharsets.UTF_8), equalTo("md"));
+        assertThat("Unexpected data.", frame.sliceData().toString(StandardCharsets.UTF_8), equalTo("data"));
+
+        frame.release();
+    }
+
+    @Test
+    public void testOffsetsMatchFlyweight() {
+        ByteBuf content = encode(Frame.Request.from(3, FrameType.REQUEST_STREAM, new PayloadImpl("data"), 5));
+        Frame frame = Frame.from(content);
+
+        assertThat("Unexpected metadata.", frame.sliceMetadata(), equalTo(FrameHeaderFlyweight.sliceFrameMetadata(content)));
+        assertThat("Unexpected data.", frame.sliceData(), equalTo(FrameHeaderFlyweight.sliceFrameData(content)));
+        assertThat("Unexpected initial request n.", Frame.Request.initialRequestN(frame), is(5));
+
+        frame.release();
+    }
+
+    @Test
+    public void testRecycledFrameDecodesNewContent() {
+        Frame.from(encode(Frame.PayloadFrame.from(1, FrameType.NEXT, new PayloadImpl("first", "md")))).release();
+        Frame frame = Frame.from(encode(Frame.RequestN.from(2, 10)));
+
+        assertThat("Unexpected stream id.", frame.getStreamId(), is(2));
+        assertThat("Unexpected frame type.", frame.getType(), is(FrameType.REQUEST_N));
+        assertThat("Unexpected metadata length.", frame.metadataLength(), is(0));
+
+        frame.release();
+    }
+
+    private static ByteBuf encode(Frame frame) {
+        ByteBuf content = frame.content().retain();
+        frame.release();
+        return content;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.ResourceLeakDetector;
+import io.reactivex.subscribers.TestSubscriber;
+import io.rsocket.test.util.TestDuplexConnection;
+import io.rsocket.util.FramePayload;
+import io.rsocket.util.PayloadImpl;
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static io.rsocket.FrameType.NEXT;
+import static io.rsocket.FrameType.NEXT_COMPLETE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Runs the requester with the zero-copy {@link FramePayload} decoder under the {@link ResourceLeakDetector} at
+ * {@link ResourceLeakDetector.Level#PARANOID PARANOID} level, which tracks every buffer, and fails on any leak it
+ * reports once the buffers are collected.
+ */
+public class RSocketClientLeakTest {
+    private static final Logger leakLogger = Logger.getLogger(ResourceLeakDetector.class);
+
+    private final List<String> leaks = new CopyOnWriteArrayList<>();
+    private final AppenderSkeleton leakAppender = new AppenderSkeleton() {
+        @Override
+        protected void append(LoggingEvent event) {
+            final String message = String.valueOf(event.getMessage());
+            if (message.contains("LEAK")) {
+                leaks.add(message);
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public boolean requiresLayout() {
+            return false;
+        }
+    };
+
+    private ResourceLeakDetector.Level level;
+    private TestDuplexConnection connection;
+    private RSocketClient client;
+    private List<Throwable> errors;
+
+    @Before
+    public void setUp() {
+        level = ResourceLeakDetector.getLevel();
+        ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
+        // leaks of earlier tests are reported before listening
+        collectAndTrack();
+        leakLogger.addAppender(leakAppender);
+        errors = new CopyOnWriteArrayList<>();
+        connection = new TestDuplexConnection();
+        client = new RSocketClient(connection, connection.alloc(), FramePayload::from, errors::add,
+                                   StreamIdSupplier.clientSupplier(), Duration.ZERO, Duration.ZERO, 0);
+    }
+
+    @After
+    public void tearDown() {
+        leakLogger.removeAppender(leakAppender);
+        ResourceLeakDetector.setLevel(level);
+    }
+
+    @Test(timeout = 10_000)
+    public void testDetectorReportsLeaks() throws InterruptedException {
+        ByteBuf leaked = ByteBufAllocator.DEFAULT.buffer(16);
+        leaked.writeInt(42);
+        leaked = null;
+
+        while (leaks.isEmpty()) {
+            collectAndTrack();
+        }
+        leaks.clear();
+    }
+
+    @Test(timeout = 10_000)
+    public void testStreamCancelledMidStreamAndLateNext() throws InterruptedException {
+        cancelStreamMidStream();
+        assertNoLeaks();
+    }
+
+    @Test(timeout = 10_000)
+    public void testResponseCancelledBeforeRequestAndLateNext() throws InterruptedException {
+        cancelResponseBeforeRequest();
+        assertNoLeaks();
+    }
+
+    // scenarios run in methods of their own, so the buffers they leak are unreachable once they return
+
+    private void cancelStreamMidStream() throws InterruptedException {
+        TestSubscriber<Payload> subscriber = TestSubscriber.create(1);
+        client.requestStream(PayloadImpl.EMPTY).subscribe(subscriber);
+        int streamId = sentStreamId();
+
+        for (int i = 0; i < 3; i++) {
+            connection.addToReceivedBuffer(Frame.PayloadFrame.from(streamId, NEXT, new PayloadImpl("next" + i)));
+        }
+        subscriber.assertValueCount(1);
+        subscriber.cancel();
+        connection.addToReceivedBuffer(Frame.PayloadFrame.from(streamId, NEXT, new PayloadImpl("late")));
+
+        subscriber.values().forEach(payload -> ((FramePayload) payload).release());
+    }
+
+    private void cancelResponseBeforeRequest() throws InterruptedException {
+        TestSubscriber<Payload> subscriber = TestSubscriber.create(0);
+        client.requestResponse(PayloadImpl.EMPTY).subscribe(subscriber);
+        int streamId = sentStreamId();
+
+        connection.addToReceivedBuffer(Frame.PayloadFrame.from(streamId, NEXT_COMPLETE, new PayloadImpl("response")));
+        subscriber.cancel();
+        connection.addToReceivedBuffer(Frame.PayloadFrame.from(streamId, NEXT_COMPLETE, new PayloadImpl("late")));
+
+        subscriber.assertNoValues();
+    }
+
+    private int sentStreamId() throws InterruptedException {
+        final Frame request = connection.awaitSend();
+        final int streamId = request.getStreamId();
+        request.release();
+        return streamId;
+    }
+
+    private void assertNoLeaks() {
+        connection.getSent().forEach(Frame::release);
+        connection.clearSendReceiveBuffers();
+        for (int i = 0; i < 5; i++) {
+            collectAndTrack();
+        }
+        assertThat("Unexpected errors.", errors, hasSize(0));
+        assertThat("Leaked buffers.", leaks, is(empty()));
+    }
+
+    /**
+     * Leaks are only reported once the leaked buffers were collected, the next time a buffer is tracked.
+     */
+    private static void collectAndTrack() {
+        System.gc();
+        System.runFinalization();
+        for (int i = 0; i < 64; i++) {
+            ByteBufAllocator.DEFAULT.buffer(1).release();
+        }
+    }
+}
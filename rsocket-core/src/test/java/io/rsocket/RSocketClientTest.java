@@ -16,23 +16,42 @@
 
 package io.rsocket;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
 import io.reactivex.subscribers.TestSubscriber;
 import io.rsocket.exceptions.ApplicationException;
+import io.rsocket.exceptions.ConnectionException;
+import io.rsocket.exceptions.RejectedException;
 import io.rsocket.exceptions.RejectedSetupException;
+import io.rsocket.internal.TimerWheel;
+import io.rsocket.test.util.TestDuplexConnection;
+import io.rsocket.util.FramePayload;
+import io.rsocket.util.PayloadBuilder;
 import io.rsocket.util.PayloadImpl;
 import org.junit.Rule;
 import org.junit.Test;
 import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 import reactor.core.publisher.DirectProcessor;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static io.rsocket.FrameType.CANCEL;
+import static io.rsocket.FrameType.COMPLETE;
 import static io.rsocket.FrameType.KEEPALIVE;
+import static io.rsocket.FrameType.NEXT;
 import static io.rsocket.FrameType.NEXT_COMPLETE;
+import static io.rsocket.FrameType.REQUEST_CHANNEL;
+import static io.rsocket.FrameType.REQUEST_N;
 import static io.rsocket.FrameType.REQUEST_RESPONSE;
+import static io.rsocket.FrameType.REQUEST_STREAM;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
@@ -41,6 +60,7 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class RSocketClientTest {
 
@@ -127,6 +147,259 @@ public class RSocketClientTest {
         assertThat("Stream ID reused.", streamId2, not(equalTo(streamId)));
     }
 
+    @Test(timeout = 2_000)
+    public void testFramesEncodedWithConnectionAllocator() throws Exception {
+        ByteBufAllocator allocator = new UnpooledByteBufAllocator(false);
+        TestDuplexConnection connection = new TestDuplexConnection() {
+            @Override
+            public ByteBufAllocator alloc() {
+                return allocator;
+            }
+        };
+        RSocketClient client = new RSocketClient(connection, rule.errors::add, StreamIdSupplier.clientSupplier());
+
+        client.requestResponse(PayloadImpl.EMPTY).subscribe();
+
+        assertThat("Unexpected frames sent.", connection.getSent(), hasSize(1));
+        assertThat("Unexpected allocator.", connection.awaitSend().content().alloc(), sameInstance(allocator));
+
+        PayloadBuilder builder = client.payloadBuilder();
+        assertThat("Unexpected payload builder allocator.", builder.data().alloc(), sameInstance(allocator));
+        builder.discard();
+    }
+
+    @Test(timeout = 2_000)
+    public void testRequestsOnlySentWithinLease() throws Exception {
+        TestDuplexConnection connection = new TestDuplexConnection();
+        RSocketClient client = new RSocketClient(connection, connection.alloc(), PayloadImpl::new, rule.errors::add,
+                                                 StreamIdSupplier.clientSupplier(), Duration.ZERO, Duration.ZERO, 0,
+                                                 true);
+
+        TestSubscriber<Payload> noLease = TestSubscriber.create();
+        client.requestResponse(PayloadImpl.EMPTY).subscribe(noLease);
+        noLease.assertError(RejectedException.class);
+        assertThat("Unexpected availability.", client.availability(), is(0.0));
+
+        connection.addToReceivedBuffer(Frame.Lease.from(10_000, 2, Unpooled.EMPTY_BUFFER));
+        assertThat("Unexpected availability.", client.availability(), is(1.0));
+        client.requestResponse(PayloadImpl.EMPTY).subscribe();
+        client.requestStream(PayloadImpl.EMPTY).subscribe();
+        assertThat("Unexpected availability.", client.availability(), is(0.0));
+
+        TestSubscriber<Void> exhausted = TestSubscriber.create();
+        client.fireAndForget(PayloadImpl.EMPTY).subscribe(exhausted);
+        exhausted.assertError(RejectedException.class);
+        assertThat("Unexpected frames sent.", connection.getSent(), hasSize(2));
+    }
+
+    @Test(timeout = 2_000)
+    public void testKeepAliveSentByTimer() throws Exception {
+        TimerWheel timer = new TimerWheel(Duration.ofMillis(1), 16);
+        TestDuplexConnection connection = new TestDuplexConnection();
+        new RSocketClient(connection, connection.alloc(), PayloadImpl::new, rule.errors::add,
+                          StreamIdSupplier.clientSupplier(), Duration.ofMillis(5), Duration.ofSeconds(10), 3, false,
+                          timer);
+
+        Frame keepAlive = connection.awaitSend();
+        assertThat("Unexpected frame sent.", keepAlive.getType(), is(KEEPALIVE));
+        assertThat("Unexpected respond flag.", Frame.Keepalive.hasRespondFlag(keepAlive), is(true));
+        timer.dispose();
+    }
+
+    @Test(timeout = 2_000)
+    public void testMissedKeepAliveAcksCloseConnection() throws Exception {
+        TimerWheel timer = new TimerWheel(Duration.ofMillis(1), 16);
+        TestDuplexConnection connection = new TestDuplexConnection();
+        new RSocketClient(connection, connection.alloc(), PayloadImpl::new, rule.errors::add,
+                          StreamIdSupplier.clientSupplier(), Duration.ofMillis(5), Duration.ofMillis(1), 2, false,
+                          timer);
+
+        while (rule.errors.isEmpty()) {
+            Thread.sleep(5);
+        }
+        int sent = connection.getSent().size();
+        Thread.sleep(50);
+        assertThat("Unexpected error.", rule.errors, contains(instanceOf(ConnectionException.class)));
+        assertThat("Keepalives sent after the connection failed.", connection.getSent(), hasSize(sent));
+        timer.dispose();
+    }
+
+    @Test(timeout = 2_000)
+    public void testCreditWindowBatchesRequestN() throws Exception {
+        TestDuplexConnection connection = new TestDuplexConnection();
+        CreditWindow window = new CreditWindow(8);
+        RSocketClient client = new RSocketClient(connection, connection.alloc(), PayloadImpl::new, rule.errors::add,
+                                                 StreamIdSupplier.clientSupplier(), Duration.ZERO, Duration.ZERO, 0,
+                                                 false, TimerWheel.shared(), window);
+
+        TestSubscriber<Payload> oneAtATime = new TestSubscriber<Payload>(1) {
+            @Override
+            public void onNext(Payload payload) {
+                super.onNext(payload);
+                request(1);
+            }
+        };
+        client.requestStream(PayloadImpl.EMPTY).subscribe(oneAtATime);
+
+        Frame request = connection.awaitSend();
+        assertThat("Unexpected frame sent.", request.getType(), is(FrameType.REQUEST_STREAM));
+        assertThat("Unexpected initial request n.", Frame.Request.initialRequestN(request), is(8));
+        for (int i = 0; i < 16; i++) {
+            connection.addToReceivedBuffer(Frame.PayloadFrame.from(request.getStreamId(), FrameType.NEXT,
+                                                                   PayloadImpl.EMPTY));
+        }
+
+        oneAtATime.assertValueCount(16);
+        List<Integer> requestNs = new ArrayList<>();
+        for (Frame frame : connection.getSent()) {
+            if (frame.getType() == FrameType.REQUEST_N) {
+                requestNs.add(Frame.RequestN.requestN(frame));
+            }
+        }
+        // replenished once 2 of the 8 payloads are left
+        assertThat("Unexpected REQUEST_N frames.", requestNs, contains(6, 6));
+        assertThat("Unexpected REQUEST_N frames counted.", window.requestNFrames(), is(2L));
+        assertThat("Unexpected REQUEST_N frames without window.", window.requestNFramesWithoutWindow(), is(16L));
+        assertThat("Unexpected REQUEST_N frames saved.", window.netRequestNFramesSaved(), is(14L));
+    }
+
+    @Test(timeout = 2_000)
+    public void testRequestResponseWaitsForDemand() throws Throwable {
+        TestSubscriber<Payload> responseSub = TestSubscriber.create(0);
+        rule.socket.requestResponse(PayloadImpl.EMPTY).subscribe(responseSub);
+
+        int streamId = rule.getStreamIdForRequestType(REQUEST_RESPONSE);
+        rule.connection.addToReceivedBuffer(Frame.PayloadFrame.from(streamId, NEXT_COMPLETE, PayloadImpl.EMPTY));
+        responseSub.assertNoValues();
+        responseSub.assertNotTerminated();
+
+        responseSub.request(1);
+        responseSub.assertValueCount(1);
+        responseSub.assertComplete();
+
+        rule.connection.addToReceivedBuffer(Frame.PayloadFrame.from(streamId, NEXT_COMPLETE, PayloadImpl.EMPTY));
+        responseSub.assertValueCount(1);
+        assertThat("Unexpected errors.", rule.errors, hasSize(0));
+    }
+
+    @Test(timeout = 2_000)
+    public void testRequestStreamWithCancel() throws Throwable {
+        rule.connection.clearSendReceiveBuffers(); // clear setup frame
+        TestSubscriber<Payload> responseSub = TestSubscriber.create();
+        rule.socket.requestStream(PayloadImpl.EMPTY).subscribe(responseSub);
+        responseSub.cancel();
+
+        Frame request = rule.connection.awaitSend();
+        assertThat("Unexpected frame sent on the connection.", request.getType(), is(REQUEST_STREAM));
+        assertThat("Unexpected frame sent on the connection.", rule.connection.awaitSend().getType(), is(CANCEL));
+
+        rule.connection.addToReceivedBuffer(Frame.PayloadFrame.from(request.getStreamId(), NEXT, PayloadImpl.EMPTY));
+        responseSub.assertNoValues();
+        responseSub.assertNotTerminated();
+        assertThat("Unexpected errors.", rule.errors, hasSize(0));
+    }
+
+    @Test(timeout = 2_000)
+    public void testRequestAfterCancelSendsNothing() throws Throwable {
+        rule.connection.clearSendReceiveBuffers(); // clear setup frame
+        AtomicReference<Subscription> subscription = new AtomicReference<>();
+        rule.socket.requestStream(PayloadImpl.EMPTY).subscribe(new Subscriber<Payload>() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                subscription.set(s);
+            }
+
+            @Override
+            public void onNext(Payload payload) {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        subscription.get().cancel();
+        subscription.get().request(5);
+
+        assertThat("Unexpected frames sent after cancel.", rule.connection.getSent(), hasSize(0));
+    }
+
+    @Test(timeout = 2_000)
+    public void testCancelReleasesQueuedPayloads() throws Throwable {
+        TestDuplexConnection connection = new TestDuplexConnection();
+        RSocketClient client = new RSocketClient(connection, connection.alloc(), FramePayload::from, rule.errors::add,
+                                                 StreamIdSupplier.clientSupplier(), Duration.ZERO, Duration.ZERO, 0);
+        TestSubscriber<Payload> responseSub = TestSubscriber.create(1);
+        client.requestStream(PayloadImpl.EMPTY).subscribe(responseSub);
+        int streamId = connection.awaitSend().getStreamId();
+
+        connection.addToReceivedBuffer(Frame.PayloadFrame.from(streamId, NEXT, PayloadImpl.EMPTY));
+        Frame queued = Frame.PayloadFrame.from(streamId, NEXT, PayloadImpl.EMPTY);
+        ByteBuf queuedContent = queued.content();
+        connection.addToReceivedBuffer(queued);
+        responseSub.assertValueCount(1);
+        responseSub.cancel();
+
+        assertThat("Queued payload not released.", queuedContent.refCnt(), is(0));
+        assertThat("Unexpected errors.", rule.errors, hasSize(0));
+    }
+
+    @Test(timeout = 2_000)
+    public void testCancelReleasesUnrequestedResponse() throws Throwable {
+        TestDuplexConnection connection = new TestDuplexConnection();
+        RSocketClient client = new RSocketClient(connection, connection.alloc(), FramePayload::from, rule.errors::add,
+                                                 StreamIdSupplier.clientSupplier(), Duration.ZERO, Duration.ZERO, 0);
+        TestSubscriber<Payload> responseSub = TestSubscriber.create(0);
+        client.requestResponse(PayloadImpl.EMPTY).subscribe(responseSub);
+        int streamId = connection.awaitSend().getStreamId();
+
+        Frame response = Frame.PayloadFrame.from(streamId, NEXT_COMPLETE, PayloadImpl.EMPTY);
+        ByteBuf responseContent = response.content();
+        connection.addToReceivedBuffer(response);
+        responseSub.assertNoValues();
+        responseSub.cancel();
+
+        assertThat("Unrequested response not released.", responseContent.refCnt(), is(0));
+        Frame late = Frame.PayloadFrame.from(streamId, NEXT_COMPLETE, PayloadImpl.EMPTY);
+        ByteBuf lateContent = late.content();
+        connection.addToReceivedBuffer(late);
+        assertThat("Late response not released.", lateContent.refCnt(), is(0));
+        responseSub.assertNoValues();
+        assertThat("Unexpected errors.", rule.errors, hasSize(0));
+    }
+
+    @Test(timeout = 2_000)
+    public void testChannelRequestNSentAfterRequestFrame() throws Throwable {
+        rule.connection.clearSendReceiveBuffers(); // clear setup frame
+        DirectProcessor<Payload> payloads = DirectProcessor.create();
+        TestSubscriber<Payload> responseSub = TestSubscriber.create(1);
+        rule.socket.requestChannel(payloads).subscribe(responseSub);
+        responseSub.request(2);
+        assertThat("Unexpected frames sent before the first payload.", rule.connection.getSent(), hasSize(0));
+
+        payloads.onNext(PayloadImpl.EMPTY);
+        Frame request = rule.connection.awaitSend();
+        assertThat("Unexpected frame sent on the connection.", request.getType(), is(REQUEST_CHANNEL));
+        assertThat("Unexpected initial request n.", Frame.Request.initialRequestN(request), is(1));
+        Frame requestN = rule.connection.awaitSend();
+        assertThat("Unexpected frame sent on the connection.", requestN.getType(), is(REQUEST_N));
+        assertThat("Unexpected request n.", Frame.RequestN.requestN(requestN), is(2));
+
+        int streamId = request.getStreamId();
+        rule.connection.addToReceivedBuffer(Frame.RequestN.from(streamId, 1));
+        payloads.onNext(PayloadImpl.EMPTY);
+        assertThat("Unexpected frame sent on the connection.", rule.connection.awaitSend().getType(), is(NEXT));
+        payloads.onComplete();
+        assertThat("Unexpected frame sent on the connection.", rule.connection.awaitSend().getType(), is(COMPLETE));
+
+        rule.connection.addToReceivedBuffer(Frame.PayloadFrame.from(streamId, NEXT_COMPLETE, PayloadImpl.EMPTY));
+        responseSub.assertValueCount(1);
+        responseSub.assertComplete();
+    }
+
     public int sendRequestResponse(Publisher<Payload> response) {
         TestSubscriber<Payload> sub = TestSubscriber.create();
         response.subscribe(sub);
@@ -16,23 +16,39 @@
 
 package io.rsocket;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.rsocket.internal.TimerWheel;
+import io.rsocket.server.AdaptiveConcurrencyLimiter;
 import io.rsocket.test.util.TestDuplexConnection;
+import io.rsocket.util.Deadlines;
+import io.rsocket.util.FramePayload;
 import io.rsocket.util.PayloadImpl;
 import io.reactivex.subscribers.TestSubscriber;
 import org.junit.Rule;
 import org.junit.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 
 public class RSocketServerTest {
 
@@ -94,6 +110,177 @@ public class RSocketServerTest {
         assertThat("Subscription not cancelled.", cancelled.get(), is(true));
     }
 
+    @Test(timeout = 2000)
+    public void testHandlerRunsOnResponderScheduler() throws Exception {
+        AtomicReference<Thread> handlerThread = new AtomicReference<>();
+        TestDuplexConnection connection = new TestDuplexConnection();
+        new RSocketServer(connection, connection.alloc(), new AbstractRSocket() {
+            @Override
+            public Mono<Payload> requestResponse(Payload payload) {
+                handlerThread.set(Thread.currentThread());
+                return Mono.just(payload);
+            }
+        }, PayloadImpl::new, rule.errors::add, Schedulers.single(), 16);
+
+        connection.addToReceivedBuffer(Frame.Request.from(4, FrameType.REQUEST_RESPONSE, PayloadImpl.EMPTY, 1));
+        assertThat("Unexpected frame sent.", connection.awaitSend().getType(), is(FrameType.NEXT_COMPLETE));
+        assertThat("Handler ran on the receiving thread.", handlerThread.get(), not(Thread.currentThread()));
+        assertThat("Unexpected error.", rule.errors, is(empty()));
+    }
+
+    @Test(timeout = 2000)
+    public void testRejectsRequestsWhenResponderQueueIsFull() throws Exception {
+        List<Runnable> tasks = new ArrayList<>();
+        TestDuplexConnection connection = new TestDuplexConnection();
+        new RSocketServer(connection, connection.alloc(), new AbstractRSocket() {
+            @Override
+            public Mono<Payload> requestResponse(Payload payload) {
+                return Mono.just(payload);
+            }
+        }, PayloadImpl::new, rule.errors::add, Schedulers.fromExecutor(tasks::add), 1);
+
+        connection.addToReceivedBuffer(Frame.Request.from(2, FrameType.REQUEST_RESPONSE, PayloadImpl.EMPTY, 1));
+        connection.addToReceivedBuffer(Frame.Request.from(4, FrameType.REQUEST_RESPONSE, PayloadImpl.EMPTY, 1));
+        Frame rejected = connection.awaitSend();
+        assertThat("Unexpected frame sent.", rejected.getType(), is(FrameType.ERROR));
+        assertThat("Unexpected stream rejected.", rejected.getStreamId(), is(4));
+
+        tasks.forEach(Runnable::run);
+        Frame response = connection.awaitSend();
+        assertThat("Unexpected frame sent.", response.getType(), is(FrameType.NEXT_COMPLETE));
+        assertThat("Unexpected stream answered.", response.getStreamId(), is(2));
+    }
+
+    @Test(timeout = 2000)
+    public void testRejectsRequestsOverConcurrencyLimit() throws Exception {
+        AtomicInteger invocations = new AtomicInteger();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 10);
+        TestDuplexConnection connection = new TestDuplexConnection();
+        new RSocketServer(connection, connection.alloc(), new AbstractRSocket() {
+            @Override
+            public Mono<Payload> requestResponse(Payload payload) {
+                invocations.incrementAndGet();
+                return Mono.never();
+            }
+        }, PayloadImpl::new, rule.errors::add, null, 16, limiter, null);
+
+        connection.addToReceivedBuffer(Frame.Request.from(2, FrameType.REQUEST_RESPONSE, PayloadImpl.EMPTY, 1));
+        connection.addToReceivedBuffer(Frame.Request.from(4, FrameType.REQUEST_RESPONSE, PayloadImpl.EMPTY, 1));
+        Frame rejected = connection.awaitSend();
+        assertThat("Unexpected frame sent.", rejected.getType(), is(FrameType.ERROR));
+        assertThat("Unexpected stream rejected.", rejected.getStreamId(), is(4));
+        assertThat("Handler invoked for rejected request.", invocations.get(), is(1));
+
+        connection.addToReceivedBuffer(Frame.Cancel.from(2));
+        assertThat("Permit not released on cancel.", limiter.inFlight(), is(0));
+    }
+
+    @Test(timeout = 2000)
+    public void testDropsRequestsPastDeadline() throws Exception {
+        AtomicInteger invocations = new AtomicInteger();
+        TestDuplexConnection connection = new TestDuplexConnection();
+        new RSocketServer(connection, connection.alloc(), new AbstractRSocket() {
+            @Override
+            public Mono<Payload> requestResponse(Payload payload) {
+                invocations.incrementAndGet();
+                return Mono.just(payload);
+            }
+        }, PayloadImpl::new, rule.errors::add, null, 16, null, null, TimerWheel.shared());
+
+        Payload expired = Deadlines.withDeadline(PayloadImpl.EMPTY, System.currentTimeMillis() - 1_000);
+        connection.addToReceivedBuffer(Frame.Request.from(2, FrameType.REQUEST_RESPONSE, expired, 1));
+        Frame rejected = connection.awaitSend();
+        assertThat("Unexpected frame sent.", rejected.getType(), is(FrameType.ERROR));
+        assertThat("Handler invoked for expired request.", invocations.get(), is(0));
+    }
+
+    @Test(timeout = 2000)
+    public void testReleasesRejectedRequests() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 10);
+        TestDuplexConnection connection = new TestDuplexConnection();
+        new RSocketServer(connection, connection.alloc(), new AbstractRSocket() {
+            @Override
+            public Mono<Payload> requestResponse(Payload payload) {
+                return Mono.never();
+            }
+        }, FramePayload::from, rule.errors::add, null, 16, limiter, null, TimerWheel.shared());
+
+        connection.addToReceivedBuffer(Frame.Request.from(2, FrameType.REQUEST_RESPONSE, PayloadImpl.EMPTY, 1));
+        Frame overLimit = Frame.Request.from(UnpooledByteBufAllocator.DEFAULT, 4, FrameType.REQUEST_RESPONSE,
+                                             PayloadImpl.EMPTY, 1);
+        ByteBuf overLimitContent = overLimit.content();
+        connection.addToReceivedBuffer(overLimit);
+        Payload expiredPayload = Deadlines.withDeadline(PayloadImpl.EMPTY, System.currentTimeMillis() - 1_000);
+        Frame expired = Frame.Request.from(UnpooledByteBufAllocator.DEFAULT, 6, FrameType.REQUEST_RESPONSE,
+                                           expiredPayload, 1);
+        ByteBuf expiredContent = expired.content();
+        connection.addToReceivedBuffer(expired);
+
+        assertThat("Unexpected frame sent.", connection.awaitSend().getType(), is(FrameType.ERROR));
+        assertThat("Unexpected frame sent.", connection.awaitSend().getType(), is(FrameType.ERROR));
+        assertThat("Request over limit not released.", overLimitContent.refCnt(), is(0));
+        assertThat("Expired request not released.", expiredContent.refCnt(), is(0));
+    }
+
+    @Test(timeout = 2000)
+    public void testCancelsHandlerAtDeadline() throws Exception {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicInteger metadataLength = new AtomicInteger(-1);
+        TestDuplexConnection connection = new TestDuplexConnection();
+        TimerWheel timer = new TimerWheel(Duration.ofMillis(1), 64);
+        try {
+            new RSocketServer(connection, connection.alloc(), new AbstractRSocket() {
+                @Override
+                public Mono<Payload> requestResponse(Payload payload) {
+                    metadataLength.set(payload.getMetadata().remaining());
+                    return Mono.<Payload>never().doOnCancel(() -> cancelled.set(true));
+                }
+            }, PayloadImpl::new, rule.errors::add, null, 16, null, null, timer);
+
+            Payload payload = Deadlines.withDeadline(PayloadImpl.EMPTY, System.currentTimeMillis() + 50);
+            connection.addToReceivedBuffer(Frame.Request.from(2, FrameType.REQUEST_RESPONSE, payload, 1));
+            Frame expired = connection.awaitSend();
+            assertThat("Unexpected frame sent.", expired.getType(), is(FrameType.ERROR));
+            assertThat("Handler not cancelled.", cancelled.get(), is(true));
+            assertThat("Deadline passed to the handler.", metadataLength.get(), is(0));
+        } finally {
+            timer.dispose();
+        }
+    }
+
+    @Test(timeout = 2000)
+    public void testCreditWindowBatchesChannelRequestN() throws Exception {
+        TestSubscriber<Payload> oneAtATime = new TestSubscriber<Payload>(1) {
+            @Override
+            public void onNext(Payload payload) {
+                super.onNext(payload);
+                request(1);
+            }
+        };
+        TestDuplexConnection connection = new TestDuplexConnection();
+        new RSocketServer(connection, connection.alloc(), new AbstractRSocket() {
+            @Override
+            public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+                payloads.subscribe(oneAtATime);
+                return Flux.never();
+            }
+        }, PayloadImpl::new, rule.errors::add, null, 16, null, null, null, new CreditWindow(8));
+
+        connection.addToReceivedBuffer(Frame.Request.from(2, FrameType.REQUEST_CHANNEL, PayloadImpl.EMPTY, 1));
+        for (int i = 0; i < 10; i++) {
+            connection.addToReceivedBuffer(Frame.PayloadFrame.from(2, FrameType.NEXT, PayloadImpl.EMPTY));
+        }
+
+        oneAtATime.assertValueCount(11);
+        List<Integer> requestNs = new ArrayList<>();
+        for (Frame frame : connection.getSent()) {
+            assertThat("Unexpected frame sent.", frame.getType(), is(FrameType.REQUEST_N));
+            requestNs.add(Frame.RequestN.requestN(frame));
+        }
+        // the first payload came with the request, the window is filled up to 8 ahead of those consumed
+        assertThat("Unexpected REQUEST_N frames.", requestNs, contains(7, 6));
+    }
+
     public static class ServerSocketRule extends AbstractSocketRule<RSocketServer> {
 
         private RSocket acceptingSocket;
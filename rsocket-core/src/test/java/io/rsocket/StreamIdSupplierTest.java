@@ -16,6 +16,7 @@
 
 package io.rsocket;
 
+import io.rsocket.internal.ConcurrentIntObjectHashMap;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
@@ -82,4 +83,36 @@ public class StreamIdSupplierTest {
         // client also accepted (checked externally)
         assertTrue(s.isBeforeOrCurrent(1));
     }
+
+    @Test
+    public void testClientWrapsAround() {
+        StreamIdSupplier s = new StreamIdSupplier(-1, (1L << 30) - 1);
+        assertEquals(Integer.MAX_VALUE, s.nextStreamId());
+        assertEquals(1, s.nextStreamId());
+        assertEquals(3, s.nextStreamId());
+
+        // every id may have been used once wrapped
+        assertTrue(s.isBeforeOrCurrent(Integer.MAX_VALUE - 2));
+        assertTrue(s.isBeforeOrCurrent(5));
+        assertFalse(s.isBeforeOrCurrent(0));
+    }
+
+    @Test
+    public void testServerWrapsAroundSkippingZero() {
+        StreamIdSupplier s = new StreamIdSupplier(0, (1L << 30) - 2);
+        assertEquals(Integer.MAX_VALUE - 1, s.nextStreamId());
+        assertEquals(2, s.nextStreamId());
+    }
+
+    @Test
+    public void testSkipsActiveStreams() {
+        ConcurrentIntObjectHashMap<Object> activeStreams = new ConcurrentIntObjectHashMap<>();
+        activeStreams.put(1, new Object());
+        activeStreams.put(5, new Object());
+
+        StreamIdSupplier s = new StreamIdSupplier(-1, (1L << 30) - 1);
+        assertEquals(Integer.MAX_VALUE, s.nextStreamId(activeStreams));
+        assertEquals(3, s.nextStreamId(activeStreams));
+        assertEquals(7, s.nextStreamId(activeStreams));
+    }
 }
@@ -1,10 +1,14 @@
 package io.rsocket.fragmentation;
 
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import io.rsocket.DuplexConnection;
 import io.rsocket.Frame;
 import io.rsocket.FrameType;
 import io.rsocket.util.PayloadImpl;
+import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.EmitterProcessor;
 import reactor.core.publisher.Flux;
@@ -129,6 +133,88 @@ public class FragmentationDuplexConnectionTest {
             .subscribe();
     }
 
+    @Test
+    public void testReassemblesFragmentedFrame() {
+        ByteBuffer data = createRandomBytes(16);
+        ByteBuffer metadata = createRandomBytes(16);
+        Frame frame = Frame.Request.from(1024, FrameType.REQUEST_RESPONSE, new PayloadImpl(data, metadata), 1);
+        DuplexConnection mockConnection = mock(DuplexConnection.class);
+        when(mockConnection.receive()).thenReturn(new FrameFragmenter(2).fragment(frame));
+
+        FragmentationDuplexConnection duplexConnection = new FragmentationDuplexConnection(mockConnection, 2);
+
+        StepVerifier
+            .create(duplexConnection.receive())
+            .assertNext(reassembled -> {
+                Assert.assertEquals(1024, reassembled.getStreamId());
+                Assert.assertEquals(FrameType.REQUEST_RESPONSE, reassembled.getType());
+                Assert.assertEquals(data.rewind(), reassembled.getData());
+                Assert.assertEquals(metadata.rewind(), reassembled.getMetadata());
+            })
+            .verifyComplete();
+    }
+
+    @Test
+    public void testPassesThroughKeepAliveWithRespondFlag() {
+        Frame keepalive = Frame.Keepalive.from(Unpooled.EMPTY_BUFFER, true);
+        DuplexConnection mockConnection = mock(DuplexConnection.class);
+        when(mockConnection.receive()).thenReturn(Flux.just(keepalive));
+
+        FragmentationDuplexConnection duplexConnection = new FragmentationDuplexConnection(mockConnection, 2);
+
+        StepVerifier
+            .create(duplexConnection.receive())
+            .expectNext(keepalive)
+            .verifyComplete();
+    }
+
+    @Test
+    public void testFailsPayloadOverMaxReassembledSize() {
+        Frame frame = Frame.PayloadFrame.from(
+            3, FrameType.NEXT_COMPLETE, new PayloadImpl(createRandomBytes(16), createRandomBytes(16)));
+        Frame next = Frame.PayloadFrame.from(5, FrameType.NEXT_COMPLETE, new PayloadImpl(createRandomBytes(1)));
+        DuplexConnection mockConnection = mock(DuplexConnection.class);
+        when(mockConnection.receive()).thenReturn(new FrameFragmenter(2).fragment(frame).concatWith(Mono.just(next)));
+        when(mockConnection.sendOne(any(Frame.class))).thenReturn(Mono.empty());
+
+        FragmentationDuplexConnection duplexConnection =
+            new FragmentationDuplexConnection(mockConnection, ByteBufAllocator.DEFAULT, 2, 8, 1024);
+
+        StepVerifier
+            .create(duplexConnection.receive())
+            .assertNext(error -> {
+                Assert.assertEquals(FrameType.ERROR, error.getType());
+                Assert.assertEquals(3, error.getStreamId());
+            })
+            .expectNext(next)
+            .verifyComplete();
+
+        ArgumentCaptor<Frame> sent = ArgumentCaptor.forClass(Frame.class);
+        verify(mockConnection, times(1)).sendOne(sent.capture());
+        Assert.assertEquals(FrameType.CANCEL, sent.getValue().getType());
+    }
+
+    @Test
+    public void testRejectsRequestsOverReassemblyBudget() {
+        Frame frame = Frame.Request.from(
+            7, FrameType.REQUEST_RESPONSE, new PayloadImpl(createRandomBytes(16), createRandomBytes(16)), 1);
+        DuplexConnection mockConnection = mock(DuplexConnection.class);
+        when(mockConnection.receive()).thenReturn(new FrameFragmenter(2).fragment(frame));
+        when(mockConnection.sendOne(any(Frame.class))).thenReturn(Mono.empty());
+
+        FragmentationDuplexConnection duplexConnection =
+            new FragmentationDuplexConnection(mockConnection, ByteBufAllocator.DEFAULT, 2, 1024, 8);
+
+        StepVerifier
+            .create(duplexConnection.receive())
+            .verifyComplete();
+
+        ArgumentCaptor<Frame> sent = ArgumentCaptor.forClass(Frame.class);
+        verify(mockConnection, times(1)).sendOne(sent.capture());
+        Assert.assertEquals(FrameType.ERROR, sent.getValue().getType());
+        Assert.assertEquals(7, sent.getValue().getStreamId());
+    }
+
     private ByteBuffer createRandomBytes(int size) {
         byte[] bytes = new byte[size];
         ThreadLocalRandom.current().nextBytes(bytes);
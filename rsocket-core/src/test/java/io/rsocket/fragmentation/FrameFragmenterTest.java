@@ -1,5 +1,7 @@
 package io.rsocket.fragmentation;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.rsocket.Frame;
 import io.rsocket.FrameType;
 import io.rsocket.util.PayloadImpl;
@@ -7,8 +9,12 @@ import org.junit.Test;
 import reactor.test.StepVerifier;
 
 import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
 public class FrameFragmenterTest {
     @Test
     public void testFragmentWithMetadataAndData() {
@@ -71,6 +77,65 @@ public class FrameFragmenterTest {
             .verifyComplete();
     }
 
+    @Test
+    public void testFragmentsKeepInitialRequestNAndReassemble() {
+        ByteBuffer data = createRandomBytes(1000);
+        ByteBuffer metadata = createRandomBytes(300);
+
+        Frame from = Frame.Request.from(1, FrameType.REQUEST_STREAM, new PayloadImpl(data, metadata), 42);
+
+        List<Frame> fragments = new FrameFragmenter(128).fragment(from).collectList().block();
+
+        assertThat("Unexpected fragments.", fragments.size(), is(11));
+        FrameReassembler reassembler = new FrameReassembler(fragments.get(0));
+        for (Frame fragment : fragments) {
+            assertThat("Unexpected type.", fragment.getType(), is(FrameType.REQUEST_STREAM));
+            assertThat("Unexpected initial request n.", Frame.Request.initialRequestN(fragment), is(42));
+            reassembler.append(fragment);
+            fragment.release();
+        }
+
+        Frame reassembled = reassembler.reassemble();
+        assertThat("Unexpected initial request n.", Frame.Request.initialRequestN(reassembled), is(42));
+        assertThat("Unexpected metadata.", reassembled.getMetadata(), is(metadata));
+        assertThat("Unexpected data.", reassembled.getData(), is(data));
+        reassembled.release();
+
+        assertThat("Fragmented frame not released.", from.refCnt(), is(0));
+    }
+
+    @Test
+    public void testFragmentsSliceTheFrameWithoutCopying() {
+        ByteBuf content = Unpooled.buffer();
+        Frame from = Frame.PayloadFrame.from(1, FrameType.NEXT_COMPLETE,
+            new PayloadImpl(createRandomBytes(16), createRandomBytes(16)));
+        content.writeBytes(from.content());
+        from.release();
+        Frame frame = Frame.from(content);
+
+        List<Frame> fragments = new FrameFragmenter(8).fragment(frame).collectList().block();
+
+        assertThat("Fragments do not retain the frame.", frame.refCnt(), is(fragments.size()));
+        frame.content().setByte(frame.content().writerIndex() - 1, 0);
+        Frame last = fragments.get(fragments.size() - 1);
+        assertThat("Fragment is a copy.", last.getData().get(last.getData().remaining() - 1), is((byte) 0));
+
+        fragments.forEach(Frame::release);
+        assertThat("Fragmented frame not released.", frame.refCnt(), is(0));
+    }
+
+    @Test
+    public void testCancelledFragmentsReleaseTheFrame() {
+        Frame from = Frame.PayloadFrame.from(1, FrameType.NEXT_COMPLETE,
+            new PayloadImpl(createRandomBytes(16), createRandomBytes(16)));
+
+        List<Frame> fragments = new FrameFragmenter(8).fragment(from).take(1).collectList().block();
+
+        assertThat("Unexpected fragments.", fragments.size(), is(1));
+        fragments.forEach(Frame::release);
+        assertThat("Fragmented frame not released.", from.refCnt(), is(0));
+    }
+
     private ByteBuffer createRandomBytes(int size) {
         byte[] bytes = new byte[size];
         ThreadLocalRandom.current().nextBytes(bytes);
@@ -1,8 +1,11 @@
 package io.rsocket.fragmentation;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.rsocket.Frame;
 import io.rsocket.FrameType;
 import io.rsocket.util.PayloadImpl;
+import org.junit.Assert;
 import org.junit.Test;
 
 import java.nio.ByteBuffer;
@@ -25,6 +28,57 @@ public class FrameReassemblerTest {
             .subscribe(reassembler::append);
     }
 
+    @Test
+    public void testReassembleAndReuse() {
+        ByteBuffer data = createRandomBytes(16);
+        Frame from = Frame.PayloadFrame.from(1024, FrameType.NEXT_COMPLETE, new PayloadImpl(data));
+        FrameFragmenter frameFragmenter = new FrameFragmenter(4);
+        FrameReassembler reassembler = new FrameReassembler(from);
+
+        for (int i = 0; i < 2; i++) {
+            frameFragmenter
+                .fragment(from.retain())
+                .doOnNext(reassembler::append)
+                .subscribe(Frame::release);
+            Assert.assertEquals(16, reassembler.size());
+
+            Frame reassembled = reassembler.reassemble();
+            Assert.assertEquals(0, reassembler.size());
+            Assert.assertEquals(FrameType.NEXT_COMPLETE, reassembled.getType());
+            Assert.assertEquals(data.rewind(), reassembled.getData());
+            reassembled.release();
+        }
+    }
+
+    @Test
+    public void testCopiesFragmentsSmallComparedToTheirBuffer() {
+        ByteBuffer data = createRandomBytes(16);
+        Frame from = Frame.PayloadFrame.from(1024, FrameType.NEXT_COMPLETE, new PayloadImpl(data));
+        Frame first = new FrameFragmenter(4).fragment(from).blockFirst();
+        ByteBuf cumulation = Unpooled.buffer(4096).writeBytes(first.content());
+        first.release();
+        Frame fragment = Frame.from(cumulation.slice());
+
+        FrameReassembler reassembler = new FrameReassembler(fragment);
+        reassembler.append(fragment);
+        Assert.assertEquals("Small fragment not copied.", 1, cumulation.refCnt());
+        Assert.assertEquals(4, reassembler.retainedBytes());
+
+        Frame encoded = Frame.PayloadFrame.from(1024, FrameType.NEXT_COMPLETE, new PayloadImpl(data));
+        ByteBuf largeContent = Unpooled.copiedBuffer(encoded.content());
+        encoded.release();
+        Frame large = Frame.from(largeContent);
+        reassembler.append(large);
+        large.release();
+        Assert.assertEquals("Large fragment copied.", 1, largeContent.refCnt());
+        Assert.assertEquals(4 + largeContent.capacity(), reassembler.retainedBytes());
+
+        reassembler.dispose();
+        Assert.assertEquals(0, reassembler.retainedBytes());
+        Assert.assertEquals(0, largeContent.refCnt());
+        cumulation.release();
+    }
+
     private ByteBuffer createRandomBytes(int size) {
         byte[] bytes = new byte[size];
         ThreadLocalRandom.current().nextBytes(bytes);
@@ -18,4 +18,14 @@ public class KeepaliveFrameFlyweightTest {
         assertEquals(KeepaliveFrameFlyweight.FLAGS_KEEPALIVE_R, FrameHeaderFlyweight.flags(byteBuf) & KeepaliveFrameFlyweight.FLAGS_KEEPALIVE_R);
         assertEquals(data, FrameHeaderFlyweight.sliceFrameData(byteBuf));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void canReadLastPosition() {
+        ByteBuf data = Unpooled.wrappedBuffer(new byte[]{5, 4, 3});
+        KeepaliveFrameFlyweight.encode(byteBuf, 0, 42, data);
+        data.resetReaderIndex();
+
+        assertEquals(42, KeepaliveFrameFlyweight.lastPosition(byteBuf));
+        assertEquals(data, FrameHeaderFlyweight.sliceFrameData(byteBuf));
+    }
+}
@@ -0,0 +1,36 @@
+package io.rsocket.frame;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.rsocket.FrameType;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ResumeFrameFlyweightTest {
+    private final ByteBuf byteBuf = Unpooled.buffer(1024);
+
+    @Test
+    public void validResumeFrame() {
+        ByteBuf token = Unpooled.wrappedBuffer(new byte[]{2, 3, 4});
+        int length = ResumeFrameFlyweight.encode(byteBuf, token, 21, 7);
+
+        assertEquals(ResumeFrameFlyweight.computeFrameLength(3), length);
+        assertEquals(FrameType.RESUME, FrameHeaderFlyweight.frameType(byteBuf));
+        assertEquals(0, FrameHeaderFlyweight.streamId(byteBuf));
+        assertEquals(SetupFrameFlyweight.CURRENT_VERSION, ResumeFrameFlyweight.version(byteBuf));
+        assertEquals(token, ResumeFrameFlyweight.resumeToken(byteBuf));
+        assertEquals(21, ResumeFrameFlyweight.lastReceivedServerPosition(byteBuf));
+        assertEquals(7, ResumeFrameFlyweight.firstAvailableClientPosition(byteBuf));
+        assertEquals(0, FrameHeaderFlyweight.sliceFrameData(byteBuf).readableBytes());
+    }
+
+    @Test
+    public void validResumeOkFrame() {
+        int length = ResumeFrameFlyweight.encodeResumeOk(byteBuf, 42);
+
+        assertEquals(ResumeFrameFlyweight.computeResumeOkFrameLength(), length);
+        assertEquals(FrameType.RESUME_OK, FrameHeaderFlyweight.frameType(byteBuf));
+        assertEquals(42, ResumeFrameFlyweight.lastReceivedClientPosition(byteBuf));
+    }
+}
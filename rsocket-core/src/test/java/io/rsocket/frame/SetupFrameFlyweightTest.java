@@ -48,5 +48,6 @@ public class SetupFrameFlyweightTest {
         assertEquals(metadata, FrameHeaderFlyweight.sliceFrameMetadata(byteBuf));
         assertEquals(data, FrameHeaderFlyweight.sliceFrameData(byteBuf));
         assertEquals(SetupFrameFlyweight.FLAGS_RESUME_ENABLE, FrameHeaderFlyweight.flags(byteBuf) & SetupFrameFlyweight.FLAGS_RESUME_ENABLE);
+        assertEquals(token, SetupFrameFlyweight.resumeToken(byteBuf));
     }
 }
\ No newline at end of file
@@ -1,7 +1,12 @@
 package io.rsocket.internal;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.reactivex.subscribers.TestSubscriber;
 import io.rsocket.Frame;
+import io.rsocket.FrameType;
 import io.rsocket.test.util.TestDuplexConnection;
+import io.rsocket.util.PayloadImpl;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -44,4 +49,63 @@ public class ClientServerInputMultiplexerTest {
         assertEquals(1, serverFrames.get());
         assertEquals(0, connectionFrames.get());
     }
+
+    @Test
+    public void testQueuesFramesUntilSubscribed() {
+        source.addToReceivedBuffer(Frame.RequestN.from(1, 1), Frame.RequestN.from(3, 1));
+
+        TestSubscriber<Frame> client = TestSubscriber.create();
+        multiplexer.asClientConnection().receive().subscribe(client);
+
+        client.assertValueCount(2);
+        assertEquals(1, client.values().get(0).getStreamId());
+        assertEquals(3, client.values().get(1).getStreamId());
+    }
+
+    @Test
+    public void testHonorsDemand() {
+        TestSubscriber<Frame> server = TestSubscriber.create(1);
+        multiplexer.asServerConnection().receive().subscribe(server);
+
+        source.addToReceivedBuffer(Frame.RequestN.from(2, 1), Frame.RequestN.from(4, 1), Frame.RequestN.from(6, 1));
+        server.assertValueCount(1);
+
+        server.request(2);
+        server.assertValueCount(3);
+        assertEquals(6, server.values().get(2).getStreamId());
+    }
+
+    @Test
+    public void testReleasesFramesAfterCancel() {
+        TestSubscriber<Frame> client = TestSubscriber.create(0);
+        multiplexer.asClientConnection().receive().subscribe(client);
+
+        Frame queued = Frame.RequestN.from(1, 1);
+        ByteBuf queuedContent = queued.content();
+        source.addToReceivedBuffer(queued);
+        client.cancel();
+        assertEquals(0, queuedContent.refCnt());
+
+        Frame late = Frame.RequestN.from(3, 1);
+        ByteBuf lateContent = late.content();
+        source.addToReceivedBuffer(late);
+        assertEquals(0, lateContent.refCnt());
+        client.assertNoValues();
+    }
+
+    @Test
+    public void testRoutesSetupToStreamZero() {
+        TestSubscriber<Frame> streamZero = TestSubscriber.create();
+        TestSubscriber<Frame> client = TestSubscriber.create();
+        multiplexer.asStreamZeroConnection().receive().subscribe(streamZero);
+        multiplexer.asClientConnection().receive().subscribe(client);
+
+        source.addToReceivedBuffer(Frame.Setup.from(0, 0, 0, "", "", new PayloadImpl("")),
+                                   Frame.Keepalive.from(Unpooled.EMPTY_BUFFER, false));
+
+        streamZero.assertValueCount(1);
+        assertEquals(FrameType.SETUP, streamZero.values().get(0).getType());
+        client.assertValueCount(1);
+        assertEquals(FrameType.KEEPALIVE, client.values().get(0).getType());
+    }
 }
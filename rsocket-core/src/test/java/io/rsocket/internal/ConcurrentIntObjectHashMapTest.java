@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.internal;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ConcurrentIntObjectHashMapTest {
+
+    @Test
+    public void testPutGetRemove() {
+        ConcurrentIntObjectHashMap<String> map = new ConcurrentIntObjectHashMap<>();
+        assertThat("Unexpected previous value.", map.put(1, "one"), is(nullValue()));
+        assertThat("Unexpected previous value.", map.put(1, "uno"), is("one"));
+        assertThat("Unexpected current value.", map.putIfAbsent(1, "eins"), is("uno"));
+        assertThat("Unexpected value.", map.get(1), is("uno"));
+        assertThat("Unexpected size.", map.size(), is(1));
+
+        assertThat("Unexpected removed value.", map.remove(1), is("uno"));
+        assertThat("Unexpected removed value.", map.remove(1), is(nullValue()));
+        assertThat("Unexpected value.", map.get(1), is(nullValue()));
+        assertThat("Map not empty.", map.isEmpty(), is(true));
+
+        assertThat("Unexpected current value.", map.putIfAbsent(1, "eins"), is(nullValue()));
+        assertThat("Unexpected value.", map.get(1), is("eins"));
+    }
+
+    @Test
+    public void testGrowsAndDropsRemovedEntries() {
+        ConcurrentIntObjectHashMap<Integer> map = new ConcurrentIntObjectHashMap<>(0);
+        for (int round = 0; round < 4; round++) {
+            for (int i = 1; i < 20_000; i += 2) {
+                map.put(i, i);
+            }
+            assertThat("Unexpected size.", map.size(), is(10_000));
+            for (int i = 1; i < 20_000; i += 2) {
+                assertThat("Unexpected value.", map.get(i), is(i));
+                assertThat("Unexpected removed value.", map.remove(i), is(i));
+            }
+            assertThat("Map not empty.", map.isEmpty(), is(true));
+        }
+    }
+
+    @Test
+    public void testForEachAndClear() {
+        ConcurrentIntObjectHashMap<Integer> map = new ConcurrentIntObjectHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        map.remove(50);
+
+        int[] sum = new int[1];
+        map.forEach((key, value) -> sum[0] += key + value);
+        assertThat("Unexpected sum.", sum[0], is(2 * (4950 - 50)));
+        assertThat("Unexpected values.", map.values().size(), is(99));
+
+        map.clear();
+        assertThat("Map not empty.", map.isEmpty(), is(true));
+        assertThat("Unexpected value.", map.get(1), is(nullValue()));
+    }
+
+    @Test(timeout = 10_000)
+    public void testConcurrentWritersAndReaders() throws Exception {
+        ConcurrentIntObjectHashMap<Integer> map = new ConcurrentIntObjectHashMap<>(16);
+        int threads = 4;
+        int perThread = 50_000;
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        for (int t = 0; t < threads; t++) {
+            final int first = t;
+            new Thread(() -> {
+                try {
+                    for (int i = 0; i < perThread; i++) {
+                        int key = first + i * threads;
+                        map.put(key, key);
+                        if (!Integer.valueOf(key).equals(map.get(key))) {
+                            throw new AssertionError("Missing value for " + key);
+                        }
+                        if (i % 2 == 0 && !Integer.valueOf(key).equals(map.remove(key))) {
+                            throw new AssertionError("Missing removed value for " + key);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        assertThat("Writers did not finish.", done.await(10, TimeUnit.SECONDS), is(true));
+        assertThat("Unexpected failure.", failure.get(), is(nullValue()));
+        assertThat("Unexpected size.", map.size(), is(threads * perThread / 2));
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.internal;
+
+import io.reactivex.subscribers.TestSubscriber;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class LimitableRequestPublisherTest {
+    @Test
+    public void testRequestsLowerOfDemandAndLimit() {
+        AtomicLong upstreamRequested = new AtomicLong();
+        LimitableRequestPublisher<Integer> publisher =
+            LimitableRequestPublisher.wrap(Flux.range(1, 100).hide().doOnRequest(upstreamRequested::addAndGet));
+        TestSubscriber<Integer> subscriber = TestSubscriber.create(0);
+        publisher.subscribe(subscriber);
+
+        subscriber.request(10);
+        subscriber.assertNoValues();
+
+        publisher.increaseRequestLimit(3);
+        subscriber.assertValueCount(3);
+
+        publisher.increaseRequestLimit(20);
+        subscriber.assertValueCount(10);
+        assertThat("Unexpected upstream demand.", upstreamRequested.get(), is(10L));
+
+        subscriber.request(5);
+        subscriber.assertValueCount(15);
+        assertThat("Unexpected upstream demand.", upstreamRequested.get(), is(15L));
+    }
+
+    @Test
+    public void testCancelBeforeSourceSubscribes() {
+        AtomicReference<Subscriber<? super Integer>> source = new AtomicReference<>();
+        LimitableRequestPublisher<Integer> publisher = LimitableRequestPublisher.wrap(s -> source.set(s));
+        publisher.subscribe(TestSubscriber.create());
+        publisher.cancel();
+
+        AtomicBoolean cancelled = new AtomicBoolean();
+        source.get().onSubscribe(new Subscription() {
+            @Override
+            public void request(long n) {
+                throw new AssertionError("Requested after cancel");
+            }
+
+            @Override
+            public void cancel() {
+                cancelled.set(true);
+            }
+        });
+        assertThat("Source not cancelled.", cancelled.get(), is(true));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRejectsSecondSubscriber() {
+        LimitableRequestPublisher<Integer> publisher = LimitableRequestPublisher.wrap(Flux.never());
+        publisher.subscribe(TestSubscriber.create());
+        publisher.subscribe(TestSubscriber.create());
+    }
+
+    @Test(timeout = 10_000)
+    public void testConcurrentDemandAndLimit() throws InterruptedException {
+        final int rounds = 100_000;
+        AtomicLong upstreamRequested = new AtomicLong();
+        LimitableRequestPublisher<Integer> publisher = LimitableRequestPublisher.wrap(
+            Flux.range(0, Integer.MAX_VALUE).hide().doOnRequest(upstreamRequested::addAndGet));
+        TestSubscriber<Integer> subscriber = TestSubscriber.create(0);
+        publisher.subscribe(subscriber);
+
+        CountDownLatch start = new CountDownLatch(1);
+        Thread transport = new Thread(() -> {
+            awaitQuietly(start);
+            for (int i = 0; i < rounds; i++) {
+                publisher.increaseRequestLimit(1);
+            }
+        });
+        Thread application = new Thread(() -> {
+            awaitQuietly(start);
+            for (int i = 0; i < rounds; i++) {
+                subscriber.request(1);
+            }
+        });
+        transport.start();
+        application.start();
+        start.countDown();
+        transport.join();
+        application.join();
+
+        assertThat("Unexpected upstream demand.", upstreamRequested.get(), is((long) rounds));
+        subscriber.assertValueCount(rounds);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
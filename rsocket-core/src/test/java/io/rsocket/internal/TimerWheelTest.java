@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.internal;
+
+import org.junit.After;
+import org.junit.Test;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+public class TimerWheelTest {
+    private final TimerWheel timer = new TimerWheel(Duration.ofMillis(1), 8);
+
+    @After
+    public void tearDown() {
+        timer.dispose();
+    }
+
+    @Test(timeout = 2_000)
+    public void testRunsTimerAfterDelay() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+        // longer than one turn of the wheel
+        timer.schedule(latch::countDown, Duration.ofMillis(30));
+
+        latch.await();
+        assertThat("Timer ran early.", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                   greaterThanOrEqualTo(30L));
+    }
+
+    @Test(timeout = 2_000)
+    public void testCancelledTimerDoesNotRun() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch later = new CountDownLatch(1);
+        timer.schedule(runs::incrementAndGet, Duration.ofMillis(5)).dispose();
+        timer.schedule(later::countDown, Duration.ofMillis(20));
+
+        later.await();
+        assertThat("Cancelled timer ran.", runs.get(), is(0));
+    }
+
+    @Test(timeout = 2_000)
+    public void testRunsPeriodicTimerUntilCancelled() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(3);
+        Disposable periodic = timer.schedulePeriodically(() -> {
+            runs.incrementAndGet();
+            latch.countDown();
+        }, Duration.ofMillis(5));
+
+        latch.await();
+        periodic.dispose();
+        // a run may have started before the cancel
+        Thread.sleep(10);
+        int count = runs.get();
+        Thread.sleep(30);
+        assertThat("Periodic timer ran after cancel.", runs.get(), is(count));
+    }
+
+    @Test(timeout = 2_000)
+    public void testRunsManyTimersInOneSweep() throws Exception {
+        CountDownLatch latch = new CountDownLatch(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            timer.schedule(latch::countDown, Duration.ofMillis(i % 50));
+        }
+        latch.await();
+    }
+}
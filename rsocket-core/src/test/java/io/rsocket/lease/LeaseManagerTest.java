@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.lease;
+
+import io.rsocket.Frame;
+import io.rsocket.FrameType;
+import io.rsocket.internal.TimerWheel;
+import io.rsocket.server.AdaptiveConcurrencyLimiter;
+import io.rsocket.test.util.TestDuplexConnection;
+import org.junit.Test;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class LeaseManagerTest {
+
+    @Test(timeout = 2_000)
+    public void testGrantsLeaseRightAway() throws Exception {
+        TestDuplexConnection connection = new TestDuplexConnection();
+        Disposable leases = new LeaseManager(Duration.ofSeconds(10), () -> 42)
+            .grant(connection, connection.alloc(), Throwable::printStackTrace);
+
+        Frame lease = connection.awaitSend();
+        assertThat("Unexpected frame sent.", lease.getType(), is(FrameType.LEASE));
+        assertThat("Unexpected stream id.", lease.getStreamId(), is(0));
+        assertThat("Unexpected ttl.", Frame.Lease.ttl(lease), is(10_000));
+        assertThat("Unexpected number of requests.", Frame.Lease.numberOfRequests(lease), is(42));
+        leases.dispose();
+    }
+
+    @Test(timeout = 2_000)
+    public void testRenewsLeaseOnTimer() throws Exception {
+        TimerWheel timer = new TimerWheel(Duration.ofMillis(1), 64);
+        TestDuplexConnection connection = new TestDuplexConnection();
+        Disposable leases = new LeaseManager(Duration.ofMillis(20), () -> 7, timer)
+            .grant(connection, connection.alloc(), Throwable::printStackTrace);
+
+        connection.awaitSend();
+        Frame renewed = connection.awaitSend();
+        assertThat("Unexpected frame sent.", renewed.getType(), is(FrameType.LEASE));
+        assertThat("Unexpected number of requests.", Frame.Lease.numberOfRequests(renewed), is(7));
+        leases.dispose();
+        timer.dispose();
+    }
+
+    @Test(timeout = 2_000)
+    public void testSizesLeasesFromLimiter() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 10, 10, 5);
+        TestDuplexConnection connection = new TestDuplexConnection();
+        LeaseManager leaseManager = LeaseManager.fromLimiter(Duration.ofMillis(100), limiter);
+
+        // no latency measured yet, one request per permit of the limiter
+        Disposable leases = leaseManager.grant(connection, connection.alloc(), Throwable::printStackTrace);
+        assertThat("Unexpected number of requests.", Frame.Lease.numberOfRequests(connection.awaitSend()), is(10));
+        leases.dispose();
+
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire();
+            limiter.release(TimeUnit.MILLISECONDS.toMicros(10));
+        }
+        // 10 permits, 5 rounds of 10 ms until the lease is renewed after 50 ms
+        leases = leaseManager.grant(connection, connection.alloc(), Throwable::printStackTrace);
+        assertThat("Unexpected number of requests.", Frame.Lease.numberOfRequests(connection.awaitSend()), is(50));
+        leases.dispose();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.resume;
+
+import io.netty.buffer.Unpooled;
+import io.rsocket.Frame;
+import io.rsocket.FrameType;
+import io.rsocket.test.util.LocalDuplexConnection;
+import io.rsocket.util.PayloadImpl;
+import org.junit.Test;
+import reactor.core.publisher.DirectProcessor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+public class ResumableDuplexConnectionTest {
+
+    @Test(timeout = 2_000)
+    public void testReleasesFramesAcknowledgedByKeepalive() {
+        Peer peer = new Peer();
+        ResumableDuplexConnection resumable = resumable(peer, Duration.ofSeconds(10), 1024, new AtomicInteger());
+
+        resumable.sendOne(request(1)).block();
+        resumable.sendOne(request(3)).block();
+        int length = request(1).content().readableBytes();
+        assertThat("Unexpected first available position.", resumable.firstAvailablePosition(), is(0L));
+
+        Frame keepalive = Frame.Keepalive.from(Unpooled.EMPTY_BUFFER, false);
+        Frame.Keepalive.lastPosition(keepalive, length);
+        peer.receive.onNext(keepalive);
+        assertThat("Unexpected first available position.", resumable.firstAvailablePosition(), is((long) length));
+    }
+
+    @Test(timeout = 2_000)
+    public void testSendsImpliedPositionInKeepalive() {
+        Peer peer = new Peer();
+        ResumableDuplexConnection resumable = resumable(peer, Duration.ofSeconds(10), 1024, new AtomicInteger());
+
+        Frame request = request(2);
+        int length = request.content().readableBytes();
+        peer.receive.onNext(request);
+        resumable.sendOne(Frame.Keepalive.from(Unpooled.EMPTY_BUFFER, true)).block();
+
+        assertThat("Unexpected implied position.", resumable.impliedPosition(), is((long) length));
+        assertThat("Unexpected frames sent.", peer.sent, hasSize(1));
+        assertThat("Unexpected position in keepalive.", Frame.Keepalive.lastPosition(peer.sent.get(0)),
+                   is((long) length));
+    }
+
+    @Test(timeout = 2_000)
+    public void testResendsFramesNotReceivedAfterResume() {
+        AtomicInteger disconnects = new AtomicInteger();
+        Peer first = new Peer();
+        ResumableDuplexConnection resumable = resumable(first, Duration.ofSeconds(10), 1024, disconnects);
+
+        resumable.sendOne(request(1)).block();
+        resumable.sendOne(request(3)).block();
+        first.connection.close().block();
+        assertThat("Disconnect not handled.", disconnects.get(), is(1));
+        assertThat("Unexpected availability while disconnected.", resumable.availability(), is(0.0));
+
+        // sent while disconnected, only retained
+        resumable.sendOne(request(5)).block();
+
+        Peer second = new Peer();
+        long received = request(1).content().readableBytes();
+        assertThat("Resume rejected.", resumable.resume(second.connection, received), is(true));
+        resumable.sendOne(request(7)).block();
+
+        assertThat("Unexpected frames sent after resume.", second.streamIds(), contains(3, 5, 7));
+    }
+
+    @Test(timeout = 2_000)
+    public void testAnswersResumeWithImpliedPosition() {
+        Peer first = new Peer();
+        ResumableDuplexConnection resumable = resumable(first, Duration.ofSeconds(10), 1024, new AtomicInteger());
+        Frame request = request(1);
+        int length = request.content().readableBytes();
+        first.receive.onNext(request);
+        first.connection.close().block();
+
+        Peer second = new Peer();
+        assertThat("Resume rejected.", resumable.acceptResume(second.connection, 0, 0), is(true));
+
+        Frame resumeOk = second.sent.get(0);
+        assertThat("Unexpected frame sent.", resumeOk.getType(), is(FrameType.RESUME_OK));
+        assertThat("Unexpected position.", Frame.ResumeOk.lastReceivedClientPosition(resumeOk), is((long) length));
+    }
+
+    @Test(timeout = 2_000)
+    public void testRejectsResumeOfFramesNoLongerRetained() {
+        Peer first = new Peer();
+        int length = request(1).content().readableBytes();
+        ResumableDuplexConnection resumable = resumable(first, Duration.ofSeconds(10), length, new AtomicInteger());
+
+        resumable.sendOne(request(1)).block();
+        resumable.sendOne(request(3)).block();
+        first.connection.close().block();
+
+        assertThat("Resumed without the first frame.", resumable.resume(new Peer().connection, 0), is(false));
+        assertThat("Resume rejected.", resumable.resume(new Peer().connection, length), is(true));
+    }
+
+    @Test(timeout = 2_000)
+    public void testClosesSessionNotResumedInTime() {
+        Peer peer = new Peer();
+        ResumableDuplexConnection resumable = resumable(peer, Duration.ofMillis(10), 1024, new AtomicInteger());
+
+        peer.connection.close().block();
+        resumable.onClose().block();
+        assertThat("Session not closed.", resumable.isClosed(), is(true));
+        assertThat("Resumed a closed session.", resumable.resume(new Peer().connection, 0), is(false));
+    }
+
+    private static ResumableDuplexConnection resumable(Peer peer, Duration sessionDuration, int retentionCapacity,
+                                                       AtomicInteger disconnects) {
+        return new ResumableDuplexConnection(Unpooled.wrappedBuffer(new byte[] {1, 2, 3}), peer.connection,
+                                             sessionDuration, retentionCapacity,
+                                             r -> disconnects.incrementAndGet());
+    }
+
+    private static Frame request(int streamId) {
+        return Frame.Request.from(streamId, FrameType.REQUEST_RESPONSE, new PayloadImpl("hello"), 1);
+    }
+
+    private static final class Peer {
+        private final DirectProcessor<Frame> receive = DirectProcessor.create();
+        private final List<Frame> sent = new CopyOnWriteArrayList<>();
+        private final LocalDuplexConnection connection;
+
+        private Peer() {
+            DirectProcessor<Frame> send = DirectProcessor.create();
+            send.subscribe(sent::add);
+            connection = new LocalDuplexConnection("peer", send, receive);
+        }
+
+        private List<Integer> streamIds() {
+            List<Integer> streamIds = new CopyOnWriteArrayList<>();
+            sent.forEach(frame -> streamIds.add(frame.getStreamId()));
+            return streamIds;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.server;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    public void testRejectsOverLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 10);
+        assertThat("Permit not granted.", limiter.tryAcquire(), is(true));
+        assertThat("Permit not granted.", limiter.tryAcquire(), is(true));
+        assertThat("Permit granted over limit.", limiter.tryAcquire(), is(false));
+
+        limiter.release();
+        assertThat("Unexpected in flight.", limiter.inFlight(), is(1));
+        assertThat("Permit not granted.", limiter.tryAcquire(), is(true));
+    }
+
+    @Test
+    public void testGrowsWhileLatencyIsFlat() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 10);
+        for (int i = 0; i < 200; i++) {
+            limiter.tryAcquire();
+            limiter.release(100);
+        }
+        assertThat("Limit did not grow.", limiter.limit(), greaterThan(10));
+    }
+
+    @Test
+    public void testShrinksWhenLatencyRises() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 1, 100, 10);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(100);
+        }
+        int limit = limiter.limit();
+        for (int i = 0; i < 200; i++) {
+            limiter.tryAcquire();
+            limiter.release(1_000);
+        }
+        assertThat("Limit did not shrink.", limiter.limit(), lessThan(limit));
+        assertThat("Limit below minimum.", limiter.limit(), greaterThan(0));
+    }
+
+    @Test(timeout = 10_000)
+    public void testKeepsAdaptingAfterConcurrentSamples() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 10);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    limiter.release(100);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int i = 0; i < 20; i++) {
+            limiter.release(1_000);
+        }
+        assertThat("Window did not end.", limiter.averageLatency(), is(1_000L));
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.rsocket.Frame;
+import io.rsocket.FrameType;
+import io.rsocket.Payload;
+import io.rsocket.TestUtil;
+import io.reactivex.subscribers.TestSubscriber;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class DeadlinesTest {
+
+    @Test
+    public void testDeadlineRoundTrip() {
+        Payload payload = Deadlines.withDeadline(new PayloadImpl("data", "metadata"), 1234L);
+
+        assertThat("Unexpected deadline.", Deadlines.deadline(payload), is(1234L));
+        Payload stripped = Deadlines.withoutDeadline(payload);
+        assertThat("Unexpected deadline.", Deadlines.deadline(stripped), is(Deadlines.NO_DEADLINE));
+        assertThat("Unexpected data.", TestUtil.byteToString(stripped.getData()), equalTo("data"));
+        assertThat("Unexpected metadata.", TestUtil.byteToString(stripped.getMetadata()), equalTo("metadata"));
+    }
+
+    @Test
+    public void testStrippingReleasesFramePayload() {
+        Payload payload = Deadlines.withDeadline(new PayloadImpl("data", "metadata"), 1234L);
+        Frame frame = Frame.Request.from(UnpooledByteBufAllocator.DEFAULT, 1, FrameType.REQUEST_RESPONSE, payload, 1);
+        ByteBuf content = frame.content();
+        FramePayload framePayload = FramePayload.from(frame);
+        frame.release();
+
+        Payload stripped = Deadlines.withoutDeadline(framePayload);
+        assertThat("Frame not released.", content.refCnt(), is(0));
+        assertThat("Unexpected data.", TestUtil.byteToString(stripped.getData()), equalTo("data"));
+        assertThat("Unexpected metadata.", TestUtil.byteToString(stripped.getMetadata()), equalTo("metadata"));
+    }
+
+    @Test
+    public void testEarlierDeadlineIsKept() {
+        Payload payload = Deadlines.withDeadline(Deadlines.withDeadline(new PayloadImpl("data"), 10L), 20L);
+
+        assertThat("Unexpected deadline.", Deadlines.deadline(payload), is(10L));
+        assertThat("Deadline not replaced.", Deadlines.withoutDeadline(payload).getMetadata().remaining(), is(0));
+    }
+
+    @Test
+    public void testPayloadWithoutDeadline() {
+        Payload payload = new PayloadImpl("data", "metadata");
+
+        assertThat("Unexpected deadline.", Deadlines.deadline(payload), is(Deadlines.NO_DEADLINE));
+        assertThat("Payload without deadline copied.", Deadlines.withoutDeadline(payload) == payload, is(true));
+    }
+
+    @Test
+    public void testMetadataLikeADeadlineIsApplicationMetadata() {
+        Payload payload = Deadlines.withDeadline(new PayloadImpl(bytes("data"), markedMetadata()), 1234L);
+
+        assertThat("Unexpected deadline.", Deadlines.deadline(payload), is(1234L));
+        Payload stripped = Deadlines.withoutDeadline(payload);
+        assertThat("Application metadata changed.", stripped.getMetadata(), equalTo(markedMetadata()));
+    }
+
+    @Test
+    public void testEncodeEscapesMetadataLikeADeadline() {
+        Payload payload = new PayloadImpl(bytes("data"), markedMetadata());
+
+        assertThat("Metadata escaped without negotiation.", Deadlines.encode(payload, false) == payload, is(true));
+        Payload escaped = Deadlines.encode(payload, true);
+        assertThat("Unexpected deadline.", Deadlines.deadline(escaped), is(Deadlines.NO_DEADLINE));
+        assertThat("Application metadata changed.", Deadlines.withoutDeadline(escaped).getMetadata(),
+                   equalTo(markedMetadata()));
+        Payload plain = new PayloadImpl("data", "metadata");
+        assertThat("Plain metadata escaped.", Deadlines.encode(plain, true) == plain, is(true));
+    }
+
+    @Test
+    public void testEncodeRemovesDeadlineWithoutNegotiation() {
+        Payload payload = Deadlines.withDeadline(new PayloadImpl("data", "metadata"), 1234L);
+
+        assertThat("Deadline removed despite negotiation.", Deadlines.encode(payload, true) == payload, is(true));
+        Payload encoded = Deadlines.encode(payload, false);
+        assertThat("Unexpected deadline.", Deadlines.deadline(encoded), is(Deadlines.NO_DEADLINE));
+        assertThat("Unexpected metadata.", TestUtil.byteToString(encoded.getMetadata()), equalTo("metadata"));
+    }
+
+    @Test(timeout = 2000)
+    public void testMonoCancelledAtDeadline() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        TestSubscriber<Object> subscriber = TestSubscriber.create();
+        Deadlines.expireAt(Mono.never().doOnCancel(() -> cancelled.set(true)), System.currentTimeMillis() + 20,
+                           TimeoutException::new)
+            .subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent();
+        subscriber.assertError(TimeoutException.class);
+        assertThat("Source not cancelled.", cancelled.get(), is(true));
+    }
+
+    @Test(timeout = 2000)
+    public void testFluxCancelledAtDeadline() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        TestSubscriber<Object> subscriber = TestSubscriber.create();
+        Deadlines.expireAt(Flux.concat(Flux.just(1), Flux.never()).doOnCancel(() -> cancelled.set(true)),
+                           System.currentTimeMillis() + 200, TimeoutException::new)
+            .subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent();
+        subscriber.assertValues(1);
+        subscriber.assertError(TimeoutException.class);
+        assertThat("Source not cancelled.", cancelled.get(), is(true));
+    }
+
+    @Test(timeout = 2000)
+    public void testCompletesBeforeDeadline() {
+        TestSubscriber<Object> subscriber = TestSubscriber.create();
+        Deadlines.expireAt(Mono.just(1), System.currentTimeMillis() + 10_000, TimeoutException::new)
+            .subscribe(subscriber);
+
+        subscriber.assertValues(1);
+        subscriber.assertComplete();
+    }
+
+    private static ByteBuffer markedMetadata() {
+        ByteBuffer metadata = ByteBuffer.allocate(Deadlines.PREFIX_LENGTH + 1);
+        metadata.putInt(Deadlines.MARKER).putLong(42L).put((byte) 1).flip();
+        return metadata;
+    }
+
+    private static ByteBuffer bytes(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
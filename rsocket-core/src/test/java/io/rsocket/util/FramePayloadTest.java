@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ * <p>
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ *  the License. You may obtain a copy of the License at
+ *  <p>
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  <p>
+ *  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations under the License.
+ */
+
+package io.rsocket.util;
+
+import io.rsocket.Frame;
+import io.rsocket.FrameType;
+import io.rsocket.TestUtil;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class FramePayloadTest {
+    public static final String DATA_VAL = "data";
+    public static final String METADATA_VAL = "metadata";
+
+    @Test
+    public void testDataAndMetadata() throws Exception {
+        Frame frame = Frame.PayloadFrame.from(1, FrameType.NEXT, new PayloadImpl(DATA_VAL, METADATA_VAL));
+        FramePayload p = FramePayload.from(frame);
+        frame.release();
+
+        assertThat("Unexpected data.", TestUtil.byteToString(p.getData()), equalTo(DATA_VAL));
+        assertThat("Unexpected metadata.", TestUtil.byteToString(p.getMetadata()), equalTo(METADATA_VAL));
+        // views are independent, reading one does not consume the payload
+        assertThat("Unexpected data.", TestUtil.byteToString(p.getData()), equalTo(DATA_VAL));
+        assertThat("Unexpected data.", p.sliceData().toString(StandardCharsets.UTF_8), equalTo(DATA_VAL));
+        assertThat("Unexpected metadata.", p.sliceMetadata().toString(StandardCharsets.UTF_8), equalTo(METADATA_VAL));
+
+        p.release();
+    }
+
+    @Test
+    public void testSharesFrameContent() throws Exception {
+        Frame frame = Frame.PayloadFrame.from(1, FrameType.NEXT, new PayloadImpl(DATA_VAL, METADATA_VAL));
+        FramePayload p = FramePayload.from(frame);
+
+        assertThat("Payload does not share the frame content.", p.sliceData().unwrap(), sameInstance(frame.content()));
+        assertThat("Unexpected frame reference count.", frame.refCnt(), is(2));
+
+        frame.release();
+        p.release();
+    }
+
+    @Test
+    public void testReleaseReleasesFrame() throws Exception {
+        Frame frame = Frame.PayloadFrame.from(1, FrameType.NEXT, new PayloadImpl(DATA_VAL));
+        FramePayload p = FramePayload.from(frame);
+        frame.release();
+        assertThat("Unexpected frame reference count.", frame.refCnt(), is(1));
+
+        p.retain();
+        assertThat("Payload released too early.", p.release(), is(false));
+        assertThat("Payload not released.", p.release(), is(true));
+        assertThat("Unexpected payload reference count.", p.refCnt(), is(0));
+    }
+
+    @Test
+    public void testEmptyPayload() throws Exception {
+        Frame frame = Frame.PayloadFrame.from(1, FrameType.NEXT, PayloadImpl.EMPTY);
+        FramePayload p = FramePayload.from(frame);
+        frame.release();
+
+        assertThat("Unexpected data.", p.getData(), sameInstance(Frame.NULL_BYTEBUFFER));
+        assertThat("Unexpected metadata.", p.getMetadata(), sameInstance(Frame.NULL_BYTEBUFFER));
+
+        p.release();
+    }
+}
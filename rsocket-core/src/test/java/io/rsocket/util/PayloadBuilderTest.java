@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ * <p>
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ *  the License. You may obtain a copy of the License at
+ *  <p>
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  <p>
+ *  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations under the License.
+ */
+
+package io.rsocket.util;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.rsocket.Frame;
+import io.rsocket.FrameType;
+import io.rsocket.TestUtil;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class PayloadBuilderTest {
+    public static final String DATA_VAL = "data";
+    public static final String METADATA_VAL = "metadata";
+
+    @Test
+    public void testRequestFrameMatchesCopyingEncoder() {
+        EncodedPayload payload = newPayload(DATA_VAL, METADATA_VAL);
+        assertThat("Unexpected data.", TestUtil.byteToString(payload.getData()), equalTo(DATA_VAL));
+        assertThat("Unexpected metadata.", TestUtil.byteToString(payload.getMetadata()), equalTo(METADATA_VAL));
+
+        Frame encoded = Frame.Request.from(5, FrameType.REQUEST_STREAM, payload, 42);
+        Frame copied = Frame.Request.from(5, FrameType.REQUEST_STREAM, new PayloadImpl(DATA_VAL, METADATA_VAL), 42);
+
+        assertThat("Unexpected frame encoding.", ByteBufUtil.equals(encoded.content(), copied.content()), is(true));
+        assertThat("Unexpected stream id.", encoded.getStreamId(), is(5));
+        assertThat("Unexpected initial request n.", Frame.Request.initialRequestN(encoded), is(42));
+        assertThat("Unexpected data.", TestUtil.byteToString(encoded.getData()), equalTo(DATA_VAL));
+        assertThat("Unexpected metadata.", TestUtil.byteToString(encoded.getMetadata()), equalTo(METADATA_VAL));
+
+        encoded.release();
+        copied.release();
+    }
+
+    @Test
+    public void testPayloadFrameMatchesCopyingEncoder() {
+        Frame encoded = Frame.PayloadFrame.from(2, FrameType.NEXT, newPayload(DATA_VAL, METADATA_VAL));
+        Frame copied = Frame.PayloadFrame.from(2, FrameType.NEXT, new PayloadImpl(DATA_VAL, METADATA_VAL));
+
+        assertThat("Unexpected frame encoding.", ByteBufUtil.equals(encoded.content(), copied.content()), is(true));
+        assertThat("Unexpected frame type.", encoded.getType(), is(FrameType.NEXT));
+
+        encoded.release();
+        copied.release();
+    }
+
+    @Test
+    public void testDataOnly() {
+        PayloadBuilder builder = PayloadBuilder.create(ByteBufAllocator.DEFAULT);
+        builder.data().writeCharSequence(DATA_VAL, StandardCharsets.UTF_8);
+
+        Frame encoded = Frame.Request.from(1, FrameType.REQUEST_RESPONSE, builder.build(), 1);
+        Frame copied = Frame.Request.from(1, FrameType.REQUEST_RESPONSE, new PayloadImpl(DATA_VAL), 1);
+
+        assertThat("Unexpected frame encoding.", ByteBufUtil.equals(encoded.content(), copied.content()), is(true));
+        assertThat("Unexpected metadata length.", encoded.getMetadata().remaining(), is(0));
+
+        encoded.release();
+        copied.release();
+    }
+
+    @Test
+    public void testReleasingFrameReleasesPayload() {
+        EncodedPayload payload = newPayload(DATA_VAL, METADATA_VAL);
+        Frame frame = Frame.PayloadFrame.from(2, FrameType.NEXT_COMPLETE, payload);
+
+        assertThat("Unexpected payload reference count.", payload.refCnt(), is(0));
+        assertThat("Frame not released.", frame.release(), is(true));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPayloadCanOnlyBeSentOnce() {
+        EncodedPayload payload = newPayload(DATA_VAL, METADATA_VAL);
+        Frame.PayloadFrame.from(2, FrameType.NEXT, payload).release();
+        Frame.PayloadFrame.from(4, FrameType.NEXT, payload);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMetadataAfterData() {
+        PayloadBuilder builder = PayloadBuilder.create(ByteBufAllocator.DEFAULT);
+        builder.data();
+        try {
+            builder.metadata();
+        } finally {
+            builder.discard();
+        }
+    }
+
+    private static EncodedPayload newPayload(String data, String metadata) {
+        PayloadBuilder builder = PayloadBuilder.create(ByteBufAllocator.DEFAULT);
+        builder.metadata().writeCharSequence(metadata, StandardCharsets.UTF_8);
+        builder.data().writeCharSequence(data, StandardCharsets.UTF_8);
+        return builder.build();
+    }
+}
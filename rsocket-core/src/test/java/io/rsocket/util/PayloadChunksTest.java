@@ -0,0 +1,118 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.rsocket.Frame;
+import io.rsocket.FrameType;
+import io.rsocket.Payload;
+import io.rsocket.TestUtil;
+import io.reactivex.subscribers.TestSubscriber;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class PayloadChunksTest {
+
+    @Test
+    public void testSplitsContentIntoChunks() {
+        List<Payload> payloads = PayloadChunks
+            .toPayloads(Unpooled.copiedBuffer("route", StandardCharsets.UTF_8),
+                        Flux.just(buffer("abcdefg"), buffer(""), buffer("hij")), 3, ByteBufAllocator.DEFAULT)
+            .collectList()
+            .block();
+
+        List<String> data = payloads.stream().map(p -> TestUtil.byteToString(p.getData())).collect(Collectors.toList());
+        assertThat("Unexpected chunks.", data, contains("abc", "def", "g", "hij"));
+        assertThat("Unexpected metadata.", TestUtil.byteToString(payloads.get(0).getMetadata()), equalTo("route"));
+        assertThat("Unexpected metadata.", payloads.get(1).getMetadata().remaining(), is(0));
+    }
+
+    @Test
+    public void testMetadataWithoutContent() {
+        List<Payload> payloads = PayloadChunks
+            .toPayloads(Unpooled.copiedBuffer("route", StandardCharsets.UTF_8), Flux.empty(), 3,
+                        ByteBufAllocator.DEFAULT)
+            .collectList()
+            .block();
+
+        assertThat("Unexpected payloads.", payloads.size(), is(1));
+        assertThat("Unexpected metadata.", TestUtil.byteToString(payloads.get(0).getMetadata()), equalTo("route"));
+    }
+
+    @Test
+    public void testUnsentMetadataReleasedOnCancelAndError() {
+        ByteBuf metadata = buffer("route");
+        TestSubscriber<Payload> subscriber = TestSubscriber.create(0);
+        PayloadChunks.toPayloads(metadata, Flux.never(), 3, ByteBufAllocator.DEFAULT).subscribe(subscriber);
+        subscriber.cancel();
+        assertThat("Metadata not released on cancel.", metadata.refCnt(), is(0));
+
+        ByteBuf failedMetadata = buffer("route");
+        PayloadChunks
+            .toPayloads(failedMetadata, Flux.error(new IllegalStateException()), 3, ByteBufAllocator.DEFAULT)
+            .subscribe(TestSubscriber.create());
+        assertThat("Metadata not released on error.", failedMetadata.refCnt(), is(0));
+    }
+
+    @Test
+    public void testContentRequestedAsChunksAre() {
+        AtomicLong requested = new AtomicLong();
+        TestSubscriber<Payload> subscriber = TestSubscriber.create(1);
+        PayloadChunks
+            .toPayloads(Flux.range(0, 100).map(i -> buffer("abcdef")).hide().doOnRequest(requested::addAndGet), 2,
+                        ByteBufAllocator.DEFAULT)
+            .subscribe(subscriber);
+
+        subscriber.assertValueCount(1);
+        assertThat("Too many buffers requested.", requested.get(), lessThanOrEqualTo(2L));
+
+        subscriber.request(3);
+        subscriber.assertValueCount(4);
+        assertThat("Too many buffers requested.", requested.get(), lessThanOrEqualTo(3L));
+    }
+
+    @Test
+    public void testChunksOfFramePayloads() {
+        Frame frame = Frame.PayloadFrame.from(1, FrameType.NEXT, new PayloadImpl("data"));
+        TestSubscriber<ByteBuf> subscriber = TestSubscriber.create();
+        PayloadChunks.toChunks(Flux.just(FramePayload.from(frame))).subscribe(subscriber);
+        frame.release();
+
+        ByteBuf chunk = subscriber.values().get(0);
+        assertThat("Unexpected chunk.", chunk.toString(StandardCharsets.UTF_8), equalTo("data"));
+        assertThat("Frame released before the chunk.", chunk.refCnt(), is(1));
+        chunk.release();
+        assertThat("Chunk not released.", chunk.refCnt(), is(0));
+    }
+
+    private static ByteBuf buffer(String content) {
+        return Unpooled.copiedBuffer(content, StandardCharsets.UTF_8);
+    }
+}
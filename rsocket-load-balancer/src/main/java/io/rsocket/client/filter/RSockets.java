@@ -18,6 +18,8 @@ package io.rsocket.client.filter;
 
 import io.rsocket.Payload;
 import io.rsocket.RSocket;
+import io.rsocket.exceptions.TimeoutException;
+import io.rsocket.util.Deadlines;
 import io.rsocket.util.RSocketProxy;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
@@ -36,7 +38,8 @@ public final class RSockets {
 
     /**
      * Provides a mapping function to wrap a {@code RSocket} such that all requests will timeout, if not
-     * completed after the specified {@code timeout}.
+     * completed after the specified {@code timeout}. The responder is not told about the timeout and keeps working
+     * on requests that timed out, see {@link #deadline(Duration)}.
      *
      * @param timeout timeout duration.
      *
@@ -71,6 +74,70 @@ public final class RSockets {
         };
     }
 
+    /**
+     * Provides a mapping function to wrap a {@code RSocket} such that all requests must complete within the specified
+     * {@code timeout}. Requests still running at their deadline are cancelled and fail with a
+     * {@link TimeoutException}. If the connection negotiated deadlines, see
+     * {@link io.rsocket.RSocketFactory.ClientRSocketFactory#honorDeadlines()}, the deadline of each request is sent to
+     * the responder in the metadata of the request, see {@link Deadlines}, so the responder stops working on requests
+     * that timed out.
+     *
+     * @param timeout time from the subscription to a request until its deadline.
+     *
+     * @return Function to transform any socket into a socket sending deadlines.
+     */
+    public static Function<RSocket, RSocket> deadline(Duration timeout) {
+        final long timeoutMillis = timeout.toMillis();
+        return source -> new RSocketProxy(source) {
+            @Override
+            public Mono<Void> fireAndForget(Payload payload) {
+                return Mono.defer(() -> {
+                    final long deadline = System.currentTimeMillis() + timeoutMillis;
+                    return Deadlines.expireAt(source.fireAndForget(Deadlines.withDeadline(payload, deadline)),
+                                              deadline, TimeoutException::new);
+                });
+            }
+
+            @Override
+            public Mono<Payload> requestResponse(Payload payload) {
+                return Mono.defer(() -> {
+                    final long deadline = System.currentTimeMillis() + timeoutMillis;
+                    return Deadlines.expireAt(source.requestResponse(Deadlines.withDeadline(payload, deadline)),
+                                              deadline, TimeoutException::new);
+                });
+            }
+
+            @Override
+            public Flux<Payload> requestStream(Payload payload) {
+                return Flux.defer(() -> {
+                    final long deadline = System.currentTimeMillis() + timeoutMillis;
+                    return Deadlines.expireAt(source.requestStream(Deadlines.withDeadline(payload, deadline)),
+                                              deadline, TimeoutException::new);
+                });
+            }
+
+            @Override
+            public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+                return Flux.defer(() -> {
+                    final long deadline = System.currentTimeMillis() + timeoutMillis;
+                    // only the first payload starts the stream on the responder
+                    final AtomicBoolean first = new AtomicBoolean(true);
+                    final Flux<Payload> withDeadline = Flux.from(payloads)
+                        .map(payload -> first.compareAndSet(true, false)
+                            ? Deadlines.withDeadline(payload, deadline) : payload);
+                    return Deadlines.expireAt(source.requestChannel(withDeadline), deadline, TimeoutException::new);
+                });
+            }
+
+            @Override
+            public Mono<Void> metadataPush(Payload payload) {
+                return Mono.defer(() -> Deadlines.expireAt(source.metadataPush(payload),
+                                                           System.currentTimeMillis() + timeoutMillis,
+                                                           TimeoutException::new));
+            }
+        };
+    }
+
     /**
      * Provides a mapping function to wrap a {@code RSocket} such that a call to {@link RSocket#close()}
      * does not cancel all pending requests. Instead, it will wait for all pending requests to finish and then close
@@ -20,15 +20,19 @@ import io.rsocket.Payload;
 import io.rsocket.RSocket;
 import io.rsocket.client.filter.RSockets;
 import io.rsocket.exceptions.TimeoutException;
+import io.rsocket.util.Deadlines;
 import io.rsocket.util.PayloadImpl;
+import io.reactivex.subscribers.TestSubscriber;
 import org.hamcrest.MatcherAssert;
 import org.junit.Test;
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
 
 import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
 
 public class TimeoutClientTest {
     @Test
@@ -58,4 +62,21 @@ public class TimeoutClientTest {
             }
         });
     }
-}
\ No newline at end of file
+
+    @Test(timeout = 2000)
+    public void testDeadlineSocket() {
+        AtomicLong deadline = new AtomicLong();
+        TestingRSocket socket = new TestingRSocket((subscriber, payload) -> {
+            deadline.set(Deadlines.deadline(payload));
+            return false;
+        });
+        RSocket withDeadline = RSockets.deadline(Duration.ofMillis(50)).apply(socket);
+
+        TestSubscriber<Payload> subscriber = TestSubscriber.create();
+        withDeadline.requestResponse(PayloadImpl.EMPTY).subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent();
+        subscriber.assertError(TimeoutException.class);
+        MatcherAssert.assertThat("Deadline not sent.", deadline.get() != Deadlines.NO_DEADLINE, is(true));
+    }
+}
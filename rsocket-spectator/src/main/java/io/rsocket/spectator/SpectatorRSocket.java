@@ -5,6 +5,7 @@ import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
 import io.rsocket.Payload;
 import io.rsocket.RSocket;
+import io.rsocket.util.PayloadBuilder;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -195,6 +196,11 @@ public class SpectatorRSocket implements RSocket {
         return delegate.onClose();
     }
 
+    @Override
+    public PayloadBuilder payloadBuilder() {
+        return delegate.payloadBuilder();
+    }
+
     @Override
     public double availability() {
         return delegate.availability();
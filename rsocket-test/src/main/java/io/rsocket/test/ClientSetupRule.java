@@ -55,7 +55,11 @@ public class ClientSetupRule<T> extends ExternalResource {
             public void evaluate() throws Throwable {
                 rSocketServer.accept(address.get());
                 client = rSocketClient.apply(address.get());
-                base.evaluate();
+                try {
+                    base.evaluate();
+                } finally {
+                    after();
+                }
             }
         };
     }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.aeron;
+
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.RSocketFactory;
+import io.rsocket.aeron.client.AeronClientTransport;
+import io.rsocket.aeron.internal.AeronWrapper;
+import io.rsocket.aeron.internal.Constants;
+import io.rsocket.aeron.internal.DefaultAeronWrapper;
+import io.rsocket.aeron.internal.SingleThreadedEventLoop;
+import io.rsocket.aeron.internal.reactivestreams.AeronClientChannelConnector;
+import io.rsocket.aeron.internal.reactivestreams.AeronSocketAddress;
+import io.rsocket.aeron.server.AeronServerTransport;
+import io.rsocket.test.PingHandler;
+import io.rsocket.transport.ClientTransport;
+import io.rsocket.transport.netty.client.TcpClientTransport;
+import io.rsocket.transport.netty.server.TcpServerTransport;
+import io.rsocket.util.PayloadImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip latency of a request/response over the Aeron IPC channel of an embedded media driver compared to TCP
+ * over the loopback interface.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@State(Scope.Benchmark)
+public class AeronTransportPerf {
+    private static final int TCP_PORT = 7879;
+
+    @Param({"aeron-ipc", "tcp"})
+    public String transport;
+
+    @Param({"64", "1024"})
+    public int payloadSize;
+
+    private MediaDriver mediaDriver;
+    private RSocket client;
+    private Payload payload;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        byte[] data = new byte[payloadSize];
+        payload = new PayloadImpl(data);
+
+        ClientTransport clientTransport;
+        if ("aeron-ipc".equals(transport)) {
+            mediaDriver = MediaDriver.launch(new MediaDriver.Context()
+                .threadingMode(ThreadingMode.DEDICATED)
+                .dirsDeleteOnStart(true));
+            AeronWrapper aeronWrapper = new DefaultAeronWrapper();
+
+            RSocketFactory
+                .receive()
+                .acceptor(new PingHandler(data))
+                .transport(new AeronServerTransport(aeronWrapper, AeronSocketAddress.ipc(), new SingleThreadedEventLoop("server")))
+                .start()
+                .block();
+
+            SingleThreadedEventLoop clientEventLoop = new SingleThreadedEventLoop("client");
+            AeronClientChannelConnector.AeronClientConfig config = AeronClientChannelConnector
+                .AeronClientConfig.create(
+                    AeronSocketAddress.ipc(),
+                    AeronSocketAddress.ipc(),
+                    Constants.CLIENT_STREAM_ID,
+                    Constants.SERVER_STREAM_ID,
+                    clientEventLoop);
+            clientTransport = new AeronClientTransport(
+                AeronClientChannelConnector.create(aeronWrapper, AeronSocketAddress.ipc(), clientEventLoop), config);
+        } else {
+            RSocketFactory
+                .receive()
+                .acceptor(new PingHandler(data))
+                .transport(TcpServerTransport.create(TCP_PORT))
+                .start()
+                .block();
+
+            clientTransport = TcpClientTransport.create(TCP_PORT);
+        }
+
+        client = RSocketFactory
+            .connect()
+            .transport(clientTransport)
+            .start()
+            .block();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close().block();
+        if (mediaDriver != null) {
+            mediaDriver.close();
+        }
+    }
+
+    @Benchmark
+    public Payload requestResponse() {
+        return client.requestResponse(payload).block();
+    }
+}
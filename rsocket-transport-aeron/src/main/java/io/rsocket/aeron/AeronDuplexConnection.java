@@ -15,10 +15,13 @@
  */
 package io.rsocket.aeron;
 
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.rsocket.DuplexConnection;
 import io.rsocket.Frame;
 import io.rsocket.aeron.internal.reactivestreams.AeronChannel;
+import io.rsocket.aeron.internal.reactivestreams.AeronOutPublisher;
+import org.agrona.DirectBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
@@ -26,33 +29,44 @@ import reactor.core.publisher.Mono;
 import reactor.core.publisher.MonoProcessor;
 
 /**
- * Implementation of {@link DuplexConnection} over Aeron using an {@link io.rsocket.aeron.internal.reactivestreams.AeronChannel}
+ * Implementation of {@link DuplexConnection} over Aeron using an {@link io.rsocket.aeron.internal.reactivestreams.AeronChannel}.
+ * Outbound frames are copied straight into the publication, inbound frames are copied once out of the log buffer into
+ * buffers of the connection's {@link ByteBufAllocator}.
  */
 public class AeronDuplexConnection implements DuplexConnection {
     private final String name;
     private final AeronChannel channel;
+    private final ByteBufAllocator allocator;
+    private final Flux<Frame> frames;
     private final MonoProcessor<Void> emptySubject;
 
     public AeronDuplexConnection(String name, AeronChannel channel) {
+        this(name, channel, ByteBufAllocator.DEFAULT);
+    }
+
+    public AeronDuplexConnection(String name, AeronChannel channel, ByteBufAllocator allocator) {
         this.name = name;
         this.channel = channel;
+        this.allocator = allocator;
+        this.frames = channel
+            .receive(new FrameDecoder(allocator))
+            .doOnError(throwable -> throwable.printStackTrace());
         this.emptySubject = MonoProcessor.create();
     }
 
     @Override
     public Mono<Void> send(Publisher<Frame> frame) {
-        Flux<UnsafeBuffer> buffers = Flux.from(frame)
-            .map(f -> new UnsafeBuffer(f.content().nioBuffer()));
-
-        return channel.send(buffers);
+        return channel.sendAndRelease(frame);
     }
 
     @Override
     public Flux<Frame> receive() {
-        return channel
-            .receive()
-            .map(b -> Frame.from(Unpooled.wrappedBuffer(b.byteBuffer())))
-            .doOnError(throwable -> throwable.printStackTrace());
+        return frames;
+    }
+
+    @Override
+    public ByteBufAllocator alloc() {
+        return allocator;
     }
 
     @Override
@@ -86,4 +100,35 @@ public class AeronDuplexConnection implements DuplexConnection {
             ", emptySubject=" + emptySubject +
             '}';
     }
+
+    /**
+     * Copies a received fragment into a buffer of the allocator, works for both direct and heap allocators.
+     */
+    private static final class FrameDecoder implements AeronOutPublisher.FragmentDecoder<Frame> {
+        private final ByteBufAllocator allocator;
+        // reused view over the memory of direct target buffers
+        private final UnsafeBuffer view;
+
+        private FrameDecoder(ByteBufAllocator allocator) {
+            this.allocator = allocator;
+            this.view = new UnsafeBuffer(new byte[0]);
+        }
+
+        @Override
+        public Frame decode(DirectBuffer buffer, int offset, int length) {
+            final ByteBuf content = allocator.buffer(length);
+            final int index = content.writerIndex();
+            if (content.hasMemoryAddress()) {
+                view.wrap(content.memoryAddress() + index, length);
+                buffer.getBytes(offset, view, 0, length);
+            } else if (content.hasArray()) {
+                buffer.getBytes(offset, content.array(), content.arrayOffset() + index, length);
+            } else {
+                buffer.getBytes(offset, content.nioBuffer(index, length), length);
+            }
+            content.writerIndex(index + length);
+
+            return Frame.from(content);
+        }
+    }
 }
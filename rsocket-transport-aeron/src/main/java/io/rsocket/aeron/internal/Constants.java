@@ -17,9 +17,11 @@ package io.rsocket.aeron.internal;
 
 
 import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.BusySpinIdleStrategy;
 import org.agrona.concurrent.IdleStrategy;
 import org.agrona.concurrent.NoOpIdleStrategy;
 import org.agrona.concurrent.SleepingIdleStrategy;
+import org.agrona.concurrent.YieldingIdleStrategy;
 
 import java.util.concurrent.TimeUnit;
 
@@ -29,21 +31,31 @@ public final class Constants {
     public static final int CLIENT_STREAM_ID = 1;
     public static final int SERVER_MANAGEMENT_STREAM_ID = 10;
     public static final int CLIENT_MANAGEMENT_STREAM_ID = 11;
-    public static final IdleStrategy EVENT_LOOP_IDLE_STRATEGY;
     public static final int AERON_MTU_SIZE = Integer.getInteger("aeron.mtu.length", 4096);
 
-    static {
-        String idlStrategy = System.getProperty("idleStrategy");
+    private static final String EVENT_LOOP_IDLE_STRATEGY = System.getProperty("idleStrategy");
 
-        if (NoOpIdleStrategy.class.getName().equalsIgnoreCase(idlStrategy)) {
-            EVENT_LOOP_IDLE_STRATEGY = new NoOpIdleStrategy();
-        } else if (SleepingIdleStrategy.class.getName().equalsIgnoreCase(idlStrategy)) {
-            EVENT_LOOP_IDLE_STRATEGY = new SleepingIdleStrategy(TimeUnit.MILLISECONDS.toNanos(10));
-        } else {
-            EVENT_LOOP_IDLE_STRATEGY = new BackoffIdleStrategy(1, 10, 1_000, 100_000);
-        }
+    private Constants() {
     }
 
-    private Constants() {
+    /**
+     * Creates the idle strategy of an event loop selected by the {@code idleStrategy} system property, the class name
+     * of a busy spin, no-op, yielding or sleeping (parking) strategy, backing off by default. Idle strategies hold
+     * state, so every event loop needs its own instance.
+     *
+     * @return new idle strategy
+     */
+    public static IdleStrategy eventLoopIdleStrategy() {
+        if (NoOpIdleStrategy.class.getName().equalsIgnoreCase(EVENT_LOOP_IDLE_STRATEGY)) {
+            return new NoOpIdleStrategy();
+        } else if (BusySpinIdleStrategy.class.getName().equalsIgnoreCase(EVENT_LOOP_IDLE_STRATEGY)) {
+            return new BusySpinIdleStrategy();
+        } else if (YieldingIdleStrategy.class.getName().equalsIgnoreCase(EVENT_LOOP_IDLE_STRATEGY)) {
+            return new YieldingIdleStrategy();
+        } else if (SleepingIdleStrategy.class.getName().equalsIgnoreCase(EVENT_LOOP_IDLE_STRATEGY)) {
+            return new SleepingIdleStrategy(TimeUnit.MILLISECONDS.toNanos(10));
+        } else {
+            return new BackoffIdleStrategy(1, 10, 1_000, 100_000);
+        }
     }
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.aeron.internal;
+
+import org.agrona.concurrent.IdleStrategy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Fixed pool of {@link SingleThreadedEventLoop}s that channels are sharded across round-robin, so that polling and
+ * sending of different channels spreads over several cores.
+ */
+public class EventLoopGroup {
+    private final SingleThreadedEventLoop[] eventLoops;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public EventLoopGroup(String name, int size) {
+        this(name, size, Constants::eventLoopIdleStrategy, index -> {});
+    }
+
+    /**
+     * @param name prefix of the loop names
+     * @param size number of loops
+     * @param idleStrategySupplier supplies the idle strategy of each loop
+     * @param threadInitializer called on the thread of each loop with the index of the loop before it runs any
+     * event, e.g. to pin the loop to a CPU with an affinity library
+     */
+    public EventLoopGroup(String name, int size, Supplier<IdleStrategy> idleStrategySupplier, IntConsumer threadInitializer) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be greater than 0");
+        }
+        this.eventLoops = new SingleThreadedEventLoop[size];
+        for (int i = 0; i < size; i++) {
+            final int index = i;
+            eventLoops[i] = new SingleThreadedEventLoop(
+                name + "-" + i, idleStrategySupplier.get(), () -> threadInitializer.accept(index));
+        }
+    }
+
+    /**
+     * @return the loop the next channel is assigned to
+     */
+    public EventLoop next() {
+        return eventLoops[(next.getAndIncrement() & Integer.MAX_VALUE) % eventLoops.length];
+    }
+
+    public int size() {
+        return eventLoops.length;
+    }
+}
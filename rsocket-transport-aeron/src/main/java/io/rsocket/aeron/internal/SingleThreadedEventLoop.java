@@ -16,7 +16,7 @@
 package io.rsocket.aeron.internal;
 
 import org.agrona.concurrent.IdleStrategy;
-import org.agrona.concurrent.OneToOneConcurrentArrayQueue;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,64 +24,74 @@ import java.util.concurrent.locks.LockSupport;
 import java.util.function.IntSupplier;
 
 /**
- *
+ * {@link EventLoop} running on a single daemon thread. Any number of threads submit to a lock-free many-to-one
+ * queue, the loop thread runs the events queued at the start of each pass and idles with its {@link IdleStrategy}
+ * according to the work they report.
  */
 public class SingleThreadedEventLoop implements EventLoop {
     private final static Logger logger = LoggerFactory.getLogger(SingleThreadedEventLoop.class);
+    private static final int QUEUE_CAPACITY = 32768;
+
     private final String name;
     private final Thread thread;
-    private final OneToOneConcurrentArrayQueue<IntSupplier> events = new OneToOneConcurrentArrayQueue<>(32768);
+    private final IdleStrategy idleStrategy;
+    private final Runnable threadInitializer;
+    private final ManyToOneConcurrentArrayQueue<IntSupplier> events = new ManyToOneConcurrentArrayQueue<>(QUEUE_CAPACITY);
 
     public SingleThreadedEventLoop(String name) {
+        this(name, Constants.eventLoopIdleStrategy());
+    }
+
+    public SingleThreadedEventLoop(String name, IdleStrategy idleStrategy) {
+        this(name, idleStrategy, () -> {});
+    }
+
+    /**
+     * @param name of the loop, part of the thread name
+     * @param idleStrategy used by this loop only
+     * @param threadInitializer run on the loop thread before any event, e.g. to pin the thread to a CPU
+     */
+    public SingleThreadedEventLoop(String name, IdleStrategy idleStrategy, Runnable threadInitializer) {
         this.name = name;
+        this.idleStrategy = idleStrategy;
+        this.threadInitializer = threadInitializer;
         logger.info("Starting event loop named => {}", name);
-
         thread = new Thread(new SingleThreadedEventLoopRunnable());
         thread.setDaemon(true);
         thread.setName("aeron-single-threaded-event-loop-" + name);
         thread.start();
-
     }
 
     @Override
     public boolean execute(IntSupplier r) {
-        boolean offer;
-
-        if (thread == Thread.currentThread()) {
-            offer = events.offer(r);
-        } else {
-            synchronized (this) {
-                offer = events.offer(r);
-            }
+        boolean offer = events.offer(r);
+        if (thread != Thread.currentThread()) {
             LockSupport.unpark(thread);
         }
-
         return offer;
     }
 
     private int drain() {
+        // events resubmit themselves to keep polling, only run the ones queued before this pass
+        final int limit = events.size();
         int count = 0;
-        while (!events.isEmpty()) {
+        for (int i = 0; i < limit; i++) {
             IntSupplier poll = events.poll();
-            if (poll != null) {
-                count += poll.getAsInt();
+            if (poll == null) {
+                break;
             }
+            count += poll.getAsInt();
         }
-
         return count;
     }
 
     private class SingleThreadedEventLoopRunnable implements Runnable {
-        final IdleStrategy idleStrategy = Constants.EVENT_LOOP_IDLE_STRATEGY;
-
         @Override
         public void run() {
+            threadInitializer.run();
             while (true) {
                 try {
                     int count = drain();
-                    //if (count > 100) {
-                    //    System.out.println(name + " drained..." + count);
-                   // }
                     idleStrategy.idle(count);
                 } catch (Throwable t) {
                     System.err.println("Something bad happened - an error made it to the event loop");
@@ -16,5 +16,11 @@
 package io.rsocket.aeron.internal;
 
 public class TimedOutException extends RuntimeException {
+    public TimedOutException() {
+        super();
+    }
 
+    public TimedOutException(String message) {
+        super(message);
+    }
 }
@@ -17,8 +17,10 @@ package io.rsocket.aeron.internal.reactivestreams;
 
 import io.aeron.Publication;
 import io.aeron.Subscription;
+import io.netty.buffer.ByteBufHolder;
 import io.rsocket.aeron.internal.EventLoop;
 import org.agrona.DirectBuffer;
+import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -31,14 +33,15 @@ public class AeronChannel implements ReactiveStreamsRemote.Channel<DirectBuffer>
     private final String name;
     private final Publication destination;
     private final Subscription source;
-    private final AeronOutPublisher outPublisher;
+    private final AeronOutPublisher<DirectBuffer> outPublisher;
     private final EventLoop eventLoop;
+    private final int sessionId;
 
     /**
      * Creates on end of a bi-directional channel
      * @param name name of the channel
      * @param destination {@code Publication} to send data to
-     * @param source Aeron {@code Subscription} to listen to data on
+     * @param source Aeron {@code Subscription} to listen to data on, polled only by this channel and closed with it
      * @param eventLoop {@link EventLoop} used to poll data on
      * @param sessionId sessionId between the {@code Publication} and the remote {@code Subscription}
      */
@@ -47,7 +50,8 @@ public class AeronChannel implements ReactiveStreamsRemote.Channel<DirectBuffer>
         this.source = source;
         this.name = name;
         this.eventLoop = eventLoop;
-        this.outPublisher = new AeronOutPublisher(name, sessionId, source, eventLoop);
+        this.sessionId = sessionId;
+        this.outPublisher = new AeronOutPublisher<>(name, sessionId, source, eventLoop, AeronOutPublisher.COPY_TO_HEAP);
     }
 
     /**
@@ -65,6 +69,30 @@ public class AeronChannel implements ReactiveStreamsRemote.Channel<DirectBuffer>
         );
     }
 
+    /**
+     * Sends the content of each {@code ByteBufHolder} and releases it. Content that fits into a single Aeron frame is
+     * copied straight into space claimed in the publication, larger content is offered and fragmented by Aeron.
+     *
+     * @param in holders to send
+     * @return {@code Mono} completing once everything was sent
+     */
+    public Mono<Void> sendAndRelease(Publisher<? extends ByteBufHolder> in) {
+        Objects.requireNonNull(in, "in must not be null");
+        return Mono.create(sink -> in.subscribe(new AeronClaimSubscriber(name, destination, sink)));
+    }
+
+    /**
+     * Returns the data received on this channel decoded by {@code decoder}, which is called on the event loop with
+     * a buffer only valid during the call. Used instead of {@link #receive()}, the source can only be subscribed to
+     * once per channel.
+     *
+     * @param decoder decodes the received fragments
+     * @return {@code Flux} of decoded data
+     */
+    public <T> Flux<T> receive(AeronOutPublisher.FragmentDecoder<? extends T> decoder) {
+        return new AeronOutPublisher<>(name, sessionId, source, eventLoop, decoder);
+    }
+
     /**
      * Returns ReactiveStreamsRemote.Out of DirectBuffer that can only be
      * subscribed to once per channel
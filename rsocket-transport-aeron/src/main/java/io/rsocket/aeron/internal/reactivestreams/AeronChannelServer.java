@@ -24,6 +24,7 @@ import io.aeron.logbuffer.Header;
 import io.rsocket.aeron.internal.AeronWrapper;
 import io.rsocket.aeron.internal.Constants;
 import io.rsocket.aeron.internal.EventLoop;
+import io.rsocket.aeron.internal.EventLoopGroup;
 import io.rsocket.aeron.internal.NotConnectedException;
 import io.rsocket.aeron.internal.reactivestreams.messages.AckConnectEncoder;
 import io.rsocket.aeron.internal.reactivestreams.messages.ConnectDecoder;
@@ -37,10 +38,10 @@ import org.slf4j.LoggerFactory;
 
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 /**
  * Implementation of {@link io.rsocket.aeron.internal.reactivestreams.ReactiveStreamsRemote.ChannelServer} that
@@ -51,22 +52,30 @@ public class AeronChannelServer extends ReactiveStreamsRemote.ChannelServer<Aero
     private final AeronWrapper aeronWrapper;
     private final AeronSocketAddress managementSubscriptionSocket;
     private final AtomicBoolean started = new AtomicBoolean(false);
-    private final ConcurrentHashMap<String, Subscription> serverSubscriptions;
     private volatile boolean running = true;
     private final EventLoop eventLoop;
+    private final Supplier<EventLoop> channelEventLoops;
     private Subscription managementSubscription;
     private AeronChannelStartedServer startServer;
 
-    private AeronChannelServer(AeronChannelConsumer channelConsumer, AeronWrapper aeronWrapper, AeronSocketAddress managementSubscriptionSocket, EventLoop eventLoop) {
+    private AeronChannelServer(AeronChannelConsumer channelConsumer, AeronWrapper aeronWrapper, AeronSocketAddress managementSubscriptionSocket, EventLoop eventLoop, Supplier<EventLoop> channelEventLoops) {
         super(channelConsumer);
         this.aeronWrapper = aeronWrapper;
         this.managementSubscriptionSocket = managementSubscriptionSocket;
         this.eventLoop = eventLoop;
-        this.serverSubscriptions = new ConcurrentHashMap<>();
+        this.channelEventLoops = channelEventLoops;
     }
 
     public static AeronChannelServer create(AeronChannelConsumer channelConsumer, AeronWrapper aeronWrapper, AeronSocketAddress managementSubscriptionSocket, EventLoop eventLoop) {
-        return new AeronChannelServer(channelConsumer, aeronWrapper, managementSubscriptionSocket, eventLoop);
+        return new AeronChannelServer(channelConsumer, aeronWrapper, managementSubscriptionSocket, eventLoop, () -> eventLoop);
+    }
+
+    /**
+     * Creates a server that polls for connections on one loop of {@code eventLoopGroup} and shards the accepted
+     * channels across all of its loops.
+     */
+    public static AeronChannelServer create(AeronChannelConsumer channelConsumer, AeronWrapper aeronWrapper, AeronSocketAddress managementSubscriptionSocket, EventLoopGroup eventLoopGroup) {
+        return new AeronChannelServer(channelConsumer, aeronWrapper, managementSubscriptionSocket, eventLoopGroup.next(), eventLoopGroup::next);
     }
 
     @Override
@@ -127,11 +136,11 @@ public class AeronChannelServer extends ReactiveStreamsRemote.ChannelServer<Aero
                 int sessionId = destination.sessionId();
                 logger.debug("server created publication to channel {}, stream id {}, and session id {}", receivingChannel, receivingStreamId, sessionId);
 
-                // Server listens to sending channel
-                Subscription source = serverSubscriptions.computeIfAbsent(sendingChannel, s -> aeronWrapper.addSubscription(sendingChannel, sendingStreamId));
+                // Server listens to sending channel, on a subscription only this channel polls
+                Subscription source = aeronWrapper.addSubscription(sendingChannel, sendingStreamId);
                 logger.debug("server created subscription to channel {}, stream id {}", sendingChannel, sendingStreamId);
 
-                AeronChannel aeronChannel = new AeronChannel("server", destination, source, eventLoop, clientSessionId);
+                AeronChannel aeronChannel = new AeronChannel("server", destination, source, channelEventLoops.get(), clientSessionId);
                 logger.debug("server create AeronChannel with destination channel {}, source channel {}, and clientSesseionId {}");
 
                 channelConsumer
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.aeron.internal.reactivestreams;
+
+import io.aeron.Publication;
+import io.aeron.logbuffer.BufferClaim;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.rsocket.aeron.internal.NotConnectedException;
+import io.rsocket.aeron.internal.TimedOutException;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.MonoSink;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the content of {@code ByteBufHolder}s to a {@code Publication} without intermediate copies: content that
+ * fits into a single Aeron frame is copied straight from the {@code ByteBuf} into claimed space of the log buffer,
+ * larger content is offered and fragmented by Aeron. Each holder is released once written.
+ * <p>
+ * A back pressured publication is retried with a backing off idle strategy on the sending thread, for at most
+ * {@link #BACK_PRESSURE_TIMEOUT_NANOS} before the send fails with a {@link TimedOutException}. A publication that lost
+ * its subscriber, or never found one within {@link #CONNECT_TIMEOUT_NANOS}, fails the send.
+ */
+class AeronClaimSubscriber implements Subscriber<ByteBufHolder> {
+    private static final int BUFFER_SIZE = 128;
+    private static final int REFILL = BUFFER_SIZE / 3;
+    private static final long CONNECT_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final long BACK_PRESSURE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final String name;
+    private final Publication destination;
+    private final MonoSink<Void> sink;
+    private final BufferClaim bufferClaim;
+    // reused view over the content of the holder being written
+    private final UnsafeBuffer view;
+    private final IdleStrategy idleStrategy;
+
+    private Subscription subscription;
+    private long outstanding;
+    private boolean done;
+
+    AeronClaimSubscriber(String name, Publication destination, MonoSink<Void> sink) {
+        this.name = name;
+        this.destination = destination;
+        this.sink = sink;
+        this.bufferClaim = new BufferClaim();
+        this.view = new UnsafeBuffer(new byte[0]);
+        this.idleStrategy = new BackoffIdleStrategy(1, 10, 1_000, 100_000);
+    }
+
+    @Override
+    public void onSubscribe(Subscription s) {
+        subscription = s;
+        sink.onCancel(s::cancel);
+        outstanding = BUFFER_SIZE;
+        s.request(BUFFER_SIZE);
+    }
+
+    @Override
+    public void onNext(ByteBufHolder holder) {
+        if (done) {
+            holder.release();
+            return;
+        }
+
+        try {
+            write(holder.content());
+        } catch (Throwable t) {
+            done = true;
+            subscription.cancel();
+            sink.error(t);
+            return;
+        } finally {
+            holder.release();
+        }
+
+        if (--outstanding < REFILL) {
+            subscription.request(BUFFER_SIZE - outstanding);
+            outstanding = BUFFER_SIZE;
+        }
+    }
+
+    private void write(ByteBuf content) {
+        final int length = content.readableBytes();
+        final DirectBuffer source = wrap(content, length);
+
+        long result;
+        long waitStart = 0;
+        if (length <= destination.maxPayloadLength()) {
+            while ((result = destination.tryClaim(length, bufferClaim)) < 0) {
+                waitStart = backOff(result, waitStart);
+            }
+            try {
+                bufferClaim.buffer().putBytes(bufferClaim.offset(), source, 0, length);
+            } finally {
+                bufferClaim.commit();
+            }
+        } else {
+            while ((result = destination.offer(source, 0, length)) < 0) {
+                waitStart = backOff(result, waitStart);
+            }
+        }
+        idleStrategy.reset();
+    }
+
+    private DirectBuffer wrap(ByteBuf content, int length) {
+        if (content.hasMemoryAddress()) {
+            view.wrap(content.memoryAddress() + content.readerIndex(), length);
+        } else if (content.hasArray()) {
+            view.wrap(content.array(), content.arrayOffset() + content.readerIndex(), length);
+        } else {
+            view.wrap(content.nioBuffer());
+        }
+        return view;
+    }
+
+    /**
+     * Fails the write if the publication is closed, lost its subscriber or stayed back pressured for too long, idles
+     * otherwise.
+     *
+     * @param waitStart time the write started waiting, {@code 0} on the first failed attempt
+     * @return time the write started waiting
+     */
+    private long backOff(long result, long waitStart) {
+        if (result == Publication.CLOSED) {
+            throw new NotConnectedException(name);
+        }
+        final long now = System.nanoTime();
+        if (waitStart == 0) {
+            waitStart = now;
+        }
+        if (result == Publication.NOT_CONNECTED) {
+            // a new publication may not have seen its subscriber yet, once anything was sent the peer is gone
+            if (destination.position() > 0 || now - waitStart > CONNECT_TIMEOUT_NANOS) {
+                throw new NotConnectedException(name);
+            }
+        } else if (now - waitStart > BACK_PRESSURE_TIMEOUT_NANOS) {
+            throw new TimedOutException(name + " back pressured for more than "
+                + TimeUnit.NANOSECONDS.toMillis(BACK_PRESSURE_TIMEOUT_NANOS) + " ms");
+        }
+
+        idleStrategy.idle();
+        return waitStart;
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        done = true;
+        sink.error(t);
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        sink.success();
+    }
+
+    @Override
+    public String toString() {
+        return "AeronClaimSubscriber{" +
+            "name='" + name + '\'' +
+            '}';
+    }
+}
@@ -24,12 +24,15 @@ import io.aeron.logbuffer.Header;
 import io.rsocket.aeron.internal.AeronWrapper;
 import io.rsocket.aeron.internal.Constants;
 import io.rsocket.aeron.internal.EventLoop;
+import io.rsocket.aeron.internal.EventLoopGroup;
 import io.rsocket.aeron.internal.NotConnectedException;
 import io.rsocket.aeron.internal.reactivestreams.messages.AckConnectDecoder;
 import io.rsocket.aeron.internal.reactivestreams.messages.ConnectEncoder;
 import io.rsocket.aeron.internal.reactivestreams.messages.MessageHeaderDecoder;
 import io.rsocket.aeron.internal.reactivestreams.messages.MessageHeaderEncoder;
 import org.agrona.DirectBuffer;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +44,7 @@ import java.nio.ByteBuffer;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.IntConsumer;
+import java.util.function.Supplier;
 
 /**
  * Brokers a connection to a remote Aeron server.
@@ -51,10 +55,12 @@ public class AeronClientChannelConnector implements ReactiveStreamsRemote.Client
 
     private static final AtomicLong CHANNEL_ID_COUNTER = new AtomicLong();
 
+    // Aeron shares one publication, and with it the session id, between all publications of a client to the same
+    // channel and stream id, so channels are told apart by stream ids of their own spaced this far apart
+    private static final int CHANNEL_STREAM_ID_STRIDE = 16;
+
     private final AeronWrapper aeronWrapper;
 
-    // Subscriptions clients listen to responses on
-    private final ConcurrentHashMap<AeronSocketAddress, Subscription> clientSubscriptions;
     private final ConcurrentHashMap<Long, IntConsumer> serverSessionIdConsumerMap;
 
     private final Subscription managementSubscription;
@@ -70,7 +76,6 @@ public class AeronClientChannelConnector implements ReactiveStreamsRemote.Client
 
         this.managementSubscription = aeronWrapper.addSubscription(managementSubscriptionSocket.getChannel(), Constants.CLIENT_MANAGEMENT_STREAM_ID);
         this.eventLoop = eventLoop;
-        this.clientSubscriptions = new ConcurrentHashMap<>();
         this.serverSessionIdConsumerMap = new ConcurrentHashMap<>();
 
         poll();
@@ -138,27 +143,27 @@ public class AeronClientChannelConnector implements ReactiveStreamsRemote.Client
     public Mono<AeronChannel> apply(AeronClientConfig aeronClientConfig) {
         return MonoSource.wrap(subscriber -> {
             subscriber.onSubscribe(Operators.emptySubscription());
-            final long channelId = CHANNEL_ID_COUNTER.get();
+            final long channelId = CHANNEL_ID_COUNTER.incrementAndGet();
             try {
 
                 logger.debug("Creating new client channel with id {}", channelId);
-                final Publication destination = aeronWrapper.addPublication(aeronClientConfig.sendSocketAddress.getChannel(), aeronClientConfig.sendStreamId);
-                int destinationStreamId = destination.streamId();
+                final int streamIdOffset = (int) channelId * CHANNEL_STREAM_ID_STRIDE;
+                final int sendStreamId = aeronClientConfig.sendStreamId + streamIdOffset;
+                final int receiveStreamId = aeronClientConfig.receiveStreamId + streamIdOffset;
+                final Publication destination = aeronWrapper.addPublication(aeronClientConfig.sendSocketAddress.getChannel(), sendStreamId);
 
                 logger.debug("Client created publication to {}, on stream id {}, and session id {}",
                     aeronClientConfig.sendSocketAddress,
-                    aeronClientConfig.sendStreamId,
+                    sendStreamId,
                     destination.sessionId());
 
-                final Subscription source = clientSubscriptions.computeIfAbsent(aeronClientConfig.receiveSocketAddress, address -> {
-                    Subscription subscription = aeronWrapper.addSubscription(aeronClientConfig.receiveSocketAddress.getChannel(), aeronClientConfig.receiveStreamId);
-                    logger.debug("Client created subscription to {}, on stream id {}", aeronClientConfig.receiveSocketAddress, aeronClientConfig.receiveStreamId);
-                    return subscription;
-                });
+                // Every channel polls a subscription of its own, Aeron subscriptions must not be polled concurrently
+                final Subscription source = aeronWrapper.addSubscription(aeronClientConfig.receiveSocketAddress.getChannel(), receiveStreamId);
+                logger.debug("Client created subscription to {}, on stream id {}", aeronClientConfig.receiveSocketAddress, receiveStreamId);
 
                 IntConsumer sessionIdConsumer = sessionId -> {
                     try {
-                        AeronChannel aeronChannel = new AeronChannel("client", destination, source, aeronClientConfig.eventLoop, sessionId);
+                        AeronChannel aeronChannel = new AeronChannel("client", destination, source, aeronClientConfig.eventLoops.get(), sessionId);
                         logger.debug("created client AeronChannel for destination {}, source {}, destination stream id {}, source stream id {}, client session id, and server session id {}",
                             aeronClientConfig.sendSocketAddress,
                             aeronClientConfig.receiveSocketAddress,
@@ -175,38 +180,29 @@ public class AeronClientChannelConnector implements ReactiveStreamsRemote.Client
 
                 serverSessionIdConsumerMap.putIfAbsent(channelId, sessionIdConsumer);
 
-                aeronWrapper
-                    .unavailableImageHandlers(image -> {
-                        if (destinationStreamId == image.sessionId()) {
-                            clientSubscriptions.remove(channelId);
-                            return true;
-                        } else {
-                            return false;
-                        }
-                    });
-
                 Publication managementPublication = aeronWrapper.addPublication(aeronClientConfig.sendSocketAddress.getChannel(), Constants.SERVER_MANAGEMENT_STREAM_ID);
                 logger.debug("Client created management publication to channel {}, stream id {}", managementPublication.channel(), managementPublication.streamId());
 
-                DirectBuffer buffer = encodeConnectMessage(channelId, aeronClientConfig, destination.sessionId());
+                DirectBuffer buffer = encodeConnectMessage(channelId, aeronClientConfig, receiveStreamId, sendStreamId, destination.sessionId());
                 long offer;
-                do {
-                    offer = managementPublication.offer(buffer);
+                IdleStrategy idleStrategy = new BackoffIdleStrategy(1, 10, 1_000, 100_000);
+                while ((offer = managementPublication.offer(buffer)) < 0) {
                     if (offer == Publication.CLOSED) {
-                        subscriber.onError(new NotConnectedException());
+                        throw new NotConnectedException();
                     }
-                } while (offer < 0);
+                    idleStrategy.idle();
+                }
                 logger.debug("Client sent create message to {}", managementPublication.channel());
 
             } catch (Throwable t) {
                 logger.error("Error creating a channel to {}", aeronClientConfig);
-                clientSubscriptions.remove(channelId);
+                serverSessionIdConsumerMap.remove(channelId);
                 subscriber.onError(t);
             }
         });
     }
 
-    public DirectBuffer encodeConnectMessage(long channelId, AeronClientConfig config, int clientSessionId) {
+    public DirectBuffer encodeConnectMessage(long channelId, AeronClientConfig config, int receiveStreamId, int sendStreamId, int clientSessionId) {
         final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(4096);
         final UnsafeBuffer directBuffer = new UnsafeBuffer(byteBuffer);
         int bufferOffset = 0;
@@ -230,28 +226,32 @@ public class AeronClientChannelConnector implements ReactiveStreamsRemote.Client
             .wrap(directBuffer, bufferOffset)
             .channelId(channelId)
             .receivingChannel(config.receiveSocketAddress.getChannel())
-            .receivingStreamId(config.receiveStreamId)
+            .receivingStreamId(receiveStreamId)
             .sendingChannel(config.sendSocketAddress.getChannel())
-            .sendingStreamId(config.sendStreamId)
+            .sendingStreamId(sendStreamId)
             .clientSessionId(clientSessionId)
             .clientManagementChannel(managementSubscription.channel());
 
         return directBuffer;
     }
 
+    /**
+     * Configures the channels of a connector. Each channel sends and receives on stream ids of its own, offset from
+     * the configured stream ids by a multiple of 16.
+     */
     public static class AeronClientConfig implements ReactiveStreamsRemote.ClientChannelConfig {
         private final AeronSocketAddress receiveSocketAddress;
         private final AeronSocketAddress sendSocketAddress;
         private final int receiveStreamId;
         private final int sendStreamId;
-        private final EventLoop eventLoop;
+        private final Supplier<EventLoop> eventLoops;
 
-        private AeronClientConfig(AeronSocketAddress receiveSocketAddress, AeronSocketAddress sendSocketAddress, int receiveStreamId, int sendStreamId, EventLoop eventLoop) {
+        private AeronClientConfig(AeronSocketAddress receiveSocketAddress, AeronSocketAddress sendSocketAddress, int receiveStreamId, int sendStreamId, Supplier<EventLoop> eventLoops) {
             this.receiveSocketAddress = receiveSocketAddress;
             this.sendSocketAddress = sendSocketAddress;
             this.receiveStreamId = receiveStreamId;
             this.sendStreamId = sendStreamId;
-            this.eventLoop = eventLoop;
+            this.eventLoops = eventLoops;
         }
 
         /**
@@ -262,7 +262,19 @@ public class AeronClientChannelConnector implements ReactiveStreamsRemote.Client
          * @return new {@code AeronClientConfig}
          */
         public static AeronClientConfig create(AeronSocketAddress receiveSocketAddress, AeronSocketAddress sendSocketAddress, int receiveStreamId, int sendStreamId, EventLoop eventLoop) {
-            return new AeronClientConfig(receiveSocketAddress, sendSocketAddress, receiveStreamId, sendStreamId, eventLoop);
+            return new AeronClientConfig(receiveSocketAddress, sendSocketAddress, receiveStreamId, sendStreamId, () -> eventLoop);
+        }
+
+        /**
+         * Creates client a new {@code AeronClientConfig} whose {@link AeronChannel}s are sharded across the loops of
+         * {@code eventLoopGroup}
+         *
+         * @param receiveSocketAddress the address the channels receives data on
+         * @param sendSocketAddress    the address the channel sends data too
+         * @return new {@code AeronClientConfig}
+         */
+        public static AeronClientConfig create(AeronSocketAddress receiveSocketAddress, AeronSocketAddress sendSocketAddress, int receiveStreamId, int sendStreamId, EventLoopGroup eventLoopGroup) {
+            return new AeronClientConfig(receiveSocketAddress, sendSocketAddress, receiveStreamId, sendStreamId, eventLoopGroup::next);
         }
 
         @Override
@@ -272,7 +284,7 @@ public class AeronClientChannelConnector implements ReactiveStreamsRemote.Client
                 ", sendSocketAddress=" + sendSocketAddress +
                 ", receiveStreamId=" + receiveStreamId +
                 ", sendStreamId=" + sendStreamId +
-                ", eventLoop=" + eventLoop +
+                ", eventLoops=" + eventLoops +
                 '}';
         }
     }
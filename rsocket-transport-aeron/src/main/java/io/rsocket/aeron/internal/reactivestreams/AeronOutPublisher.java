@@ -33,9 +33,19 @@ import java.util.Objects;
 import java.util.function.IntSupplier;
 
 /**
- *
+ * Polls an Aeron {@code Subscription} for the fragments of one session and emits them decoded by a
+ * {@link FragmentDecoder}, up to the demand of its single {@code Subscriber}.
  */
-public class AeronOutPublisher extends Flux<DirectBuffer> {
+public class AeronOutPublisher<T> extends Flux<T> {
+    /**
+     * Copies each fragment into a new heap buffer.
+     */
+    public static final FragmentDecoder<DirectBuffer> COPY_TO_HEAP = (buffer, offset, length) -> {
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        buffer.getBytes(offset, bytes, length);
+        return new UnsafeBuffer(bytes);
+    };
+
     private static final Logger logger = LoggerFactory.getLogger(AeronOutPublisher.class);
     private final io.aeron.Subscription source;
     private final EventLoop eventLoop;
@@ -43,9 +53,10 @@ public class AeronOutPublisher extends Flux<DirectBuffer> {
     private String name;
     private volatile long requested;
     private volatile long processed;
-    private Subscriber<? super DirectBuffer> destination;
+    private Subscriber<? super T> destination;
     private AeronOutProcessorSubscription subscription;
     private final int sessionId;
+    private final FragmentDecoder<? extends T> decoder;
 
     /**
      * Creates a publication for a unique session
@@ -54,16 +65,18 @@ public class AeronOutPublisher extends Flux<DirectBuffer> {
      * @param sessionId sessionId between the source and the remote publication
      * @param source    Aeron {@code Subscription} publish data from
      * @param eventLoop {@link EventLoop} to poll the source with
+     * @param decoder   decodes the fragments, the buffer passed to it is only valid during the call
      */
-    public AeronOutPublisher(String name, int sessionId, io.aeron.Subscription source, EventLoop eventLoop) {
+    public AeronOutPublisher(String name, int sessionId, io.aeron.Subscription source, EventLoop eventLoop, FragmentDecoder<? extends T> decoder) {
         this.name = name;
         this.source = source;
         this.eventLoop = eventLoop;
         this.sessionId = sessionId;
+        this.decoder = decoder;
     }
 
     @Override
-    public void subscribe(Subscriber<? super DirectBuffer> destination) {
+    public void subscribe(Subscriber<? super T> destination) {
         Objects.requireNonNull(destination);
         synchronized (this) {
             if (this.destination != null && subscription.canEmit()) {
@@ -101,10 +114,10 @@ public class AeronOutPublisher extends Flux<DirectBuffer> {
     private class AeronOutProcessorSubscription implements Subscription {
         private volatile boolean erred = false;
         private volatile boolean cancelled = false;
-        private final Subscriber<? super DirectBuffer> destination;
+        private final Subscriber<? super T> destination;
         private final ControlledFragmentAssembler assembler;
 
-        public AeronOutProcessorSubscription(Subscriber<? super DirectBuffer> destination) {
+        public AeronOutProcessorSubscription(Subscriber<? super T> destination) {
             this.destination = destination;
             this.assembler = new ControlledFragmentAssembler(this::onFragment, 4096);
         }
@@ -146,19 +159,13 @@ public class AeronOutPublisher extends Flux<DirectBuffer> {
 
         ControlledFragmentHandler.Action onFragment(DirectBuffer buffer, int offset, int length, Header header) {
             if (sessionId != header.sessionId()) {
-                if (source.imageBySessionId(header.sessionId()) == null) {
-                    return ControlledFragmentHandler.Action.CONTINUE;
-                }
-
-                return ControlledFragmentHandler.Action.ABORT;
+                // the source belongs to this channel alone, nobody else is going to consume other sessions
+                return ControlledFragmentHandler.Action.CONTINUE;
             }
 
             try {
-                ByteBuffer bytes = ByteBuffer.allocate(length);
-                buffer.getBytes(offset, bytes, length);
-
                 if (canEmit()) {
-                    destination.onNext(new UnsafeBuffer(bytes));
+                    destination.onNext(decoder.decode(buffer, offset, length));
                 }
             } catch (Throwable t) {
                 onError(t);
@@ -222,4 +229,12 @@ public class AeronOutPublisher extends Flux<DirectBuffer> {
 
 
     }
+
+    /**
+     * Turns a fragment into the value emitted, copying whatever is needed as the buffer is reused once the call
+     * returns.
+     */
+    public interface FragmentDecoder<T> {
+        T decode(DirectBuffer buffer, int offset, int length);
+    }
 }
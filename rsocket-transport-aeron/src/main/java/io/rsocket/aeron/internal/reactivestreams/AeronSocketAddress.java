@@ -23,22 +23,35 @@ import java.net.SocketAddress;
  */
 public class AeronSocketAddress extends SocketAddress {
     private static final String FORMAT = "%s?endpoint=%s:%d";
+    private static final String IPC_CHANNEL = "aeron:ipc";
     private final String protocol;
     private final String host;
     private final int port;
     private final String channel;
 
     private AeronSocketAddress(String protocol, String host, int port) {
+        this(protocol, host, port, String.format(FORMAT, protocol, host, port));
+    }
+
+    private AeronSocketAddress(String protocol, String host, int port, String channel) {
         this.protocol = protocol;
         this.host = host;
         this.port = port;
-        this.channel = String.format(FORMAT, protocol, host, port);
+        this.channel = channel;
     }
 
     public static AeronSocketAddress create(String protocol, String host, int port) {
         return new AeronSocketAddress(protocol, host, port);
     }
 
+    /**
+     * Address of the {@code aeron:ipc} channel, which exchanges data through the shared memory of the media driver
+     * between clients and servers on the same host.
+     */
+    public static AeronSocketAddress ipc() {
+        return new AeronSocketAddress(IPC_CHANNEL, "localhost", 0, IPC_CHANNEL);
+    }
+
     public String getProtocol() {
         return protocol;
     }
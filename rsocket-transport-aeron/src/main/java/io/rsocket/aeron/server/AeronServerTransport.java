@@ -16,25 +16,28 @@
 
 package io.rsocket.aeron.server;
 
+import io.rsocket.Closeable;
 import io.rsocket.DuplexConnection;
 import io.rsocket.aeron.AeronDuplexConnection;
 import io.rsocket.aeron.internal.AeronWrapper;
 import io.rsocket.aeron.internal.EventLoop;
+import io.rsocket.aeron.internal.EventLoopGroup;
 import io.rsocket.aeron.internal.reactivestreams.AeronChannelServer;
 import io.rsocket.aeron.internal.reactivestreams.AeronSocketAddress;
-import io.rsocket.aeron.internal.reactivestreams.ReactiveStreamsRemote;
 import io.rsocket.transport.ServerTransport;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
 
-import java.net.SocketAddress;
-import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 
 /**
- *
+ * {@link ServerTransport} implementation that uses Aeron as a transport
  */
-public class AeronServerTransport implements ServerTransport {
+public class AeronServerTransport implements ServerTransport<Closeable> {
     private final AeronWrapper aeronWrapper;
     private final AeronSocketAddress managementSubscriptionSocket;
-    private final EventLoop eventLoop;
+    private final @Nullable EventLoop eventLoop;
+    private final @Nullable EventLoopGroup eventLoopGroup;
 
     private AeronChannelServer aeronChannelServer;
 
@@ -42,53 +45,62 @@ public class AeronServerTransport implements ServerTransport {
         this.aeronWrapper = aeronWrapper;
         this.managementSubscriptionSocket = managementSubscriptionSocket;
         this.eventLoop = eventLoop;
+        this.eventLoopGroup = null;
     }
 
-    @Override
-    public StartedServer start(ConnectionAcceptor acceptor) {
-        synchronized (this) {
-            if (aeronChannelServer != null) {
-                throw new IllegalStateException("server already ready started");
-            }
+    /**
+     * Creates a transport whose accepted connections are sharded across the loops of {@code eventLoopGroup}.
+     */
+    public AeronServerTransport(AeronWrapper aeronWrapper, AeronSocketAddress managementSubscriptionSocket, EventLoopGroup eventLoopGroup) {
+        this.aeronWrapper = aeronWrapper;
+        this.managementSubscriptionSocket = managementSubscriptionSocket;
+        this.eventLoop = null;
+        this.eventLoopGroup = eventLoopGroup;
+    }
 
-            aeronChannelServer = AeronChannelServer.create(
-                aeronChannel -> {
-                    DuplexConnection connection = new AeronDuplexConnection("server", aeronChannel);
-                    acceptor.apply(connection).subscribe();
-                },
-                aeronWrapper,
-                managementSubscriptionSocket,
-                eventLoop);
-        }
+    @Override
+    public Mono<Closeable> start(ConnectionAcceptor acceptor) {
+        return Mono
+            .create(sink -> {
+                synchronized (this) {
+                    if (aeronChannelServer != null) {
+                        throw new IllegalStateException("server already ready started");
+                    }
 
-        final ReactiveStreamsRemote.StartedServer startedServer = aeronChannelServer.start();
+                    AeronChannelServer.AeronChannelConsumer channelConsumer = aeronChannel -> {
+                        DuplexConnection connection = new AeronDuplexConnection("server", aeronChannel);
+                        acceptor.apply(connection).subscribe();
+                    };
+                    aeronChannelServer = eventLoopGroup != null
+                        ? AeronChannelServer.create(channelConsumer, aeronWrapper, managementSubscriptionSocket, eventLoopGroup)
+                        : AeronChannelServer.create(channelConsumer, aeronWrapper, managementSubscriptionSocket, eventLoop);
+                }
 
-        return new StartedServer() {
-            @Override
-            public SocketAddress getServerAddress() {
-                return startedServer.getServerAddress();
-            }
+                sink.success(new StartedServer(aeronChannelServer.start()));
+            });
+    }
 
-            @Override
-            public int getServerPort() {
-                return startedServer.getServerPort();
-            }
+    private static class StartedServer implements Closeable {
+        private final AeronChannelServer.AeronChannelStartedServer startedServer;
+        private final MonoProcessor<Void> closeNotifier = MonoProcessor.create();
 
-            @Override
-            public void awaitShutdown() {
-                startedServer.awaitShutdown();
-            }
+        private StartedServer(AeronChannelServer.AeronChannelStartedServer startedServer) {
+            this.startedServer = startedServer;
+        }
 
-            @Override
-            public void awaitShutdown(long duration, TimeUnit durationUnit) {
-                startedServer.awaitShutdown(duration, durationUnit);
-            }
+        @Override
+        public Mono<Void> close() {
+            return Mono
+                .defer(() -> {
+                    startedServer.shutdown();
+                    closeNotifier.onComplete();
+                    return closeNotifier;
+                });
+        }
 
-            @Override
-            public void shutdown() {
-                startedServer.shutdown();
-            }
-        };
+        @Override
+        public Mono<Void> onClose() {
+            return closeNotifier;
+        }
     }
-
 }
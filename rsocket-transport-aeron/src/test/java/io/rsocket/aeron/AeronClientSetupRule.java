@@ -16,93 +16,68 @@
 
 package io.rsocket.aeron;
 
+import io.rsocket.RSocketFactory;
 import io.rsocket.aeron.client.AeronClientTransport;
 import io.rsocket.aeron.internal.AeronWrapper;
 import io.rsocket.aeron.internal.Constants;
 import io.rsocket.aeron.internal.DefaultAeronWrapper;
 import io.rsocket.aeron.internal.EventLoop;
+import io.rsocket.aeron.internal.EventLoopGroup;
 import io.rsocket.aeron.internal.SingleThreadedEventLoop;
 import io.rsocket.aeron.internal.reactivestreams.AeronClientChannelConnector;
 import io.rsocket.aeron.internal.reactivestreams.AeronSocketAddress;
 import io.rsocket.aeron.server.AeronServerTransport;
-import io.rsocket.server.RSocketServer;
 import io.rsocket.test.ClientSetupRule;
 import io.rsocket.test.TestRSocket;
-import org.agrona.LangUtil;
-
-import java.net.Inet4Address;
-import java.net.InetAddress;
-import java.net.NetworkInterface;
-import java.util.Enumeration;
+import reactor.core.publisher.Mono;
 
+/**
+ * Connects clients to a server over the {@code aeron:ipc} channel of an embedded media driver. The server and the
+ * client connector are shared by all tests as they listen on fixed stream ids.
+ */
+class AeronClientSetupRule extends ClientSetupRule<AeronSocketAddress> {
+    private static final AeronClientTransport client;
 
-class AeronClientSetupRule extends ClientSetupRule {
     static {
         MediaDriverHolder.getInstance();
         AeronWrapper aeronWrapper = new DefaultAeronWrapper();
 
-        AeronSocketAddress serverManagementSocketAddress = AeronSocketAddress.create("aeron:udp", "127.0.0.1", 39790);
-        EventLoop serverEventLoop = new SingleThreadedEventLoop("server");
-        server = new AeronServerTransport(aeronWrapper, serverManagementSocketAddress, serverEventLoop);
+        AeronSocketAddress serverManagementSocketAddress = AeronSocketAddress.ipc();
+        EventLoopGroup serverEventLoops = new EventLoopGroup("server", 2);
+        RSocketFactory
+            .receive()
+            .acceptor((setup, sendingSocket) -> Mono.just(new TestRSocket()))
+            .transport(new AeronServerTransport(aeronWrapper, serverManagementSocketAddress, serverEventLoops))
+            .start()
+            .block();
 
         // Create Client Connector
-        AeronSocketAddress clientManagementSocketAddress = AeronSocketAddress.create("aeron:udp", "127.0.0.1", 39790);
+        AeronSocketAddress clientManagementSocketAddress = AeronSocketAddress.ipc();
         EventLoop clientEventLoop = new SingleThreadedEventLoop("client");
 
-        AeronSocketAddress receiveAddress = AeronSocketAddress.create("aeron:udp", "127.0.0.1", 39790);
-        AeronSocketAddress sendAddress = AeronSocketAddress.create("aeron:udp", "127.0.0.1", 39790);
-
         AeronClientChannelConnector.AeronClientConfig config = AeronClientChannelConnector
             .AeronClientConfig.create(
-                receiveAddress,
-                sendAddress,
+                AeronSocketAddress.ipc(),
+                AeronSocketAddress.ipc(),
                 Constants.CLIENT_STREAM_ID,
                 Constants.SERVER_STREAM_ID,
                 clientEventLoop);
 
         AeronClientChannelConnector connector = AeronClientChannelConnector.create(aeronWrapper, clientManagementSocketAddress, clientEventLoop);
 
-
         client = new AeronClientTransport(connector, config);
     }
 
-
-    private static final AeronServerTransport server;
-    private static final AeronClientTransport client;
-
     AeronClientSetupRule() {
         super(
-            socketAddress -> client,
-            () ->
-                RSocketServer.create(server)
-                    .start((setup, sendingSocket) ->
-                        new DisabledLeaseAcceptingSocket(
-                            new TestRSocket()))
-            .getServerAddress()
+            AeronSocketAddress::ipc,
+            address ->
+                RSocketFactory
+                    .connect()
+                    .transport(client)
+                    .start()
+                    .block(),
+            address -> {}
         );
     }
-
-    private static InetAddress getIPv4InetAddress() {
-        InetAddress iaddress = null;
-        try {
-            String os = System.getProperty("os.name").toLowerCase();
-
-            if (os.contains("nix") || os.contains("nux")) {
-                NetworkInterface ni = NetworkInterface.getByName("eth0");
-
-                Enumeration<InetAddress> ias = ni.getInetAddresses();
-
-                do {
-                    iaddress = ias.nextElement();
-                } while (!(iaddress instanceof Inet4Address));
-
-            }
-
-            iaddress = InetAddress.getLocalHost();  // for Windows and OS X it should work well
-        } catch (Exception e) {
-            LangUtil.rethrowUnchecked(e);
-        }
-
-        return iaddress;
-    }
 }
@@ -23,19 +23,17 @@ import io.rsocket.aeron.internal.EventLoop;
 import io.rsocket.aeron.internal.SingleThreadedEventLoop;
 import io.rsocket.aeron.internal.reactivestreams.AeronClientChannelConnector;
 import io.rsocket.aeron.internal.reactivestreams.AeronSocketAddress;
-import io.rsocket.client.KeepAliveProvider;
-import io.rsocket.client.RSocketClient;
-import io.rsocket.client.SetupProvider;
+import io.rsocket.RSocket;
+import io.rsocket.RSocketFactory;
 import io.rsocket.test.PingClient;
 import org.HdrHistogram.Recorder;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 
 public final class AeronPing {
 
     public static void main(String... args) throws Exception {
-        SetupProvider setup = SetupProvider.keepAlive(KeepAliveProvider.never()).disableLease();
-
         // Create Client Connector
         AeronWrapper aeronWrapper = new DefaultAeronWrapper();
 
@@ -60,17 +58,20 @@ public final class AeronPing {
 
         AeronClientTransport aeronTransportClient = new AeronClientTransport(connector, config);
 
-        RSocketClient client =
-                RSocketClient.create(aeronTransportClient, setup);
+        Mono<RSocket> client = RSocketFactory
+            .connect()
+            .transport(aeronTransportClient)
+            .start();
+
         PingClient pingClient = new PingClient(client);
         Recorder recorder = pingClient.startTracker(Duration.ofSeconds(1));
         final int count = 1_000_000_000;
-        pingClient.connect()
-                  .startPingPong(count, recorder)
-                  .doOnTerminate(() -> {
-                      System.out.println("Sent " + count + " messages.");
-                  })
-                  .last(null).block();
+        pingClient
+            .startPingPong(count, recorder)
+            .doOnTerminate(() -> {
+                System.out.println("Sent " + count + " messages.");
+            })
+            .blockLast();
 
         System.exit(0);
     }
@@ -16,11 +16,9 @@
 package io.rsocket.aeron;
 
 import io.rsocket.test.ClientSetupRule;
-import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 
-@Ignore
 public class ClientServerTest {
 
     @Rule
@@ -36,7 +34,7 @@ public class ClientServerTest {
         setup.testMetadata(10);
     }
 
-    @Test(timeout = 5000000)
+    @Test(timeout = 5000)
     public void testRequestResponse1() {
         setup.testRequestResponseN(1);
     }
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rsocket.aeron.internal;
+
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class EventLoopGroupTest {
+
+    @Test(timeout = 10_000)
+    public void testRunsEventsSubmittedFromManyThreads() throws Exception {
+        final int threads = 4;
+        final int events = 1_000;
+        SingleThreadedEventLoop eventLoop = new SingleThreadedEventLoop("test");
+        CountDownLatch latch = new CountDownLatch(threads * events);
+        Set<Thread> loopThreads = ConcurrentHashMap.newKeySet();
+
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < events; i++) {
+                    while (!eventLoop.execute(() -> {
+                        loopThreads.add(Thread.currentThread());
+                        latch.countDown();
+                        return 1;
+                    })) {
+                        Thread.yield();
+                    }
+                }
+            }).start();
+        }
+
+        assertThat("Events not run.", latch.await(5, TimeUnit.SECONDS), is(true));
+        assertThat("Events run on more than the loop thread.", loopThreads.size(), is(1));
+    }
+
+    @Test(timeout = 10_000)
+    public void testShardsRoundRobinAndInitializesEachLoop() throws Exception {
+        CountDownLatch initialized = new CountDownLatch(3);
+        AtomicInteger indexSum = new AtomicInteger();
+        EventLoopGroup group = new EventLoopGroup("test", 3, Constants::eventLoopIdleStrategy, index -> {
+            indexSum.addAndGet(index);
+            initialized.countDown();
+        });
+
+        assertThat("Loops not initialized.", initialized.await(5, TimeUnit.SECONDS), is(true));
+        assertThat("Unexpected loop indexes.", indexSum.get(), is(0 + 1 + 2));
+
+        EventLoop first = group.next();
+        EventLoop second = group.next();
+        EventLoop third = group.next();
+        assertThat("Loop reused before all were assigned.", first != second && second != third && first != third, is(true));
+        assertThat("Unexpected loop after wrapping around.", group.next() == first, is(true));
+    }
+}
@@ -23,6 +23,7 @@ import io.rsocket.aeron.internal.Constants;
 import io.rsocket.aeron.internal.EventLoop;
 import io.rsocket.aeron.internal.SingleThreadedEventLoop;
 import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
 import org.agrona.LangUtil;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.junit.Ignore;
@@ -111,7 +112,7 @@ public class AeronChannelTest {
 
         EventLoop serverLoop = new SingleThreadedEventLoop("server");
 
-        AeronOutPublisher publisher = new AeronOutPublisher("server", clientPublication.sessionId(), serverSubscription, serverLoop);
+        AeronOutPublisher<DirectBuffer> publisher = new AeronOutPublisher<>("server", clientPublication.sessionId(), serverSubscription, serverLoop, AeronOutPublisher.COPY_TO_HEAP);
         publisher
                 .doOnNext(i -> countDownLatch.countDown())
                 .doOnError(Throwable::printStackTrace)
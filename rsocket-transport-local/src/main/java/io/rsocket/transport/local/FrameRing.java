@@ -0,0 +1,281 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.transport.local;
+
+import io.rsocket.Frame;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Operators;
+
+import javax.annotation.Nullable;
+import java.nio.channels.ClosedChannelException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded ring of {@link Frame}s carried by reference from the senders of one end of a local connection to the
+ * receiver of the other end.
+ * <p>
+ * Any number of threads may send, slots are claimed with a CAS on the producer index. There is a single consumer,
+ * the subscriber of this {@link Flux}, which is fed in batches up to its outstanding demand. A frame that does not fit
+ * because the ring is full is parked with its sender and moved into the ring, in order, once the consumer frees space,
+ * so senders are back pressured by the receiver. At most {@code capacity} frames are parked, a send that finds both
+ * the ring and the parked frames full fails with an overflow error instead of queueing without bound.
+ */
+final class FrameRing extends Flux<Frame> implements Subscription {
+    private static final AtomicLongFieldUpdater<FrameRing> PRODUCER_INDEX =
+        AtomicLongFieldUpdater.newUpdater(FrameRing.class, "producerIndex");
+    private static final AtomicLongFieldUpdater<FrameRing> CONSUMER_INDEX =
+        AtomicLongFieldUpdater.newUpdater(FrameRing.class, "consumerIndex");
+    private static final AtomicLongFieldUpdater<FrameRing> REQUESTED =
+        AtomicLongFieldUpdater.newUpdater(FrameRing.class, "requested");
+    private static final AtomicIntegerFieldUpdater<FrameRing> WIP =
+        AtomicIntegerFieldUpdater.newUpdater(FrameRing.class, "wip");
+    private static final AtomicIntegerFieldUpdater<FrameRing> SUBSCRIBED =
+        AtomicIntegerFieldUpdater.newUpdater(FrameRing.class, "subscribed");
+    private static final AtomicIntegerFieldUpdater<FrameRing> PARKED_COUNT =
+        AtomicIntegerFieldUpdater.newUpdater(FrameRing.class, "parkedCount");
+
+    private static final ClosedChannelException CLOSED_CHANNEL_EXCEPTION = new ClosedChannelException();
+
+    private final AtomicReferenceArray<Frame> buffer;
+    private final int capacity;
+    private final int mask;
+    private final Queue<Parked> parked;
+
+    private volatile long producerIndex;
+    private volatile long consumerIndex;
+    private volatile long requested;
+    private volatile int wip;
+    private volatile int subscribed;
+    private volatile int parkedCount;
+    private volatile boolean done;
+    private volatile boolean cancelled;
+    private @Nullable Subscriber<? super Frame> actual;
+
+    /**
+     * @param capacity number of frames the ring holds, rounded up to the next power of two, and number of frames that
+     * may be parked while it is full
+     */
+    FrameRing(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be greater than 0");
+        }
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.buffer = new AtomicReferenceArray<>(this.capacity);
+        this.parked = new ConcurrentLinkedQueue<>();
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Puts the frame into the ring if there is space and no earlier frame is parked.
+     *
+     * @return {@code false} if the frame was not accepted and must be {@link #park parked}
+     */
+    boolean trySend(Frame frame) {
+        if (done || !parked.isEmpty() || !offer(frame)) {
+            return false;
+        }
+        drain();
+        return true;
+    }
+
+    /**
+     * Parks a frame that {@link #trySend} did not accept. {@code onAccepted} runs once the frame is in the ring,
+     * {@code onRejected} if the ring is closed first or {@code capacity} frames are already parked, in which case the
+     * frame is released.
+     */
+    void park(Frame frame, Runnable onAccepted, Consumer<Throwable> onRejected) {
+        if (done) {
+            frame.release();
+            onRejected.accept(CLOSED_CHANNEL_EXCEPTION);
+            return;
+        }
+        if (PARKED_COUNT.incrementAndGet(this) > capacity) {
+            PARKED_COUNT.decrementAndGet(this);
+            frame.release();
+            onRejected.accept(Exceptions.failWithOverflow("FrameRing is full and " + capacity + " frames are parked"));
+            return;
+        }
+        parked.offer(new Parked(frame, onAccepted, onRejected));
+        drain();
+    }
+
+    /**
+     * Closes the ring. Frames already in the ring are still delivered before the subscriber completes, parked frames
+     * are rejected.
+     */
+    void close() {
+        done = true;
+        drain();
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super Frame> s) {
+        if (!SUBSCRIBED.compareAndSet(this, 0, 1)) {
+            Operators.error(s, new IllegalStateException("FrameRing allows only a single Subscriber"));
+            return;
+        }
+        s.onSubscribe(this);
+        actual = s;
+        drain();
+    }
+
+    @Override
+    public void request(long n) {
+        if (Operators.validate(n)) {
+            Operators.getAndAddCap(REQUESTED, this, n);
+            drain();
+        }
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        drain();
+    }
+
+    private boolean offer(Frame frame) {
+        for (;;) {
+            final long index = producerIndex;
+            if (index - consumerIndex >= capacity) {
+                return false;
+            }
+            if (PRODUCER_INDEX.compareAndSet(this, index, index + 1)) {
+                buffer.lazySet((int) index & mask, frame);
+                return true;
+            }
+        }
+    }
+
+    @Nullable
+    private Frame poll() {
+        final long index = consumerIndex;
+        final int offset = (int) index & mask;
+        final Frame frame = buffer.get(offset);
+        if (frame == null) {
+            // empty, or a producer claimed the slot but did not publish yet and drains once it did
+            return null;
+        }
+        buffer.lazySet(offset, null);
+        CONSUMER_INDEX.lazySet(this, index + 1);
+        return frame;
+    }
+
+    private void admitParked() {
+        Parked p;
+        while ((p = parked.peek()) != null && offer(p.frame)) {
+            parked.poll();
+            PARKED_COUNT.decrementAndGet(this);
+            p.onAccepted.run();
+        }
+    }
+
+    private void drain() {
+        if (WIP.getAndIncrement(this) != 0) {
+            return;
+        }
+
+        int missed = 1;
+        for (;;) {
+            if (cancelled) {
+                clear(CLOSED_CHANNEL_EXCEPTION);
+            } else {
+                final Subscriber<? super Frame> a = actual;
+                if (a != null) {
+                    final long r = requested;
+                    long e = 0;
+                    while (e != r) {
+                        final Frame frame = poll();
+                        if (frame == null) {
+                            break;
+                        }
+                        a.onNext(frame);
+                        e++;
+                        if (!parked.isEmpty()) {
+                            admitParked();
+                        }
+                        if (cancelled) {
+                            break;
+                        }
+                    }
+                    if (e != 0 && r != Long.MAX_VALUE) {
+                        REQUESTED.addAndGet(this, -e);
+                    }
+                }
+
+                if (done) {
+                    rejectParked(CLOSED_CHANNEL_EXCEPTION);
+                    if (a != null && !cancelled && isEmpty()) {
+                        cancelled = true;
+                        a.onComplete();
+                    }
+                } else if (!parked.isEmpty()) {
+                    admitParked();
+                }
+            }
+
+            missed = WIP.addAndGet(this, -missed);
+            if (missed == 0) {
+                break;
+            }
+        }
+    }
+
+    private boolean isEmpty() {
+        return consumerIndex == producerIndex;
+    }
+
+    private void clear(Throwable cause) {
+        Frame frame;
+        while ((frame = poll()) != null) {
+            frame.release();
+        }
+        rejectParked(cause);
+    }
+
+    private void rejectParked(Throwable cause) {
+        Parked p;
+        while ((p = parked.poll()) != null) {
+            PARKED_COUNT.decrementAndGet(this);
+            p.frame.release();
+            p.onRejected.accept(cause);
+        }
+    }
+
+    private static final class Parked {
+        private final Frame frame;
+        private final Runnable onAccepted;
+        private final Consumer<Throwable> onRejected;
+
+        private Parked(Frame frame, Runnable onAccepted, Consumer<Throwable> onRejected) {
+            this.frame = frame;
+            this.onAccepted = onAccepted;
+            this.onRejected = onRejected;
+        }
+    }
+}
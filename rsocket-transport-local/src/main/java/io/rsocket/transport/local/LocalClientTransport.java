@@ -10,20 +10,43 @@ import reactor.core.publisher.MonoProcessor;
 
 public class LocalClientTransport implements ClientTransport {
     private final String name;
+    private final int ringCapacity;
 
-    private LocalClientTransport(String name) {
+    private LocalClientTransport(String name, int ringCapacity) {
         this.name = name;
+        this.ringCapacity = ringCapacity;
     }
 
     public static LocalClientTransport create(String name) {
-        return new LocalClientTransport(name);
+        return new LocalClientTransport(name, 0);
+    }
+
+    /**
+     * Creates a transport whose connections exchange frames through bounded rings of {@code ringCapacity} frames in
+     * each direction instead of unbounded queues, senders wait while the ring of the receiver is full.
+     *
+     * @param name of the server to connect to
+     * @param ringCapacity number of frames each ring holds, rounded up to the next power of two
+     */
+    public static LocalClientTransport create(String name, int ringCapacity) {
+        if (ringCapacity < 1) {
+            throw new IllegalArgumentException("ringCapacity must be greater than 0");
+        }
+        return new LocalClientTransport(name, ringCapacity);
     }
 
     @Override
     public Mono<DuplexConnection> connect() {
         return Mono.defer(() -> {
             ServerDuplexConnectionAcceptor server = LocalServerTransport.findServer(name);
-            if (server != null) {
+            if (server != null && ringCapacity > 0) {
+                final FrameRing in = new FrameRing(ringCapacity);
+                final FrameRing out = new FrameRing(ringCapacity);
+                final MonoProcessor<Void> closeNotifier = MonoProcessor.create();
+                server.accept(new RingDuplexConnection(out, in, closeNotifier));
+                DuplexConnection client = new RingDuplexConnection(in, out, closeNotifier);
+                return Mono.just(client);
+            } else if (server != null) {
                 final UnicastProcessor<Frame> in = UnicastProcessor.create();
                 final UnicastProcessor<Frame> out = UnicastProcessor.create();
                 final MonoProcessor<Void> closeNotifier = MonoProcessor.create();
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.transport.local;
+
+import io.rsocket.DuplexConnection;
+import io.rsocket.Frame;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * Local connection exchanging frames through a pair of bounded {@link FrameRing}s. Sends complete once the frame is
+ * in the ring and wait while the ring is full, or fail once as many frames as the ring holds are waiting as well.
+ */
+public class RingDuplexConnection implements DuplexConnection {
+    private final FrameRing in;
+    private final FrameRing out;
+    private final MonoProcessor<Void> closeNotifier;
+
+    RingDuplexConnection(FrameRing in, FrameRing out, MonoProcessor<Void> closeNotifier) {
+        this.in = in;
+        this.out = out;
+        this.closeNotifier = closeNotifier;
+    }
+
+    @Override
+    public Mono<Void> send(Publisher<Frame> frames) {
+        return Mono.create(sink -> frames.subscribe(new SendSubscriber(out, sink)));
+    }
+
+    @Override
+    public Mono<Void> sendOne(Frame frame) {
+        return Mono.create(sink -> {
+            if (out.trySend(frame)) {
+                sink.success();
+            } else {
+                out.park(frame, sink::success, sink::error);
+            }
+        });
+    }
+
+    @Override
+    public Flux<Frame> receive() {
+        return in;
+    }
+
+    @Override
+    public Mono<Void> close() {
+        return Mono.defer(() -> {
+            out.close();
+            in.close();
+            closeNotifier.onComplete();
+            return closeNotifier;
+        });
+    }
+
+    @Override
+    public Mono<Void> onClose() {
+        return closeNotifier;
+    }
+
+    @Override
+    public double availability() {
+        return closeNotifier.isDisposed() ? 0.0 : 1.0;
+    }
+
+    /**
+     * Requests one frame at a time and only requests the next one once the previous frame was accepted by the ring.
+     */
+    private static final class SendSubscriber implements Subscriber<Frame>, Runnable {
+        private final FrameRing ring;
+        private final MonoSink<Void> sink;
+        private Subscription subscription;
+        private volatile boolean parked;
+        private volatile boolean done;
+
+        private SendSubscriber(FrameRing ring, MonoSink<Void> sink) {
+            this.ring = ring;
+            this.sink = sink;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+            sink.onCancel(s::cancel);
+            s.request(1);
+        }
+
+        @Override
+        public void onNext(Frame frame) {
+            if (ring.trySend(frame)) {
+                subscription.request(1);
+            } else {
+                parked = true;
+                ring.park(frame, this, t -> {
+                    subscription.cancel();
+                    sink.error(t);
+                });
+            }
+        }
+
+        /**
+         * Called once a parked frame was accepted.
+         */
+        @Override
+        public void run() {
+            parked = false;
+            if (done) {
+                sink.success();
+            } else {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            sink.error(t);
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            if (!parked) {
+                sink.success();
+            }
+        }
+    }
+}
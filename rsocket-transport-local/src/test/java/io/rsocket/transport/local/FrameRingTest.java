@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rsocket.transport.local;
+
+import io.reactivex.subscribers.TestSubscriber;
+import io.rsocket.Frame;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.MonoProcessor;
+
+import java.nio.channels.ClosedChannelException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class FrameRingTest {
+
+    @Test
+    public void testCapacityRoundedToPowerOfTwo() {
+        assertThat("Unexpected capacity.", new FrameRing(1).capacity(), is(1));
+        assertThat("Unexpected capacity.", new FrameRing(5).capacity(), is(8));
+        assertThat("Unexpected capacity.", new FrameRing(16).capacity(), is(16));
+    }
+
+    @Test
+    public void testDeliversInOrderUpToDemand() {
+        FrameRing ring = new FrameRing(8);
+        for (int i = 1; i <= 4; i++) {
+            assertThat("Frame not accepted.", ring.trySend(Frame.Cancel.from(i)), is(true));
+        }
+
+        TestSubscriber<Frame> subscriber = TestSubscriber.create(0);
+        ring.subscribe(subscriber);
+        subscriber.assertNoValues();
+
+        subscriber.request(3);
+        subscriber.assertValueCount(3);
+        assertThat("Unexpected stream id.", subscriber.values().get(2).getStreamId(), is(3));
+    }
+
+    @Test
+    public void testSendWaitsWhileRingIsFull() {
+        FrameRing in = new FrameRing(2);
+        FrameRing out = new FrameRing(2);
+        RingDuplexConnection connection = new RingDuplexConnection(in, out, MonoProcessor.create());
+
+        TestSubscriber<Void> send = TestSubscriber.create();
+        connection.send(Flux.range(1, 5).map(Frame.Cancel::from)).subscribe(send);
+        send.assertNotComplete();
+
+        TestSubscriber<Frame> receiver = TestSubscriber.create(0);
+        out.subscribe(receiver);
+        receiver.request(2);
+        receiver.assertValueCount(2);
+        send.assertNotComplete();
+
+        receiver.request(Long.MAX_VALUE);
+        receiver.assertValueCount(5);
+        send.assertComplete().assertNoErrors();
+        assertThat("Unexpected stream id.", receiver.values().get(4).getStreamId(), is(5));
+    }
+
+    @Test
+    public void testParkedSendFailsOnClose() {
+        FrameRing ring = new FrameRing(1);
+        RingDuplexConnection connection = new RingDuplexConnection(new FrameRing(1), ring, MonoProcessor.create());
+
+        TestSubscriber<Void> first = TestSubscriber.create();
+        TestSubscriber<Void> second = TestSubscriber.create();
+        connection.sendOne(Frame.Cancel.from(1)).subscribe(first);
+        connection.sendOne(Frame.Cancel.from(3)).subscribe(second);
+        first.assertComplete();
+        second.assertNotComplete();
+
+        connection.close().subscribe();
+        second.assertError(ClosedChannelException.class);
+    }
+
+    @Test
+    public void testSendFailsWhenParkedFramesAreFull() {
+        FrameRing ring = new FrameRing(1);
+        RingDuplexConnection connection = new RingDuplexConnection(new FrameRing(1), ring, MonoProcessor.create());
+
+        TestSubscriber<Void> first = TestSubscriber.create();
+        TestSubscriber<Void> second = TestSubscriber.create();
+        TestSubscriber<Void> third = TestSubscriber.create();
+        connection.sendOne(Frame.Cancel.from(1)).subscribe(first);
+        connection.sendOne(Frame.Cancel.from(3)).subscribe(second);
+        connection.sendOne(Frame.Cancel.from(5)).subscribe(third);
+        first.assertComplete();
+        second.assertNotTerminated();
+        third.assertError(IllegalStateException.class);
+
+        TestSubscriber<Frame> receiver = TestSubscriber.create();
+        ring.subscribe(receiver);
+        receiver.assertValueCount(2);
+        second.assertComplete();
+    }
+}
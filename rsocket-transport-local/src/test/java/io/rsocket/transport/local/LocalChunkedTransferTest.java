@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.transport.local;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.rsocket.AbstractRSocket;
+import io.rsocket.Closeable;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.RSocketFactory;
+import io.rsocket.util.PayloadChunks;
+import io.rsocket.util.PayloadImpl;
+import org.junit.After;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class LocalChunkedTransferTest {
+    private static final int CHUNK_SIZE = 1024;
+
+    private final byte[] content = new byte[256 * CHUNK_SIZE + 17];
+    private Closeable server;
+
+    @After
+    public void tearDown() {
+        if (server != null) {
+            server.close().block();
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void testUploadAndDownload() {
+        ThreadLocalRandom.current().nextBytes(content);
+        server = RSocketFactory
+            .receive()
+            .fragment(CHUNK_SIZE)
+            .acceptor((setup, sendingSocket) -> Mono.just(new AbstractRSocket() {
+                @Override
+                public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+                    // echoes the uploaded content back in chunks of another size
+                    return PayloadChunks.toPayloads(PayloadChunks.toChunks(payloads), CHUNK_SIZE / 2,
+                                                    ByteBufAllocator.DEFAULT);
+                }
+            }))
+            .transport(LocalServerTransport.create("chunked-test"))
+            .start()
+            .block();
+
+        RSocket client = RSocketFactory
+            .connect()
+            .fragment(CHUNK_SIZE)
+            .transport(LocalClientTransport.create("chunked-test"))
+            .start()
+            .block();
+
+        Flux<ByteBuf> upload = Flux.range(0, content.length / 1000 + 1)
+            .map(i -> Unpooled.wrappedBuffer(content, i * 1000, Math.min(1000, content.length - i * 1000)));
+        byte[] downloaded = PayloadChunks
+            .toChunks(client.requestChannel(PayloadChunks.toPayloads(upload, CHUNK_SIZE, ByteBufAllocator.DEFAULT)))
+            .reduce(Unpooled.buffer(), (all, chunk) -> {
+                all.writeBytes(chunk);
+                chunk.release();
+                return all;
+            })
+            .map(all -> {
+                byte[] bytes = new byte[all.readableBytes()];
+                all.readBytes(bytes);
+                return bytes;
+            })
+            .block();
+
+        assertThat("Unexpected content.", downloaded, equalTo(content));
+    }
+}
@@ -28,6 +28,13 @@ public class LocalClientSetupRule extends ClientSetupRule<String> {
     private static final AtomicInteger uniqueNameGenerator = new AtomicInteger();
 
     public LocalClientSetupRule() {
+        this(0);
+    }
+
+    /**
+     * @param ringCapacity capacity of the frame rings, {@code 0} to use the default local connections
+     */
+    public LocalClientSetupRule(int ringCapacity) {
         super(
             // This needs to be called twice before it increments
             // - once for the client and once for the server
@@ -47,7 +54,9 @@ public class LocalClientSetupRule extends ClientSetupRule<String> {
             address ->
                 RSocketFactory
                     .connect()
-                    .transport(LocalClientTransport.create(address))
+                    .transport(ringCapacity > 0
+                        ? LocalClientTransport.create(address, ringCapacity)
+                        : LocalClientTransport.create(address))
                     .start()
                     .block(),
             address ->
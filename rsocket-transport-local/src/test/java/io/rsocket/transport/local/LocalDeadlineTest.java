@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.transport.local;
+
+import io.rsocket.AbstractRSocket;
+import io.rsocket.Closeable;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.RSocketFactory;
+import io.rsocket.util.Deadlines;
+import io.rsocket.util.PayloadImpl;
+import org.junit.After;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class LocalDeadlineTest {
+    private final AtomicBoolean negotiated = new AtomicBoolean();
+    private Closeable server;
+
+    @After
+    public void tearDown() {
+        if (server != null) {
+            server.close().block();
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void testNegotiatedDeadlinesLeaveMetadataUnchanged() {
+        RSocket client = start("deadline-test", RSocketFactory.connect().honorDeadlines());
+
+        assertThat("Deadlines not negotiated.", negotiated.get(), is(true));
+        assertMetadataReceived(client);
+    }
+
+    @Test(timeout = 10_000)
+    public void testDeadlinesNotSentWithoutNegotiation() {
+        RSocket client = start("no-deadline-test", RSocketFactory.connect());
+
+        assertThat("Deadlines negotiated.", negotiated.get(), is(false));
+        assertMetadataReceived(client);
+    }
+
+    private RSocket start(String name, RSocketFactory.ClientRSocketFactory clientFactory) {
+        server = RSocketFactory
+            .receive()
+            .acceptor((setup, sendingSocket) -> {
+                negotiated.set(setup.willClientHonorDeadlines());
+                return Mono.just(new AbstractRSocket() {
+                    @Override
+                    public Mono<Payload> requestResponse(Payload payload) {
+                        // echoes the metadata the handler received
+                        ByteBuffer metadata = ByteBuffer.allocate(payload.getMetadata().remaining());
+                        metadata.put(payload.getMetadata()).flip();
+                        return Mono.just(new PayloadImpl(metadata));
+                    }
+                });
+            })
+            .transport(LocalServerTransport.create(name))
+            .start()
+            .block();
+
+        return clientFactory
+            .transport(LocalClientTransport.create(name))
+            .start()
+            .block();
+    }
+
+    private static void assertMetadataReceived(RSocket client) {
+        Payload withDeadline =
+            Deadlines.withDeadline(new PayloadImpl("data", "metadata"), System.currentTimeMillis() + 10_000);
+        assertThat("Unexpected metadata.", client.requestResponse(withDeadline).block().getData(),
+                   equalTo(ByteBuffer.wrap("metadata".getBytes(StandardCharsets.UTF_8))));
+
+        // application metadata starting like a deadline
+        ByteBuffer marked = ByteBuffer.allocate(13);
+        marked.putInt(0x444c4e31).putLong(42L).put((byte) 1).flip();
+        assertThat("Unexpected metadata.",
+                   client.requestResponse(new PayloadImpl(ByteBuffer.allocate(0), marked.duplicate())).block()
+                       .getData(),
+                   equalTo(marked));
+    }
+}
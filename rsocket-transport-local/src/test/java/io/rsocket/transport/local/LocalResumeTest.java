@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.transport.local;
+
+import io.rsocket.AbstractRSocket;
+import io.rsocket.Closeable;
+import io.rsocket.DuplexConnection;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.RSocketFactory;
+import io.rsocket.transport.ClientTransport;
+import io.rsocket.util.PayloadImpl;
+import org.junit.After;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class LocalResumeTest {
+    private Closeable server;
+
+    @After
+    public void tearDown() {
+        if (server != null) {
+            server.close().block();
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void testStreamContinuesAfterConnectionDrop() {
+        server = RSocketFactory
+            .receive()
+            .resume()
+            .acceptor((setup, sendingSocket) -> Mono.just(new AbstractRSocket() {
+                @Override
+                public Flux<Payload> requestStream(Payload payload) {
+                    return Flux.interval(Duration.ofMillis(10)).map(i -> new PayloadImpl(String.valueOf(i)));
+                }
+            }))
+            .transport(LocalServerTransport.create("resume-test"))
+            .start()
+            .block();
+
+        AtomicReference<DuplexConnection> connection = new AtomicReference<>();
+        ClientTransport transport = () -> LocalClientTransport.create("resume-test").connect().doOnNext(connection::set);
+        RSocket client = RSocketFactory
+            .connect()
+            .resume()
+            .transport(transport)
+            .start()
+            .block();
+
+        DuplexConnection first = connection.get();
+        List<String> received = client
+            .requestStream(PayloadImpl.EMPTY)
+            .map(payload -> StandardCharsets.UTF_8.decode(payload.getData()).toString())
+            .doOnNext(data -> {
+                if ("5".equals(data)) {
+                    first.close().subscribe();
+                }
+            })
+            .take(20)
+            .collectList()
+            .block();
+
+        List<String> expected = IntStream.range(0, 20).mapToObj(String::valueOf).collect(Collectors.toList());
+        assertThat("Frames lost or repeated across the drop.", received, equalTo(expected));
+        assertThat("Client did not reconnect.", connection.get() != first, equalTo(true));
+        client.close().block();
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.transport.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.internal.PendingWrite;
+import io.netty.util.internal.PlatformDependent;
+import io.rsocket.Frame;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.ipc.netty.NettyPipeline;
+
+import javax.annotation.Nullable;
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Function;
+
+/**
+ * Writes frames to a {@link Channel} without flushing each of them. Frames are queued from any thread and drained on
+ * the event loop, which writes every frame that is ready and then issues a single flush, letting the transport
+ * gather the whole batch into one syscall. A batch ends when the queue is empty or when {@code maxBatchSize} frames
+ * or {@code maxBatchBytes} bytes were written, remaining frames are drained in a later event loop task so other
+ * channels on the same loop are not starved.
+ * <p>
+ * Writes bypass the reactive bridge of reactor-netty, which flushes every single write. The defaults can be changed
+ * with the {@value #MAX_BATCH_SIZE_PROPERTY} and {@value #MAX_BATCH_BYTES_PROPERTY} system properties.
+ */
+public class BatchingFrameSender {
+    public static final String MAX_BATCH_SIZE_PROPERTY = "io.rsocket.transport.netty.maxBatchSize";
+    public static final String MAX_BATCH_BYTES_PROPERTY = "io.rsocket.transport.netty.maxBatchBytes";
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = Integer.getInteger(MAX_BATCH_SIZE_PROPERTY, 256);
+    public static final int DEFAULT_MAX_BATCH_BYTES = Integer.getInteger(MAX_BATCH_BYTES_PROPERTY, 64 * 1024);
+
+    private static final AtomicIntegerFieldUpdater<BatchingFrameSender> SCHEDULED =
+        AtomicIntegerFieldUpdater.newUpdater(BatchingFrameSender.class, "scheduled");
+
+    private final Channel channel;
+    private final Function<ByteBuf, ?> encoder;
+    private final int maxBatchSize;
+    private final int maxBatchBytes;
+    private final Queue<PendingWrite> queue;
+    private final Runnable drainTask;
+
+    private @Nullable ChannelHandlerContext context;
+    private volatile int scheduled;
+
+    public BatchingFrameSender(Channel channel, Function<ByteBuf, ?> encoder) {
+        this(channel, encoder, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_BATCH_BYTES);
+    }
+
+    public BatchingFrameSender(Channel channel, Function<ByteBuf, ?> encoder, int maxBatchSize, int maxBatchBytes) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be greater than 0");
+        }
+        if (maxBatchBytes < 1) {
+            throw new IllegalArgumentException("maxBatchBytes must be greater than 0");
+        }
+        this.channel = channel;
+        this.encoder = encoder;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchBytes = maxBatchBytes;
+        this.queue = PlatformDependent.newMpscQueue();
+        this.drainTask = this::drain;
+    }
+
+    public Mono<Void> sendOne(Frame frame) {
+        return Mono.create(sink -> {
+            final ChannelPromise promise = channel.newPromise();
+            promise.addListener(future -> {
+                if (future.isSuccess()) {
+                    sink.success();
+                } else {
+                    sink.error(future.cause());
+                }
+            });
+            enqueue(frame.content(), promise);
+        });
+    }
+
+    public Mono<Void> send(Publisher<Frame> frames) {
+        return Mono.create(sink -> frames.subscribe(new SendSubscriber(this, sink)));
+    }
+
+    private void enqueue(ByteBuf content, ChannelPromise promise) {
+        queue.offer(PendingWrite.newInstance(content, promise));
+        schedule();
+    }
+
+    private void schedule() {
+        if (SCHEDULED.compareAndSet(this, 0, 1)) {
+            try {
+                channel.eventLoop().execute(drainTask);
+            } catch (RejectedExecutionException e) {
+                scheduled = 0;
+                discard(e);
+            }
+        }
+    }
+
+    private void drain() {
+        // cleared before polling so that frames offered from now on schedule another drain
+        scheduled = 0;
+
+        final ChannelHandlerContext ctx = context();
+        int count = 0;
+        long bytes = 0;
+        PendingWrite write;
+        while (count < maxBatchSize && bytes < maxBatchBytes && (write = queue.poll()) != null) {
+            final ByteBuf content = (ByteBuf) write.msg();
+            bytes += content.readableBytes();
+            count++;
+
+            final ChannelPromise promise = (ChannelPromise) write.recycleAndGet();
+            if (ctx != null) {
+                ctx.write(encoder.apply(content), promise);
+            } else {
+                channel.write(encoder.apply(content), promise);
+            }
+        }
+
+        if (count > 0) {
+            if (ctx != null) {
+                ctx.flush();
+            } else {
+                channel.flush();
+            }
+        }
+
+        if (!queue.isEmpty()) {
+            schedule();
+        }
+    }
+
+    private void discard(Throwable cause) {
+        PendingWrite write;
+        while ((write = queue.poll()) != null) {
+            write.failAndRecycle(cause);
+        }
+    }
+
+    @Nullable
+    private ChannelHandlerContext context() {
+        ChannelHandlerContext ctx = context;
+        if (ctx == null || ctx.isRemoved()) {
+            ctx = channel.pipeline().context(NettyPipeline.ReactiveBridge);
+            context = ctx;
+        }
+        return ctx;
+    }
+
+    /**
+     * Subscribes to the frames of a {@link #send(Publisher)} and keeps at most {@code maxBatchSize} of them queued,
+     * requesting more as writes complete. The send completes once the publisher completed and every frame was written.
+     * It fails with the first error of the publisher or of a write, later errors are ignored.
+     */
+    private static final class SendSubscriber implements Subscriber<Frame>, ChannelFutureListener {
+        private static final AtomicIntegerFieldUpdater<SendSubscriber> OUTSTANDING =
+            AtomicIntegerFieldUpdater.newUpdater(SendSubscriber.class, "outstanding");
+        private static final AtomicIntegerFieldUpdater<SendSubscriber> TERMINATED =
+            AtomicIntegerFieldUpdater.newUpdater(SendSubscriber.class, "terminated");
+
+        private final BatchingFrameSender sender;
+        private final MonoSink<Void> sink;
+        private final int maxBatchSize;
+        private final int limit;
+        private @Nullable Subscription subscription;
+        private volatile int outstanding;
+        private volatile boolean done;
+        private volatile int terminated;
+
+        // only accessed on the event loop, which runs the write listeners
+        private int produced;
+
+        private SendSubscriber(BatchingFrameSender sender, MonoSink<Void> sink) {
+            this.sender = sender;
+            this.sink = sink;
+            this.maxBatchSize = sender.maxBatchSize;
+            this.limit = Math.max(1, maxBatchSize >> 1);
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+            sink.onCancel(s::cancel);
+            s.request(maxBatchSize);
+        }
+
+        @Override
+        public void onNext(Frame frame) {
+            OUTSTANDING.incrementAndGet(this);
+            sender.enqueue(frame.content(), sender.channel.newPromise().addListener(this));
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (TERMINATED.compareAndSet(this, 0, 1)) {
+                sink.error(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            if (outstanding == 0) {
+                complete();
+            }
+        }
+
+        @Override
+        public void operationComplete(ChannelFuture future) {
+            if (!future.isSuccess()) {
+                if (TERMINATED.compareAndSet(this, 0, 1)) {
+                    subscription.cancel();
+                    sink.error(future.cause());
+                }
+                return;
+            }
+
+            final int remaining = OUTSTANDING.decrementAndGet(this);
+            if (++produced == limit) {
+                produced = 0;
+                subscription.request(limit);
+            }
+            if (done && remaining == 0) {
+                complete();
+            }
+        }
+
+        private void complete() {
+            if (TERMINATED.compareAndSet(this, 0, 1)) {
+                sink.success();
+            }
+        }
+    }
+}
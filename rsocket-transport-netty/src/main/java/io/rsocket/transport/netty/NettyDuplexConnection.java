@@ -15,6 +15,7 @@
  */
 package io.rsocket.transport.netty;
 
+import io.netty.buffer.ByteBufAllocator;
 import io.rsocket.DuplexConnection;
 import io.rsocket.Frame;
 import org.reactivestreams.Publisher;
@@ -24,28 +25,38 @@ import reactor.ipc.netty.NettyContext;
 import reactor.ipc.netty.NettyInbound;
 import reactor.ipc.netty.NettyOutbound;
 
+import java.util.function.Function;
+
 public class NettyDuplexConnection implements DuplexConnection {
     private final NettyInbound in;
     private final NettyOutbound out;
     private final NettyContext context;
+    private final BatchingFrameSender sender;
 
     public NettyDuplexConnection(NettyInbound in, NettyOutbound out, NettyContext context) {
+        this(in, out, context, BatchingFrameSender.DEFAULT_MAX_BATCH_SIZE, BatchingFrameSender.DEFAULT_MAX_BATCH_BYTES);
+    }
+
+    /**
+     * @param maxBatchSize maximum number of frames written to the channel before it is flushed
+     * @param maxBatchBytes number of bytes written to the channel after which it is flushed
+     */
+    public NettyDuplexConnection(NettyInbound in, NettyOutbound out, NettyContext context, int maxBatchSize,
+        int maxBatchBytes) {
         this.in = in;
         this.out = out;
         this.context = context;
+        this.sender = new BatchingFrameSender(context.channel(), Function.identity(), maxBatchSize, maxBatchBytes);
     }
 
     @Override
     public Mono<Void> send(Publisher<Frame> frames) {
-        return Flux.from(frames)
-            .concatMap(this::sendOne)
-            .then();
+        return sender.send(frames);
     }
 
     @Override
     public Mono<Void> sendOne(Frame frame) {
-        return out.sendObject(frame.content())
-            .then();
+        return sender.sendOne(frame);
     }
 
     @Override
@@ -55,6 +66,15 @@ public class NettyDuplexConnection implements DuplexConnection {
             .map(buf -> Frame.from(buf.retain()));
     }
 
+    /**
+     * Returns the allocator of the underlying channel, so frames are encoded into buffers from the arena of the
+     * event loop that writes them.
+     */
+    @Override
+    public ByteBufAllocator alloc() {
+        return context.channel().alloc();
+    }
+
     @Override
     public Mono<Void> close() {
         return Mono.fromRunnable(() -> {
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ * <p>
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ *  the License. You may obtain a copy of the License at
+ *  <p>
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *  <p>
+ *  Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ *  specific language governing permissions and limitations under the License.
+ */
+
+package io.rsocket.transport.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import io.reactivex.subscribers.TestSubscriber;
+import io.rsocket.Frame;
+import io.rsocket.FrameType;
+import io.rsocket.util.PayloadImpl;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class BatchingFrameSenderTest {
+
+    private EmbeddedChannel channel;
+    private FlushCounter flushCounter;
+
+    @Before
+    public void setUp() {
+        flushCounter = new FlushCounter();
+        channel = new EmbeddedChannel(flushCounter);
+    }
+
+    @Test
+    public void testSingleFlushPerBatch() {
+        BatchingFrameSender sender = new BatchingFrameSender(channel, Function.identity());
+        TestSubscriber<Void> subscriber = TestSubscriber.create();
+
+        sender.send(Flux.range(1, 10).map(i -> Frame.PayloadFrame.from(1, FrameType.NEXT, new PayloadImpl("" + i))))
+            .subscribe(subscriber);
+        channel.runPendingTasks();
+
+        subscriber.assertComplete().assertNoErrors();
+        assertThat("Unexpected frames written.", releaseOutbound(), is(10));
+        assertThat("Unexpected flushes.", flushCounter.flushes, is(1));
+    }
+
+    @Test
+    public void testFlushWhenBatchSizeReached() {
+        BatchingFrameSender sender = new BatchingFrameSender(channel, Function.identity(), 4, Integer.MAX_VALUE);
+        TestSubscriber<Void> subscriber = TestSubscriber.create();
+
+        sender.send(Flux.range(1, 10).map(i -> Frame.PayloadFrame.from(1, FrameType.NEXT, new PayloadImpl("" + i))))
+            .subscribe(subscriber);
+        channel.runPendingTasks();
+
+        subscriber.assertComplete().assertNoErrors();
+        assertThat("Unexpected frames written.", releaseOutbound(), is(10));
+        assertThat("Unexpected flushes.", flushCounter.flushes, is(3));
+    }
+
+    @Test
+    public void testSendOneCoalescedWithinTick() {
+        BatchingFrameSender sender = new BatchingFrameSender(channel, Function.identity());
+        TestSubscriber<Void> first = TestSubscriber.create();
+        TestSubscriber<Void> second = TestSubscriber.create();
+
+        sender.sendOne(Frame.Cancel.from(1)).subscribe(first);
+        sender.sendOne(Frame.Cancel.from(3)).subscribe(second);
+        first.assertNotComplete();
+        channel.runPendingTasks();
+
+        first.assertComplete().assertNoErrors();
+        second.assertComplete().assertNoErrors();
+        assertThat("Unexpected frames written.", releaseOutbound(), is(2));
+        assertThat("Unexpected flushes.", flushCounter.flushes, is(1));
+    }
+
+    @Test
+    public void testSendFailsOnceForFailedWrites() {
+        EmbeddedChannel failing = new EmbeddedChannel(new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+                ReferenceCountUtil.release(msg);
+                promise.setFailure(new IOException("write failed"));
+            }
+        });
+        BatchingFrameSender sender = new BatchingFrameSender(failing, Function.identity());
+        TestSubscriber<Void> subscriber = TestSubscriber.create();
+
+        sender.send(Flux.range(1, 10).map(i -> Frame.PayloadFrame.from(1, FrameType.NEXT, new PayloadImpl("" + i))))
+            .subscribe(subscriber);
+        failing.runPendingTasks();
+
+        subscriber.assertError(IOException.class);
+        subscriber.assertNotComplete();
+    }
+
+    private int releaseOutbound() {
+        int count = 0;
+        ByteBuf written;
+        while ((written = channel.readOutbound()) != null) {
+            written.release();
+            count++;
+        }
+        return count;
+    }
+
+    private static class FlushCounter extends ChannelOutboundHandlerAdapter {
+        private int flushes;
+
+        @Override
+        public void flush(ChannelHandlerContext ctx) throws Exception {
+            flushes++;
+            super.flush(ctx);
+        }
+    }
+}
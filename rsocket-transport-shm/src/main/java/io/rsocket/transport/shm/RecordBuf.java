@@ -0,0 +1,42 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.transport.shm;
+
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.buffer.UnpooledDirectByteBuf;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Buffer over a record of a {@link ShmRing} that gives the record back to the ring when it is released.
+ */
+final class RecordBuf extends UnpooledDirectByteBuf {
+    private final ShmRing ring;
+    private final int recordIndex;
+
+    RecordBuf(ByteBuffer record, ShmRing ring, int recordIndex) {
+        super(UnpooledByteBufAllocator.DEFAULT, record, record.remaining());
+        this.ring = ring;
+        this.recordIndex = recordIndex;
+    }
+
+    @Override
+    protected void deallocate() {
+        super.deallocate();
+        ring.release(recordIndex);
+    }
+}
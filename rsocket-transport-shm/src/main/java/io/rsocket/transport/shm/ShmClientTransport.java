@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.transport.shm;
+
+import io.netty.buffer.Unpooled;
+import io.rsocket.DuplexConnection;
+import io.rsocket.transport.ClientTransport;
+import org.agrona.concurrent.IdleStrategy;
+import reactor.core.publisher.Mono;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Client end of the shared memory transport. Each connection is a file in the directory of the server holding a ring
+ * per direction, announced to the server through its accept ring.
+ */
+public class ShmClientTransport implements ClientTransport {
+    static final int DEFAULT_RING_CAPACITY = 1024 * 1024;
+
+    private final File directory;
+    private final int ringCapacity;
+    private final ShmPoller poller;
+
+    private ShmClientTransport(File directory, int ringCapacity, IdleStrategy idleStrategy) {
+        this.directory = directory;
+        this.ringCapacity = ringCapacity;
+        this.poller = new ShmPoller("rsocket-shm-client-" + directory.getName(), idleStrategy);
+    }
+
+    public static ShmClientTransport create(File directory) {
+        return create(directory, DEFAULT_RING_CAPACITY, ShmPoller::defaultIdleStrategy);
+    }
+
+    /**
+     * @param directory of the server to connect to
+     * @param ringCapacity size in bytes of the ring in each direction of a connection, a power of two, bounds the size
+     * of a single frame
+     * @param idleStrategySupplier supplies the strategy the polling thread of the connections idles with
+     */
+    public static ShmClientTransport create(File directory, int ringCapacity, Supplier<IdleStrategy> idleStrategySupplier) {
+        if (Integer.bitCount(ringCapacity) != 1 || ringCapacity < ShmRing.TRAILER_LENGTH) {
+            throw new IllegalArgumentException(
+                "ringCapacity must be a power of two of at least " + ShmRing.TRAILER_LENGTH);
+        }
+        return new ShmClientTransport(directory, ringCapacity, idleStrategySupplier.get());
+    }
+
+    @Override
+    public Mono<DuplexConnection> connect() {
+        return Mono.fromCallable(this::connectNow);
+    }
+
+    private DuplexConnection connectNow() {
+        final File acceptFile = new File(directory, ShmServerTransport.ACCEPT_FILE_NAME);
+        if (!acceptFile.exists()) {
+            throw new IllegalArgumentException("Could not find server: " + directory);
+        }
+
+        final String name = UUID.randomUUID() + ".rsocket";
+        final ShmDuplexConnection connection = ShmDuplexConnection.create(new File(directory, name), ringCapacity, poller);
+
+        // closing the connection deletes its file
+        final MappedByteBuffer acceptRegion;
+        try {
+            acceptRegion = ShmFiles.mapExisting(acceptFile);
+        } catch (RuntimeException e) {
+            connection.close().subscribe();
+            throw new IllegalArgumentException("Could not find server: " + directory, e);
+        }
+        try {
+            final ShmRing acceptRing = new ShmRing(acceptRegion, 0, ShmServerTransport.ACCEPT_RING_CAPACITY);
+            if (!acceptRing.tryWrite(Unpooled.wrappedBuffer(name.getBytes(StandardCharsets.UTF_8)))) {
+                connection.close().subscribe();
+                throw new IllegalStateException("Accept ring of server is full: " + directory);
+            }
+        } finally {
+            ShmFiles.unmap(acceptRegion);
+        }
+
+        return connection;
+    }
+}
@@ -0,0 +1,396 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.transport.shm;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.rsocket.DuplexConnection;
+import io.rsocket.Frame;
+import io.rsocket.FrameType;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.Operators;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.Consumer;
+
+/**
+ * Connection between two processes on the same host through a memory-mapped file holding one {@link ShmRing} per
+ * direction.
+ * <p>
+ * Outbound frames are copied into the ring of the peer and released. Inbound frames are slices of the mapped file, the
+ * space they occupy is only given back to the peer once they are released, so holding on to a received frame holds
+ * back the sender. {@link FrameType#SETUP} frames, which are kept for the lifetime of a connection, are copied out of
+ * the ring. All reads, and writes that did not fit into the ring right away, are done by the {@link ShmPoller} of the
+ * transport. The file is unmapped once the connection is closed and all frames received from it are released.
+ */
+public class ShmDuplexConnection implements DuplexConnection, ShmPoller.Pollable {
+    private static final int MAGIC = 0x52534d31;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int RING_CAPACITY_OFFSET = 4;
+    private static final int CLIENT_CLOSED_OFFSET = 8;
+    private static final int SERVER_CLOSED_OFFSET = 12;
+    private static final int HEADER_LENGTH = 128;
+
+    private static final int MAX_READ_BATCH = 64;
+
+    private static final ClosedChannelException CLOSED_CHANNEL_EXCEPTION = new ClosedChannelException();
+
+    private final File file;
+    private final boolean server;
+    private final ShmMapping mapping;
+    private final UnsafeBuffer header;
+    private final ShmRing in;
+    private final ShmRing out;
+    private final ShmPoller poller;
+    private final Queue<Pending> pending;
+    private final Receiver receiver;
+    private final MonoProcessor<Void> onClose;
+
+    private volatile boolean closing;
+    private volatile boolean closed;
+
+    private ShmDuplexConnection(File file, MappedByteBuffer region, boolean server, ShmPoller poller) {
+        this.file = file;
+        this.server = server;
+        this.mapping = new ShmMapping(region);
+        this.header = new UnsafeBuffer(region, 0, HEADER_LENGTH);
+        final int ringCapacity = header.getInt(RING_CAPACITY_OFFSET);
+        final ShmRing clientToServer = new ShmRing(mapping, HEADER_LENGTH, ringCapacity);
+        final ShmRing serverToClient = new ShmRing(mapping, HEADER_LENGTH + ShmRing.length(ringCapacity), ringCapacity);
+        this.in = server ? clientToServer : serverToClient;
+        this.out = server ? serverToClient : clientToServer;
+        this.poller = poller;
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.receiver = new Receiver();
+        this.onClose = MonoProcessor.create();
+    }
+
+    /**
+     * Creates and maps the file of a new connection, the client end.
+     */
+    static ShmDuplexConnection create(File file, int ringCapacity, ShmPoller poller) {
+        final MappedByteBuffer region = ShmFiles.mapNew(file, HEADER_LENGTH + 2L * ShmRing.length(ringCapacity));
+        final UnsafeBuffer header = new UnsafeBuffer(region, 0, HEADER_LENGTH);
+        header.putInt(RING_CAPACITY_OFFSET, ringCapacity);
+        header.putIntOrdered(MAGIC_OFFSET, MAGIC);
+
+        ShmDuplexConnection connection = new ShmDuplexConnection(file, region, false, poller);
+        poller.register(connection);
+        return connection;
+    }
+
+    /**
+     * Maps the file of a connection created by a client, the server end.
+     */
+    static ShmDuplexConnection open(File file, ShmPoller poller) {
+        final MappedByteBuffer region = ShmFiles.mapExisting(file);
+        if (new UnsafeBuffer(region, 0, HEADER_LENGTH).getIntVolatile(MAGIC_OFFSET) != MAGIC) {
+            throw new IllegalStateException("Not an initialized connection file: " + file);
+        }
+
+        ShmDuplexConnection connection = new ShmDuplexConnection(file, region, true, poller);
+        poller.register(connection);
+        return connection;
+    }
+
+    @Override
+    public Mono<Void> send(Publisher<Frame> frames) {
+        return Mono.create(sink -> frames.subscribe(new SendSubscriber(this, sink)));
+    }
+
+    @Override
+    public Mono<Void> sendOne(Frame frame) {
+        return Mono.create(sink -> write(frame, sink::success, sink::error));
+    }
+
+    @Override
+    public Flux<Frame> receive() {
+        return receiver;
+    }
+
+    @Override
+    public Mono<Void> close() {
+        return Mono.defer(() -> {
+            closing = true;
+            if (mapping.tryRetain()) {
+                try {
+                    header.putIntOrdered(server ? SERVER_CLOSED_OFFSET : CLIENT_CLOSED_OFFSET, 1);
+                } finally {
+                    mapping.release();
+                }
+            }
+            return onClose;
+        });
+    }
+
+    @Override
+    public Mono<Void> onClose() {
+        return onClose;
+    }
+
+    @Override
+    public double availability() {
+        return closing || closed ? 0.0 : 1.0;
+    }
+
+    /**
+     * Copies the frame into the ring of the peer, or queues it to be written by the poller in order once there is
+     * space. {@code onAccepted} runs once the frame is in the ring, {@code onRejected} if it can not be written.
+     */
+    private void write(Frame frame, Runnable onAccepted, Consumer<Throwable> onRejected) {
+        final ByteBuf content = frame.content();
+        if (closing || closed) {
+            frame.release();
+            onRejected.accept(CLOSED_CHANNEL_EXCEPTION);
+        } else if (content.readableBytes() > out.maxRecordLength()) {
+            frame.release();
+            onRejected.accept(new IllegalArgumentException(
+                "Frame of " + content.readableBytes() + " bytes exceeds the ring capacity of " + out.capacity()
+                    + " bytes, use fragmentation."));
+        } else if (pending.isEmpty() && tryWrite(content)) {
+            frame.release();
+            onAccepted.run();
+        } else {
+            pending.offer(new Pending(frame, onAccepted, onRejected));
+            if (closed) {
+                rejectPending();
+            }
+        }
+    }
+
+    /**
+     * Writes to the ring of the peer from any thread, unless the connection was closed and its file unmapped.
+     */
+    private boolean tryWrite(ByteBuf content) {
+        if (!mapping.tryRetain()) {
+            return false;
+        }
+        try {
+            return out.tryWrite(content);
+        } finally {
+            mapping.release();
+        }
+    }
+
+    @Override
+    public int poll() {
+        if (closing || header.getIntVolatile(server ? CLIENT_CLOSED_OFFSET : SERVER_CLOSED_OFFSET) != 0) {
+            terminate();
+            return 1;
+        }
+
+        int work = in.reclaim();
+
+        Pending p;
+        while ((p = pending.peek()) != null && out.tryWrite(p.frame.content())) {
+            pending.poll();
+            p.frame.release();
+            p.onAccepted.run();
+            work++;
+        }
+
+        final long r = receiver.requested;
+        if (r > 0 && receiver.actual != null && !receiver.cancelled) {
+            final int read = in.read(receiver, (int) Math.min(r, MAX_READ_BATCH));
+            if (read != 0 && r != Long.MAX_VALUE) {
+                Receiver.REQUESTED.addAndGet(receiver, -read);
+            }
+            work += read;
+        }
+
+        return work;
+    }
+
+    private void terminate() {
+        closed = true;
+        poller.deregister(this);
+        header.putIntOrdered(server ? SERVER_CLOSED_OFFSET : CLIENT_CLOSED_OFFSET, 1);
+        rejectPending();
+        receiver.complete();
+        // whichever end closes first deletes the file, also if the server never accepted the connection
+        file.delete();
+        mapping.release();
+        onClose.onComplete();
+    }
+
+    private void rejectPending() {
+        Pending p;
+        while ((p = pending.poll()) != null) {
+            p.frame.release();
+            p.onRejected.accept(CLOSED_CHANNEL_EXCEPTION);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ShmDuplexConnection{file=" + file + ", server=" + server + '}';
+    }
+
+    /**
+     * Single subscriber of the inbound frames, only signalled by the poller.
+     */
+    private static final class Receiver extends Flux<Frame> implements Subscription, Consumer<ByteBuf> {
+        private static final AtomicLongFieldUpdater<Receiver> REQUESTED =
+            AtomicLongFieldUpdater.newUpdater(Receiver.class, "requested");
+        private static final AtomicIntegerFieldUpdater<Receiver> SUBSCRIBED =
+            AtomicIntegerFieldUpdater.newUpdater(Receiver.class, "subscribed");
+        private static final AtomicIntegerFieldUpdater<Receiver> TERMINATED =
+            AtomicIntegerFieldUpdater.newUpdater(Receiver.class, "terminated");
+
+        private volatile @Nullable Subscriber<? super Frame> actual;
+        private volatile long requested;
+        private volatile int subscribed;
+        private volatile int terminated;
+        private volatile boolean done;
+        private volatile boolean cancelled;
+
+        @Override
+        public void subscribe(Subscriber<? super Frame> s) {
+            if (!SUBSCRIBED.compareAndSet(this, 0, 1)) {
+                Operators.error(s, new IllegalStateException("ShmDuplexConnection allows only a single Subscriber"));
+                return;
+            }
+            s.onSubscribe(this);
+            actual = s;
+            if (done) {
+                complete();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n)) {
+                Operators.getAndAddCap(REQUESTED, this, n);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public void accept(ByteBuf record) {
+            Frame frame = Frame.from(record);
+            if (frame.getType() == FrameType.SETUP) {
+                final Frame copy = Frame.from(Unpooled.copiedBuffer(record));
+                frame.release();
+                frame = copy;
+            }
+
+            final Subscriber<? super Frame> a = actual;
+            if (a == null || cancelled) {
+                frame.release();
+            } else {
+                a.onNext(frame);
+            }
+        }
+
+        void complete() {
+            done = true;
+            final Subscriber<? super Frame> a = actual;
+            if (a != null && TERMINATED.compareAndSet(this, 0, 1) && !cancelled) {
+                a.onComplete();
+            }
+        }
+    }
+
+    private static final class Pending {
+        private final Frame frame;
+        private final Runnable onAccepted;
+        private final Consumer<Throwable> onRejected;
+
+        private Pending(Frame frame, Runnable onAccepted, Consumer<Throwable> onRejected) {
+            this.frame = frame;
+            this.onAccepted = onAccepted;
+            this.onRejected = onRejected;
+        }
+    }
+
+    /**
+     * Requests one frame at a time and only requests the next one once the previous frame was written to the ring.
+     */
+    private static final class SendSubscriber implements Subscriber<Frame>, Runnable {
+        private final ShmDuplexConnection connection;
+        private final MonoSink<Void> sink;
+        private Subscription subscription;
+        private volatile boolean writing;
+        private volatile boolean done;
+
+        private SendSubscriber(ShmDuplexConnection connection, MonoSink<Void> sink) {
+            this.connection = connection;
+            this.sink = sink;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+            sink.onCancel(s::cancel);
+            s.request(1);
+        }
+
+        @Override
+        public void onNext(Frame frame) {
+            writing = true;
+            connection.write(frame, this, t -> {
+                subscription.cancel();
+                sink.error(t);
+            });
+        }
+
+        /**
+         * Called once a frame was written.
+         */
+        @Override
+        public void run() {
+            writing = false;
+            if (done) {
+                sink.success();
+            } else {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            sink.error(t);
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            if (!writing) {
+                sink.success();
+            }
+        }
+    }
+}
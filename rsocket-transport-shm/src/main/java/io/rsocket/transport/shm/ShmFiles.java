@@ -0,0 +1,69 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.transport.shm;
+
+import io.netty.util.internal.PlatformDependent;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Maps the files shared by the processes of a connection. Frames received from a ring may outlive the connection, so
+ * the mapping of a connection is a {@link ShmMapping} that is unmapped once the connection is closed and the last of
+ * them is released. Mappings that nothing is read from can be {@link #unmap unmapped} right away.
+ */
+final class ShmFiles {
+    private ShmFiles() {}
+
+    /**
+     * Creates a new zero filled file of {@code length} bytes and maps it.
+     */
+    static MappedByteBuffer mapNew(File file, long length) {
+        if (file.exists()) {
+            throw new IllegalStateException("File already exists: " + file);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(length);
+            return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Maps the whole of an existing file, without creating it if it was deleted.
+     */
+    static MappedByteBuffer mapExisting(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Unmaps a mapping that is not accessed anymore, neither directly nor through a buffer derived from it.
+     */
+    static void unmap(MappedByteBuffer buffer) {
+        PlatformDependent.freeDirectBuffer(buffer);
+    }
+}
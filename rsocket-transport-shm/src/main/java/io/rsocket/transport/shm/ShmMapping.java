@@ -0,0 +1,72 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.transport.shm;
+
+import java.nio.MappedByteBuffer;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A mapped file that is unmapped once it is released by everything accessing it: the connection or listener it was
+ * mapped for, which holds the initial reference, writes in progress and the records handed out by its rings.
+ */
+final class ShmMapping {
+    private static final AtomicIntegerFieldUpdater<ShmMapping> REF_CNT =
+        AtomicIntegerFieldUpdater.newUpdater(ShmMapping.class, "refCnt");
+
+    private final MappedByteBuffer region;
+
+    private volatile int refCnt = 1;
+
+    ShmMapping(MappedByteBuffer region) {
+        this.region = region;
+    }
+
+    MappedByteBuffer region() {
+        return region;
+    }
+
+    int refCnt() {
+        return refCnt;
+    }
+
+    /**
+     * @return {@code false} if the file was unmapped already and must not be accessed anymore
+     */
+    boolean tryRetain() {
+        for (;;) {
+            final int r = refCnt;
+            if (r == 0) {
+                return false;
+            }
+            if (REF_CNT.compareAndSet(this, r, r + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Unmaps the file once the last reference is released.
+     */
+    void release() {
+        final int r = REF_CNT.decrementAndGet(this);
+        if (r == 0) {
+            ShmFiles.unmap(region);
+        } else if (r < 0) {
+            throw new IllegalStateException("ShmMapping released more often than retained");
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.transport.shm;
+
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Daemon thread busy polling the rings of a transport. It is started when the first {@link Pollable} is registered,
+ * idles with an {@link IdleStrategy} while there is no work and exits once nothing is registered anymore.
+ */
+final class ShmPoller implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(ShmPoller.class);
+
+    interface Pollable {
+        /**
+         * Performs the pending work without blocking.
+         *
+         * @return amount of work done, {@code 0} if there was nothing to do
+         */
+        int poll();
+    }
+
+    private final String name;
+    private final IdleStrategy idleStrategy;
+    private final CopyOnWriteArrayList<Pollable> pollables;
+    private @Nullable Thread thread;
+
+    ShmPoller(String name, IdleStrategy idleStrategy) {
+        this.name = name;
+        this.idleStrategy = idleStrategy;
+        this.pollables = new CopyOnWriteArrayList<>();
+    }
+
+    static IdleStrategy defaultIdleStrategy() {
+        return new BackoffIdleStrategy(100, 10, TimeUnit.MICROSECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    synchronized void register(Pollable pollable) {
+        pollables.add(pollable);
+        if (thread == null) {
+            thread = new Thread(this, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    void deregister(Pollable pollable) {
+        pollables.remove(pollable);
+    }
+
+    @Override
+    public void run() {
+        for (;;) {
+            synchronized (this) {
+                if (pollables.isEmpty()) {
+                    thread = null;
+                    return;
+                }
+            }
+
+            int work = 0;
+            for (Pollable pollable : pollables) {
+                try {
+                    work += pollable.poll();
+                } catch (Throwable t) {
+                    logger.error("Error polling " + pollable + ", removing it.", t);
+                    deregister(pollable);
+                }
+            }
+            idleStrategy.idle(work);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.transport.shm;
+
+import io.netty.buffer.ByteBuf;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * Lock-free ring of variable length records in a region of shared memory, written by any number of threads or
+ * processes and read by a single consumer.
+ * <p>
+ * Records are read in place: the consumer is handed a {@link ByteBuf} over the record in the mapped region, and the
+ * space of the record is only given back to producers once that buffer is released. Records are released in any
+ * order, the head of the ring advances over every contiguous released record. A record retains the {@link ShmMapping}
+ * of the ring, if any, until it is released.
+ *
+ * <h2>Layout</h2>
+ * {@code capacity} bytes of records followed by a trailer holding the tail and head positions on separate cache
+ * lines. Each record starts with an 8 byte header, the record length followed by its type, and is aligned to 8 bytes.
+ * A producer claims space by moving the tail with a CAS, writes the record and then publishes it with an ordered write
+ * of the length. A record that does not fit before the end of the ring is preceded by a padding record up to the end.
+ */
+final class ShmRing {
+    static final int TAIL_POSITION_OFFSET = 0;
+    static final int HEAD_POSITION_OFFSET = 128;
+    static final int TRAILER_LENGTH = 256;
+
+    static final int RECORD_HEADER_LENGTH = 8;
+    static final int RECORD_ALIGNMENT = 8;
+
+    private static final int TYPE_OFFSET = 4;
+    private static final int TYPE_PADDING = 1;
+    private static final int TYPE_RECORD = 2;
+    private static final int TYPE_RELEASED = 3;
+
+    private final UnsafeBuffer buffer;
+    private final ByteBuffer region;
+    private final @Nullable ShmMapping mapping;
+    private final int offset;
+    private final int capacity;
+    private final int mask;
+    private final int tailPositionIndex;
+    private final int headPositionIndex;
+
+    // consumer position, ahead of the head by the records handed out and not released yet
+    private long readPosition;
+
+    /**
+     * @param region mapped memory containing the ring
+     * @param offset of the ring in {@code region}
+     * @param capacity of the ring, a power of two
+     */
+    ShmRing(ByteBuffer region, int offset, int capacity) {
+        this(region, null, offset, capacity);
+    }
+
+    /**
+     * @param mapping mapping containing the ring, retained by the records read until they are released
+     * @param offset of the ring in the mapping
+     * @param capacity of the ring, a power of two
+     */
+    ShmRing(ShmMapping mapping, int offset, int capacity) {
+        this(mapping.region(), mapping, offset, capacity);
+    }
+
+    private ShmRing(ByteBuffer region, @Nullable ShmMapping mapping, int offset, int capacity) {
+        if (Integer.bitCount(capacity) != 1 || capacity < TRAILER_LENGTH) {
+            throw new IllegalArgumentException("capacity must be a power of two of at least " + TRAILER_LENGTH);
+        }
+        this.region = region;
+        this.mapping = mapping;
+        this.buffer = new UnsafeBuffer(region);
+        this.offset = offset;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.tailPositionIndex = offset + capacity + TAIL_POSITION_OFFSET;
+        this.headPositionIndex = offset + capacity + HEAD_POSITION_OFFSET;
+        this.readPosition = buffer.getLongVolatile(headPositionIndex);
+    }
+
+    static int length(int capacity) {
+        return capacity + TRAILER_LENGTH;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Largest content that fits into a single record.
+     */
+    int maxRecordLength() {
+        return capacity - RECORD_HEADER_LENGTH;
+    }
+
+    /**
+     * Copies the readable bytes of {@code content} into a new record, component by component if it is a composite.
+     *
+     * @return {@code false} if the ring has no space for the record
+     */
+    boolean tryWrite(ByteBuf content) {
+        final int length = content.readableBytes();
+        if (length > maxRecordLength()) {
+            throw new IllegalArgumentException("record of " + length + " bytes exceeds the capacity of the ring");
+        }
+
+        final int recordLength = length + RECORD_HEADER_LENGTH;
+        final int required = align(recordLength);
+
+        long tail;
+        int padding;
+        int index;
+        do {
+            final long head = buffer.getLongVolatile(headPositionIndex);
+            tail = buffer.getLongVolatile(tailPositionIndex);
+            final int available = capacity - (int) (tail - head);
+            if (required > available) {
+                return false;
+            }
+
+            padding = 0;
+            index = (int) tail & mask;
+            final int toEnd = capacity - index;
+            if (required > toEnd) {
+                if (required + toEnd > available) {
+                    return false;
+                }
+                padding = toEnd;
+            }
+        } while (!buffer.compareAndSetLong(tailPositionIndex, tail, tail + padding + required));
+
+        if (padding != 0) {
+            buffer.putInt(offset + index + TYPE_OFFSET, TYPE_PADDING);
+            buffer.putIntOrdered(offset + index, padding);
+            index = 0;
+        }
+
+        final int recordIndex = offset + index;
+        buffer.putInt(recordIndex + TYPE_OFFSET, TYPE_RECORD);
+        if (content.hasArray()) {
+            buffer.putBytes(
+                recordIndex + RECORD_HEADER_LENGTH, content.array(), content.arrayOffset() + content.readerIndex(), length);
+        } else {
+            // the components of a composite, e.g. the header and payload slices of a fragment, are not merged first
+            int componentIndex = recordIndex + RECORD_HEADER_LENGTH;
+            for (ByteBuffer component : content.nioBuffers()) {
+                final int componentLength = component.remaining();
+                buffer.putBytes(componentIndex, component, componentLength);
+                componentIndex += componentLength;
+            }
+        }
+        buffer.putIntOrdered(recordIndex, recordLength);
+
+        return true;
+    }
+
+    /**
+     * Hands up to {@code limit} published records to {@code consumer}, each as a buffer over the record that must be
+     * released to give the space back. Only called by the consumer.
+     *
+     * @return number of records read
+     */
+    int read(Consumer<ByteBuf> consumer, int limit) {
+        // records that were read but not reclaimed yet are still in place one lap ahead of the read position
+        final long tail = buffer.getLongVolatile(tailPositionIndex);
+        int count = 0;
+        while (count < limit && readPosition < tail) {
+            final int index = (int) readPosition & mask;
+            final int recordIndex = offset + index;
+            final int recordLength = buffer.getIntVolatile(recordIndex);
+            if (recordLength <= 0) {
+                break;
+            }
+
+            readPosition += align(recordLength);
+            if (buffer.getInt(recordIndex + TYPE_OFFSET) == TYPE_PADDING) {
+                continue;
+            }
+
+            if (mapping != null && !mapping.tryRetain()) {
+                break;
+            }
+            final ByteBuffer view = region.duplicate();
+            view.limit(recordIndex + recordLength).position(recordIndex + RECORD_HEADER_LENGTH);
+            consumer.accept(new RecordBuf(view.slice(), this, recordIndex));
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Marks the record at {@code recordIndex} as released, may be called from any thread.
+     */
+    void release(int recordIndex) {
+        buffer.putIntOrdered(recordIndex + TYPE_OFFSET, TYPE_RELEASED);
+        if (mapping != null) {
+            mapping.release();
+        }
+    }
+
+    /**
+     * Gives the space of released records at the head of the ring back to producers. Only called by the consumer.
+     *
+     * @return number of bytes reclaimed
+     */
+    int reclaim() {
+        final long head = buffer.getLongVolatile(headPositionIndex);
+        long position = head;
+        while (position < readPosition) {
+            final int recordIndex = offset + ((int) position & mask);
+            final int type = buffer.getIntVolatile(recordIndex + TYPE_OFFSET);
+            if (type == TYPE_RECORD) {
+                break;
+            }
+            final int length = align(buffer.getInt(recordIndex));
+            buffer.setMemory(recordIndex, length, (byte) 0);
+            position += length;
+        }
+
+        if (position != head) {
+            buffer.putLongOrdered(headPositionIndex, position);
+        }
+        return (int) (position - head);
+    }
+
+    private static int align(int length) {
+        return (length + RECORD_ALIGNMENT - 1) & -RECORD_ALIGNMENT;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.transport.shm;
+
+import io.netty.buffer.ByteBuf;
+import io.rsocket.Closeable;
+import io.rsocket.transport.ServerTransport;
+import org.agrona.concurrent.IdleStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Server end of the shared memory transport. The server owns a directory with an {@code accept} ring through which
+ * clients announce the files of new connections. Closing the server closes the connections it accepted.
+ */
+public class ShmServerTransport implements ServerTransport<Closeable> {
+    private static final Logger logger = LoggerFactory.getLogger(ShmServerTransport.class);
+
+    static final String ACCEPT_FILE_NAME = "accept";
+    static final int ACCEPT_RING_CAPACITY = 64 * 1024;
+
+    private final File directory;
+    private final Supplier<IdleStrategy> idleStrategySupplier;
+
+    private ShmServerTransport(File directory, Supplier<IdleStrategy> idleStrategySupplier) {
+        this.directory = directory;
+        this.idleStrategySupplier = idleStrategySupplier;
+    }
+
+    public static ShmServerTransport create(File directory) {
+        return create(directory, ShmPoller::defaultIdleStrategy);
+    }
+
+    /**
+     * @param directory shared with the clients, holding the accept ring and the connection files
+     * @param idleStrategySupplier supplies the strategy the polling thread of a started server idles with
+     */
+    public static ShmServerTransport create(File directory, Supplier<IdleStrategy> idleStrategySupplier) {
+        return new ShmServerTransport(directory, idleStrategySupplier);
+    }
+
+    @Override
+    public Mono<Closeable> start(ConnectionAcceptor acceptor) {
+        return Mono
+            .create(sink -> {
+                final File acceptFile = new File(directory, ACCEPT_FILE_NAME);
+                if (!directory.isDirectory() && !directory.mkdirs()) {
+                    throw new IllegalStateException("Could not create directory: " + directory);
+                }
+                if (acceptFile.exists()) {
+                    throw new IllegalStateException("server already running in: " + directory);
+                }
+
+                final ShmMapping acceptMapping =
+                    new ShmMapping(ShmFiles.mapNew(acceptFile, ShmRing.length(ACCEPT_RING_CAPACITY)));
+                final ShmPoller poller = new ShmPoller("rsocket-shm-server-" + directory.getName(), idleStrategySupplier.get());
+                final ConnectionListener listener = new ConnectionListener(acceptFile, acceptMapping, poller, acceptor);
+                poller.register(listener);
+                sink.success(listener);
+            });
+    }
+
+    /**
+     * Opens the connections announced in the accept ring.
+     */
+    private class ConnectionListener implements ShmPoller.Pollable, Consumer<ByteBuf>, Closeable {
+        private static final int MAX_ACCEPT_BATCH = 16;
+
+        private final File acceptFile;
+        private final ShmMapping acceptMapping;
+        private final ShmRing acceptRing;
+        private final ShmPoller poller;
+        private final ConnectionAcceptor acceptor;
+        private final MonoProcessor<Void> closeNotifier = MonoProcessor.create();
+        private final Set<ShmDuplexConnection> connections = ConcurrentHashMap.newKeySet();
+        private volatile boolean closing;
+
+        private ConnectionListener(File acceptFile, ShmMapping acceptMapping, ShmPoller poller,
+                                   ConnectionAcceptor acceptor) {
+            this.acceptFile = acceptFile;
+            this.acceptMapping = acceptMapping;
+            this.acceptRing = new ShmRing(acceptMapping, 0, ACCEPT_RING_CAPACITY);
+            this.poller = poller;
+            this.acceptor = acceptor;
+        }
+
+        @Override
+        public int poll() {
+            if (closing) {
+                terminate();
+                return 1;
+            }
+            return acceptRing.reclaim() + acceptRing.read(this, MAX_ACCEPT_BATCH);
+        }
+
+        /**
+         * Closes the connections accepted so far and those already announced, then stops listening.
+         */
+        private void terminate() {
+            while (acceptRing.read(this, MAX_ACCEPT_BATCH) != 0) {
+                // announced connections are closed as they are accepted
+            }
+            poller.deregister(this);
+            acceptFile.delete();
+            acceptMapping.release();
+            for (ShmDuplexConnection connection : connections) {
+                connection.close().subscribe();
+            }
+            closeNotifier.onComplete();
+        }
+
+        @Override
+        public void accept(ByteBuf record) {
+            final String name = record.toString(StandardCharsets.UTF_8);
+            record.release();
+
+            final File file = new File(directory, name);
+            try {
+                final ShmDuplexConnection connection = ShmDuplexConnection.open(file, poller);
+                connections.add(connection);
+                connection.onClose().doFinally(s -> connections.remove(connection)).subscribe();
+                if (closing) {
+                    connection.close().subscribe();
+                    return;
+                }
+                acceptor.apply(connection).subscribe();
+            } catch (Throwable t) {
+                logger.error("Could not accept connection " + file, t);
+            }
+        }
+
+        @Override
+        public Mono<Void> close() {
+            return Mono
+                .defer(() -> {
+                    // the poller thread is the only reader of the accept ring, it finishes the close
+                    closing = true;
+                    return closeNotifier;
+                });
+        }
+
+        @Override
+        public Mono<Void> onClose() {
+            return closeNotifier;
+        }
+    }
+}
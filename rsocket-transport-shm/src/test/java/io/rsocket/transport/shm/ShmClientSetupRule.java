@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rsocket.transport.shm;
+
+import io.rsocket.Closeable;
+import io.rsocket.RSocketFactory;
+import io.rsocket.test.ClientSetupRule;
+import io.rsocket.test.TestRSocket;
+import reactor.core.publisher.Mono;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+public class ShmClientSetupRule extends ClientSetupRule<File> {
+
+    private final Directory directory;
+
+    public ShmClientSetupRule() {
+        this(new Directory());
+    }
+
+    private ShmClientSetupRule(Directory directory) {
+        super(
+            directory,
+            dir ->
+                RSocketFactory
+                    .connect()
+                    .transport(ShmClientTransport.create(dir, 64 * 1024, ShmPoller::defaultIdleStrategy))
+                    .start()
+                    .block(),
+            dir ->
+                directory.server = RSocketFactory
+                    .receive()
+                    .acceptor((setup, sendingSocket) -> Mono.just(new TestRSocket()))
+                    .transport(ShmServerTransport.create(dir))
+                    .start()
+                    .block()
+        );
+        this.directory = directory;
+    }
+
+    @Override
+    protected void after() {
+        if (directory.server != null) {
+            directory.server.close().block();
+        }
+        directory.delete();
+    }
+
+    /**
+     * This needs to be called twice before it creates a new directory - once for the server and once for the client.
+     */
+    private static class Directory implements Supplier<File> {
+        private File current;
+        private File created;
+        private Closeable server;
+
+        @Override
+        public File get() {
+            if (current != null) {
+                File directory = current;
+                current = null;
+                return directory;
+            }
+            try {
+                current = Files.createTempDirectory("rsocket-shm").toFile();
+                created = current;
+                return current;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void delete() {
+            if (created == null) {
+                return;
+            }
+            try (Stream<Path> paths = Files.walk(created.toPath())) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            created = null;
+        }
+    }
+}
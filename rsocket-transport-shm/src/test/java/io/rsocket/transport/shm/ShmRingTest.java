@@ -0,0 +1,134 @@
+/*
+ * Copyright 2016 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rsocket.transport.shm;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class ShmRingTest {
+
+    private ShmRing ring;
+    private List<ByteBuf> records;
+
+    @Before
+    public void setUp() {
+        ring = new ShmRing(ByteBuffer.allocateDirect(ShmRing.length(256)), 0, 256);
+        records = new ArrayList<>();
+    }
+
+    @Test
+    public void testReadsRecordsInOrder() {
+        for (int i = 1; i <= 3; i++) {
+            assertThat("Record not written.", ring.tryWrite(Unpooled.copiedBuffer("record" + i, StandardCharsets.UTF_8)), is(true));
+        }
+
+        assertThat("Unexpected records read.", ring.read(records::add, 2), is(2));
+        assertThat("Unexpected records read.", ring.read(records::add, 10), is(1));
+        for (int i = 0; i < 3; i++) {
+            assertThat("Unexpected content.", records.get(i).toString(StandardCharsets.UTF_8), is("record" + (i + 1)));
+        }
+    }
+
+    @Test
+    public void testSpaceReclaimedAfterRelease() {
+        int written = 0;
+        while (ring.tryWrite(Unpooled.wrappedBuffer(new byte[24]))) {
+            written++;
+        }
+        assertThat("Unexpected records written.", written, is(8));
+        assertThat("Unexpected records read.", ring.read(records::add, Integer.MAX_VALUE), is(8));
+
+        assertThat("Unreleased records reclaimed.", ring.reclaim(), is(0));
+        assertThat("Record written into a full ring.", ring.tryWrite(Unpooled.wrappedBuffer(new byte[24])), is(false));
+
+        records.get(1).release();
+        assertThat("Records reclaimed out of order.", ring.reclaim(), is(0));
+        records.get(0).release();
+        assertThat("Unexpected bytes reclaimed.", ring.reclaim(), is(64));
+        assertThat("Record not written.", ring.tryWrite(Unpooled.wrappedBuffer(new byte[24])), is(true));
+    }
+
+    @Test
+    public void testRecordWrapsAroundEnd() {
+        for (int i = 0; i < 2; i++) {
+            assertThat("Record not written.", ring.tryWrite(Unpooled.wrappedBuffer(new byte[100])), is(true));
+        }
+        ring.read(records::add, Integer.MAX_VALUE);
+        records.forEach(ByteBuf::release);
+        records.clear();
+        ring.reclaim();
+
+        byte[] content = new byte[100];
+        content[0] = 1;
+        content[99] = 2;
+        assertThat("Record not written.", ring.tryWrite(Unpooled.wrappedBuffer(content)), is(true));
+        assertThat("Unexpected records read.", ring.read(records::add, Integer.MAX_VALUE), is(1));
+
+        ByteBuf record = records.get(0);
+        assertThat("Unexpected length.", record.readableBytes(), is(100));
+        assertThat("Unexpected content.", record.getByte(0), is((byte) 1));
+        assertThat("Unexpected content.", record.getByte(99), is((byte) 2));
+    }
+
+    @Test
+    public void testCopiesCompositeContent() {
+        ByteBuf content = Unpooled.wrappedBuffer(
+            Unpooled.directBuffer().writeBytes("head".getBytes(StandardCharsets.UTF_8)),
+            Unpooled.directBuffer().writeBytes("body".getBytes(StandardCharsets.UTF_8)));
+        assertThat("Record not written.", ring.tryWrite(content), is(true));
+        content.release();
+
+        ring.read(records::add, 1);
+        assertThat("Unexpected content.", records.get(0).toString(StandardCharsets.UTF_8), is("headbody"));
+    }
+
+    @Test
+    public void testRecordsRetainTheMapping() throws IOException {
+        File file = File.createTempFile("shm-ring", ".test");
+        file.delete();
+        ShmMapping mapping = new ShmMapping(ShmFiles.mapNew(file, ShmRing.length(256)));
+        try {
+            ShmRing mapped = new ShmRing(mapping, 0, 256);
+            mapped.tryWrite(Unpooled.copiedBuffer("record", StandardCharsets.UTF_8));
+            mapped.read(records::add, 1);
+            assertThat("Record does not retain the mapping.", mapping.refCnt(), is(2));
+
+            mapping.release();
+            assertThat("Unexpected content.", records.get(0).toString(StandardCharsets.UTF_8), is("record"));
+            records.get(0).release();
+            assertThat("Mapping not unmapped.", mapping.refCnt(), is(0));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRecordLargerThanRing() {
+        ring.tryWrite(Unpooled.wrappedBuffer(new byte[256]));
+    }
+}